@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,6 +24,7 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.list.IObservableList;
+import org.eclipse.core.internal.databinding.observable.sideeffect.PropagationScheduler;
 
 /**
  * A Lazily calculated value that automatically computes and registers listeners
@@ -188,6 +189,8 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 
 	private Object valueType;
 
+	private PropagationScheduler scheduler;
+
 	@Override
 	protected final T doGetValue() {
 		if (dirty) {
@@ -210,6 +213,13 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 
 			dependencies = newDependencies;
 
+			// Let side-effects depending on this value run after those
+			// depending on its dependencies
+			if (scheduler == null) {
+				scheduler = PropagationScheduler.getInstance(getRealm());
+			}
+			scheduler.computed(this, newDependencies);
+
 			dirty = false;
 		}
 
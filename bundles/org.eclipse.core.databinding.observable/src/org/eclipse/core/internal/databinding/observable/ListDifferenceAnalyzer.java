@@ -0,0 +1,636 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+
+/**
+ * Computes the sequence of {@link ListDiffEntry list diff entries} that
+ * transforms one list state into another.
+ * <p>
+ * Small lists are handled by the incremental analyzer adapted from EMF's
+ * ListDifferenceAnalyzer, whose output existing clients have come to rely on.
+ * Larger lists are handled by an edit script computed with Myers' O(ND)
+ * difference algorithm (linear space variant), after common prefixes and
+ * suffixes have been stripped and elements that only occur in one of the two
+ * lists have been discarded. Removed elements which are added again elsewhere
+ * are reported as adjacent remove/add entries, so that
+ * {@link org.eclipse.core.databinding.observable.list.ListDiff#accept} reports
+ * them as moves.
+ */
+public class ListDifferenceAnalyzer {
+
+	/**
+	 * Lists whose combined size does not exceed this limit are diffed with the
+	 * incremental analyzer.
+	 */
+	static final int INCREMENTAL_ANALYZER_LIMIT = 200;
+
+	/**
+	 * Lower bound on the number of edit steps explored while looking for a
+	 * middle snake before the search settles for an approximate split.
+	 */
+	private static final int MIN_COST_LIMIT = 256;
+
+	/**
+	 * Computes the differences between the given lists and appends them to
+	 * <code>listDiffs</code>.
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @param listDiffs
+	 *            the list receiving the diff entries
+	 */
+	public static <E> void createListDiffs(List<? extends E> oldList, List<? extends E> newList,
+			List<ListDiffEntry<E>> listDiffs) {
+		if (oldList.size() + newList.size() <= INCREMENTAL_ANALYZER_LIMIT) {
+			createIncrementalListDiffs(oldList, newList, listDiffs);
+		} else {
+			createEditScriptListDiffs(oldList, newList, listDiffs);
+		}
+	}
+
+	/**
+	 * Computes the differences between the given lists with the incremental
+	 * analyzer adapted from EMF's ListDifferenceAnalyzer. The running time of
+	 * this analyzer is quadratic in the size of the lists.
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @param listDiffs
+	 *            the list receiving the diff entries
+	 */
+	public static <E> void createIncrementalListDiffs(List<? extends E> oldList, List<? extends E> newList,
+			List<ListDiffEntry<E>> listDiffs) {
+		List<E> workingList = new ArrayList<E>(oldList);
+		int index = 0;
+		for (E newValue : newList) {
+			if (workingList.size() <= index) {
+				// append newValue to newList
+				listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+			} else {
+				boolean done;
+				do {
+					done = true;
+					E oldValue = workingList.get(index);
+					if (oldValue == null ? newValue != null : !oldValue
+							.equals(newValue)) {
+						int oldIndexOfNewValue = listIndexOf(workingList, newValue,
+								index);
+						if (oldIndexOfNewValue != -1) {
+							int newIndexOfOldValue = listIndexOf(newList,
+									oldValue, index);
+							if (newIndexOfOldValue == -1) {
+								// removing oldValue from list[index]
+								listDiffs.add(Diffs.createListDiffEntry(index, false,
+										oldValue));
+								workingList.remove(index);
+								done = false;
+							} else if (newIndexOfOldValue > oldIndexOfNewValue) {
+								// moving oldValue from list[index] to
+								// [newIndexOfOldValue]
+								if (workingList.size() <= newIndexOfOldValue) {
+									// The element cannot be moved to the
+									// correct index
+									// now, however later iterations will insert
+									// elements
+									// in front of it, eventually moving it into
+									// the
+									// correct spot.
+									newIndexOfOldValue = workingList.size() - 1;
+								}
+								listDiffs.add(Diffs.createListDiffEntry(index, false,
+										oldValue));
+								workingList.remove(index);
+								listDiffs.add(Diffs.createListDiffEntry(
+										newIndexOfOldValue, true, oldValue));
+								workingList.add(newIndexOfOldValue, oldValue);
+								done = false;
+							} else {
+								// move newValue from list[oldIndexOfNewValue]
+								// to [index]
+								listDiffs.add(Diffs.createListDiffEntry(
+										oldIndexOfNewValue, false, newValue));
+								workingList.remove(oldIndexOfNewValue);
+								listDiffs.add(Diffs.createListDiffEntry(index, true,
+										newValue));
+								workingList.add(index, newValue);
+							}
+						} else {
+							// add newValue at list[index]
+							workingList.add(index, newValue);
+							listDiffs.add(Diffs.createListDiffEntry(index, true,
+									newValue));
+						}
+					}
+				} while (!done);
+			}
+			++index;
+		}
+		for (int i = workingList.size(); i > index;) {
+			// remove excess trailing elements not present in newList
+			listDiffs.add(Diffs.createListDiffEntry(--i, false, workingList.get(i)));
+		}
+	}
+
+	/**
+	 * @param list
+	 * @param object
+	 * @param index
+	 * @return the index, or -1 if not found
+	 */
+	private static <E> int listIndexOf(List<E> list, Object object, int index) {
+		int size = list.size();
+		for (int i = index; i < size; i++) {
+			Object candidate = list.get(i);
+			if (candidate == null ? object == null : candidate.equals(object)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Computes the differences between the given lists from a Myers edit
+	 * script. The running time is O((N+M) + D*K) where D is the number of
+	 * changed elements and K is bounded by a cost limit derived from the list
+	 * sizes; the result is minimal unless that limit is exceeded.
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @param listDiffs
+	 *            the list receiving the diff entries
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> void createEditScriptListDiffs(List<? extends E> oldList, List<? extends E> newList,
+			List<ListDiffEntry<E>> listDiffs) {
+		Object[] oldElements = oldList.toArray();
+		Object[] newElements = newList.toArray();
+
+		int prefix = 0;
+		int maxPrefix = Math.min(oldElements.length, newElements.length);
+		while (prefix < maxPrefix && Util.equals(oldElements[prefix], newElements[prefix])) {
+			prefix++;
+		}
+		int suffix = 0;
+		int maxSuffix = maxPrefix - prefix;
+		while (suffix < maxSuffix && Util.equals(oldElements[oldElements.length - 1 - suffix],
+				newElements[newElements.length - 1 - suffix])) {
+			suffix++;
+		}
+		int oldLength = oldElements.length - prefix - suffix;
+		int newLength = newElements.length - prefix - suffix;
+		if (oldLength == 0 && newLength == 0) {
+			return;
+		}
+
+		// Replace elements by dense integer ids so that the comparison loops
+		// below never call equals().
+		Map<Object, Integer> ids = new HashMap<>();
+		int[] oldIds = new int[oldLength];
+		int[] newIds = new int[newLength];
+		for (int i = 0; i < oldLength; i++) {
+			oldIds[i] = internElement(ids, oldElements[prefix + i]);
+		}
+		for (int j = 0; j < newLength; j++) {
+			newIds[j] = internElement(ids, newElements[prefix + j]);
+		}
+
+		boolean[] inOld = new boolean[ids.size()];
+		boolean[] inNew = new boolean[ids.size()];
+		for (int id : oldIds) {
+			inOld[id] = true;
+		}
+		for (int id : newIds) {
+			inNew[id] = true;
+		}
+
+		// Elements occurring in only one of the lists can never be part of the
+		// longest common subsequence. Mark them up front and run the edit
+		// script search on the shared elements only.
+		boolean[] removed = new boolean[oldLength];
+		boolean[] added = new boolean[newLength];
+		int[] sharedOld = new int[oldLength];
+		int[] sharedOldIndex = new int[oldLength];
+		int sharedOldCount = 0;
+		for (int i = 0; i < oldLength; i++) {
+			if (inNew[oldIds[i]]) {
+				sharedOld[sharedOldCount] = oldIds[i];
+				sharedOldIndex[sharedOldCount++] = i;
+			} else {
+				removed[i] = true;
+			}
+		}
+		int[] sharedNew = new int[newLength];
+		int[] sharedNewIndex = new int[newLength];
+		int sharedNewCount = 0;
+		for (int j = 0; j < newLength; j++) {
+			if (inOld[newIds[j]]) {
+				sharedNew[sharedNewCount] = newIds[j];
+				sharedNewIndex[sharedNewCount++] = j;
+			} else {
+				added[j] = true;
+			}
+		}
+
+		EditScript script = new EditScript(sharedOld, sharedOldCount, sharedNew, sharedNewCount);
+		script.compute();
+		for (int k = 0; k < sharedOldCount; k++) {
+			if (script.removed[k]) {
+				removed[sharedOldIndex[k]] = true;
+			}
+		}
+		for (int k = 0; k < sharedNewCount; k++) {
+			if (script.added[k]) {
+				added[sharedNewIndex[k]] = true;
+			}
+		}
+
+		// Pair removed elements with added elements of the same value so they
+		// can be reported as moves.
+		int[] firstRemoved = new int[ids.size()];
+		int[] lastRemoved = new int[ids.size()];
+		int[] nextRemoved = new int[oldLength];
+		Arrays.fill(firstRemoved, -1);
+		for (int i = 0; i < oldLength; i++) {
+			if (removed[i] && inNew[oldIds[i]]) {
+				int id = oldIds[i];
+				nextRemoved[i] = -1;
+				if (firstRemoved[id] == -1) {
+					firstRemoved[id] = i;
+				} else {
+					nextRemoved[lastRemoved[id]] = i;
+				}
+				lastRemoved[id] = i;
+			}
+		}
+		int[] moveSource = new int[newLength];
+		boolean[] moved = new boolean[oldLength];
+		for (int j = 0; j < newLength; j++) {
+			moveSource[j] = -1;
+			if (added[j] && inOld[newIds[j]]) {
+				int id = newIds[j];
+				int source = firstRemoved[id];
+				if (source != -1) {
+					firstRemoved[id] = nextRemoved[source];
+					moveSource[j] = source;
+					moved[source] = true;
+				}
+			}
+		}
+
+		// Walk the edit script, tracking the position of the cursor within the
+		// list as it looks after the entries emitted so far have been applied.
+		// Moved elements whose removal precedes their addition stay in place
+		// ("deferred") until the addition is reached; moved elements whose
+		// addition comes first are pulled forward from the unprocessed part of
+		// the old list.
+		int position = prefix;
+		int[] deferredSequence = new int[oldLength];
+		int[] deferredPosition = new int[oldLength];
+		int[] deferredBase = new int[oldLength];
+		int deferredCount = 0;
+		int deferredRemovals = 0;
+		IndexCounter removedDeferred = new IndexCounter(oldLength);
+		IndexCounter pulledForward = new IndexCounter(oldLength);
+		boolean[] isPulledForward = new boolean[oldLength];
+		int i = 0;
+		int j = 0;
+		while (i < oldLength || j < newLength) {
+			if (i < oldLength && removed[i]) {
+				if (isPulledForward[i]) {
+					// already moved to its new location
+				} else if (moved[i]) {
+					int sequence = deferredCount++;
+					deferredSequence[i] = sequence;
+					deferredPosition[sequence] = position;
+					deferredBase[sequence] = deferredRemovals;
+					position++;
+				} else {
+					listDiffs.add(Diffs.createListDiffEntry(position, false, (E) oldElements[prefix + i]));
+				}
+				i++;
+			} else if (j < newLength && added[j]) {
+				E element = (E) newElements[prefix + j];
+				int source = moveSource[j];
+				if (source == -1) {
+					listDiffs.add(Diffs.createListDiffEntry(position, true, element));
+					position++;
+				} else if (source < i) {
+					int sequence = deferredSequence[source];
+					int sourcePosition = deferredPosition[sequence]
+							- (removedDeferred.countBefore(sequence) - deferredBase[sequence]);
+					removedDeferred.increment(sequence);
+					deferredRemovals++;
+					if (sourcePosition != position - 1) {
+						listDiffs.add(Diffs.createListDiffEntry(sourcePosition, false, element));
+						listDiffs.add(Diffs.createListDiffEntry(position - 1, true, element));
+					}
+				} else {
+					int sourcePosition = position + (source - i)
+							- (pulledForward.countBefore(source) - pulledForward.countBefore(i));
+					pulledForward.increment(source);
+					isPulledForward[source] = true;
+					if (sourcePosition != position) {
+						listDiffs.add(Diffs.createListDiffEntry(sourcePosition, false, element));
+						listDiffs.add(Diffs.createListDiffEntry(position, true, element));
+					}
+					position++;
+				}
+				j++;
+			} else {
+				i++;
+				j++;
+				position++;
+			}
+		}
+	}
+
+	private static int internElement(Map<Object, Integer> ids, Object element) {
+		Integer id = ids.get(element);
+		if (id == null) {
+			id = Integer.valueOf(ids.size());
+			ids.put(element, id);
+		}
+		return id.intValue();
+	}
+
+	/**
+	 * Binary indexed tree counting marked indices.
+	 */
+	private static final class IndexCounter {
+		private final int[] tree;
+
+		IndexCounter(int size) {
+			tree = new int[size + 1];
+		}
+
+		void increment(int index) {
+			for (int i = index + 1; i < tree.length; i += i & -i) {
+				tree[i]++;
+			}
+		}
+
+		/**
+		 * @return the number of marked indices strictly smaller than
+		 *         <code>index</code>
+		 */
+		int countBefore(int index) {
+			int count = 0;
+			for (int i = index; i > 0; i -= i & -i) {
+				count += tree[i];
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * Myers' linear space difference algorithm on integer sequences, including
+	 * the "too expensive" heuristic used by GNU diff to bound the running time
+	 * on inputs with a large number of differences.
+	 */
+	private static final class EditScript {
+		final int[] oldIds;
+		final int[] newIds;
+		final boolean[] removed;
+		final boolean[] added;
+
+		private final int[] forward;
+		private final int[] backward;
+		private final int offset;
+		private final int costLimit;
+
+		private int middleOld;
+		private int middleNew;
+
+		EditScript(int[] oldIds, int oldLength, int[] newIds, int newLength) {
+			this.oldIds = oldIds;
+			this.newIds = newIds;
+			this.removed = new boolean[oldLength];
+			this.added = new boolean[newLength];
+			int diagonals = oldLength + newLength + 3;
+			this.forward = new int[diagonals];
+			this.backward = new int[diagonals];
+			this.offset = newLength + 1;
+			int limit = 1;
+			for (int i = diagonals; i != 0; i >>= 2) {
+				limit <<= 1;
+			}
+			this.costLimit = Math.max(MIN_COST_LIMIT, limit);
+		}
+
+		void compute() {
+			// Explicit stack instead of recursion; approximate splits may be
+			// arbitrarily unbalanced.
+			int[] stack = new int[64];
+			int top = 0;
+			stack[top++] = 0;
+			stack[top++] = removed.length;
+			stack[top++] = 0;
+			stack[top++] = added.length;
+			while (top > 0) {
+				int newLimit = stack[--top];
+				int newStart = stack[--top];
+				int oldLimit = stack[--top];
+				int oldStart = stack[--top];
+
+				while (oldStart < oldLimit && newStart < newLimit && oldIds[oldStart] == newIds[newStart]) {
+					oldStart++;
+					newStart++;
+				}
+				while (oldLimit > oldStart && newLimit > newStart
+						&& oldIds[oldLimit - 1] == newIds[newLimit - 1]) {
+					oldLimit--;
+					newLimit--;
+				}
+
+				if (oldStart == oldLimit || newStart == newLimit) {
+					markChanged(oldStart, oldLimit, newStart, newLimit);
+					continue;
+				}
+
+				findMiddle(oldStart, oldLimit, newStart, newLimit);
+				if ((middleOld == oldStart && middleNew == newStart)
+						|| (middleOld == oldLimit && middleNew == newLimit)) {
+					// No progress possible, treat the whole range as replaced
+					markChanged(oldStart, oldLimit, newStart, newLimit);
+					continue;
+				}
+
+				if (top + 8 > stack.length) {
+					int[] grown = new int[stack.length * 2];
+					System.arraycopy(stack, 0, grown, 0, top);
+					stack = grown;
+				}
+				stack[top++] = oldStart;
+				stack[top++] = middleOld;
+				stack[top++] = newStart;
+				stack[top++] = middleNew;
+				stack[top++] = middleOld;
+				stack[top++] = oldLimit;
+				stack[top++] = middleNew;
+				stack[top++] = newLimit;
+			}
+		}
+
+		private void markChanged(int oldStart, int oldLimit, int newStart, int newLimit) {
+			for (int i = oldStart; i < oldLimit; i++) {
+				removed[i] = true;
+			}
+			for (int j = newStart; j < newLimit; j++) {
+				added[j] = true;
+			}
+		}
+
+		/**
+		 * Finds the midpoint of the shortest edit script for the given range
+		 * and stores it in {@link #middleOld} and {@link #middleNew}. The
+		 * first elements of both ranges and the last elements of both ranges
+		 * are known to differ.
+		 */
+		private void findMiddle(int oldStart, int oldLimit, int newStart, int newLimit) {
+			final int[] fd = forward;
+			final int[] bd = backward;
+			final int minDiagonal = oldStart - newLimit;
+			final int maxDiagonal = oldLimit - newStart;
+			final int forwardMid = oldStart - newStart;
+			final int backwardMid = oldLimit - newLimit;
+			int fmin = forwardMid;
+			int fmax = forwardMid;
+			int bmin = backwardMid;
+			int bmax = backwardMid;
+			final boolean odd = ((forwardMid - backwardMid) & 1) != 0;
+
+			fd[offset + forwardMid] = oldStart;
+			bd[offset + backwardMid] = oldLimit;
+
+			for (int cost = 1;; cost++) {
+				// Extend the forward search by one edit
+				if (fmin > minDiagonal) {
+					fd[offset + --fmin - 1] = -1;
+				} else {
+					++fmin;
+				}
+				if (fmax < maxDiagonal) {
+					fd[offset + ++fmax + 1] = -1;
+				} else {
+					--fmax;
+				}
+				for (int d = fmax; d >= fmin; d -= 2) {
+					int low = fd[offset + d - 1];
+					int high = fd[offset + d + 1];
+					int x = low >= high ? low + 1 : high;
+					int y = x - d;
+					while (x < oldLimit && y < newLimit && oldIds[x] == newIds[y]) {
+						x++;
+						y++;
+					}
+					fd[offset + d] = x;
+					if (odd && bmin <= d && d <= bmax && bd[offset + d] <= x) {
+						middleOld = x;
+						middleNew = y;
+						return;
+					}
+				}
+
+				// Extend the backward search by one edit
+				if (bmin > minDiagonal) {
+					bd[offset + --bmin - 1] = Integer.MAX_VALUE;
+				} else {
+					++bmin;
+				}
+				if (bmax < maxDiagonal) {
+					bd[offset + ++bmax + 1] = Integer.MAX_VALUE;
+				} else {
+					--bmax;
+				}
+				for (int d = bmax; d >= bmin; d -= 2) {
+					int low = bd[offset + d - 1];
+					int high = bd[offset + d + 1];
+					int x = low < high ? low : high - 1;
+					int y = x - d;
+					while (x > oldStart && y > newStart && oldIds[x - 1] == newIds[y - 1]) {
+						x--;
+						y--;
+					}
+					bd[offset + d] = x;
+					if (!odd && fmin <= d && d <= fmax && x <= fd[offset + d]) {
+						middleOld = x;
+						middleNew = y;
+						return;
+					}
+				}
+
+				if (cost >= costLimit) {
+					findApproximateMiddle(oldStart, oldLimit, newStart, newLimit, fmin, fmax, bmin, bmax);
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Picks the furthest reaching forward or backward path as split point
+		 * once the search has become too expensive.
+		 */
+		private void findApproximateMiddle(int oldStart, int oldLimit, int newStart, int newLimit, int fmin,
+				int fmax, int bmin, int bmax) {
+			int forwardBest = -1;
+			int forwardBestX = oldStart;
+			for (int d = fmax; d >= fmin; d -= 2) {
+				int x = Math.min(forward[offset + d], oldLimit);
+				int y = x - d;
+				if (newLimit < y) {
+					x = newLimit + d;
+					y = newLimit;
+				}
+				if (forwardBest < x + y) {
+					forwardBest = x + y;
+					forwardBestX = x;
+				}
+			}
+			int backwardBest = Integer.MAX_VALUE;
+			int backwardBestX = oldLimit;
+			for (int d = bmax; d >= bmin; d -= 2) {
+				int x = Math.max(oldStart, backward[offset + d]);
+				int y = x - d;
+				if (y < newStart) {
+					x = newStart + d;
+					y = newStart;
+				}
+				if (x + y < backwardBest) {
+					backwardBest = x + y;
+					backwardBestX = x;
+				}
+			}
+			if ((oldLimit + newLimit) - backwardBest < forwardBest - (oldStart + newStart)) {
+				middleOld = forwardBestX;
+				middleNew = forwardBest - forwardBestX;
+			} else {
+				middleOld = backwardBestX;
+				middleNew = backwardBest - backwardBestX;
+			}
+		}
+	}
+}
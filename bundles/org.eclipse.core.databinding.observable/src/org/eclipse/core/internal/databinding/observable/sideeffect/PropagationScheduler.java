@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.core.internal.databinding.observable.sideeffect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.core.databinding.observable.IObservable;
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.util.Policy;
+import org.eclipse.core.runtime.ISafeRunnable;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.core.runtime.Status;
+
+/**
+ * Runs the dirty side-effects of a realm in one batch per turn of the realm,
+ * rather than each in its own {@link Realm#asyncExec(Runnable)}.
+ * <p>
+ * The side-effects of a batch run in the order of their rank, which is derived
+ * from the dependencies recorded by
+ * {@link org.eclipse.core.databinding.observable.ObservableTracker}: a side-effect
+ * depending only on plain observables runs before one depending on computed
+ * values, which runs before one depending on values computed from other
+ * computed values. Side-effects dirtied while a batch runs join the batch,
+ * unless they already ran in it, in which case they run in the next batch.
+ * </p>
+ * <p>
+ * All methods but {@link #getStatistics()} must be called in the realm.
+ * </p>
+ */
+public final class PropagationScheduler implements Runnable {
+
+	/**
+	 * A snapshot of the counters of a scheduler.
+	 */
+	public static final class Statistics {
+		private final long batches;
+		private final long runs;
+		private final long coalescedChanges;
+		private final long computations;
+
+		Statistics(long batches, long runs, long coalescedChanges, long computations) {
+			this.batches = batches;
+			this.runs = runs;
+			this.coalescedChanges = coalescedChanges;
+			this.computations = computations;
+		}
+
+		/**
+		 * @return the number of batches run
+		 */
+		public long getBatches() {
+			return batches;
+		}
+
+		/**
+		 * @return the number of side-effects run by the batches
+		 */
+		public long getRuns() {
+			return runs;
+		}
+
+		/**
+		 * @return the number of dependency changes of side-effects that were
+		 *         already dirty, each of which saved a run
+		 */
+		public long getCoalescedChanges() {
+			return coalescedChanges;
+		}
+
+		/**
+		 * @return the number of times a computed value was calculated
+		 */
+		public long getComputations() {
+			return computations;
+		}
+
+		@Override
+		public String toString() {
+			return "batches: " + batches + ", runs: " + runs + ", coalesced changes: " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ coalescedChanges + ", computations: " + computations; //$NON-NLS-1$
+		}
+	}
+
+	private static final Map<Realm, PropagationScheduler> schedulers = new WeakHashMap<>();
+
+	/**
+	 * The rank of the computed values calculated since the scheduler exists.
+	 * Only the rank is kept rather than the dependencies, which may reference
+	 * the computed value through their listeners and would keep it from being
+	 * garbage collected.
+	 */
+	private final Map<IObservable, Integer> ranks = new WeakHashMap<>();
+
+	private List<SideEffect> pending = new ArrayList<>();
+
+	/**
+	 * The side-effects dirtied after they ran in the current batch.
+	 */
+	private List<SideEffect> deferred = new ArrayList<>();
+
+	/**
+	 * The side-effects run by the current batch, or <code>null</code> if no
+	 * batch is running.
+	 */
+	private Set<SideEffect> ran;
+
+	private boolean scheduled;
+
+	// Only written in the realm, read by getStatistics from any thread
+	private volatile long batches;
+	private volatile long runs;
+	private volatile long coalescedChanges;
+	private volatile long computations;
+
+	private PropagationScheduler() {
+	}
+
+	/**
+	 * Returns the scheduler of the given realm, creating it if needed.
+	 *
+	 * @param realm
+	 *            the realm
+	 * @return the scheduler of the realm
+	 */
+	public static PropagationScheduler getInstance(Realm realm) {
+		synchronized (schedulers) {
+			return schedulers.computeIfAbsent(realm, r -> new PropagationScheduler());
+		}
+	}
+
+	/**
+	 * Records that a computed value was calculated, so that side-effects
+	 * depending on it run after side-effects depending on its dependencies.
+	 *
+	 * @param computed
+	 *            the computed value
+	 * @param dependencies
+	 *            the observables read by the calculation
+	 */
+	public void computed(IObservable computed, IObservable[] dependencies) {
+		computations++;
+		ranks.put(computed, Integer.valueOf(getRank(dependencies) + 1));
+	}
+
+	/**
+	 * Returns the counters of this scheduler. May be called from any thread.
+	 *
+	 * @return a snapshot of the counters
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(batches, runs, coalescedChanges, computations);
+	}
+
+	/**
+	 * Schedules a dirty side-effect to run in the next batch.
+	 */
+	void schedule(SideEffect sideEffect) {
+		if (ran != null && ran.contains(sideEffect)) {
+			deferred.add(sideEffect);
+			return;
+		}
+		pending.add(sideEffect);
+		if (!scheduled && ran == null) {
+			scheduled = true;
+			sideEffect.getRealm().asyncExec(this);
+		}
+	}
+
+	/**
+	 * Records a change of a dependency of a side-effect that is already dirty.
+	 */
+	void coalesced() {
+		coalescedChanges++;
+	}
+
+	@Override
+	public void run() {
+		scheduled = false;
+		batches++;
+		ran = Collections.newSetFromMap(new IdentityHashMap<>());
+		try {
+			while (!pending.isEmpty()) {
+				List<SideEffect> batch = pending;
+				pending = new ArrayList<>();
+				Map<SideEffect, Integer> batchRanks = new IdentityHashMap<>();
+				for (SideEffect sideEffect : batch) {
+					batchRanks.put(sideEffect, Integer.valueOf(getRank(sideEffect.getDependencies())));
+				}
+				// stable, so side-effects of equal rank run in scheduling order
+				batch.sort((a, b) -> Integer.compare(batchRanks.get(a).intValue(), batchRanks.get(b).intValue()));
+				for (SideEffect sideEffect : batch) {
+					if (ran.add(sideEffect)) {
+						runs++;
+						SafeRunner.run(new ISafeRunnable() {
+							@Override
+							public void run() throws Exception {
+								sideEffect.runScheduled();
+							}
+
+							@Override
+							public void handleException(Throwable exception) {
+								Policy.getLog().log(new Status(IStatus.ERROR, Policy.JFACE_DATABINDING, IStatus.OK,
+										"Unhandled exception: " + exception.getMessage(), exception)); //$NON-NLS-1$
+							}
+						});
+					}
+				}
+			}
+		} finally {
+			ran = null;
+			pending.addAll(deferred);
+			deferred = new ArrayList<>();
+			if (!pending.isEmpty()) {
+				scheduled = true;
+				pending.get(0).getRealm().asyncExec(this);
+			}
+		}
+	}
+
+	private int getRank(IObservable[] dependencies) {
+		int rank = 0;
+		if (dependencies != null) {
+			for (IObservable dependency : dependencies) {
+				Integer dependencyRank = ranks.get(dependency);
+				if (dependencyRank != null) {
+					rank = Math.max(rank, dependencyRank.intValue());
+				}
+			}
+		}
+		return rank;
+	}
+}
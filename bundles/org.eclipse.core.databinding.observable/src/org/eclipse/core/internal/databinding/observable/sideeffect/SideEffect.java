@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Google, Inc. and others.
+ * Copyright (c) 2015, 2018 Google, Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -81,8 +81,8 @@ public final class SideEffect implements ISideEffect {
 	 */
 	private boolean dirty;
 	/**
-	 * True if PrivateInterface is currently enqueued in a call to
-	 * realm.asyncExec
+	 * True if we are currently scheduled to run by the
+	 * {@link PropagationScheduler} of the realm
 	 */
 	private boolean asyncScheduled;
 	private int pauseDepth;
@@ -92,6 +92,7 @@ public final class SideEffect implements ISideEffect {
 	 */
 	private IObservable[] dependencies;
 	private Realm realm;
+	private PropagationScheduler scheduler;
 
 	private PrivateInterface privateInterface = new PrivateInterface();
 
@@ -281,7 +282,11 @@ public final class SideEffect implements ISideEffect {
 	}
 
 	private void markDirtyInternal() {
-		if (!dirty) {
+		if (dirty) {
+			if (asyncScheduled) {
+				getScheduler().coalesced();
+			}
+		} else {
 			dirty = true;
 
 			if (pauseDepth <= 0) {
@@ -299,7 +304,38 @@ public final class SideEffect implements ISideEffect {
 		}
 
 		this.asyncScheduled = true;
-		realm.asyncExec(privateInterface);
+		getScheduler().schedule(this);
+	}
+
+	/**
+	 * Runs this side-effect if it is still dirty. Called by the
+	 * {@link PropagationScheduler} of the realm.
+	 */
+	void runScheduled() {
+		if (isDisposed()) {
+			return;
+		}
+		asyncScheduled = false;
+		update();
+	}
+
+	private PropagationScheduler getScheduler() {
+		if (scheduler == null) {
+			scheduler = PropagationScheduler.getInstance(realm);
+		}
+		return scheduler;
+	}
+
+	Realm getRealm() {
+		return realm;
+	}
+
+	/**
+	 * @return the dependencies we are listening to, or <code>null</code> if
+	 *         we are not listening
+	 */
+	IObservable[] getDependencies() {
+		return dependencies;
 	}
 
 	private void checkRealm() {
@@ -331,19 +367,10 @@ public final class SideEffect implements ISideEffect {
 		};
 	}
 
-	private class PrivateInterface implements IChangeListener, Runnable {
+	private class PrivateInterface implements IChangeListener {
 		@Override
 		public void handleChange(ChangeEvent event) {
 			markDirtyInternal();
 		}
-
-		@Override
-		public void run() {
-			if (isDisposed()) {
-				return;
-			}
-			asyncScheduled = false;
-			update();
-		}
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2015 IBM Corporation and others.
+ * Copyright (c) 2010, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,13 +14,16 @@ package org.eclipse.e4.ui.bindings.internal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import javax.inject.Inject;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.Trigger;
 import org.eclipse.jface.bindings.TriggerSequence;
 
 /**
@@ -29,6 +32,9 @@ import org.eclipse.jface.bindings.TriggerSequence;
 public class BindingTableManager {
 	private static final String BINDING_TABLE_PREFIX = "bindingTable:"; //$NON-NLS-1$
 
+	// The number of context sets whose tries are kept
+	private static final int MAX_TRIES = 16;
+
 	@Inject
 	private IEclipseContext eclipseContext;
 
@@ -36,6 +42,27 @@ public class BindingTableManager {
 
 	private String[] activeSchemeIds;
 
+	// The tries of the recently used context sets, least recently used first
+	private final Map<ContextSet, BindingTrie> tries = new LinkedHashMap<ContextSet, BindingTrie>(MAX_TRIES, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ContextSet, BindingTrie> eldest) {
+			return size() > MAX_TRIES;
+		}
+	};
+
+	// The revision of the binding tables the tries were built from
+	private int triesRevision = BindingTable.getRevision();
+
+	// The last lookup, as a key stroke asks for the same sequence several times
+	private BindingTrie lastTrie;
+
+	private TriggerSequence lastSequence;
+
+	private BindingTrie.Node lastNode;
+
 	public void addTable(BindingTable table) {
 		String contextId = getTableId(table.getId());
 		if (eclipseContext.containsKey(contextId)) {
@@ -43,6 +70,7 @@ public class BindingTableManager {
 			//			throw new IllegalArgumentException("Already contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.set(contextId, table);
+		clearTries();
 		final List<Context> contexts = definedTables.getContexts();
 		if (!contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -61,6 +89,7 @@ public class BindingTableManager {
 			throw new IllegalArgumentException("Does not contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.remove(contextId);
+		clearTries();
 		final List<Context> contexts = definedTables.getContexts();
 		if (contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -92,17 +121,8 @@ public class BindingTableManager {
 
 	public Collection<Binding> getConflictsFor(ContextSet contextSet,
 			TriggerSequence triggerSequence) {
-		Collection<Binding> matches = new ArrayList<Binding>();
-		for (Context ctx : contextSet.getContexts()) {
-			BindingTable table = getTable(ctx.getId());
-			if (table != null) {
-				final Collection<Binding> matchesFor = table.getConflictsFor(triggerSequence);
-				if (matchesFor != null) {
-					matches.addAll(matchesFor);
-				}
-			}
-		}
-		return matches.isEmpty() ? null : matches;
+		BindingTrie.Node node = findNode(contextSet, triggerSequence);
+		return node == null ? null : node.getConflicts();
 	}
 
 	public Collection<Binding> getAllConflicts() {
@@ -120,31 +140,8 @@ public class BindingTableManager {
 	}
 
 	public Binding getPerfectMatch(ContextSet contextSet, TriggerSequence triggerSequence) {
-		Binding result = null;
-		Binding currentResult = null;
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
-			if (table != null) {
-				currentResult = table.getPerfectMatch(triggerSequence);
-			}
-			if (currentResult != null) {
-				if (isMostActiveScheme(currentResult)) {
-					return currentResult;
-				}
-				if (result == null) {
-					result = currentResult;
-				} else {
-					int rc = compareSchemes(result.getSchemeId(), currentResult.getSchemeId());
-					if (rc < 0) {
-						result = currentResult;
-					}
-				}
-			}
-		}
-		return result;
+		BindingTrie.Node node = findNode(contextSet, triggerSequence);
+		return node == null ? null : node.perfectMatch;
 	}
 
 	/**
@@ -203,35 +200,121 @@ public class BindingTableManager {
 	}
 
 	public boolean isPartialMatch(ContextSet contextSet, TriggerSequence sequence) {
+		BindingTrie.Node node = findNode(contextSet, sequence);
+		return node != null && node.isPartialMatch();
+	}
+
+	public Collection<Binding> getPartialMatches(ContextSet contextSet, TriggerSequence sequence) {
+		BindingTrie.Node node = findNode(contextSet, sequence);
+		return node == null ? new ArrayList<Binding>() : node.getPartialMatches();
+	}
+
+	/**
+	 * Return the trie node of the sequence in the tables of the context set.
+	 *
+	 * @param contextSet
+	 * @param sequence
+	 * @return the node, or <code>null</code> if no binding is reached through
+	 *         the sequence
+	 */
+	private BindingTrie.Node findNode(ContextSet contextSet, TriggerSequence sequence) {
+		BindingTrie trie = getTrie(contextSet);
+		if (trie != lastTrie || !sequence.equals(lastSequence)) {
+			lastTrie = trie;
+			lastSequence = sequence;
+			lastNode = trie.find(sequence);
+		}
+		return lastNode;
+	}
+
+	/**
+	 * Return the trie of the tables of the context set, building it if the
+	 * tables or the active schemes changed since it was built.
+	 *
+	 * @param contextSet
+	 * @return the trie
+	 */
+	private BindingTrie getTrie(ContextSet contextSet) {
+		if (triesRevision != BindingTable.getRevision()) {
+			clearTries();
+		}
+		BindingTrie trie = tries.get(contextSet);
+		if (trie == null) {
+			trie = buildTrie(contextSet);
+			tries.put(contextSet, trie);
+		}
+		return trie;
+	}
+
+	private void clearTries() {
+		tries.clear();
+		triesRevision = BindingTable.getRevision();
+		lastTrie = null;
+		lastSequence = null;
+		lastNode = null;
+	}
+
+	/**
+	 * Merge the tables of the context set into a trie. The tables are visited
+	 * in the order of the former table by table lookups, so that the trie
+	 * answers the same.
+	 *
+	 * @param contextSet
+	 * @return the trie
+	 */
+	private BindingTrie buildTrie(ContextSet contextSet) {
+		BindingTrie trie = new BindingTrie();
 		List<Context> contexts = contextSet.getContexts();
 		ListIterator<Context> it = contexts.listIterator(contexts.size());
 		while (it.hasPrevious()) {
 			Context c = it.previous();
 			BindingTable table = getTable(c.getId());
+			if (table == null) {
+				continue;
+			}
+			for (Binding binding : table.getBindings()) {
+				Trigger[] triggers = binding.getTriggerSequence().getTriggers();
+				addPerfectMatch(trie.getOrCreate(triggers, triggers.length), binding);
+				for (int i = 1; i < triggers.length; i++) {
+					trie.getOrCreate(triggers, i).addPartialMatch(binding);
+				}
+			}
+		}
+		for (Context ctx : contexts) {
+			BindingTable table = getTable(ctx.getId());
 			if (table != null) {
-				if (table.isPartialMatch(sequence)) {
-					return true;
+				for (Binding binding : table.getConflicts()) {
+					Trigger[] triggers = binding.getTriggerSequence().getTriggers();
+					trie.getOrCreate(triggers, triggers.length).addConflict(binding);
 				}
 			}
 		}
-		return false;
+		return trie;
 	}
 
-	public Collection<Binding> getPartialMatches(ContextSet contextSet, TriggerSequence sequence) {
-		ArrayList<Binding> bindings = new ArrayList<Binding>();
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
-			if (table != null) {
-				Collection<Binding> partialMatches = table.getPartialMatches(sequence);
-				if (partialMatches != null) {
-					bindings.addAll(partialMatches);
-				}
+	/**
+	 * Offer the binding of a less specific context as the perfect match of
+	 * the node. The first binding in the most active scheme wins, otherwise
+	 * the schemes are compared.
+	 *
+	 * @param node
+	 * @param binding
+	 */
+	private void addPerfectMatch(BindingTrie.Node node, Binding binding) {
+		if (node.mostActive) {
+			return;
+		}
+		if (isMostActiveScheme(binding)) {
+			node.perfectMatch = binding;
+			node.mostActive = true;
+		} else if (node.perfectMatch == null) {
+			node.perfectMatch = binding;
+		} else {
+			int rc = compareSchemes(node.perfectMatch.getSchemeId(), binding.getSchemeId());
+			if (rc < 0) {
+				node.perfectMatch = binding;
 			}
 		}
-		return bindings;
 	}
 
 	/**
@@ -240,6 +323,7 @@ public class BindingTableManager {
 	public void setActiveSchemes(String[] activeSchemeIds) {
 		this.activeSchemeIds = activeSchemeIds;
 		BindingTable.BEST_SEQUENCE.setActiveSchemes(activeSchemeIds);
+		clearTries();
 	}
 
 	/*
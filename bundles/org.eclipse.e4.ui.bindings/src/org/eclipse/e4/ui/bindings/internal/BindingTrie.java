@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.bindings.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.Trigger;
+import org.eclipse.jface.bindings.TriggerSequence;
+
+/**
+ * The bindings of several binding tables merged into a trie keyed by the
+ * triggers of their trigger sequences. The {@link BindingTableManager} builds
+ * one for a context set and the active schemes, after which a trigger sequence
+ * is looked up with a single walk instead of a lookup in every table.
+ * <p>
+ * The trie is not changed once built.
+ * </p>
+ */
+final class BindingTrie {
+
+	static final class Node {
+		private Map<Trigger, Node> children;
+
+		Binding perfectMatch;
+
+		// Whether the perfect match is in the most active scheme
+		boolean mostActive;
+
+		List<Binding> partialMatches;
+
+		List<Binding> conflicts;
+
+		/**
+		 * @return whether this node is the prefix of an active binding
+		 */
+		boolean isPartialMatch() {
+			return partialMatches != null;
+		}
+
+		/**
+		 * @return a copy of the bindings this node is a prefix of
+		 */
+		List<Binding> getPartialMatches() {
+			if (partialMatches == null) {
+				return new ArrayList<Binding>();
+			}
+			return new ArrayList<Binding>(partialMatches);
+		}
+
+		/**
+		 * @return a copy of the conflicting bindings of this node, or
+		 *         <code>null</code> if there are none
+		 */
+		List<Binding> getConflicts() {
+			return conflicts == null ? null : new ArrayList<Binding>(conflicts);
+		}
+
+		void addPartialMatch(Binding binding) {
+			if (partialMatches == null) {
+				partialMatches = new ArrayList<Binding>(2);
+			}
+			partialMatches.add(binding);
+		}
+
+		void addConflict(Binding binding) {
+			if (conflicts == null) {
+				conflicts = new ArrayList<Binding>(2);
+			}
+			conflicts.add(binding);
+		}
+	}
+
+	private final Node root = new Node();
+
+	/**
+	 * Return the node of the trigger sequence.
+	 *
+	 * @param sequence
+	 * @return the node, or <code>null</code> if no binding is reached through
+	 *         the sequence
+	 */
+	Node find(TriggerSequence sequence) {
+		Node node = root;
+		for (Trigger trigger : sequence.getTriggers()) {
+			if (node.children == null) {
+				return null;
+			}
+			node = node.children.get(trigger);
+			if (node == null) {
+				return null;
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Return the node of the first <code>length</code> triggers, creating the
+	 * missing nodes. Only used while the trie is built.
+	 *
+	 * @param triggers
+	 * @param length
+	 * @return the node
+	 */
+	Node getOrCreate(Trigger[] triggers, int length) {
+		Node node = root;
+		for (int i = 0; i < length; i++) {
+			if (node.children == null) {
+				node.children = new HashMap<Trigger, Node>(4);
+			}
+			Node child = node.children.get(triggers[i]);
+			if (child == null) {
+				child = new Node();
+				node.children.put(triggers[i], child);
+			}
+			node = child;
+		}
+		return node;
+	}
+}
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSElementSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSIdConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSPseudoClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.stylesheets.StyleSheet;
+
+/**
+ * Index of the style rule selectors of a set of stylesheets, keyed by the
+ * rightmost compound selector. Each selector is filed under a single key that
+ * every matching element must have: its id, one of its classes, its element
+ * type or one of its pseudo classes, in that order of preference. Selectors
+ * without such a key (e.g. <code>*</code> or attribute selectors) are always
+ * candidates.
+ * <p>
+ * Candidates are returned in stylesheet order, so that the cascade sees the
+ * matching selectors in the same order as when iterating over all rules.
+ */
+final class CSSRuleIndex {
+
+	private static final Comparator<IndexedSelector> SEQUENCE_COMPARATOR = (s1, s2) -> Integer.compare(s1.sequence,
+			s2.sequence);
+
+	/**
+	 * A selector of a style rule, together with its position in the combined
+	 * rule list.
+	 */
+	static final class IndexedSelector {
+		final int sequence;
+		final StyleSheet styleSheet;
+		final CSSStyleRule rule;
+		final ExtendedSelector selector;
+		final int specificity;
+
+		IndexedSelector(int sequence, StyleSheet styleSheet, CSSStyleRule rule, ExtendedSelector selector) {
+			this.sequence = sequence;
+			this.styleSheet = styleSheet;
+			this.rule = rule;
+			this.selector = selector;
+			this.specificity = selector.getSpecificity();
+		}
+	}
+
+	private final Map<String, List<IndexedSelector>> selectorsById = new HashMap<>();
+	private final Map<String, List<IndexedSelector>> selectorsByClass = new HashMap<>();
+	private final Map<String, List<IndexedSelector>> selectorsByType = new HashMap<>();
+	private final Map<String, List<IndexedSelector>> selectorsByPseudoClass = new HashMap<>();
+	private final List<IndexedSelector> universalSelectors = new ArrayList<>();
+
+	private int nextSequence;
+
+	/**
+	 * Adds the style rules of the given stylesheet. The stylesheet must come
+	 * after all stylesheets already in the index.
+	 */
+	void addStyleSheet(StyleSheet styleSheet) {
+		if (!(styleSheet instanceof CSSStyleSheet)) {
+			return;
+		}
+		CSSRuleList rules = ((CSSStyleSheet) styleSheet).getCssRules();
+		int length = rules.getLength();
+		for (int i = 0; i < length; i++) {
+			CSSRule rule = rules.item(i);
+			if (rule.getType() != CSSRule.STYLE_RULE || !(rule instanceof ExtendedCSSRule)) {
+				continue;
+			}
+			SelectorList selectorList = ((ExtendedCSSRule) rule).getSelectorList();
+			int l = selectorList.getLength();
+			for (int j = 0; j < l; j++) {
+				Selector selector = selectorList.item(j);
+				if (selector instanceof ExtendedSelector) {
+					add(new IndexedSelector(nextSequence++, styleSheet, (CSSStyleRule) rule,
+							(ExtendedSelector) selector));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the style rules of the given stylesheet.
+	 */
+	void removeStyleSheet(StyleSheet styleSheet) {
+		removeStyleSheet(selectorsById, styleSheet);
+		removeStyleSheet(selectorsByClass, styleSheet);
+		removeStyleSheet(selectorsByType, styleSheet);
+		removeStyleSheet(selectorsByPseudoClass, styleSheet);
+		universalSelectors.removeIf(s -> s.styleSheet == styleSheet);
+	}
+
+	private static void removeStyleSheet(Map<String, List<IndexedSelector>> map, StyleSheet styleSheet) {
+		map.values().removeIf(selectors -> {
+			selectors.removeIf(s -> s.styleSheet == styleSheet);
+			return selectors.isEmpty();
+		});
+	}
+
+	/**
+	 * Returns the selectors which may match the given element, in stylesheet
+	 * order. The selectors still need to be matched against the element.
+	 */
+	List<IndexedSelector> getCandidates(Element element, String pseudoElt) {
+		List<List<IndexedSelector>> buckets = new ArrayList<>();
+		addBucket(buckets, universalSelectors);
+
+		String type = element.getPrefix() == null ? element.getNodeName() : element.getLocalName();
+		if (type != null) {
+			addBucket(buckets, selectorsByType.get(type));
+		}
+
+		if (!selectorsById.isEmpty()) {
+			String id = element instanceof CSSStylableElement ? ((CSSStylableElement) element).getCSSId()
+					: element.getAttribute("id");
+			if (id != null) {
+				addBucket(buckets, selectorsById.get(id));
+			}
+		}
+
+		if (!selectorsByClass.isEmpty()) {
+			String classes = element instanceof CSSStylableElement ? ((CSSStylableElement) element).getCSSClass()
+					: element.getAttribute("class");
+			if (classes != null) {
+				int length = classes.length();
+				int start = 0;
+				while (start < length) {
+					while (start < length && Character.isSpaceChar(classes.charAt(start))) {
+						start++;
+					}
+					int end = start;
+					while (end < length && !Character.isSpaceChar(classes.charAt(end))) {
+						end++;
+					}
+					if (end > start) {
+						addBucket(buckets, selectorsByClass.get(classes.substring(start, end)));
+					}
+					start = end;
+				}
+			}
+		}
+
+		if (!selectorsByPseudoClass.isEmpty() && element instanceof CSSStylableElement) {
+			if (pseudoElt != null) {
+				addBucket(buckets, selectorsByPseudoClass.get(pseudoElt));
+			} else {
+				CSSStylableElement stylableElement = (CSSStylableElement) element;
+				for (Entry<String, List<IndexedSelector>> entry : selectorsByPseudoClass.entrySet()) {
+					if (stylableElement.isPseudoInstanceOf(entry.getKey())) {
+						addBucket(buckets, entry.getValue());
+					}
+				}
+			}
+		}
+
+		if (buckets.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (buckets.size() == 1) {
+			return buckets.get(0);
+		}
+		int size = 0;
+		for (List<IndexedSelector> bucket : buckets) {
+			size += bucket.size();
+		}
+		List<IndexedSelector> candidates = new ArrayList<>(size);
+		for (List<IndexedSelector> bucket : buckets) {
+			candidates.addAll(bucket);
+		}
+		candidates.sort(SEQUENCE_COMPARATOR);
+		return candidates;
+	}
+
+	private static void addBucket(List<List<IndexedSelector>> buckets, List<IndexedSelector> bucket) {
+		if (bucket != null && !bucket.isEmpty()) {
+			buckets.add(bucket);
+		}
+	}
+
+	private void add(IndexedSelector indexedSelector) {
+		Selector compound = getRightmostCompound(indexedSelector.selector);
+		String key;
+		if ((key = getConditionKey(compound, Condition.SAC_ID_CONDITION)) != null) {
+			addTo(selectorsById, key, indexedSelector);
+		} else if ((key = getConditionKey(compound, Condition.SAC_CLASS_CONDITION)) != null) {
+			addTo(selectorsByClass, key, indexedSelector);
+		} else if ((key = getTypeKey(compound)) != null) {
+			addTo(selectorsByType, key, indexedSelector);
+		} else if ((key = getConditionKey(compound, Condition.SAC_PSEUDO_CLASS_CONDITION)) != null) {
+			addTo(selectorsByPseudoClass, key, indexedSelector);
+		} else {
+			universalSelectors.add(indexedSelector);
+		}
+	}
+
+	private static void addTo(Map<String, List<IndexedSelector>> map, String key, IndexedSelector indexedSelector) {
+		map.computeIfAbsent(key, k -> new ArrayList<>(2)).add(indexedSelector);
+	}
+
+	/**
+	 * Returns the simple or conditional selector that has to match the element
+	 * itself.
+	 */
+	private static Selector getRightmostCompound(Selector selector) {
+		Selector current = selector;
+		while (true) {
+			if (current instanceof DescendantSelector) {
+				current = ((DescendantSelector) current).getSimpleSelector();
+			} else if (current instanceof SiblingSelector) {
+				current = ((SiblingSelector) current).getSiblingSelector();
+			} else {
+				return current;
+			}
+		}
+	}
+
+	private static String getTypeKey(Selector compound) {
+		Selector simple = compound;
+		if (simple instanceof ConditionalSelector) {
+			simple = ((ConditionalSelector) simple).getSimpleSelector();
+		}
+		// only plain element selectors; pseudo element selectors match on the
+		// pseudo element name instead
+		if (simple instanceof CSSElementSelectorImpl) {
+			return ((CSSElementSelectorImpl) simple).getLocalName();
+		}
+		return null;
+	}
+
+	private static String getConditionKey(Selector compound, short conditionType) {
+		if (!(compound instanceof ConditionalSelector)) {
+			return null;
+		}
+		return getConditionKey(((ConditionalSelector) compound).getCondition(), conditionType);
+	}
+
+	private static String getConditionKey(Condition condition, short conditionType) {
+		if (condition.getConditionType() == Condition.SAC_AND_CONDITION && condition instanceof CombinatorCondition) {
+			CombinatorCondition combinator = (CombinatorCondition) condition;
+			String key = getConditionKey(combinator.getFirstCondition(), conditionType);
+			return key != null ? key : getConditionKey(combinator.getSecondCondition(), conditionType);
+		}
+		// restrict to our own implementations, whose match() semantics the
+		// element lookup in getCandidates() mirrors
+		switch (conditionType) {
+		case Condition.SAC_ID_CONDITION:
+			return condition instanceof CSSIdConditionImpl ? ((CSSIdConditionImpl) condition).getValue() : null;
+		case Condition.SAC_CLASS_CONDITION:
+			return condition instanceof CSSClassConditionImpl ? ((CSSClassConditionImpl) condition).getValue() : null;
+		case Condition.SAC_PSEUDO_CLASS_CONDITION:
+			return condition instanceof CSSPseudoClassConditionImpl
+					? ((CSSPseudoClassConditionImpl) condition).getValue()
+					: null;
+		default:
+			return null;
+		}
+	}
+}
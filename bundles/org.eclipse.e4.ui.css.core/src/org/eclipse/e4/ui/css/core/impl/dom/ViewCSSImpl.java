@@ -43,6 +43,8 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 	private boolean ruleCachingEnabled;
 	/** Cached state of combined CSS rules for the current stylesheets */
 	private List<CSSRule> currentCombinedRules;
+	/** Selector index of the current stylesheets, maintained incrementally */
+	private CSSRuleIndex ruleIndex;
 
 	/**
 	 * Creates a new ViewCSS.
@@ -69,6 +71,9 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 	 */
 	@Override
 	public CSSStyleDeclaration getComputedStyle(Element elt, String pseudoElt) {
+		if (this.ruleCachingEnabled) {
+			return getIndexedComputedStyle(getRuleIndex().getCandidates(elt, pseudoElt), elt, pseudoElt);
+		}
 		CSSStyleDeclaration styleDeclaration = getComputedStyle(getCombinedRules(), elt, pseudoElt);
 		return styleDeclaration;
 	}
@@ -108,6 +113,60 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 		return cssRules;
 	}
 
+	/**
+	 * Retrieves the selector index for all current stylesheets, building it
+	 * when needed. Once built, the index is kept up to date through the
+	 * stylesheet change notifications.
+	 *
+	 * @return the selector index
+	 */
+	private CSSRuleIndex getRuleIndex() {
+		if (this.ruleIndex == null) {
+			CSSRuleIndex index = new CSSRuleIndex();
+			StyleSheetList styleSheetList = documentCSS.getStyleSheets();
+			int l = styleSheetList.getLength();
+			for (int i = 0; i < l; i++) {
+				index.addStyleSheet(styleSheetList.item(i));
+			}
+			this.ruleIndex = index;
+		}
+		return this.ruleIndex;
+	}
+
+	/**
+	 * Determines the style declaration for an DOM element from the candidate
+	 * selectors returned by the selector index.
+	 */
+	private CSSStyleDeclaration getIndexedComputedStyle(List<CSSRuleIndex.IndexedSelector> candidates, Element elt,
+			String pseudoElt) {
+		List<StyleWrapper> styleDeclarations = null;
+		StyleWrapper firstStyleDeclaration = null;
+		int length = candidates.size();
+		int position = 0;
+		for (int i = 0; i < length; i++) {
+			CSSRuleIndex.IndexedSelector candidate = candidates.get(i);
+			if (candidate.selector.match(elt, pseudoElt)) {
+				StyleWrapper wrapper = new StyleWrapper(candidate.rule.getStyle(), candidate.specificity, position++);
+				if (firstStyleDeclaration == null) {
+					firstStyleDeclaration = wrapper;
+				} else {
+					if (styleDeclarations == null) {
+						styleDeclarations = new ArrayList<>();
+						styleDeclarations.add(firstStyleDeclaration);
+					}
+					styleDeclarations.add(wrapper);
+				}
+			}
+		}
+		if (styleDeclarations != null) {
+			return new CSSComputedStyleImpl(styleDeclarations);
+		}
+		if (firstStyleDeclaration != null) {
+			return firstStyleDeclaration.style;
+		}
+		return null;
+	}
+
 	public CSSStyleDeclaration getComputedStyle(List<CSSRule> ruleList, Element elt, String pseudoElt) {
 		List<StyleWrapper> styleDeclarations = null;
 		StyleWrapper firstStyleDeclaration = null;
@@ -170,10 +229,16 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 	@Override
 	public void styleSheetAdded(StyleSheet styleSheet) {
 		currentCombinedRules = null;
+		if (ruleIndex != null) {
+			ruleIndex.addStyleSheet(styleSheet);
+		}
 	}
 
 	@Override
 	public void styleSheetRemoved(StyleSheet styleSheet) {
 		currentCombinedRules = null;
+		if (ruleIndex != null) {
+			ruleIndex.removeStyleSheet(styleSheet);
+		}
 	}
 }
@@ -116,6 +116,11 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	 */
 	private ViewCSS viewCSS;
 
+	/**
+	 * Cache of the styles computed by {@link #viewCSS}.
+	 */
+	private final ComputedStyleCache computedStyleCache;
+
 	/**
 	 * {@link IElementProvider} used to retrieve w3c Element linked to the
 	 * widget.
@@ -157,6 +162,8 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public AbstractCSSEngine(ExtendedDocumentCSS documentCSS) {
 		this.documentCSS = documentCSS;
 		this.viewCSS = new ViewCSSImpl(documentCSS);
+		this.computedStyleCache = new ComputedStyleCache(documentCSS);
+		documentCSS.addStyleSheetChangeListener(computedStyleCache);
 		keyFactory = new ResourceRegistryKeyFactory();
 	}
 
@@ -372,7 +379,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 			/*
 			 * Compute new Style to apply.
 			 */
-			CSSStyleDeclaration style = viewCSS.getComputedStyle(elt, null);
+			CSSStyleDeclaration style = computedStyleCache.getComputedStyle(viewCSS, elt, null);
 			if (computeDefaultStyle) {
 				if (applyStylesToChildNodes) {
 					this.computeDefaultStyle = computeDefaultStyle;
@@ -391,7 +398,8 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 				// there are static pseudo instances defined, loop for it and
 				// apply styles for each pseudo instance.
 				for (String pseudoInstance : pseudoInstances) {
-					CSSStyleDeclaration styleWithPseudoInstance = viewCSS.getComputedStyle(elt, pseudoInstance);
+					CSSStyleDeclaration styleWithPseudoInstance = computedStyleCache.getComputedStyle(viewCSS, elt,
+							pseudoInstance);
 					if (computeDefaultStyle) {
 						/*
 						 * Apply default style for the current pseudo instance.
@@ -992,6 +1000,15 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		return viewCSS;
 	}
 
+	/**
+	 * Returns the cache of the computed styles used when applying styles.
+	 *
+	 * @return the computed style cache
+	 */
+	public ComputedStyleCache getComputedStyleCache() {
+		return computedStyleCache;
+	}
+
 	@Override
 	public void dispose() {
 		reset();
@@ -1015,6 +1032,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public void reset() {
 		// Remove All Style Sheets
 		documentCSS.removeAllStyleSheets();
+		computedStyleCache.clear();
 	}
 
 	/*--------------- Resources Registry -----------------*/
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.dom.ExtendedDocumentCSS;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSIdConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSLangConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSPseudoClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedCondition;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.css.DocumentCSS;
+import org.w3c.dom.css.ViewCSS;
+import org.w3c.dom.stylesheets.StyleSheet;
+import org.w3c.dom.stylesheets.StyleSheetList;
+
+/**
+ * Bounded LRU cache of computed styles, keyed by the "style signature" of an
+ * element: everything the selectors of the current stylesheets can look at
+ * when matching the element. This is the type, id and class of the element
+ * and of all of its ancestors, the values of the attributes referenced by
+ * attribute selectors and the state of the pseudo classes used in the
+ * stylesheets. Elements with the same signature are matched by the same rules
+ * and therefore share the computed style.
+ * <p>
+ * Stylesheets containing selectors whose result cannot be derived from the
+ * signature (e.g. sibling selectors) disable the cache until the stylesheets
+ * change. The cache is cleared whenever a stylesheet is added or removed.
+ * </p>
+ */
+public class ComputedStyleCache implements ExtendedDocumentCSS.StyleSheetChangeListener {
+
+	/**
+	 * Default maximum number of cached computed styles.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private static final char FIELD_SEPARATOR = '\u001f';
+
+	private static final char ELEMENT_SEPARATOR = '\u001e';
+
+	private static final char NULL_MARKER = '\u0000';
+
+	private final DocumentCSS documentCSS;
+
+	private final Map<String, CSSStyleDeclaration> styles;
+
+	/** Whether the current stylesheets have been analyzed */
+	private boolean analyzed;
+
+	/** Whether the current stylesheets allow caching */
+	private boolean cacheable;
+
+	/** Attribute names referenced by attribute selectors */
+	private String[] attributeNames;
+
+	/** Pseudo classes used by the current stylesheets */
+	private String[] pseudoClasses;
+
+	private long hitCount;
+
+	private long missCount;
+
+	/**
+	 * Creates a cache with the {@link #DEFAULT_CAPACITY default capacity}.
+	 *
+	 * @param documentCSS
+	 *            the document holding the stylesheets
+	 */
+	public ComputedStyleCache(DocumentCSS documentCSS) {
+		this(documentCSS, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param documentCSS
+	 *            the document holding the stylesheets
+	 * @param capacity
+	 *            the maximum number of cached computed styles
+	 */
+	public ComputedStyleCache(DocumentCSS documentCSS, final int capacity) {
+		this.documentCSS = documentCSS;
+		this.styles = new LinkedHashMap<String, CSSStyleDeclaration>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CSSStyleDeclaration> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the computed style of the given element, either from the cache
+	 * or by asking <code>viewCSS</code>.
+	 *
+	 * @param viewCSS
+	 *            the view used to compute styles which are not cached
+	 * @param element
+	 *            the element
+	 * @param pseudoElt
+	 *            the pseudo element or pseudo instance, may be
+	 *            <code>null</code>
+	 * @return the computed style, or <code>null</code> if no rule matches
+	 */
+	public CSSStyleDeclaration getComputedStyle(ViewCSS viewCSS, Element element, String pseudoElt) {
+		if (!analyzed) {
+			analyzeStyleSheets();
+		}
+		if (!cacheable) {
+			return viewCSS.getComputedStyle(element, pseudoElt);
+		}
+		String signature = computeSignature(element, pseudoElt);
+		CSSStyleDeclaration style = styles.get(signature);
+		if (style != null || styles.containsKey(signature)) {
+			hitCount++;
+			return style;
+		}
+		missCount++;
+		style = viewCSS.getComputedStyle(element, pseudoElt);
+		styles.put(signature, style);
+		return style;
+	}
+
+	/**
+	 * Removes all cached styles. The hit and miss counters are kept.
+	 */
+	public void clear() {
+		styles.clear();
+		analyzed = false;
+		attributeNames = null;
+		pseudoClasses = null;
+	}
+
+	/**
+	 * @return the number of lookups answered from the cache
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of lookups which had to compute the style
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the number of cached computed styles
+	 */
+	public int size() {
+		return styles.size();
+	}
+
+	/**
+	 * @return <code>true</code> if the current stylesheets allow caching
+	 */
+	public boolean isEnabled() {
+		if (!analyzed) {
+			analyzeStyleSheets();
+		}
+		return cacheable;
+	}
+
+	@Override
+	public void styleSheetAdded(StyleSheet styleSheet) {
+		clear();
+	}
+
+	@Override
+	public void styleSheetRemoved(StyleSheet styleSheet) {
+		clear();
+	}
+
+	private void analyzeStyleSheets() {
+		Set<String> attributes = new TreeSet<>();
+		Set<String> pseudos = new TreeSet<>();
+		boolean supported = true;
+		StyleSheetList styleSheetList = documentCSS.getStyleSheets();
+		int l = styleSheetList.getLength();
+		for (int i = 0; i < l && supported; i++) {
+			StyleSheet styleSheet = styleSheetList.item(i);
+			if (!(styleSheet instanceof CSSStyleSheet)) {
+				continue;
+			}
+			CSSRuleList rules = ((CSSStyleSheet) styleSheet).getCssRules();
+			int length = rules.getLength();
+			for (int j = 0; j < length && supported; j++) {
+				CSSRule rule = rules.item(j);
+				if (rule.getType() != CSSRule.STYLE_RULE || !(rule instanceof ExtendedCSSRule)) {
+					continue;
+				}
+				SelectorList selectorList = ((ExtendedCSSRule) rule).getSelectorList();
+				int selectorCount = selectorList.getLength();
+				for (int k = 0; k < selectorCount && supported; k++) {
+					Selector selector = selectorList.item(k);
+					if (selector instanceof ExtendedSelector) {
+						supported = collect(selector, attributes, pseudos);
+					}
+				}
+			}
+		}
+		this.cacheable = supported;
+		this.attributeNames = attributes.toArray(new String[attributes.size()]);
+		this.pseudoClasses = pseudos.toArray(new String[pseudos.size()]);
+		this.analyzed = true;
+	}
+
+	/**
+	 * Collects the attributes and pseudo classes a selector depends on.
+	 *
+	 * @return <code>false</code> if the selector depends on state which is
+	 *         not part of the signature
+	 */
+	private static boolean collect(Selector selector, Set<String> attributes, Set<String> pseudos) {
+		if (selector instanceof DescendantSelector) {
+			// descendant and child selectors
+			DescendantSelector descendantSelector = (DescendantSelector) selector;
+			return collect(descendantSelector.getAncestorSelector(), attributes, pseudos)
+					&& collect(descendantSelector.getSimpleSelector(), attributes, pseudos);
+		}
+		if (selector instanceof ConditionalSelector) {
+			ConditionalSelector conditionalSelector = (ConditionalSelector) selector;
+			return collect(conditionalSelector.getSimpleSelector(), attributes, pseudos)
+					&& collect(conditionalSelector.getCondition(), attributes, pseudos);
+		}
+		// element and pseudo element selectors; sibling selectors depend on
+		// the preceding siblings and are not supported
+		return selector instanceof ElementSelector;
+	}
+
+	private static boolean collect(Condition condition, Set<String> attributes, Set<String> pseudos) {
+		if (condition instanceof CombinatorCondition) {
+			CombinatorCondition combinatorCondition = (CombinatorCondition) condition;
+			return collect(combinatorCondition.getFirstCondition(), attributes, pseudos)
+					&& collect(combinatorCondition.getSecondCondition(), attributes, pseudos);
+		}
+		if (condition instanceof CSSPseudoClassConditionImpl) {
+			pseudos.add(((CSSPseudoClassConditionImpl) condition).getValue());
+			return true;
+		}
+		if (condition instanceof CSSIdConditionImpl || condition instanceof CSSClassConditionImpl) {
+			// id and class are always part of the signature
+			return true;
+		}
+		if ((condition instanceof AttributeCondition || condition instanceof CSSLangConditionImpl)
+				&& condition instanceof ExtendedCondition) {
+			((ExtendedCondition) condition).fillAttributeSet(attributes);
+			return true;
+		}
+		return false;
+	}
+
+	private String computeSignature(Element element, String pseudoElt) {
+		StringBuilder signature = new StringBuilder(128);
+		appendField(signature, pseudoElt);
+		for (Node node = element; node != null; node = node.getParentNode()) {
+			signature.append(ELEMENT_SEPARATOR);
+			if (node.getNodeType() != Node.ELEMENT_NODE) {
+				signature.append(node.getNodeType());
+				continue;
+			}
+			Element e = (Element) node;
+			appendField(signature, e.getNamespaceURI());
+			appendField(signature, e.getPrefix() == null ? e.getNodeName() : e.getLocalName());
+			if (e instanceof CSSStylableElement) {
+				CSSStylableElement stylableElement = (CSSStylableElement) e;
+				appendField(signature, stylableElement.getCSSId());
+				appendField(signature, stylableElement.getCSSClass());
+				for (String pseudoClass : pseudoClasses) {
+					signature.append(stylableElement.isPseudoInstanceOf(pseudoClass) ? '1' : '0');
+					signature.append(stylableElement.isStaticPseudoInstance(pseudoClass) ? '1' : '0');
+				}
+			} else {
+				appendField(signature, e.getAttribute("id"));
+				appendField(signature, e.getAttribute("class"));
+			}
+			for (String attributeName : attributeNames) {
+				if (attributeName != null) {
+					appendField(signature, e.hasAttribute(attributeName) ? e.getAttribute(attributeName) : null);
+				}
+			}
+		}
+		return signature.toString();
+	}
+
+	private static void appendField(StringBuilder signature, String value) {
+		signature.append(FIELD_SEPARATOR);
+		if (value == null) {
+			signature.append(NULL_MARKER);
+		} else {
+			signature.append(value);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,11 +11,14 @@
 
 package org.eclipse.e4.ui.workbench.renderers.swt;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import javax.inject.Inject;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.e4.core.contexts.IContextFunction;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.contexts.RunAndTrack;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.log.Logger;
 import org.eclipse.e4.ui.internal.workbench.RenderedElementUtil;
@@ -89,6 +92,18 @@ public abstract class AbstractContributionItem extends ContributionItem {
 
 	private ISafeRunnable updateRunner;
 
+	/**
+	 * The tracker of the context variables read by the last enablement update,
+	 * or <code>null</code> if they are not tracked.
+	 */
+	private volatile EnablementTracker enablementTracker;
+
+	/**
+	 * Whether a context variable read by the last enablement update changed
+	 * since, or the variables are not tracked.
+	 */
+	private volatile boolean enablementStale = true;
+
 	private ISWTResourceUtilities resUtils = null;
 
 	protected IMenuListener menuListener = manager -> update(null);
@@ -551,7 +566,85 @@ public abstract class AbstractContributionItem extends ContributionItem {
 		if (widget == null || widget.isDisposed())
 			return;
 
-		SafeRunner.run(getUpdateRunner());
+		IEclipseContext context = getContext(getModel());
+		if (context == null) {
+			enablementTracker = null;
+			enablementStale = true;
+			SafeRunner.run(getUpdateRunner());
+			return;
+		}
+		EnablementTracker tracker = enablementTracker;
+		if (tracker != null && tracker.context == context) {
+			// The variables read by the last update are still tracked, only
+			// compute the enablement again
+			SafeRunner.run(getUpdateRunner());
+			return;
+		}
+		// The context records the variables read while the enablement is
+		// computed, so that a later change of any of them marks it stale
+		tracker = new EnablementTracker(this, context);
+		enablementTracker = tracker;
+		context.runAndTrack(tracker);
+	}
+
+	/**
+	 * Return whether a context variable the enablement of this item depends on
+	 * changed since the enablement was last updated. This is always the case
+	 * if the enablement has not been updated yet.
+	 *
+	 * @return <code>true</code> if the enablement needs to be updated
+	 */
+	boolean isEnablementStale() {
+		return enablementStale;
+	}
+
+	/**
+	 * Stop tracking the context variables the enablement of this item depends
+	 * on. The enablement is stale until it is updated again.
+	 */
+	void invalidateEnablement() {
+		enablementTracker = null;
+		enablementStale = true;
+	}
+
+	/**
+	 * Computes the enablement in its first run, which records the context
+	 * variables read by {@link #canExecuteItem(Event)}. The next change of one
+	 * of them only marks the enablement stale and ends the tracking, the
+	 * enablement is computed again by the next update of the item. An item
+	 * has at most one tracker at a time. The tracker only references the item
+	 * weakly, so that a tracker left in the context after the item was
+	 * removed does not keep the item and its widget reachable.
+	 */
+	private static class EnablementTracker extends RunAndTrack {
+
+		private final Reference<AbstractContributionItem> item;
+
+		final IEclipseContext context;
+
+		private boolean computed;
+
+		EnablementTracker(AbstractContributionItem item, IEclipseContext context) {
+			this.item = new WeakReference<>(item);
+			this.context = context;
+		}
+
+		@Override
+		public boolean changed(IEclipseContext context) {
+			AbstractContributionItem contributionItem = item.get();
+			if (contributionItem == null || contributionItem.enablementTracker != this) {
+				return false;
+			}
+			if (!computed) {
+				computed = true;
+				contributionItem.enablementStale = false;
+				SafeRunner.run(contributionItem.getUpdateRunner());
+				return true;
+			}
+			contributionItem.enablementStale = true;
+			contributionItem.enablementTracker = null;
+			return false;
+		}
 	}
 
 }
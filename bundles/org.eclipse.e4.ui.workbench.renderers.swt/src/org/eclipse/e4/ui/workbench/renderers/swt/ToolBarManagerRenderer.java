@@ -76,6 +76,7 @@ import org.eclipse.jface.action.ToolBarManager;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.ToolBar;
 import org.eclipse.swt.widgets.ToolItem;
 import org.eclipse.swt.widgets.Widget;
@@ -258,13 +259,37 @@ public class ToolBarManagerRenderer extends SWTPartRenderer {
 		}
 		MToolBar toolbarModel = (MToolBar) event.getProperty(UIEvents.EventTags.ELEMENT);
 		if (UIEvents.isADD(event)) {
+			// An item moved from another tool bar may keep its contribution
+			for (Object added : UIEvents.asIterable(event, UIEvents.EventTags.NEW_VALUE)) {
+				if (added instanceof MToolBarElement) {
+					updateRegistration((MToolBarElement) added);
+				}
+			}
 			Object obj = toolbarModel;
 			processContents((MElementContainer<MUIElement>) obj);
 		}
 	}
 
+	@Inject
+	@Optional
+	private void subscribeTopicUpdateElementId(@UIEventTopic(UIEvents.ApplicationElement.TOPIC_ELEMENTID) Event event) {
+		// Ensure that this event is for a MToolBarElement
+		if (event.getProperty(UIEvents.EventTags.ELEMENT) instanceof MToolBarElement) {
+			updateRegistration((MToolBarElement) event.getProperty(UIEvents.EventTags.ELEMENT));
+		}
+	}
+
+	private void updateRegistration(MToolBarElement itemModel) {
+		IContributionItem ici = getContribution(itemModel);
+		if (ici instanceof AbstractContributionItem) {
+			getUpdater().updateRegistration((AbstractContributionItem) ici);
+		}
+	}
+
 	private HashSet<String> updateVariables = new HashSet<>();
 
+	private volatile boolean staleUpdateScheduled;
+
 	@Inject
 	@Optional
 	private void subscribeTopicDirtyChanged(@UIEventTopic(UIEvents.Dirtyable.TOPIC_DIRTY) Event eventData) {
@@ -282,6 +307,10 @@ public class ToolBarManagerRenderer extends SWTPartRenderer {
 		} else {
 			if (v == null || UIEvents.ALL_ELEMENT_ID.equals(v)) {
 				s = ALL_SELECTOR;
+			} else if (v instanceof String) {
+				// Only visit the items with that id
+				getUpdater().updateContributionItems((String) v);
+				return;
 			} else {
 				s = element -> v.equals(element.getElementId());
 			}
@@ -290,6 +319,13 @@ public class ToolBarManagerRenderer extends SWTPartRenderer {
 		getUpdater().updateContributionItems(s);
 	}
 
+	@Inject
+	@Optional
+	private void subscribeTopicUpdateStaleToolbarEnablement(
+			@UIEventTopic(UIEvents.REQUEST_STALE_ENABLEMENT_UPDATE_TOPIC) Event eventData) {
+		scheduleStaleUpdate();
+	}
+
 	@Inject
 	@Optional
 	private void subscribeTopicTagsChanged(@UIEventTopic(UIEvents.ApplicationElement.TOPIC_TAGS) Event event) {
@@ -349,13 +385,33 @@ public class ToolBarManagerRenderer extends SWTPartRenderer {
 				for (String var : updateVariables) {
 					context.get(var);
 				}
-				getUpdater().updateContributionItems(ALL_SELECTOR);
+				scheduleStaleUpdate();
 				return true;
 			}
 		};
 		context.runAndTrack(enablementUpdater);
 	}
 
+	/**
+	 * Update the items whose enablement depends on a context variable that
+	 * changed. The update is deferred so that all the variables changed
+	 * together are seen by a single update.
+	 */
+	private void scheduleStaleUpdate() {
+		if (staleUpdateScheduled) {
+			return;
+		}
+		Display display = context.get(Display.class);
+		if (display == null || display.isDisposed()) {
+			return;
+		}
+		staleUpdateScheduled = true;
+		display.asyncExec(() -> {
+			staleUpdateScheduled = false;
+			getUpdater().updateStaleContributionItems(ALL_SELECTOR);
+		});
+	}
+
 	@PreDestroy
 	void preDestroy() {
 		if (Policy.DEBUG_RENDERER) {
@@ -479,7 +535,7 @@ public class ToolBarManagerRenderer extends SWTPartRenderer {
 					record.updateVisibility(parentContext.getActiveLeaf());
 					runExternalCode(() -> {
 						manager.update(false);
-						getUpdater().updateContributionItems(e -> {
+						getUpdater().updateContributionItems(toolbarModel, e -> {
 							if (e instanceof MToolBarElement) {
 								if (((MUIElement) ((MToolBarElement) e).getParent()) == toolbarModel) {
 									return true;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2015 IBM Corporation and others.
+ * Copyright (c) 2014, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,37 +12,201 @@
 package org.eclipse.e4.ui.workbench.renderers.swt;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.eclipse.e4.ui.model.application.ui.MElementContainer;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.menu.MItem;
+import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
 import org.eclipse.e4.ui.workbench.Selector;
 
 public class ToolItemUpdater {
 
-	private List<AbstractContributionItem> itemsToCheck = new ArrayList<>();
+	/**
+	 * The registered items in the order of their registration, grouped by the
+	 * tool bar they are indexed under. Contribution items do not override
+	 * equals, so the sets compare them by identity.
+	 */
+	private final Map<MElementContainer<MUIElement>, Set<AbstractContributionItem>> itemsByToolBar = new LinkedHashMap<>();
+
+	/**
+	 * The tool bar and element id each registered item is indexed under.
+	 */
+	private final Map<AbstractContributionItem, Registration> registrations = new IdentityHashMap<>();
+
+	/**
+	 * The registered items by the element id they are indexed under.
+	 */
+	private final Map<String, Set<AbstractContributionItem>> itemsById = new HashMap<>();
+
 	private final List<AbstractContributionItem> orphanedToolItems = new ArrayList<>();
 
+	private final List<AbstractContributionItem> movedToolItems = new ArrayList<>();
+
+	private static final class Registration {
+		final MElementContainer<MUIElement> toolBar;
+		final String elementId;
+
+		Registration(MElementContainer<MUIElement> toolBar, String elementId) {
+			this.toolBar = toolBar;
+			this.elementId = elementId;
+		}
+	}
+
 	void registerItem(AbstractContributionItem item) {
-		if (!itemsToCheck.contains(item)) {
-			itemsToCheck.add(item);
+		if (registrations.containsKey(item)) {
+			return;
+		}
+		MItem model = item.getModel();
+		Registration registration = model == null ? new Registration(null, null)
+				: new Registration(model.getParent(), model.getElementId());
+		registrations.put(item, registration);
+		itemsByToolBar.computeIfAbsent(registration.toolBar, t -> new LinkedHashSet<>()).add(item);
+		if (registration.elementId != null) {
+			itemsById.computeIfAbsent(registration.elementId, i -> new LinkedHashSet<>(2)).add(item);
 		}
 	}
 
+	/**
+	 * Index a registered item again if its model moved to another tool bar or
+	 * changed its element id since the item was indexed.
+	 *
+	 * @param item
+	 *            the item whose model changed
+	 */
+	void updateRegistration(AbstractContributionItem item) {
+		if (isMoved(item)) {
+			unregister(item);
+			registerItem(item);
+		}
+	}
+
+	private boolean isMoved(AbstractContributionItem item) {
+		Registration registration = registrations.get(item);
+		MItem model = item.getModel();
+		return registration != null && model != null && (registration.toolBar != model.getParent()
+				|| !Objects.equals(registration.elementId, model.getElementId()));
+	}
+
 	void removeItem(AbstractContributionItem item) {
-		itemsToCheck.remove(item);
+		unregister(item);
+		item.invalidateEnablement();
+	}
+
+	private void unregister(AbstractContributionItem item) {
+		Registration registration = registrations.remove(item);
+		if (registration == null) {
+			return;
+		}
+		Set<AbstractContributionItem> items = itemsByToolBar.get(registration.toolBar);
+		if (items != null && items.remove(item) && items.isEmpty()) {
+			itemsByToolBar.remove(registration.toolBar);
+		}
+		if (registration.elementId != null) {
+			items = itemsById.get(registration.elementId);
+			if (items != null && items.remove(item) && items.isEmpty()) {
+				itemsById.remove(registration.elementId);
+			}
+		}
 	}
 
+	/**
+	 * Update the enablement of the selected items. The items are updated tool
+	 * bar by tool bar, in the order of their registration within each tool
+	 * bar.
+	 *
+	 * @param selector
+	 *            selects the items to update
+	 */
 	public void updateContributionItems(Selector selector) {
-		for (final AbstractContributionItem ci : itemsToCheck) {
+		for (Set<AbstractContributionItem> items : itemsByToolBar.values()) {
+			updateContributionItems(items, selector, false);
+		}
+		updateRegistrations();
+	}
+
+	/**
+	 * Update the enablement of the selected items of a tool bar. Only the items
+	 * of the tool bar are visited.
+	 *
+	 * @param toolBar
+	 *            the tool bar of the items
+	 * @param selector
+	 *            selects the items to update
+	 */
+	public void updateContributionItems(MToolBar toolBar, Selector selector) {
+		Set<AbstractContributionItem> items = itemsByToolBar.get(toolBar);
+		if (items != null) {
+			updateContributionItems(items, selector, false);
+			updateRegistrations();
+		}
+	}
+
+	/**
+	 * Update the enablement of the items whose model has the given element id.
+	 * Only the items registered with that id are visited.
+	 *
+	 * @param elementId
+	 *            the element id of the items to update
+	 */
+	public void updateContributionItems(String elementId) {
+		Set<AbstractContributionItem> items = itemsById.get(elementId);
+		if (items != null) {
+			updateContributionItems(items, element -> elementId.equals(element.getElementId()), false);
+			updateRegistrations();
+		}
+	}
+
+	/**
+	 * Update the enablement of the selected items that depend on a context
+	 * variable that changed since their last update, see
+	 * {@link AbstractContributionItem#isEnablementStale()}.
+	 *
+	 * @param selector
+	 *            selects the items to update
+	 */
+	public void updateStaleContributionItems(Selector selector) {
+		for (Set<AbstractContributionItem> items : itemsByToolBar.values()) {
+			updateContributionItems(items, selector, true);
+		}
+		updateRegistrations();
+	}
+
+	private void updateContributionItems(Set<AbstractContributionItem> items, Selector selector,
+			boolean staleOnly) {
+		for (final AbstractContributionItem ci : items) {
 			if (ci.getModel() != null && ci.getModel().getParent() != null) {
-				if (selector.select(ci.getModel())) {
+				if ((!staleOnly || ci.isEnablementStale()) && selector.select(ci.getModel())) {
 					ci.updateItemEnablement();
 				}
+				if (isMoved(ci)) {
+					movedToolItems.add(ci);
+				}
 			} else {
 				orphanedToolItems.add(ci);
 			}
 		}
+	}
+
+	private void updateRegistrations() {
 		if (!orphanedToolItems.isEmpty()) {
-			itemsToCheck.removeAll(orphanedToolItems);
+			for (AbstractContributionItem ci : orphanedToolItems) {
+				unregister(ci);
+				ci.invalidateEnablement();
+			}
 			orphanedToolItems.clear();
 		}
+		if (!movedToolItems.isEmpty()) {
+			for (AbstractContributionItem ci : movedToolItems) {
+				updateRegistration(ci);
+			}
+			movedToolItems.clear();
+		}
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -59,6 +59,7 @@ public class Activator implements BundleActivator, DebugOptionsListener {
 
 	private ServiceTracker<DebugOptions, DebugOptions> debugTracker;
 	private ServiceTracker<LogService, LogService> logTracker;
+	private BatchSubscriberTracker batchSubscriberTracker;
 
 	/** Tracks all bundles which are in the state: RESOLVED, STARTING, ACTIVE or STOPPING. */
 	private BundleTracker<List<Bundle>> resolvedBundles;
@@ -129,6 +130,10 @@ public class Activator implements BundleActivator, DebugOptionsListener {
 			logTracker.close();
 			logTracker = null;
 		}
+		if (batchSubscriberTracker != null) {
+			batchSubscriberTracker.close();
+			batchSubscriberTracker = null;
+		}
 		if (resolvedBundles != null) {
 			// the close of the BundleTracker will also remove all entries form the BundleFinder
 			resolvedBundles.close();
@@ -176,6 +181,18 @@ public class Activator implements BundleActivator, DebugOptionsListener {
 		return logService;
 	}
 
+	/**
+	 * @return the tracker of the subscribers of batch topics, or <code>null</code>
+	 *         if this bundle is not started
+	 */
+	synchronized BatchSubscriberTracker getBatchSubscriberTracker() {
+		if (batchSubscriberTracker == null && context != null) {
+			batchSubscriberTracker = new BatchSubscriberTracker(context);
+			batchSubscriberTracker.open();
+		}
+		return batchSubscriberTracker;
+	}
+
 	/**
 	 * @param level
 	 *            one from {@code LogService} constants
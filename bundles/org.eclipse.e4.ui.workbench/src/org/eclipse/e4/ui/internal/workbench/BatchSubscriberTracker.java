@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.e4.ui.workbench.UIEvents;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.Filter;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+import org.osgi.util.tracker.ServiceTracker;
+
+/**
+ * Tracks the event handlers subscribed to the batch topics of
+ * {@link UIEvents#getBatchTopic(String)}, so that the batches of a topic are
+ * only collected and published when they have subscribers.
+ * <p>
+ * Only the handlers subscribed to a topic below
+ * {@link UIEvents#UIModelBatchTopicBase} count, handlers subscribed to all the
+ * UI topics do not.
+ * </p>
+ */
+final class BatchSubscriberTracker extends ServiceTracker<EventHandler, String[]> {
+
+	private static final String FILTER = "(&(" + Constants.OBJECTCLASS + '=' //$NON-NLS-1$
+			+ EventHandler.class.getName() + ")(" + EventConstants.EVENT_TOPIC + '=' //$NON-NLS-1$
+			+ UIEvents.UIModelBatchTopicBase + UIEvents.TOPIC_SEP + "*))"; //$NON-NLS-1$
+
+	// The topics of the tracked handlers, only used in update
+	private final Map<ServiceReference<EventHandler>, String[]> topicsByHandler = new HashMap<>();
+
+	// The subscribed batch topics, possibly ending with a wildcard
+	private volatile String[] patterns = new String[0];
+
+	// Whether a batch topic has subscribers, replaced after the patterns change
+	private volatile Map<String, Boolean> subscribed = new ConcurrentHashMap<>();
+
+	/**
+	 * @param context
+	 *            the context of this bundle
+	 */
+	BatchSubscriberTracker(BundleContext context) {
+		super(context, createFilter(context), null);
+	}
+
+	private static Filter createFilter(BundleContext context) {
+		try {
+			return context.createFilter(FILTER);
+		} catch (InvalidSyntaxException e) {
+			// the filter is constant
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @param batchTopic
+	 *            a batch topic, see {@link UIEvents#getBatchTopic(String)}
+	 * @return whether an event handler is subscribed to the batch topic
+	 */
+	boolean hasSubscribers(String batchTopic) {
+		// read the cache first, so that it is not filled from outdated patterns
+		Map<String, Boolean> cache = subscribed;
+		String[] current = patterns;
+		if (current.length == 0) {
+			return false;
+		}
+		return cache.computeIfAbsent(batchTopic, topic -> Boolean.valueOf(matches(current, topic)))
+				.booleanValue();
+	}
+
+	/**
+	 * @return whether an event handler is subscribed to any batch topic
+	 */
+	boolean hasSubscribers() {
+		return patterns.length > 0;
+	}
+
+	private static boolean matches(String[] patterns, String topic) {
+		for (String pattern : patterns) {
+			if (pattern.endsWith("*") //$NON-NLS-1$
+					? topic.startsWith(pattern.substring(0, pattern.length() - 1))
+					: topic.equals(pattern)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String[] addingService(ServiceReference<EventHandler> reference) {
+		String[] topics = getTopics(reference);
+		update(reference, topics);
+		return topics;
+	}
+
+	@Override
+	public void modifiedService(ServiceReference<EventHandler> reference, String[] topics) {
+		update(reference, getTopics(reference));
+	}
+
+	@Override
+	public void removedService(ServiceReference<EventHandler> reference, String[] topics) {
+		update(reference, null);
+	}
+
+	private synchronized void update(ServiceReference<EventHandler> reference, String[] topics) {
+		if (topics == null) {
+			topicsByHandler.remove(reference);
+		} else {
+			topicsByHandler.put(reference, topics);
+		}
+		List<String> current = new ArrayList<>();
+		for (String[] handlerTopics : topicsByHandler.values()) {
+			for (String topic : handlerTopics) {
+				if (topic.startsWith(UIEvents.UIModelBatchTopicBase + UIEvents.TOPIC_SEP)) {
+					current.add(topic);
+				}
+			}
+		}
+		patterns = current.toArray(new String[current.size()]);
+		subscribed = new ConcurrentHashMap<>();
+	}
+
+	private static String[] getTopics(ServiceReference<EventHandler> reference) {
+		Object topics = reference.getProperty(EventConstants.EVENT_TOPIC);
+		if (topics instanceof String) {
+			return new String[] { (String) topics };
+		}
+		if (topics instanceof String[]) {
+			return (String[]) topics;
+		}
+		return new String[0];
+	}
+}
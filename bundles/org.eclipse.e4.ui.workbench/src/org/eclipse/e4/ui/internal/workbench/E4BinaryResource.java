@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl.EObjectInputStream;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl.EObjectOutputStream;
+
+/**
+ * An {@link E4XMIResource} persisted in the EMF binary format instead of XMI.
+ * The binary format refers to classes and features by index rather than by
+ * name, so it is both smaller and faster to load than XMI.
+ * <p>
+ * The ids of the elements, which the binary format does not store, are written
+ * after the contents, in the order of {@link #getAllContents()}.
+ * </p>
+ */
+public class E4BinaryResource extends E4XMIResource {
+
+	/**
+	 * The file extension of binary resources.
+	 */
+	public static final String FILE_EXTENSION = "bin"; //$NON-NLS-1$
+
+	/**
+	 * Creates a binary resource without a URI.
+	 */
+	public E4BinaryResource() {
+	}
+
+	/**
+	 * Creates a binary resource with the given URI.
+	 *
+	 * @param uri
+	 *            the URI of the resource
+	 */
+	public E4BinaryResource(URI uri) {
+		super(uri);
+	}
+
+	@Override
+	public void doSave(OutputStream outputStream, Map<?, ?> options) throws IOException {
+		EObjectOutputStream out = new EObjectOutputStream(outputStream, options);
+		out.saveResource(this);
+		for (TreeIterator<EObject> it = getAllContents(); it.hasNext();) {
+			out.writeString(getID(it.next()));
+		}
+		out.flush();
+	}
+
+	@Override
+	public void doLoad(InputStream inputStream, Map<?, ?> options) throws IOException {
+		EObjectInputStream in = new EObjectInputStream(inputStream, options);
+		in.loadResource(this);
+		for (TreeIterator<EObject> it = getAllContents(); it.hasNext();) {
+			EObject eObject = it.next();
+			String id = in.readString();
+			if (id != null) {
+				setID(eObject, id);
+			}
+		}
+	}
+
+	/**
+	 * Loads the resource from a file. The file is mapped into memory rather
+	 * than read through a stream, except on Windows where a mapped file cannot
+	 * be overwritten until the mapping is garbage collected.
+	 *
+	 * @param file
+	 *            the file to load
+	 * @param options
+	 *            the load options
+	 * @throws IOException
+	 *             if the file cannot be read or is not a binary model
+	 */
+	public void load(File file, Map<?, ?> options) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File too large: " + file); //$NON-NLS-1$
+			}
+			ByteBuffer buffer;
+			if (Platform.OS_WIN32.equals(Platform.getOS())) {
+				buffer = ByteBuffer.allocate((int) size);
+				while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+					// keep reading
+				}
+				buffer.flip();
+			} else {
+				buffer = channel.map(MapMode.READ_ONLY, 0, size);
+			}
+			load(new ByteBufferInputStream(buffer), options);
+		}
+	}
+
+	/**
+	 * An input stream reading the remaining bytes of a buffer.
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, count);
+			return count;
+		}
+
+		@Override
+		public long skip(long n) {
+			int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			buffer.position(buffer.position() + count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
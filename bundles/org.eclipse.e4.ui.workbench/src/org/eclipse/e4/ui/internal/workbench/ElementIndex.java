@@ -0,0 +1,482 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.model.application.MAddon;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.e4.ui.model.application.commands.MBindingContext;
+import org.eclipse.e4.ui.model.application.commands.MBindingTable;
+import org.eclipse.e4.ui.model.application.commands.MCommand;
+import org.eclipse.e4.ui.model.application.commands.MHandler;
+import org.eclipse.e4.ui.model.application.commands.MKeyBinding;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.MElementContainer;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
+import org.eclipse.e4.ui.workbench.Selector;
+import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * Indexes the elements of an application by id, tag and type, so that
+ * {@link EModelService#ANYWHERE} searches do not have to walk the whole model.
+ * <p>
+ * The index is kept up to date by adapting all the elements of the
+ * application. A search looks up the elements with the id, tags or type asked
+ * for, and keeps those that a walk from the search root would reach, in the
+ * order the walk would reach them. This order is given by the path from the
+ * search root to each element, made of the rank of the feature containing each
+ * element on the path and its index in that feature.
+ * </p>
+ */
+class ElementIndex extends EContentAdapter {
+
+	// The features a walk follows, in the order it follows them
+	private static final int APPLICATION_ELEMENTS = 1;
+	private static final int BINDING_CONTEXT_CHILDREN = 2;
+	private static final int BINDING_TABLE_BINDINGS = 3;
+	private static final int CONTAINER_CHILDREN = 4;
+	private static final int TRIM_BARS = 5;
+	private static final int WINDOW_WINDOWS = 6;
+	private static final int WINDOW_HANDLERS = 7;
+	private static final int PERSPECTIVE_WINDOWS = 8;
+	private static final int PLACEHOLDER_REF = 9;
+
+	private static final int RANK_SHIFT = 24;
+
+	private static final int[] UNREACHABLE = {};
+
+	private final MApplication application;
+
+	private final Map<String, Set<MApplicationElement>> elementsById = new HashMap<>();
+
+	private final Map<String, Set<MApplicationElement>> elementsByTag = new HashMap<>();
+
+	private final Map<EClass, Set<MApplicationElement>> elementsByType = new HashMap<>();
+
+	private final Map<MUIElement, Set<MPlaceholder>> placeholdersByRef = new HashMap<>();
+
+	// Placeholders whose reference may not be part of the application
+	private final Set<MPlaceholder> foreignRefs = new HashSet<>();
+
+	/**
+	 * An element found by a search, with the path along which it was found.
+	 */
+	private static final class Match {
+		final MApplicationElement element;
+		final int[] path;
+
+		Match(MApplicationElement element, int[] path) {
+			this.element = element;
+			this.path = path;
+		}
+	}
+
+	/**
+	 * Creates the index of an application and starts maintaining it.
+	 *
+	 * @param application
+	 *            the application to index
+	 */
+	ElementIndex(MApplication application) {
+		this.application = application;
+		((Notifier) application).eAdapters().add(this);
+	}
+
+	/**
+	 * @return the indexed application
+	 */
+	MApplication getApplication() {
+		return application;
+	}
+
+	/**
+	 * Stops maintaining the index.
+	 */
+	void dispose() {
+		((Notifier) application).eAdapters().remove(this);
+	}
+
+	/**
+	 * Returns the elements that an {@link EModelService#ANYWHERE} search from
+	 * the search root would find, in the same order.
+	 *
+	 * @param searchRoot
+	 *            an element of the indexed application
+	 * @param id
+	 *            the id of the elements, or <code>null</code>
+	 * @param clazz
+	 *            the type of the elements, or <code>null</code>
+	 * @param tagsToMatch
+	 *            the tags of the elements, or <code>null</code>
+	 * @param matcher
+	 *            the selector matching the id, type and tags
+	 * @return the elements, or <code>null</code> if the index cannot answer
+	 *         and the model has to be walked
+	 */
+	<T> List<T> findElements(MApplicationElement searchRoot, String id, Class<T> clazz,
+			List<String> tagsToMatch, Selector matcher) {
+		if (!checkForeignRefs()) {
+			return null;
+		}
+		Collection<MApplicationElement> candidates;
+		if (id != null) {
+			candidates = elementsById.get(id);
+		} else if (tagsToMatch != null && !tagsToMatch.isEmpty()) {
+			candidates = null;
+			for (String tag : tagsToMatch) {
+				Set<MApplicationElement> tagged = elementsByTag.get(tag);
+				if (tagged == null) {
+					candidates = null;
+					break;
+				}
+				if (candidates == null || tagged.size() < candidates.size()) {
+					candidates = tagged;
+				}
+			}
+		} else if (clazz != null) {
+			candidates = new ArrayList<>();
+			for (Map.Entry<EClass, Set<MApplicationElement>> entry : elementsByType.entrySet()) {
+				Class<?> instanceClass = entry.getKey().getInstanceClass();
+				if (instanceClass != null && clazz.isAssignableFrom(instanceClass)) {
+					candidates.addAll(entry.getValue());
+				}
+			}
+		} else {
+			return null;
+		}
+		if (candidates == null || candidates.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		Map<MApplicationElement, int[]> paths = new IdentityHashMap<>();
+		Set<MApplicationElement> visiting = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Match> matches = new ArrayList<>();
+		for (MApplicationElement candidate : candidates) {
+			if (!matcher.select(candidate)) {
+				continue;
+			}
+			int[] path = getPath(candidate, searchRoot, clazz, paths, visiting);
+			if (path != UNREACHABLE) {
+				matches.add(new Match(candidate, path));
+			}
+		}
+		Collections.sort(matches, (match1, match2) -> comparePaths(match1.path, match2.path));
+		List<T> elements = new ArrayList<>(matches.size());
+		for (Match match : matches) {
+			@SuppressWarnings("unchecked")
+			T element = (T) match.element;
+			elements.add(element);
+		}
+		return elements;
+	}
+
+	/**
+	 * Orders paths the way a walk of the model visits their elements: an
+	 * element is visited before its children.
+	 */
+	private static int comparePaths(int[] path1, int[] path2) {
+		int length = Math.min(path1.length, path2.length);
+		for (int i = 0; i < length; i++) {
+			if (path1[i] != path2[i]) {
+				return path1[i] < path2[i] ? -1 : 1;
+			}
+		}
+		return path1.length - path2.length;
+	}
+
+	/**
+	 * Returns whether all the elements referenced by placeholders of the
+	 * application are part of the application, so that the index contains all
+	 * the elements a walk can reach.
+	 */
+	private boolean checkForeignRefs() {
+		for (Iterator<MPlaceholder> iterator = foreignRefs.iterator(); iterator.hasNext();) {
+			MPlaceholder placeholder = iterator.next();
+			MUIElement ref = placeholder.getRef();
+			if (ref == null || EcoreUtil.getRootContainer((EObject) ref) == application
+					|| EcoreUtil.getRootContainer((EObject) placeholder) != application) {
+				iterator.remove();
+			}
+		}
+		return foreignRefs.isEmpty();
+	}
+
+	/**
+	 * Returns the path from the search root to the element along which a walk
+	 * first reaches it, or {@link #UNREACHABLE}.
+	 */
+	private int[] getPath(MApplicationElement element, MApplicationElement searchRoot, Class<?> clazz,
+			Map<MApplicationElement, int[]> paths, Set<MApplicationElement> visiting) {
+		if (element == searchRoot) {
+			return new int[0];
+		}
+		int[] path = paths.get(element);
+		if (path != null) {
+			return path;
+		}
+		if (!visiting.add(element)) {
+			// a cycle of placeholders
+			return UNREACHABLE;
+		}
+		path = UNREACHABLE;
+		EObject container = ((EObject) element).eContainer();
+		if (container instanceof MApplicationElement) {
+			int step = getStep((MApplicationElement) container, element, clazz);
+			if (step >= 0) {
+				path = append(getPath((MApplicationElement) container, searchRoot, clazz, paths, visiting), step);
+			}
+		}
+		Set<MPlaceholder> placeholders = placeholdersByRef.get(element);
+		if (placeholders != null) {
+			for (MPlaceholder placeholder : placeholders) {
+				int[] refPath = append(getPath(placeholder, searchRoot, clazz, paths, visiting),
+						PLACEHOLDER_REF << RANK_SHIFT);
+				if (refPath != UNREACHABLE && (path == UNREACHABLE || comparePaths(refPath, path) < 0)) {
+					path = refPath;
+				}
+			}
+		}
+		visiting.remove(element);
+		paths.put(element, path);
+		return path;
+	}
+
+	private static int[] append(int[] path, int step) {
+		if (path == UNREACHABLE) {
+			return UNREACHABLE;
+		}
+		int[] appended = new int[path.length + 1];
+		System.arraycopy(path, 0, appended, 0, path.length);
+		appended[path.length] = step;
+		return appended;
+	}
+
+	/**
+	 * Returns the step from the parent to its child that a walk follows, or -1
+	 * if the walk does not follow the feature containing the child.
+	 */
+	private static int getStep(MApplicationElement parent, MApplicationElement child, Class<?> clazz) {
+		int index;
+		if (parent instanceof MApplication) {
+			List<?> elements = getApplicationElements((MApplication) parent, clazz);
+			if (elements != null && (index = elements.indexOf(child)) >= 0) {
+				return APPLICATION_ELEMENTS << RANK_SHIFT | index;
+			}
+		}
+		if (parent instanceof MBindingContext
+				&& (index = ((MBindingContext) parent).getChildren().indexOf(child)) >= 0) {
+			return BINDING_CONTEXT_CHILDREN << RANK_SHIFT | index;
+		}
+		if (parent instanceof MBindingTable
+				&& (index = ((MBindingTable) parent).getBindings().indexOf(child)) >= 0) {
+			return BINDING_TABLE_BINDINGS << RANK_SHIFT | index;
+		}
+		if (parent instanceof MElementContainer<?>
+				&& (index = ((MElementContainer<?>) parent).getChildren().indexOf(child)) >= 0) {
+			return CONTAINER_CHILDREN << RANK_SHIFT | index;
+		}
+		if (parent instanceof MTrimmedWindow
+				&& (index = ((MTrimmedWindow) parent).getTrimBars().indexOf(child)) >= 0) {
+			return TRIM_BARS << RANK_SHIFT | index;
+		}
+		if (parent instanceof MWindow) {
+			MWindow window = (MWindow) parent;
+			if ((index = window.getWindows().indexOf(child)) >= 0) {
+				return WINDOW_WINDOWS << RANK_SHIFT | index;
+			}
+			if (MHandler.class.equals(clazz) && (index = window.getHandlers().indexOf(child)) >= 0) {
+				return WINDOW_HANDLERS << RANK_SHIFT | index;
+			}
+		}
+		if (parent instanceof MPerspective
+				&& (index = ((MPerspective) parent).getWindows().indexOf(child)) >= 0) {
+			return PERSPECTIVE_WINDOWS << RANK_SHIFT | index;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the elements of the application, other than its windows, that a
+	 * walk searches for elements of the given type.
+	 */
+	private static List<?> getApplicationElements(MApplication application, Class<?> clazz) {
+		if (clazz == null) {
+			return null;
+		} else if (clazz.equals(MHandler.class)) {
+			return application.getHandlers();
+		} else if (clazz.equals(MCommand.class)) {
+			return application.getCommands();
+		} else if (clazz.equals(MBindingContext.class)) {
+			return application.getBindingContexts();
+		} else if (clazz.equals(MBindingTable.class) || clazz.equals(MKeyBinding.class)) {
+			return application.getBindingTables();
+		} else if (clazz.equals(MAddon.class)) {
+			return application.getAddons();
+		}
+		return null;
+	}
+
+	@Override
+	protected void setTarget(EObject target) {
+		if (target instanceof MApplicationElement) {
+			addElement((MApplicationElement) target);
+		}
+		super.setTarget(target);
+	}
+
+	@Override
+	protected void unsetTarget(EObject target) {
+		if (target instanceof MApplicationElement) {
+			removeElement((MApplicationElement) target);
+		}
+		super.unsetTarget(target);
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+		if (notification.isTouch() || !(notification.getNotifier() instanceof MApplicationElement)) {
+			return;
+		}
+		MApplicationElement element = (MApplicationElement) notification.getNotifier();
+		Object feature = notification.getFeature();
+		if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__ELEMENT_ID) {
+			remove(elementsById, (String) notification.getOldValue(), element);
+			add(elementsById, (String) notification.getNewValue(), element);
+		} else if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__TAGS) {
+			updateTags(element, notification);
+		} else if (feature == AdvancedPackageImpl.Literals.PLACEHOLDER__REF) {
+			MPlaceholder placeholder = (MPlaceholder) element;
+			removeRef(placeholder, (MUIElement) notification.getOldValue());
+			addRef(placeholder, (MUIElement) notification.getNewValue());
+		}
+	}
+
+	private void updateTags(MApplicationElement element, Notification notification) {
+		switch (notification.getEventType()) {
+		case Notification.ADD:
+			add(elementsByTag, (String) notification.getNewValue(), element);
+			break;
+		case Notification.ADD_MANY:
+			for (Object tag : (Collection<?>) notification.getNewValue()) {
+				add(elementsByTag, (String) tag, element);
+			}
+			break;
+		case Notification.REMOVE:
+			removeTag(element, (String) notification.getOldValue());
+			break;
+		case Notification.REMOVE_MANY:
+			for (Object tag : (Collection<?>) notification.getOldValue()) {
+				removeTag(element, (String) tag);
+			}
+			break;
+		case Notification.SET:
+			removeTag(element, (String) notification.getOldValue());
+			add(elementsByTag, (String) notification.getNewValue(), element);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void removeTag(MApplicationElement element, String tag) {
+		// tags may be repeated
+		if (!element.getTags().contains(tag)) {
+			remove(elementsByTag, tag, element);
+		}
+	}
+
+	private void addElement(MApplicationElement element) {
+		add(elementsById, element.getElementId(), element);
+		for (String tag : element.getTags()) {
+			add(elementsByTag, tag, element);
+		}
+		add(elementsByType, ((EObject) element).eClass(), element);
+		if (element instanceof MPlaceholder) {
+			addRef((MPlaceholder) element, ((MPlaceholder) element).getRef());
+		}
+	}
+
+	private void removeElement(MApplicationElement element) {
+		remove(elementsById, element.getElementId(), element);
+		for (String tag : element.getTags()) {
+			remove(elementsByTag, tag, element);
+		}
+		remove(elementsByType, ((EObject) element).eClass(), element);
+		if (element instanceof MPlaceholder) {
+			removeRef((MPlaceholder) element, ((MPlaceholder) element).getRef());
+		}
+		Set<MPlaceholder> placeholders = placeholdersByRef.get(element);
+		if (placeholders != null) {
+			// still reachable through these placeholders
+			foreignRefs.addAll(placeholders);
+		}
+	}
+
+	private void addRef(MPlaceholder placeholder, MUIElement ref) {
+		if (ref != null) {
+			add(placeholdersByRef, ref, placeholder);
+			if (EcoreUtil.getRootContainer((EObject) ref) != application) {
+				foreignRefs.add(placeholder);
+			}
+		}
+	}
+
+	private void removeRef(MPlaceholder placeholder, MUIElement ref) {
+		if (ref != null) {
+			remove(placeholdersByRef, ref, placeholder);
+		}
+		foreignRefs.remove(placeholder);
+	}
+
+	private static <K, V> void add(Map<K, Set<V>> map, K key, V value) {
+		if (key == null) {
+			return;
+		}
+		Set<V> values = map.get(key);
+		if (values == null) {
+			values = new HashSet<>(2);
+			map.put(key, values);
+		}
+		values.add(value);
+	}
+
+	private static <K, V> void remove(Map<K, Set<V>> map, K key, V value) {
+		if (key == null) {
+			return;
+		}
+		Set<V> values = map.get(key);
+		if (values != null && values.remove(value) && values.isEmpty()) {
+			map.remove(key);
+		}
+	}
+}
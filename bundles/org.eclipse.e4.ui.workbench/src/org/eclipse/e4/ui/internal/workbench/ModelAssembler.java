@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2016 BestSolution.at and others.
+ * Copyright (c) 2010, 2018 BestSolution.at and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -209,10 +209,21 @@ public class ModelAssembler {
 	}
 
 	public void processFragments(Collection<ModelFragmentWrapper> fragmentList) {
-		for (ModelFragmentWrapper fragmentWrapper : fragmentList) {
-			processFragment(fragmentWrapper.getFragmentContainer(), fragmentWrapper.getModelFragment(),
-					fragmentWrapper.getContributorName(), fragmentWrapper.getContributorURI(),
-					fragmentWrapper.isCheckExists());
+		// The publisher only exists once the model is loaded, later merges are batched
+		UIEventPublisher publisher = context.get(UIEventPublisher.class);
+		if (publisher != null) {
+			publisher.beginBatch();
+		}
+		try {
+			for (ModelFragmentWrapper fragmentWrapper : fragmentList) {
+				processFragment(fragmentWrapper.getFragmentContainer(), fragmentWrapper.getModelFragment(),
+						fragmentWrapper.getContributorName(), fragmentWrapper.getContributorURI(),
+						fragmentWrapper.isCheckExists());
+			}
+		} finally {
+			if (publisher != null) {
+				publisher.endBatch();
+			}
 		}
 	}
 
@@ -88,6 +88,9 @@ public class ModelServiceImpl implements EModelService {
 
 	private ServiceRegistration<?> handlerRegistration;
 
+	/** The index of the application searched last, if it is the application of the context. */
+	private ElementIndex elementIndex;
+
 	/**
 	 * This is a singleton service. One instance is used throughout the running application
 	 *
@@ -137,6 +140,10 @@ public class ModelServiceImpl implements EModelService {
 		if (handlerRegistration != null) {
 			handlerRegistration.unregister();
 		}
+		if (elementIndex != null) {
+			elementIndex.dispose();
+			elementIndex = null;
+		}
 	}
 
 	@Override
@@ -393,17 +400,49 @@ public class ModelServiceImpl implements EModelService {
 	@Override
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch) {
-		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
-		return findElements(searchRoot, clazz, ANYWHERE, matcher);
+		return findElements(searchRoot, id, clazz, tagsToMatch, ANYWHERE);
 	}
 
 	@Override
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch, int searchFlags) {
 		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
+		if (searchFlags == ANYWHERE) {
+			Assert.isLegal(searchRoot != null);
+			ElementIndex index = getElementIndex(searchRoot);
+			if (index != null) {
+				List<T> elements = index.findElements(searchRoot, id, clazz, tagsToMatch, matcher);
+				if (elements != null) {
+					return elements;
+				}
+			}
+		}
 		return findElements(searchRoot, clazz, searchFlags, matcher);
 	}
 
+	/**
+	 * Returns the index of the application of the search root, if it is the
+	 * application of the context.
+	 *
+	 * @param searchRoot
+	 *            the root of a search
+	 * @return the index or <code>null</code>
+	 */
+	private ElementIndex getElementIndex(MApplicationElement searchRoot) {
+		EObject root = EcoreUtil.getRootContainer((EObject) searchRoot);
+		if (elementIndex != null && elementIndex.getApplication() == root) {
+			return elementIndex;
+		}
+		if (!(root instanceof MApplication) || root != appContext.get(MApplication.class)) {
+			return null;
+		}
+		if (elementIndex != null) {
+			elementIndex.dispose();
+		}
+		elementIndex = new ElementIndex((MApplication) root);
+		return elementIndex;
+	}
+
 	@Override
 	public <T> List<T> findElements(MApplicationElement searchRoot, Class<T> clazz,
 			int searchFlags, Selector matcher) {
@@ -888,6 +927,21 @@ public class ModelServiceImpl implements EModelService {
 			return;
 		}
 
+		UIEventPublisher publisher = appContext.get(UIEventPublisher.class);
+		if (publisher != null) {
+			publisher.beginBatch();
+		}
+		try {
+			doResetPerspectiveModel(persp, window, removeSharedPlaceholders);
+		} finally {
+			if (publisher != null) {
+				publisher.endBatch();
+			}
+		}
+	}
+
+	private void doResetPerspectiveModel(MPerspective persp, MWindow window,
+			boolean removeSharedPlaceholders) {
 		if (removeSharedPlaceholders) {
 			// Remove any views (Placeholders) from the shared area
 			EPartService ps = window.getContext().get(EPartService.class);
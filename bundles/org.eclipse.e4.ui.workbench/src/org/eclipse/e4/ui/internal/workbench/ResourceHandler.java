@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,6 +22,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -86,6 +87,11 @@ public class ResourceHandler implements IModelResourceHandler {
 	@Named(IWorkbench.CLEAR_PERSISTED_STATE)
 	private boolean clearPersistedState;
 
+	@Inject
+	@Optional
+	@Named(IWorkbench.PERSIST_BINARY)
+	private boolean persistBinary;
+
 	/**
 	 * Constructor.
 	 *
@@ -104,6 +110,8 @@ public class ResourceHandler implements IModelResourceHandler {
 		resourceSet = new ResourceSetImpl();
 		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap()
 				.put(Resource.Factory.Registry.DEFAULT_EXTENSION, new E4XMIResourceFactory());
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(E4BinaryResource.FILE_EXTENSION,
+				E4BinaryResource::new);
 		resourceSet.getPackageRegistry().put(ApplicationPackageImpl.eNS_URI, ApplicationPackageImpl.eINSTANCE);
 		resourceSet.getPackageRegistry().put(CommandsPackageImpl.eNS_URI, CommandsPackageImpl.eINSTANCE);
 		resourceSet.getPackageRegistry().put(UiPackageImpl.eNS_URI, UiPackageImpl.eINSTANCE);
@@ -139,30 +147,44 @@ public class ResourceHandler implements IModelResourceHandler {
 	@Override
 	public Resource loadMostRecentModel() {
 		File workbenchData = null;
+		File binaryData = null;
 		URI restoreLocation = null;
 
 		if (saveAndRestore) {
 			workbenchData = getWorkbenchSaveLocation();
+			binaryData = getBinarySaveLocation();
 			restoreLocation = URI.createFileURI(workbenchData.getAbsolutePath());
 		}
 
-		if (clearPersistedState && workbenchData != null && workbenchData.exists()) {
-			workbenchData.delete();
+		if (clearPersistedState && workbenchData != null) {
+			if (workbenchData.exists()) {
+				workbenchData.delete();
+			}
+			if (binaryData.exists()) {
+				binaryData.delete();
+			}
 		}
 
-		// last stored time-stamp
-		long restoreLastModified = restoreLocation == null ? 0L : new File(
-				restoreLocation.toFileString()).lastModified();
+		// last stored time-stamps
+		long restoreLastModified = workbenchData == null ? 0L : workbenchData.lastModified();
+		long binaryLastModified = binaryData == null ? 0L : binaryData.lastModified();
 
 		// See bug 380663, bug 381219
 		// long lastApplicationModification = getLastApplicationModification();
 		// boolean restore = restoreLastModified > lastApplicationModification;
-		boolean restore = restoreLastModified > 0;
+		boolean restore = restoreLastModified > 0 || binaryLastModified > 0;
 		boolean initialModel;
 
 		resource = null;
 		if (restore && saveAndRestore) {
-			resource = loadResource(restoreLocation);
+			// restore the most recently saved model, whatever the format it is
+			// saved in now
+			if (binaryLastModified >= restoreLastModified) {
+				resource = loadBinaryResource(binaryData);
+			}
+			if (resource == null && restoreLastModified > 0) {
+				resource = loadResource(restoreLocation);
+			}
 			// If the saved model does not have any top-level windows, Eclipse will exit
 			// immediately, so throw out the persisted state and reinitialize with the defaults.
 			if (!hasTopLevelWindows(resource)) {
@@ -171,6 +193,8 @@ public class ResourceHandler implements IModelResourceHandler {
 							"The persisted application model has no top-level window. Reinitializing with the default application model."); //$NON-NLS-1$
 				}
 				resource = null;
+			} else {
+				resource = convertResource(resource);
 			}
 		}
 		if (resource == null) {
@@ -227,7 +251,8 @@ public class ResourceHandler implements IModelResourceHandler {
 
 	private Resource createResource() {
 		if (saveAndRestore) {
-			URI saveLocation = URI.createFileURI(getWorkbenchSaveLocation().getAbsolutePath());
+			File saveFile = persistBinary ? getBinarySaveLocation() : getWorkbenchSaveLocation();
+			URI saveLocation = URI.createFileURI(saveFile.getAbsolutePath());
 			return resourceSet.createResource(saveLocation);
 		}
 		return resourceSet.createResource(URI.createURI("workbench.xmi")); //$NON-NLS-1$
@@ -238,6 +263,10 @@ public class ResourceHandler implements IModelResourceHandler {
 		return workbenchData;
 	}
 
+	private File getBinarySaveLocation() {
+		return new File(getBaseLocation(), "workbench." + E4BinaryResource.FILE_EXTENSION); //$NON-NLS-1$
+	}
+
 	private File getBaseLocation() {
 		File baseLocation;
 		try {
@@ -251,6 +280,52 @@ public class ResourceHandler implements IModelResourceHandler {
 		return baseLocation;
 	}
 
+	/**
+	 * Loads a model saved in the binary format.
+	 *
+	 * @return the resource, or <code>null</code> if the file cannot be loaded,
+	 *         in which case the model saved as XMI is restored instead
+	 */
+	private Resource loadBinaryResource(File file) {
+		E4BinaryResource binaryResource = (E4BinaryResource) resourceSet
+				.createResource(URI.createFileURI(file.getAbsolutePath()));
+		try {
+			binaryResource.load(file, resourceSet.getLoadOptions());
+		} catch (IOException | RuntimeException e) {
+			logger.error(e, "Unable to load resource " + file); //$NON-NLS-1$
+			resourceSet.getResources().remove(binaryResource);
+			return null;
+		}
+		return binaryResource;
+	}
+
+	/**
+	 * Moves the contents of a restored resource into a resource of the format
+	 * the model is saved in, keeping the ids of its elements, when the format
+	 * was changed since the model was saved.
+	 */
+	private Resource convertResource(Resource restored) {
+		boolean restoredBinary = restored instanceof E4BinaryResource;
+		if (restoredBinary == persistBinary || !(restored instanceof E4XMIResource)) {
+			return restored;
+		}
+		E4XMIResource source = (E4XMIResource) restored;
+		Map<EObject, String> ids = new HashMap<>();
+		TreeIterator<EObject> it = source.getAllContents();
+		while (it.hasNext()) {
+			EObject o = it.next();
+			String id = source.getID(o);
+			if (id != null) {
+				ids.put(o, id);
+			}
+		}
+		E4XMIResource target = (E4XMIResource) createResource();
+		target.getContents().addAll(source.getContents());
+		ids.forEach(target::setID);
+		resourceSet.getResources().remove(source);
+		return target;
+	}
+
 	// Ensures that even models with error are loaded!
 	private Resource loadResource(URI uri) {
 		Resource resource;
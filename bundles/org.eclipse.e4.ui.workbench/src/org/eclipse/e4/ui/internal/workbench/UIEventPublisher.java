@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,13 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
@@ -30,11 +35,34 @@ import org.osgi.service.log.LogService;
 
 /**
  * Transforms E4 MPart events into 3.x legacy events.
+ * <p>
+ * Changes can be batched with {@link #beginBatch()} and {@link #endBatch()}: the
+ * events of the batched changes are published as one event per topic on the
+ * batch topics of {@link UIEvents#getBatchTopic(String)} when the batch ends,
+ * instead of one by one on their model topic. Only the topics whose batch topic
+ * has subscribers are batched, the others are published as usual.
+ * </p>
  */
 public class UIEventPublisher extends EContentAdapter {
 
+	private static final String APPLICATION_ELEMENT_TOPIC = "org/eclipse/e4/ui/model/application/ApplicationElement/"; //$NON-NLS-1$
+
+	// The topics of the model features and map attributes, indexed by notification event type
+	private static final Map<EStructuralFeature, String[]> topicsByFeature = new ConcurrentHashMap<>();
+	private static final Map<String, String[]> topicsByAttribute = new ConcurrentHashMap<>();
+	private static final Map<String, String> batchTopics = new ConcurrentHashMap<>();
+
 	private IEclipseContext context;
 
+	// Guards batchDepth and batchedEvents, events are sent without holding it
+	private final Object batchLock = new Object();
+
+	private int batchDepth;
+
+	// The argument maps of the batched events by batch topic, in the order the topics were first
+	// published
+	private Map<String, List<Map<String, Object>>> batchedEvents;
+
 	/**
 	 * @param e4Context
 	 */
@@ -55,12 +83,104 @@ public class UIEventPublisher extends EContentAdapter {
 
 		String topic = formatData(notification, argMap);
 
-		if (topic != null) {
+		if (topic != null && !addToBatch(topic, argMap)) {
 			IEventBroker eventManager = context.get(IEventBroker.class);
 			eventManager.send(topic, argMap);
 		}
 	}
 
+	/**
+	 * Adds an event to the batch of its topic if a batch is open and the batch topic has
+	 * subscribers.
+	 *
+	 * @return whether the event is published with its batch
+	 */
+	private boolean addToBatch(String topic, Map<String, Object> argMap) {
+		if (!isBatching()) {
+			return false;
+		}
+		String batchTopic = getSubscribedBatchTopic(topic);
+		if (batchTopic == null) {
+			return false;
+		}
+		synchronized (batchLock) {
+			if (batchDepth == 0) {
+				return false;
+			}
+			List<Map<String, Object>> events = batchedEvents.get(batchTopic);
+			if (events == null) {
+				events = new ArrayList<>();
+				batchedEvents.put(batchTopic, events);
+			}
+			events.add(argMap);
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the batch topic of a model topic if it has subscribers.
+	 */
+	private static String getSubscribedBatchTopic(String topic) {
+		Activator activator = Activator.getDefault();
+		BatchSubscriberTracker tracker = activator == null ? null : activator.getBatchSubscriberTracker();
+		if (tracker == null || !tracker.hasSubscribers()) {
+			return null;
+		}
+		String batchTopic = batchTopics.computeIfAbsent(topic, t -> UIEvents.getBatchTopic(t).intern());
+		return tracker.hasSubscribers(batchTopic) ? batchTopic : null;
+	}
+
+	/**
+	 * Starts a batch of model changes. The events of the changes whose batch topic has
+	 * subscribers are held back, and published as a single event per topic on the batch topic
+	 * when the outermost batch ends. Batches can be nested. Must be called in the thread that changes the model, and followed
+	 * by {@link #endBatch()} in a <code>finally</code> block.
+	 */
+	public void beginBatch() {
+		synchronized (batchLock) {
+			if (batchDepth++ == 0) {
+				batchedEvents = new LinkedHashMap<>();
+			}
+		}
+	}
+
+	/**
+	 * Ends a batch of model changes started with {@link #beginBatch()}. Publishes the batched
+	 * events if this ends the outermost batch.
+	 *
+	 * @throws IllegalStateException
+	 *             if no batch was started
+	 */
+	public void endBatch() {
+		Map<String, List<Map<String, Object>>> events;
+		synchronized (batchLock) {
+			if (batchDepth == 0) {
+				throw new IllegalStateException("No batch to end"); //$NON-NLS-1$
+			}
+			if (--batchDepth > 0) {
+				return;
+			}
+			events = batchedEvents;
+			batchedEvents = null;
+		}
+		if (events.isEmpty()) {
+			return;
+		}
+		IEventBroker eventManager = context.get(IEventBroker.class);
+		for (Map.Entry<String, List<Map<String, Object>>> entry : events.entrySet()) {
+			eventManager.send(entry.getKey(), Collections.singletonMap(EventTags.BATCH, entry.getValue()));
+		}
+	}
+
+	/**
+	 * @return whether model changes are batched
+	 */
+	public boolean isBatching() {
+		synchronized (batchLock) {
+			return batchDepth > 0;
+		}
+	}
+
 	/**
 	 * Large hack here. Open to better suggestions
 	 *
@@ -115,7 +235,7 @@ public class UIEventPublisher extends EContentAdapter {
 			appElement = (MApplicationElement) notifier;
 			feature = (EStructuralFeature) notification.getFeature();
 			attributeName = feature.getName();
-			topic = getTopic(feature, getEventType(notification));
+			topic = getTopic(feature, notification.getEventType());
 			switch (notification.getEventType()) {
 			case Notification.MOVE:
 				// for MOVE, oldValue is actually the source position
@@ -165,7 +285,7 @@ public class UIEventPublisher extends EContentAdapter {
 			}
 
 			attributeName = UIEvents.ApplicationElement.TRANSIENTDATA;
-			topic = getTopic(attributeName, getEventType(notification));
+			topic = getTopic(attributeName, notification.getEventType());
 
 			// We need to send MapEntries for the old and new values.
 			oldValue = createMapEntry(key, notification.getOldValue());
@@ -188,7 +308,7 @@ public class UIEventPublisher extends EContentAdapter {
 			}
 
 			attributeName = UIEvents.ApplicationElement.PERSISTEDSTATE;
-			topic = getTopic(attributeName, getEventType(notification));
+			topic = getTopic(attributeName, notification.getEventType());
 			oldValue = createMapEntry(key, notification.getOldValue());
 			newValue = createMapEntry(key, notification.getNewValue());
 		} else {
@@ -225,8 +345,12 @@ public class UIEventPublisher extends EContentAdapter {
 		return topic;
 	}
 
-	private String getEventType(Notification notification) {
-		switch (notification.getEventType()) {
+	private static String getEventType(Notification notification) {
+		return getEventType(notification.getEventType());
+	}
+
+	private static String getEventType(int eventType) {
+		switch (eventType) {
 		case Notification.ADD:
 			return EventTypes.ADD;
 
@@ -269,7 +393,24 @@ public class UIEventPublisher extends EContentAdapter {
 		};
 	}
 
-	private String getTopic(EStructuralFeature eFeature, String type) {
+	private static String getTopic(EStructuralFeature eFeature, int eventType) {
+		String[] topics = topicsByFeature.get(eFeature);
+		if (topics == null) {
+			topics = new String[Notification.EVENT_TYPE_COUNT];
+			topicsByFeature.put(eFeature, topics);
+		}
+		if (eventType < 0 || eventType >= topics.length) {
+			return getTopic(eFeature, getEventType(eventType));
+		}
+		String topic = topics[eventType];
+		if (topic == null) {
+			topic = getTopic(eFeature, getEventType(eventType)).intern();
+			topics[eventType] = topic;
+		}
+		return topic;
+	}
+
+	private static String getTopic(EStructuralFeature eFeature, String type) {
 		EClass eContainingClass = eFeature.getEContainingClass();
 		return UIEvents.UIModelTopicBase + UIEvents.TOPIC_SEP
 				+ eContainingClass.getEPackage().getName() + UIEvents.TOPIC_SEP
@@ -277,8 +418,24 @@ public class UIEventPublisher extends EContentAdapter {
 				+ UIEvents.TOPIC_SEP + type;
 	}
 
-	private String getTopic(String attributeName, String type) {
-		String topicBase = "org/eclipse/e4/ui/model/application/ApplicationElement/"; //$NON-NLS-1$
-		return topicBase + attributeName + UIEvents.TOPIC_SEP + type;
+	private static String getTopic(String attributeName, int eventType) {
+		String[] topics = topicsByAttribute.get(attributeName);
+		if (topics == null) {
+			topics = new String[Notification.EVENT_TYPE_COUNT];
+			topicsByAttribute.put(attributeName, topics);
+		}
+		if (eventType < 0 || eventType >= topics.length) {
+			return getTopic(attributeName, getEventType(eventType));
+		}
+		String topic = topics[eventType];
+		if (topic == null) {
+			topic = getTopic(attributeName, getEventType(eventType)).intern();
+			topics[eventType] = topic;
+		}
+		return topic;
+	}
+
+	private static String getTopic(String attributeName, String type) {
+		return APPLICATION_ELEMENT_TOPIC + attributeName + UIEvents.TOPIC_SEP + type;
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 BestSolution.at and others.
+ * Copyright (c) 2008, 2018 BestSolution.at and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -76,6 +76,17 @@ public interface IWorkbench {
 	 * Value is: <code>persistState</code>
 	 */
 	public static final String PERSIST_STATE = "persistState"; //$NON-NLS-1$
+	/**
+	 * The argument for whether the workbench should save its state in a binary
+	 * format rather than as XMI. The binary format is smaller and faster to
+	 * restore; the state saved as XMI is still restored when there is no
+	 * readable binary state. <br>
+	 * <br>
+	 * Value is: <code>persistBinary</code>
+	 *
+	 * @since 1.7
+	 */
+	public static final String PERSIST_BINARY = "persistBinary"; //$NON-NLS-1$
 	/**
 	 * The argument for the {@link URI} of the application presentation <br>
 	 * <br>
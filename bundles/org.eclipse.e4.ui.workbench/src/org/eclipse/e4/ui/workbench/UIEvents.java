@@ -59,6 +59,14 @@ public class UIEvents {
 	 */
 	public static final String UIModelTopicBase = UITopicBase + "/model"; //$NON-NLS-1$
 
+	/**
+	 * Name element for all batches of E4 UI model events
+	 *
+	 * @see #getBatchTopic(String)
+	 * @since 1.7
+	 */
+	public static final String UIModelBatchTopicBase = UITopicBase + "/modelBatch"; //$NON-NLS-1$
+
 	/**
 	 * Name element for E4 Renderer events
 	 *
@@ -84,6 +92,16 @@ public class UIEvents {
 	public static final String REQUEST_ENABLEMENT_UPDATE_TOPIC = UIRendererTopicBase
 			+ "/requestEnablementUpdate"; //$NON-NLS-1$
 
+	/**
+	 * Event sent when an enabled update is requested for the tool-items whose
+	 * enablement depends on a context variable that changed since their
+	 * enablement was last updated. No {@link IEventBroker#DATA} is expected.
+	 *
+	 * @since 1.7
+	 */
+	public static final String REQUEST_STALE_ENABLEMENT_UPDATE_TOPIC = UIRendererTopicBase
+			+ "/requestStaleEnablementUpdate"; //$NON-NLS-1$
+
 	/**
 	 * Special id passed to force all elements to be checked
 	 *
@@ -259,6 +277,14 @@ public class UIEvents {
 		 * The position (if applicable) of the change within the list.
 		 */
 		String POSITION = "Position"; //$NON-NLS-1$
+		/**
+		 * The argument maps of the events of a batch, as a {@link java.util.List} in the order
+		 * the model changed
+		 *
+		 * @see UIEvents#getBatchTopic(String)
+		 * @since 1.7
+		 */
+		String BATCH = "Batch"; //$NON-NLS-1$
 	}
 
 	/**
@@ -375,6 +401,38 @@ public class UIEvents {
 		return eventBroker.send(topic, argMap);
 	}
 
+	/**
+	 * Returns the topic of the batches of events of a model topic.
+	 * <p>
+	 * Model changes made while the UI event publisher batches them, for example while a
+	 * perspective is reset or model fragments are merged, are not published on a model topic whose
+	 * batch topic has subscribers. When the batch ends, the events of each such topic are
+	 * published as a single event on the batch topic instead, with their argument maps in the
+	 * {@link EventTags#BATCH} property. The changes made outside a batch are only published on
+	 * their model topic. Subscribers that handle many changes at once therefore subscribe to both
+	 * topics.
+	 * </p>
+	 * <p>
+	 * Subscribing to a batch topic changes what all the subscribers of its model topic receive
+	 * during a batch, so only subscribe to the batch topics of model topics whose other
+	 * subscribers do not depend on the single events. Subscribing to all UI topics with a wildcard
+	 * does not cause changes to be batched.
+	 * </p>
+	 *
+	 * @param topic
+	 *            a model topic, such as {@link ElementContainer#TOPIC_CHILDREN}
+	 * @return the batch topic of the model topic, with the same attribute and event type
+	 * @throws IllegalArgumentException
+	 *             if the topic is not a model topic
+	 * @since 1.7
+	 */
+	public static String getBatchTopic(String topic) {
+		if (!topic.startsWith(UIModelTopicBase + TOPIC_SEP)) {
+			throw new IllegalArgumentException("Not a model topic: " + topic); //$NON-NLS-1$
+		}
+		return UIModelBatchTopicBase + topic.substring(UIModelTopicBase.length());
+	}
+
 	@SuppressWarnings("javadoc")
 	@Deprecated
 	/**
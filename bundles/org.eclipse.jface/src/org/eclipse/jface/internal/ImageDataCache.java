@@ -0,0 +1,415 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.jface.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * (NON-API) A cache of decoded image data persisted in a file, so that images
+ * need not be decoded again in the next session.
+ * <p>
+ * Each entry has a key and a stamp identifying the version of the image it was
+ * decoded from. The file is mapped into memory when the cache is created, and
+ * only the entries that are looked up are read. Entries added to the cache are
+ * held in memory and written to the file, together with the entries read from
+ * it, when the cache is saved. Once the added entries reach
+ * {@link #MAX_ADDED_SIZE} bytes, further entries are not added until the next
+ * session. This class is thread safe.
+ * </p>
+ *
+ * @since 3.15
+ */
+public final class ImageDataCache {
+
+	private static final int MAGIC = 0x4a464944; // JFID
+
+	private static final int VERSION = 1;
+
+	// The file is not written beyond this size
+	private static final long MAX_SIZE = 64L << 20;
+
+	/**
+	 * The size of the entries added in a session, which are held in memory until
+	 * the cache is saved.
+	 */
+	public static final long MAX_ADDED_SIZE = 4L << 20;
+
+	private static volatile ImageDataCache defaultCache;
+
+	/**
+	 * The image data of an image, encoded in the file or added in this session.
+	 */
+	private static final class Entry {
+		final long stamp;
+		final int offset;
+		final int length;
+		final byte[] record;
+
+		Entry(long stamp, int offset, int length) {
+			this.stamp = stamp;
+			this.offset = offset;
+			this.length = length;
+			this.record = null;
+		}
+
+		Entry(long stamp, byte[] record) {
+			this.stamp = stamp;
+			this.offset = 0;
+			this.length = record.length;
+			this.record = record;
+		}
+	}
+
+	private final File file;
+
+	// The contents of the file when the cache was created
+	private final ByteBuffer buffer;
+
+	private final Map<String, Entry> loadedEntries;
+
+	private final Map<String, Entry> addedEntries = Collections.synchronizedMap(new LinkedHashMap<>());
+
+	private final AtomicLong addedSize = new AtomicLong();
+
+	/**
+	 * Returns the cache used to load images from URLs.
+	 *
+	 * @return the cache, or <code>null</code> if images are always decoded
+	 */
+	public static ImageDataCache getDefault() {
+		return defaultCache;
+	}
+
+	/**
+	 * Sets the cache used to load images from URLs.
+	 *
+	 * @param cache
+	 *            the cache, or <code>null</code> to always decode images
+	 */
+	public static void setDefault(ImageDataCache cache) {
+		defaultCache = cache;
+	}
+
+	/**
+	 * Creates a cache persisted in the given file, with the entries the file
+	 * contains. A missing or unreadable file results in an empty cache.
+	 *
+	 * @param file
+	 *            the file of the cache
+	 */
+	public ImageDataCache(File file) {
+		this.file = file;
+		ByteBuffer contents = null;
+		Map<String, Entry> entries = new HashMap<>();
+		if (file.isFile()) {
+			try {
+				contents = read(file);
+				readIndex(contents, entries);
+			} catch (IOException | RuntimeException e) {
+				// an outdated or damaged file is replaced when saved
+				entries.clear();
+				contents = null;
+			}
+		}
+		buffer = contents;
+		loadedEntries = entries;
+	}
+
+	/**
+	 * Maps the file into memory, except on Windows where a mapped file cannot be
+	 * replaced until the mapping is garbage collected.
+	 */
+	private static ByteBuffer read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > MAX_SIZE) {
+				throw new IOException("File too large: " + file); //$NON-NLS-1$
+			}
+			if (File.separatorChar != '\\') {
+				return channel.map(MapMode.READ_ONLY, 0, size);
+			}
+			ByteBuffer contents = ByteBuffer.allocate((int) size);
+			while (contents.hasRemaining() && channel.read(contents) >= 0) {
+				// keep reading
+			}
+			contents.flip();
+			return contents;
+		}
+	}
+
+	private static void readIndex(ByteBuffer contents, Map<String, Entry> entries) throws IOException {
+		ByteBuffer in = contents.duplicate();
+		if (in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+			throw new IOException("Not an image data cache"); //$NON-NLS-1$
+		}
+		try {
+			while (in.hasRemaining()) {
+				byte[] key = new byte[in.getInt()];
+				in.get(key);
+				long stamp = in.getLong();
+				int length = in.getInt();
+				int offset = in.position();
+				if (length < 0 || length > in.remaining()) {
+					break;
+				}
+				in.position(offset + length);
+				entries.put(new String(key, StandardCharsets.UTF_8), new Entry(stamp, offset, length));
+			}
+		} catch (BufferUnderflowException | NegativeArraySizeException e) {
+			// the file is truncated, keep the complete entries
+		}
+	}
+
+	/**
+	 * Returns the image data of the given key, if it was decoded from the
+	 * version of the image identified by the given stamp.
+	 *
+	 * @param key
+	 *            the key of the image data
+	 * @param stamp
+	 *            the version of the image
+	 * @return a new image data, or <code>null</code> if not cached
+	 */
+	public ImageData get(String key, long stamp) {
+		Entry entry = addedEntries.get(key);
+		if (entry == null) {
+			entry = loadedEntries.get(key);
+		}
+		if (entry == null || entry.stamp != stamp) {
+			return null;
+		}
+		ByteBuffer in;
+		if (entry.record != null) {
+			in = ByteBuffer.wrap(entry.record);
+		} else {
+			in = buffer.duplicate();
+			in.position(entry.offset);
+		}
+		try {
+			return readImageData(in);
+		} catch (BufferUnderflowException | NegativeArraySizeException | IllegalArgumentException | SWTException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Adds image data to the cache.
+	 *
+	 * @param key
+	 *            the key of the image data
+	 * @param stamp
+	 *            the version of the image the data was decoded from
+	 * @param imageData
+	 *            the image data
+	 */
+	public void put(String key, long stamp, ImageData imageData) {
+		if (addedSize.get() >= MAX_ADDED_SIZE) {
+			return;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			writeImageData(out, imageData);
+		} catch (IOException e) {
+			// not thrown by a byte array
+			return;
+		}
+		byte[] record = bytes.toByteArray();
+		if (addedSize.addAndGet(record.length) > MAX_ADDED_SIZE) {
+			addedSize.addAndGet(-record.length);
+			return;
+		}
+		Entry replaced = addedEntries.put(key, new Entry(stamp, record));
+		if (replaced != null) {
+			addedSize.addAndGet(-replaced.length);
+		}
+	}
+
+	/**
+	 * Writes the entries added to the cache and the entries read from the file
+	 * that were not replaced to the file. Does nothing if no entries were added.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public synchronized void save() throws IOException {
+		Map<String, Entry> added;
+		synchronized (addedEntries) {
+			if (addedEntries.isEmpty()) {
+				return;
+			}
+			added = new LinkedHashMap<>(addedEntries);
+		}
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+		File temp = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for (Map.Entry<String, Entry> entry : added.entrySet()) {
+				if (!writeEntry(out, entry.getKey(), entry.getValue())) {
+					break;
+				}
+			}
+			for (Map.Entry<String, Entry> entry : loadedEntries.entrySet()) {
+				if (!added.containsKey(entry.getKey()) && !writeEntry(out, entry.getKey(), entry.getValue())) {
+					break;
+				}
+			}
+		}
+		try {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private boolean writeEntry(DataOutputStream out, String key, Entry entry) throws IOException {
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		if (out.size() + keyBytes.length + entry.length + 16 > MAX_SIZE) {
+			return false;
+		}
+		out.writeInt(keyBytes.length);
+		out.write(keyBytes);
+		out.writeLong(entry.stamp);
+		out.writeInt(entry.length);
+		if (entry.record != null) {
+			out.write(entry.record);
+		} else {
+			byte[] record = new byte[entry.length];
+			ByteBuffer in = buffer.duplicate();
+			in.position(entry.offset);
+			in.get(record);
+			out.write(record);
+		}
+		return true;
+	}
+
+	private static void writeImageData(DataOutputStream out, ImageData imageData) throws IOException {
+		out.writeInt(imageData.width);
+		out.writeInt(imageData.height);
+		out.writeInt(imageData.depth);
+		out.writeInt(imageData.scanlinePad);
+		out.writeInt(imageData.bytesPerLine);
+		PaletteData palette = imageData.palette;
+		out.writeBoolean(palette.isDirect);
+		if (palette.isDirect) {
+			out.writeInt(palette.redMask);
+			out.writeInt(palette.greenMask);
+			out.writeInt(palette.blueMask);
+		} else {
+			RGB[] colors = palette.colors;
+			out.writeInt(colors.length);
+			for (RGB color : colors) {
+				out.writeByte(color.red);
+				out.writeByte(color.green);
+				out.writeByte(color.blue);
+			}
+		}
+		out.writeInt(imageData.transparentPixel);
+		out.writeInt(imageData.maskPad);
+		out.writeInt(imageData.alpha);
+		out.writeInt(imageData.type);
+		out.writeInt(imageData.x);
+		out.writeInt(imageData.y);
+		out.writeInt(imageData.disposalMethod);
+		out.writeInt(imageData.delayTime);
+		writeBytes(out, imageData.data);
+		writeBytes(out, imageData.maskData);
+		writeBytes(out, imageData.alphaData);
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		if (bytes == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static ImageData readImageData(ByteBuffer in) {
+		int width = in.getInt();
+		int height = in.getInt();
+		int depth = in.getInt();
+		int scanlinePad = in.getInt();
+		int bytesPerLine = in.getInt();
+		PaletteData palette;
+		if (in.get() != 0) {
+			palette = new PaletteData(in.getInt(), in.getInt(), in.getInt());
+		} else {
+			RGB[] colors = new RGB[in.getInt()];
+			for (int i = 0; i < colors.length; i++) {
+				colors[i] = new RGB(in.get() & 0xff, in.get() & 0xff, in.get() & 0xff);
+			}
+			palette = new PaletteData(colors);
+		}
+		int transparentPixel = in.getInt();
+		int maskPad = in.getInt();
+		int alpha = in.getInt();
+		int type = in.getInt();
+		int x = in.getInt();
+		int y = in.getInt();
+		int disposalMethod = in.getInt();
+		int delayTime = in.getInt();
+		byte[] data = readBytes(in);
+		ImageData imageData = new ImageData(width, height, depth, palette, scanlinePad, data);
+		imageData.bytesPerLine = bytesPerLine;
+		imageData.transparentPixel = transparentPixel;
+		imageData.maskPad = maskPad;
+		imageData.alpha = alpha;
+		imageData.type = type;
+		imageData.x = x;
+		imageData.y = y;
+		imageData.disposalMethod = disposalMethod;
+		imageData.delayTime = delayTime;
+		imageData.maskData = readBytes(in);
+		imageData.alphaData = readBytes(in);
+		return imageData;
+	}
+
+	private static byte[] readBytes(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return bytes;
+	}
+}
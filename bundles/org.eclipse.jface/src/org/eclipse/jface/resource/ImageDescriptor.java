@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -338,6 +338,19 @@ public abstract class ImageDescriptor extends DeviceResourceDescriptor {
 		return null;
 	}
 
+	/**
+	 * Prepares the image data for the given zoom levels, so that the image can
+	 * be created faster later. Called in a background thread by
+	 * {@link ResourceManager#prefetchImages(java.util.Collection)}. Does
+	 * nothing by default.
+	 *
+	 * @param zooms
+	 *            the zoom levels the image will be created for
+	 */
+	void prefetch(int[] zooms) {
+		// nothing to prepare
+	}
+
     /**
      * Creates and returns a new SWT <code>ImageData</code> object
      * for this image descriptor.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,8 +13,11 @@
  *******************************************************************************/
 package org.eclipse.jface.resource;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.jface.dialogs.Dialog;
@@ -223,6 +226,28 @@ public class ImageRegistry {
         return entry.descriptor;
     }
 
+	/**
+	 * Decodes the images of the given keys in the background, so that
+	 * {@link #get(String)} returns them faster later. Keys without a descriptor
+	 * or with an image already created are ignored.
+	 *
+	 * @param keys
+	 *            the keys of the images about to be retrieved
+	 * @return a future completed once all images are prefetched
+	 * @see ResourceManager#prefetchImages(java.util.Collection)
+	 * @since 3.15
+	 */
+	public CompletableFuture<Void> prefetch(String... keys) {
+		List<ImageDescriptor> descriptors = new ArrayList<>(keys.length);
+		for (String key : keys) {
+			Entry entry = getEntry(key);
+			if (entry != null && entry.image == null && entry.descriptor != null) {
+				descriptors.add(entry.descriptor);
+			}
+		}
+		return manager.prefetchImages(descriptors);
+	}
+
     /**
      * Adds (or replaces) an image descriptor to this registry. The first time
      * this new entry is retrieved, the image descriptor's image will be computed
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,14 @@
 package org.eclipse.jface.resource;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IStatus;
@@ -22,6 +29,9 @@ import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageDataProvider;
+import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.RGB;
 
 /**
@@ -205,6 +215,95 @@ public abstract class ResourceManager {
 		}
     }
 
+	/**
+	 * Decodes the image data of the given descriptors in background threads, so
+	 * that creating their images later takes less time in the calling thread.
+	 * The image data is decoded at 100% and at the zoom levels SWT requests on
+	 * the device of this manager. Only descriptors created from URLs are
+	 * prefetched. Creating an image before its data is prefetched is not
+	 * delayed, the data is then decoded again.
+	 * <p>
+	 * Must be called from the thread of the device.
+	 * </p>
+	 *
+	 * @param descriptors
+	 *            the descriptors of the images about to be created
+	 * @return a future completed once all image data is prefetched
+	 * @since 3.15
+	 */
+	public CompletableFuture<Void> prefetchImages(Collection<? extends ImageDescriptor> descriptors) {
+		if (descriptors.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		int[] zooms = getImageZooms();
+		// one task per thread, each decoding a share of the images
+		int tasks = Math.min(PrefetchExecutor.THREADS, descriptors.size());
+		List<List<ImageDescriptor>> shares = new ArrayList<>(tasks);
+		for (int i = 0; i < tasks; i++) {
+			shares.add(new ArrayList<>(descriptors.size() / tasks + 1));
+		}
+		int i = 0;
+		for (ImageDescriptor descriptor : descriptors) {
+			shares.get(i++ % tasks).add(descriptor);
+		}
+		CompletableFuture<?>[] prefetches = new CompletableFuture[tasks];
+		for (int task = 0; task < tasks; task++) {
+			List<ImageDescriptor> share = shares.get(task);
+			prefetches[task] = CompletableFuture.runAsync(() -> {
+				for (ImageDescriptor descriptor : share) {
+					try {
+						descriptor.prefetch(zooms);
+					} catch (RuntimeException e) {
+						// reported when the image is created
+					}
+				}
+			}, PrefetchExecutor.INSTANCE);
+		}
+		return CompletableFuture.allOf(prefetches);
+	}
+
+	/**
+	 * Returns the zoom levels SWT requests the image data of an image at on the
+	 * device of this manager, which depend on its scale factor and the
+	 * <code>swt.autoScale</code> property. 100% comes first.
+	 */
+	private int[] getImageZooms() {
+		Set<Integer> zooms = new LinkedHashSet<>();
+		zooms.add(Integer.valueOf(100));
+		ImageData probe = new ImageData(1, 1, 1,
+				new PaletteData(new RGB[] { new RGB(0, 0, 0), new RGB(255, 255, 255) }));
+		ImageDataProvider provider = zoom -> {
+			zooms.add(Integer.valueOf(zoom));
+			return probe;
+		};
+		new Image(getDevice(), provider).dispose();
+		int[] result = new int[zooms.size()];
+		int i = 0;
+		for (Integer zoom : zooms) {
+			result[i++] = zoom.intValue();
+		}
+		return result;
+	}
+
+	/**
+	 * The executor decoding prefetched images, with at most four threads and
+	 * fewer on small machines. Its threads end when idle.
+	 */
+	private static class PrefetchExecutor {
+		static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+		static final ThreadPoolExecutor INSTANCE = new ThreadPoolExecutor(THREADS, THREADS, 5, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "JFace Image Prefetch"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+
+		static {
+			INSTANCE.allowCoreThreadTimeOut(true);
+		}
+	}
+
     /**
      * Returns the default image that will be returned in the event that the intended
      * image is missing.
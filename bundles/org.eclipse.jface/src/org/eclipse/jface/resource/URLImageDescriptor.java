@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,15 +12,23 @@
 package org.eclipse.jface.resource;
 
 import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.SoftReference;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.internal.ImageDataCache;
 import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.util.Policy;
 import org.eclipse.swt.SWT;
@@ -67,11 +75,15 @@ class URLImageDescriptor extends ImageDescriptor {
 
 		@Override
 		public ImageData getImageData(int zoom) {
+			ImageData prefetched = takePrefetchedImageData(url, zoom);
+			if (prefetched != null) {
+				return prefetched;
+			}
 			URL tempURL = getURL(url);
 			if (tempURL != null) {
 				URL xUrl = getxURL(tempURL, zoom);
 				if (xUrl != null) {
-					return URLImageDescriptor.getImageData(xUrl);
+					return URLImageDescriptor.getImageData(xUrl, zoom);
 				}
 			}
 			return null;
@@ -80,6 +92,16 @@ class URLImageDescriptor extends ImageDescriptor {
 
 	private static long cumulativeTime;
 
+	// No more image data is prefetched while this many are not used
+	private static final int MAX_PREFETCHED = 2048;
+
+	/**
+	 * The image data decoded by {@link #prefetch(int[])} and not yet used, by
+	 * descriptor URL and zoom. Softly referenced, as prefetched images may never
+	 * be created.
+	 */
+	private static final Map<String, SoftReference<Map<Integer, ImageData>>> prefetchedImageData = new ConcurrentHashMap<>();
+
 	/**
 	 * Constant for the file protocol for optimized loading
 	 */
@@ -107,7 +129,7 @@ class URLImageDescriptor extends ImageDescriptor {
 	@Deprecated
 	@Override
 	public ImageData getImageData() {
-		return getImageData(getURL(url));
+		return getImageData(getURL(url), 100);
 	}
 
 	@Override
@@ -115,23 +137,157 @@ class URLImageDescriptor extends ImageDescriptor {
 		return new URLImageDataProvider(url).getImageData(zoom);
 	}
 
+	@Override
+	void prefetch(int[] zooms) {
+		if (isPrefetched()) {
+			return;
+		}
+		if (prefetchedImageData.size() >= MAX_PREFETCHED) {
+			// drop the image data collected since they were prefetched
+			prefetchedImageData.values().removeIf(reference -> reference.get() == null);
+			if (prefetchedImageData.size() >= MAX_PREFETCHED) {
+				return;
+			}
+		}
+		URL tempURL = getURL(url);
+		if (tempURL == null) {
+			return;
+		}
+		Map<Integer, ImageData> imageData = new HashMap<>();
+		for (int zoom : zooms) {
+			URL xUrl = getxURL(tempURL, zoom);
+			if (xUrl != null) {
+				ImageData data = loadImageData(xUrl, getCacheKey(xUrl, zoom));
+				if (data != null) {
+					imageData.put(Integer.valueOf(zoom), data);
+				}
+			}
+		}
+		if (!imageData.isEmpty()) {
+			prefetchedImageData.put(url, new SoftReference<>(imageData));
+		}
+	}
+
+	/**
+	 * Returns whether image data of this descriptor was prefetched and not used
+	 * yet.
+	 */
+	private boolean isPrefetched() {
+		if (prefetchedImageData.isEmpty()) {
+			return false;
+		}
+		SoftReference<Map<Integer, ImageData>> reference = prefetchedImageData.get(url);
+		return reference != null && reference.get() != null;
+	}
+
+	/**
+	 * Returns the prefetched image data of a descriptor URL and zoom, which is
+	 * only used once.
+	 */
+	private static ImageData takePrefetchedImageData(String url, int zoom) {
+		if (prefetchedImageData.isEmpty()) {
+			return null;
+		}
+		SoftReference<Map<Integer, ImageData>> reference = prefetchedImageData.get(url);
+		Map<Integer, ImageData> imageData = reference != null ? reference.get() : null;
+		if (imageData == null) {
+			return null;
+		}
+		synchronized (imageData) {
+			ImageData result = imageData.remove(Integer.valueOf(zoom));
+			if (imageData.isEmpty()) {
+				prefetchedImageData.remove(url, reference);
+			}
+			return result;
+		}
+	}
+
+	private static String getCacheKey(URL url, int zoom) {
+		return zoom + ":" + url.toExternalForm(); //$NON-NLS-1$
+	}
+
+	private static ImageData getImageData(URL url, int zoom) {
+		if (url == null) {
+			return null;
+		}
+		return loadImageData(url, getCacheKey(url, zoom));
+	}
+
+	/**
+	 * Returns the image data from the image data cache if it is enabled and has
+	 * the data of the current version of the image, otherwise decodes it.
+	 */
+	private static ImageData loadImageData(URL url, String key) {
+		ImageDataCache cache = ImageDataCache.getDefault();
+		if (cache == null) {
+			return getImageData(url);
+		}
+		URL locatedURL = locate(url);
+		// The version of the image is read without opening the image, which is
+		// only read if it is not cached
+		File file = null;
+		URLConnection connection = null;
+		long lastModified;
+		long length;
+		try {
+			if (FILE_PROTOCOL.equalsIgnoreCase(locatedURL.getProtocol())) {
+				file = new File(locatedURL.getPath());
+				lastModified = file.lastModified();
+				length = file.length();
+			} else {
+				connection = locatedURL.openConnection();
+				lastModified = connection.getLastModified();
+				length = connection.getContentLengthLong();
+			}
+		} catch (IOException e) {
+			logMissingHighResolutionImage(locatedURL, e);
+			return null;
+		}
+		// 0 if the version is unknown
+		long stamp = lastModified != 0 ? 31 * lastModified + length : 0;
+		if (stamp != 0) {
+			ImageData result = cache.get(key, stamp);
+			if (result != null) {
+				return result;
+			}
+		}
+		ImageData result = null;
+		try (InputStream in = new BufferedInputStream(
+				file != null ? new FileInputStream(file) : connection.getInputStream())) {
+			result = decode(in);
+			if (result != null && stamp != 0) {
+				cache.put(key, stamp, result);
+			}
+		} catch (IOException e) {
+			logMissingHighResolutionImage(locatedURL, e);
+		}
+		return result;
+	}
+
 	private static ImageData getImageData(URL url) {
 		ImageData result = null;
 		try (InputStream in = getStream(url)) {
-			if (in != null) {
-				result = new ImageData(in);
-			}
-		} catch (SWTException e) {
-			if (e.code != SWT.ERROR_INVALID_IMAGE) {
-				throw e;
-				// fall through otherwise
-			}
+			result = decode(in);
 		} catch (IOException e) {
 			Policy.getLog().log(new Status(IStatus.ERROR, Policy.JFACE, e.getLocalizedMessage(), e));
 		}
 		return result;
 	}
 
+	private static ImageData decode(InputStream in) {
+		if (in != null) {
+			try {
+				return new ImageData(in);
+			} catch (SWTException e) {
+				if (e.code != SWT.ERROR_INVALID_IMAGE) {
+					throw e;
+					// fall through otherwise
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Returns a stream on the image contents. Returns null if a stream could
 	 * not be opened.
@@ -147,26 +303,35 @@ class URLImageDescriptor extends ImageDescriptor {
 			return null;
 		}
 
+		url = locate(url);
 		try {
-			if (InternalPolicy.OSGI_AVAILABLE) {
-				URL platformURL = FileLocator.find(url);
-				if (platformURL != null) {
-					url = platformURL;
-				}
-			}
 			return new BufferedInputStream(url.openStream());
 		} catch (IOException e) {
-			if (InternalPolicy.DEBUG_LOG_URL_IMAGE_DESCRIPTOR_MISSING_2x) {
-				String path = url.getPath();
-				if (path.endsWith("@2x.png") || path.endsWith("@1.5x.png")) { //$NON-NLS-1$ //$NON-NLS-2$
-					String message = "High-resolution image missing: " + url; //$NON-NLS-1$
-					Policy.getLog().log(new Status(IStatus.WARNING, Policy.JFACE, message, e));
-				}
-			}
+			logMissingHighResolutionImage(url, e);
 			return null;
 		}
 	}
 
+	private static URL locate(URL url) {
+		if (InternalPolicy.OSGI_AVAILABLE) {
+			URL platformURL = FileLocator.find(url);
+			if (platformURL != null) {
+				return platformURL;
+			}
+		}
+		return url;
+	}
+
+	private static void logMissingHighResolutionImage(URL url, IOException e) {
+		if (InternalPolicy.DEBUG_LOG_URL_IMAGE_DESCRIPTOR_MISSING_2x) {
+			String path = url.getPath();
+			if (path.endsWith("@2x.png") || path.endsWith("@1.5x.png")) { //$NON-NLS-1$ //$NON-NLS-2$
+				String message = "High-resolution image missing: " + url; //$NON-NLS-1$
+				Policy.getLog().log(new Status(IStatus.WARNING, Policy.JFACE, message, e));
+			}
+		}
+	}
+
 	@Override
 	public int hashCode() {
 		return url.hashCode();
@@ -256,7 +421,11 @@ class URLImageDescriptor extends ImageDescriptor {
 		try {
 
 			if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
-				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY) {
+				// Cached and prefetched image data is only used by the image data
+				// provider, so the file name provider is skipped while the cache is
+				// enabled or the image data is prefetched
+				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY && ImageDataCache.getDefault() == null
+						&& !isPrefetched()) {
 					try {
 						return new Image(device, new URLImageFileNameProvider(url));
 					} catch (SWTException exception) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -138,6 +138,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 * been added to the model, in order to cause the viewer to accurately
 	 * reflect the model. This method only affects the viewer, not the model.
 	 * </p>
+	 * <p>
+	 * When several elements are added, drawing is disabled until all of them
+	 * have been added.
+	 * </p>
 	 *
 	 * @param parentElementOrTreePath
 	 *            the parent element
@@ -155,8 +159,18 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			return;
 		}
 
-		for (Widget widget : widgets) {
-			internalAdd(widget, parentElementOrTreePath, childElements);
+		boolean disableRedraw = childElements.length > 1;
+		try {
+			if (disableRedraw) {
+				getControl().setRedraw(false);
+			}
+			for (Widget widget : widgets) {
+				internalAdd(widget, parentElementOrTreePath, childElements);
+			}
+		} finally {
+			if (disableRedraw) {
+				getControl().setRedraw(true);
+			}
 		}
 	}
 
@@ -351,10 +365,12 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			return;
 		}
 
+		ExistingChildren existingChildren = new ExistingChildren(widget, items);
+
 		// Optimize for no comparator
 		if (comparator == null) {
 			for (Object element : elements) {
-				if (itemExists(items, element)) {
+				if (existingChildren.contains(element)) {
 					internalRefresh(element);
 				} else {
 					createTreeItem(widget, element, -1);
@@ -362,93 +378,89 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			}
 			return;
 		}
-		// As the items are sorted already we optimize for a
-		// start position. This is the insertion position relative to the
-		// original item array.
+		// As the items are sorted already, they are merged with the elements
+		// in a single pass: the insertion position of an element is searched
+		// from the one of the previous element. This is the insertion
+		// position relative to the original item array.
 		int indexInItems = 0;
 
 		// Count of elements we have added. See bug 205700 for why this is needed.
 		int newItems = 0;
 
-		elementloop: for (int i = 0; i < elements.length; i++) {
-			Object element = elements[i];
+		for (Object element : elements) {
 			// update the index relative to the original item array
 			indexInItems = insertionPosition(items, comparator,
 					indexInItems, element, parentPath);
+			if (existingChildren.contains(element)) {
+				// Found the item for the element.
+				// Refresh the element in case it has new children.
+				internalRefresh(element);
+				// Do not create a new item - continue with the next element.
+				continue;
+			}
 			if (indexInItems == items.length) {
 				createTreeItem(widget, element, -1);
-				newItems++;
 			} else {
-				// Search for an item for the element. The comparator might
-				// regard elements as equal when they are not.
-
-				// Use a separate index variable to search within the existing
-				// elements that compare equally, see
-				// TreeViewerTestBug205700.testAddEquallySortedElements.
-				int insertionIndexInItems = indexInItems;
-				while( insertionIndexInItems < items.length
-						&& internalCompare(comparator, parentPath, element,
-								items[insertionIndexInItems].getData()) == 0) {
-					// As we cannot assume the sorter is consistent with
-					// equals() - therefore we can
-					// just check against the item prior to this index (if
-					// any)
-					if (items[insertionIndexInItems].getData().equals(element)) {
-						// Found the item for the element.
-						// Refresh the element in case it has new children.
-						internalRefresh(element);
-						// Do not create a new item - continue with the next element.
-						continue elementloop;
-					}
-					insertionIndexInItems++;
-				}
-				// Did we get to the end?
-				if (insertionIndexInItems == items.length) {
-					createTreeItem(widget, element, -1);
-					newItems++;
-				} else {
-					// InsertionIndexInItems is the index in the original array. We
-					// need to correct by the number of new items we have
-					// created. See bug 205700.
-					createTreeItem(widget, element, insertionIndexInItems + newItems);
-					newItems++;
-				}
+				// indexInItems is the index in the original array. We
+				// need to correct by the number of new items we have
+				// created. See bug 205700.
+				createTreeItem(widget, element, indexInItems + newItems);
 			}
+			newItems++;
 		}
 	}
 
 	/**
-	 * See if element is the data of one of the elements in items.
-	 *
-	 * @param items
-	 * @param element
-	 * @return <code>true</code> if the element matches.
+	 * The children of a parent widget before elements are added to it. They
+	 * are looked up in the element map, or in a table of their elements built
+	 * on first use if the viewer has no element map.
 	 */
-	private boolean itemExists(Item[] items, Object element) {
-		if (usingElementMap()) {
-			Widget[] existingItems = findItems(element);
-			// optimization for two common cases
-			if (existingItems.length == 0) {
-				return false;
-			} else if (existingItems.length == 1) {
-				if (items.length > 0 && existingItems[0] instanceof Item) {
-					Item existingItem = (Item) existingItems[0];
-					return getParentItem(existingItem) == getParentItem(items[0]);
+	private final class ExistingChildren {
+		private final Item parentItem;
+		private final Item[] items;
+		private CustomHashtable elements;
+
+		ExistingChildren(Widget parent, Item[] items) {
+			this.parentItem = parent instanceof Item ? (Item) parent : null;
+			this.items = items;
+		}
+
+		/**
+		 * See if element is the data of one of the children.
+		 *
+		 * @param element
+		 * @return <code>true</code> if the element matches.
+		 */
+		boolean contains(Object element) {
+			if (usingElementMap()) {
+				for (Widget existingItem : findItems(element)) {
+					if (existingItem instanceof Item
+							&& getParentItem((Item) existingItem) == parentItem) {
+						return true;
+					}
 				}
+				return false;
 			}
-		}
-		for (Item item : items) {
-			if (item.getData().equals(element)) {
-				return true;
+			if (elements == null) {
+				elements = newHashtable(items.length * 2);
+				for (Item item : items) {
+					elements.put(item.getData(), item);
+				}
 			}
+			return elements.containsKey(element);
 		}
-		return false;
 	}
 
 	/**
-	 * Returns the index where the item should be inserted. It uses sorter to
-	 * determine the correct position, if sorter is not assigned, returns the
-	 * index of the element after the last.
+	 * Returns the index where the item should be inserted: the index of the
+	 * first item sorted after the element. It uses sorter to determine the
+	 * correct position, if sorter is not assigned, returns the index of the
+	 * element after the last.
+	 * <p>
+	 * The search starts with steps doubling in size from the last insertion,
+	 * so that the items are only searched close to it when many sorted
+	 * elements are inserted.
+	 * </p>
 	 *
 	 * @param items
 	 *            the items to search
@@ -475,16 +487,22 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		if (comparator == null) {
 			return size;
 		}
+		// find a range [min, max] ending with an item sorted after the element
 		int min = lastInsertion, max = size - 1;
+		for (int step = 1; lastInsertion + step - 1 < size; step *= 2) {
+			int index = lastInsertion + step - 1;
+			if (internalCompare(comparator, parentPath, items[index].getData(), element) > 0) {
+				max = index;
+				break;
+			}
+			min = index + 1;
+		}
 
 		while (min <= max) {
-			int mid = (min + max) / 2;
+			int mid = (min + max) >>> 1;
 			Object data = items[mid].getData();
 			int compare = internalCompare(comparator, parentPath, data, element);
-			if (compare == 0) {
-				return mid;// Return if we already match
-			}
-			if (compare < 0) {
+			if (compare <= 0) {
 				min = mid + 1;
 			} else {
 				max = mid - 1;
@@ -801,16 +819,8 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 					item.dispose();
 				}
 			}
-			Object d = widget.getData();
-			if (d != null) {
-				Object parentElement = d;
-				Object[] children;
-				if (isTreePathContentProvider() && widget instanceof Item) {
-					TreePath path = getTreePathFromItem((Item) widget);
-					children = getSortedChildren(path);
-				} else {
-					children = getSortedChildren(parentElement);
-				}
+			if (widget.getData() != null) {
+				Object[] children = internalGetSortedChildren(widget);
 				for (Object element : children) {
 					createTreeItem(widget, element, -1);
 				}
@@ -820,6 +830,22 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * Returns the sorted and filtered children of the element of the given
+	 * widget, which must not be <code>null</code>.
+	 *
+	 * @param widget
+	 *            the parent item or the tree
+	 * @return the children to create items for
+	 */
+	Object[] internalGetSortedChildren(Widget widget) {
+		if (isTreePathContentProvider() && widget instanceof Item) {
+			TreePath path = getTreePathFromItem((Item) widget);
+			return getSortedChildren(path);
+		}
+		return getSortedChildren(widget.getData());
+	}
+
 	/**
 	 * Creates a single item for the given parent and synchronizes it with the
 	 * given element.
@@ -2178,7 +2204,7 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 *            the element
 	 * @return whether the given element is expandable
 	 */
-	private boolean isExpandable(Item item, TreePath parentPath, Object element) {
+	boolean isExpandable(Item item, TreePath parentPath, Object element) {
 		Object elementOrTreePath = element;
 		if (isTreePathContentProvider()) {
 			if (parentPath != null) {
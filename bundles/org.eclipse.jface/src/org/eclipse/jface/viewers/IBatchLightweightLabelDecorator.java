@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers;
+
+/**
+ * The <code>IBatchLightweightLabelDecorator</code> is a lightweight decorator
+ * that can calculate the decorations of several elements at once, for example
+ * to fetch the state of all of them with a single request.
+ * <p>
+ * The decorator is still asked to decorate single elements with
+ * {@link #decorate(Object, IDecoration)} by clients that do not batch their
+ * requests.
+ * </p>
+ *
+ * @since 3.15
+ */
+public interface IBatchLightweightLabelDecorator extends ILightweightLabelDecorator {
+
+	/**
+	 * Calculates decorations based on elements. The decoration of
+	 * <code>elements[i]</code> is <code>decorations[i]</code>. The same
+	 * decoration may occur more than once if an element is decorated in
+	 * several ways, for example once per adapter.
+	 *
+	 * @param elements
+	 *            the elements to decorate
+	 * @param decorations
+	 *            the decorations to set, of the same length as elements
+	 */
+	public void decorate(Object[] elements, IDecoration[] decorations);
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2017 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,10 +16,13 @@
 
 package org.eclipse.jface.viewers;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.jface.util.Policy;
 import org.eclipse.swt.SWT;
@@ -68,6 +71,28 @@ public class TreeViewer extends AbstractTreeViewer {
 	private static final String VIRTUAL_DISPOSE_KEY = Policy.JFACE
 			+ ".DISPOSE_LISTENER"; //$NON-NLS-1$
 
+	private static final String LAZY_CHILDREN_KEY = Policy.JFACE
+			+ ".LAZY_CHILDREN"; //$NON-NLS-1$
+
+	/**
+	 * The children of a tree or item that have been counted, but not yet
+	 * created, by a lazy expansion. Stored as widget data of the parent under
+	 * {@link TreeViewer#LAZY_CHILDREN_KEY}.
+	 */
+	private static class LazyChildren {
+		Object[] elements;
+
+		/**
+		 * the level to which each child is expanded once it is created
+		 */
+		int level;
+
+		LazyChildren(Object[] elements, int level) {
+			this.elements = elements;
+			this.level = level;
+		}
+	}
+
 	/**
 	 * This viewer's control.
 	 */
@@ -82,6 +107,13 @@ public class TreeViewer extends AbstractTreeViewer {
 
 	private boolean contentProviderIsTreeBased;
 
+	private boolean lazyExpansion;
+
+	/**
+	 * The tree and items whose children were counted by a lazy expansion.
+	 */
+	private final Set<Widget> lazyParents = new HashSet<>();
+
 	/**
 	 * The row object reused
 	 */
@@ -153,6 +185,15 @@ public class TreeViewer extends AbstractTreeViewer {
 
 	@Override
 	protected Item[] getChildren(Widget o) {
+		virtualMaterializeLazyChildren(o);
+		return getChildItems(o);
+	}
+
+	/**
+	 * Returns the items of the given tree or item, without creating the
+	 * children left pending by a lazy expansion.
+	 */
+	private Item[] getChildItems(Widget o) {
 		if (o instanceof TreeItem) {
 			return ((TreeItem) o).getItems();
 		}
@@ -201,6 +242,7 @@ public class TreeViewer extends AbstractTreeViewer {
 
 	@Override
 	protected Item[] getItems(Item item) {
+		virtualMaterializeLazyChildren(item);
 		return ((TreeItem) item).getItems();
 	}
 
@@ -255,6 +297,12 @@ public class TreeViewer extends AbstractTreeViewer {
 					virtualLazyUpdateWidget(
 							parentItem == null ? (Widget) getTree()
 									: parentItem, index);
+				} else if (lazyExpansion) {
+					TreeItem item = (TreeItem) event.item;
+					TreeItem parentItem = item.getParentItem();
+					virtualMaterializeLazyChild(
+							parentItem == null ? (Widget) getTree()
+									: parentItem, item, event.index);
 				}
 			});
 		}
@@ -281,6 +329,8 @@ public class TreeViewer extends AbstractTreeViewer {
 
 	@Override
 	protected void removeAll(Control widget) {
+		widget.setData(LAZY_CHILDREN_KEY, null);
+		lazyParents.clear();
 		((Tree) widget).removeAll();
 	}
 
@@ -598,6 +648,10 @@ public class TreeViewer extends AbstractTreeViewer {
 			}
 			return;
 		}
+		if (!materialize && widget.getData(LAZY_CHILDREN_KEY) != null) {
+			// children are created as they are shown
+			return;
+		}
 		super.createChildren(widget, materialize);
 	}
 
@@ -644,6 +698,249 @@ public class TreeViewer extends AbstractTreeViewer {
 		}
 	}
 
+	@Override
+	protected void internalExpandToLevel(Widget widget, int level) {
+		if (!isLazyExpanding() || (level != ALL_LEVELS && level <= 0)) {
+			super.internalExpandToLevel(widget, level);
+			return;
+		}
+		if (widget instanceof Item && widget.getData() != null
+				&& !isExpandable((Item) widget, null, widget.getData())) {
+			return;
+		}
+		int childLevel = level == ALL_LEVELS ? ALL_LEVELS : level - 1;
+		LazyChildren lazyChildren = (LazyChildren) widget.getData(LAZY_CHILDREN_KEY);
+		Item[] items = getChildItems(widget);
+		if (lazyChildren != null) {
+			if (lazyChildren.level != ALL_LEVELS
+					&& (childLevel == ALL_LEVELS || childLevel > lazyChildren.level)) {
+				lazyChildren.level = childLevel;
+			}
+		} else if (items.length == 0 || items[0].getData() == null) {
+			// only count the children, the tree asks for the ones it shows
+			for (Item item : items) {
+				if (item.getData() != null) {
+					disassociate(item);
+				}
+				item.dispose();
+			}
+			Object[] children = widget.getData() == null ? new Object[0]
+					: internalGetSortedChildren(widget);
+			setLazyChildren(widget, new LazyChildren(children, childLevel));
+			items = new Item[0];
+		}
+		if (widget instanceof Item) {
+			setExpanded((Item) widget, true);
+		}
+		if (childLevel != 0) {
+			for (Item item : items) {
+				if (item.getData() != null) {
+					internalExpandToLevel(item, childLevel);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the child at the given index of a tree or item whose children
+	 * were counted by a lazy expansion, and expands it to the pending level.
+	 *
+	 * @param parent
+	 *            the tree or item
+	 * @param item
+	 *            the item of the child
+	 * @param index
+	 *            the index of the item in its parent
+	 */
+	private void virtualMaterializeLazyChild(Widget parent, Item item, int index) {
+		LazyChildren lazyChildren = (LazyChildren) parent.getData(LAZY_CHILDREN_KEY);
+		if (lazyChildren == null || item.getData() != null || index >= lazyChildren.elements.length) {
+			return;
+		}
+		boolean oldBusy = isBusy();
+		setBusy(true);
+		try {
+			Object element = lazyChildren.elements[index];
+			updateItem(item, element);
+			if (lazyChildren.level == 0) {
+				updatePlus(item, element);
+			} else {
+				internalExpandToLevel(item, lazyChildren.level);
+			}
+		} finally {
+			setBusy(oldBusy);
+		}
+	}
+
+	/**
+	 * Creates all the children of a tree or item whose children were counted
+	 * by a lazy expansion, so that they can be traversed by the viewer.
+	 *
+	 * @param parent
+	 *            the tree or item
+	 */
+	private void virtualMaterializeLazyChildren(Widget parent) {
+		LazyChildren lazyChildren = (LazyChildren) parent.getData(LAZY_CHILDREN_KEY);
+		if (lazyChildren == null) {
+			return;
+		}
+		Item[] items = getChildItems(parent);
+		for (int i = 0; i < items.length; i++) {
+			virtualMaterializeLazyChild(parent, items[i], i);
+		}
+		parent.setData(LAZY_CHILDREN_KEY, null);
+		lazyParents.remove(parent);
+	}
+
+	/**
+	 * Counts the children of a tree or item again, if its children were
+	 * counted by a lazy expansion and none of them has been created yet.
+	 *
+	 * @param widget
+	 *            the tree or item
+	 * @return whether the children were counted again
+	 */
+	private boolean virtualRecountLazyChildren(Widget widget) {
+		LazyChildren lazyChildren = (LazyChildren) widget.getData(LAZY_CHILDREN_KEY);
+		if (lazyChildren == null) {
+			return false;
+		}
+		for (Item item : getChildItems(widget)) {
+			if (item.getData() != null) {
+				return false;
+			}
+		}
+		Object[] children = widget.getData() == null ? new Object[0]
+				: internalGetSortedChildren(widget);
+		setLazyChildren(widget, new LazyChildren(children, lazyChildren.level));
+		return true;
+	}
+
+	/**
+	 * Removes the given elements from the children counted by lazy
+	 * expansions. The items of the elements that were not created yet are
+	 * disposed, the others are left to the caller.
+	 *
+	 * @param elementsOrPaths
+	 *            the elements or tree paths to remove
+	 */
+	private void virtualRemoveLazyChildren(Object[] elementsOrPaths) {
+		if (lazyParents.isEmpty()) {
+			return;
+		}
+		CustomHashtable elements = new CustomHashtable(getComparer());
+		List<TreePath> paths = new ArrayList<>();
+		for (Object elementOrPath : elementsOrPaths) {
+			if (elementOrPath instanceof TreePath) {
+				paths.add((TreePath) elementOrPath);
+			} else {
+				elements.put(elementOrPath, elementOrPath);
+			}
+		}
+		for (Widget parent : new ArrayList<>(lazyParents)) {
+			if (parent.isDisposed()) {
+				lazyParents.remove(parent);
+				continue;
+			}
+			LazyChildren lazyChildren = (LazyChildren) parent.getData(LAZY_CHILDREN_KEY);
+			TreePath parentPath = null;
+			for (int i = lazyChildren.elements.length - 1; i >= 0; i--) {
+				Object element = lazyChildren.elements[i];
+				boolean remove = elements.containsKey(element);
+				for (int j = 0; !remove && j < paths.size(); j++) {
+					TreePath path = paths.get(j);
+					if (equals(path.getLastSegment(), element)) {
+						if (parentPath == null) {
+							parentPath = parent instanceof Item ? getTreePathFromItem((Item) parent)
+									: TreePath.EMPTY;
+						}
+						remove = path.getParentPath().equals(parentPath, getComparer());
+					}
+				}
+				if (remove) {
+					Item item = parent instanceof TreeItem ? ((TreeItem) parent).getItem(i)
+							: ((Tree) parent).getItem(i);
+					if (item.getData() == null) {
+						item.dispose();
+					}
+					virtualDropLazyChild(parent, i);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the child at the given index from the children counted by a
+	 * lazy expansion, after its item was disposed or before it is disposed.
+	 *
+	 * @param parent
+	 *            the tree or item
+	 * @param index
+	 *            the index of the child
+	 */
+	private void virtualDropLazyChild(Widget parent, int index) {
+		LazyChildren lazyChildren = (LazyChildren) parent.getData(LAZY_CHILDREN_KEY);
+		if (lazyChildren == null || index >= lazyChildren.elements.length) {
+			return;
+		}
+		Object[] elements = new Object[lazyChildren.elements.length - 1];
+		System.arraycopy(lazyChildren.elements, 0, elements, 0, index);
+		System.arraycopy(lazyChildren.elements, index + 1, elements, index, elements.length - index);
+		lazyChildren.elements = elements;
+	}
+
+	/**
+	 * Replaces the children counted by lazy expansions that are equal to the
+	 * given element, so that their items are created for the given instance.
+	 *
+	 * @param element
+	 *            the element
+	 */
+	private void virtualUpdateLazyChildren(Object element) {
+		if (lazyParents.isEmpty()) {
+			return;
+		}
+		for (Iterator<Widget> it = lazyParents.iterator(); it.hasNext();) {
+			Widget parent = it.next();
+			if (parent.isDisposed()) {
+				it.remove();
+				continue;
+			}
+			Object[] elements = ((LazyChildren) parent.getData(LAZY_CHILDREN_KEY)).elements;
+			for (int i = 0; i < elements.length; i++) {
+				if (equals(elements[i], element)) {
+					elements[i] = element;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the children of a tree or item counted by a lazy expansion, and
+	 * the number of its items.
+	 */
+	private void setLazyChildren(Widget widget, LazyChildren lazyChildren) {
+		widget.setData(LAZY_CHILDREN_KEY, lazyChildren);
+		lazyParents.add(widget);
+		if (widget instanceof TreeItem) {
+			((TreeItem) widget).setItemCount(lazyChildren.elements.length);
+		} else {
+			((Tree) widget).setItemCount(lazyChildren.elements.length);
+		}
+	}
+
+	@Override
+	protected void internalRemove(Object[] elementsOrPaths) {
+		virtualRemoveLazyChildren(elementsOrPaths);
+		super.internalRemove(elementsOrPaths);
+	}
+
+	@Override
+	public void update(Object element, String[] properties) {
+		virtualUpdateLazyChildren(element);
+		super.update(element, properties);
+	}
+
 	@Override
 	protected void internalRefreshStruct(Widget widget, Object element,
 			boolean updateLabels) {
@@ -671,6 +968,10 @@ public class TreeViewer extends AbstractTreeViewer {
 			virtualRefreshExpandedItems(parent, widget, element, index);
 			return;
 		}
+		if (virtualRecountLazyChildren(widget)) {
+			// the children are created as they are shown
+			return;
+		}
 		super.internalRefreshStruct(widget, element, updateLabels);
 	}
 
@@ -809,6 +1110,7 @@ public class TreeViewer extends AbstractTreeViewer {
 			if (internalIsInputOrEmptyPath(parentOrTreePath)) {
 				Tree tree = (Tree) getControl();
 				if (index < tree.getItemCount()) {
+					virtualDropLazyChild(tree, index);
 					TreeItem item1 = tree.getItem(index);
 					if (item1.getData() != null) {
 						removedPath = getTreePathFromItem(item1);
@@ -832,9 +1134,11 @@ public class TreeViewer extends AbstractTreeViewer {
 							// just ignore the request to remove the dummy
 							// node (bug 292322 and bug 296573).
 							if (index > 0 || parentItem.getExpanded()) {
+								virtualDropLazyChild(parentItem, index);
 								item2.dispose();
 							}
 						} else {
+							virtualDropLazyChild(parentItem, index);
 							removedPath = getTreePathFromItem(item2);
 							disassociate(item2);
 							item2.dispose();
@@ -883,6 +1187,12 @@ public class TreeViewer extends AbstractTreeViewer {
 			}
 			return;
 		}
+		if (event.item.getData(LAZY_CHILDREN_KEY) != null) {
+			// the children were counted by a lazy expansion and are created
+			// as they are shown
+			fireTreeExpanded(new TreeExpansionEvent(this, event.item.getData()));
+			return;
+		}
 		super.handleTreeExpand(event);
 	}
 
@@ -897,6 +1207,53 @@ public class TreeViewer extends AbstractTreeViewer {
 		super.handleTreeCollapse(event);
 	}
 
+	/**
+	 * Sets whether {@link #expandToLevel(int)}, {@link #expandAll()} and
+	 * their variants only count the children of the expanded items, and
+	 * create the items of the children when the tree shows them, instead of
+	 * creating the items of the whole expanded subtree at once.
+	 * <p>
+	 * Lazy expansion only applies to trees created with the
+	 * {@link SWT#VIRTUAL} style bit whose content provider is neither an
+	 * {@link ILazyTreeContentProvider} nor an
+	 * {@link ILazyTreePathContentProvider}. The children of an expanded element
+	 * are still fetched from the content provider, sorted and filtered when it
+	 * is expanded. Items that the tree does not show are created when the
+	 * viewer needs them, for example when it is searched for an element.
+	 * </p>
+	 * <p>
+	 * A refresh counts the children of an expanded element again as long as
+	 * the tree has shown none of them. Once some of them are shown, the
+	 * refresh creates the items of all of them, and of their expanded
+	 * children.
+	 * </p>
+	 *
+	 * @param lazyExpansion
+	 *            <code>true</code> to create the items of expanded elements
+	 *            as they are shown
+	 * @since 3.15
+	 */
+	public void setLazyExpansion(boolean lazyExpansion) {
+		this.lazyExpansion = lazyExpansion;
+	}
+
+	/**
+	 * Returns whether the items of expanded elements are created as they are
+	 * shown.
+	 *
+	 * @return <code>true</code> if lazy expansion is enabled
+	 * @see #setLazyExpansion(boolean)
+	 * @since 3.15
+	 */
+	public boolean isLazyExpansion() {
+		return lazyExpansion;
+	}
+
+	private boolean isLazyExpanding() {
+		return lazyExpansion && !contentProviderIsLazy
+				&& (getTree().getStyle() & SWT.VIRTUAL) != 0;
+	}
+
 	/**
 	 * Sets the content provider used by this <code>TreeViewer</code>.
 	 * <p>
@@ -1054,6 +1411,9 @@ public class TreeViewer extends AbstractTreeViewer {
 			// avoid causing a callback:
 			item.setText(" "); //$NON-NLS-1$
 		}
+		// children left pending by a lazy expansion have no element
+		item.setData(LAZY_CHILDREN_KEY, null);
+		lazyParents.remove(item);
 		super.disassociate(item);
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -80,6 +80,11 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
      */
     private volatile IFilter filter = AcceptAllFilter.getInstance();
 
+    /**
+     * True iff large models are filtered and sorted on the common fork/join pool
+     */
+    private volatile boolean parallel = false;
+
     /**
      * Queued changes
      */
@@ -183,6 +188,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
         Comparator order = sortOrder;
         IFilter f = filter;
         LazySortedCollection collection = new LazySortedCollection(order);
+        collection.setParallel(parallel);
 
         // Fill it in with all existing known objects
         Object[] knownObjects = updator.getKnownObjects();
@@ -205,6 +211,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
         		order = sortOrder;
         		// Copy all elements from the old collection to the new one
         		LazySortedCollection newCollection = new LazySortedCollection(order);
+        		newCollection.setParallel(parallel);
 
         		Object[] items = collection.getItems(false);
         		for (int j = 0; j < items.length && order == sortOrder; j++) {
@@ -229,6 +236,13 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
         		Object[] items = collection.getItems(false);
 
         		// Remove any items that don't pass the new filter
+        		if (parallel && ParallelSorter.isParallel(items.length)) {
+        			Object[] rejected = ParallelSorter.filter(items, f, false);
+        			if (f == filter) {
+        				collection.removeAll(rejected);
+        			}
+        			continue;
+        		}
         		for (int j = 0; j < items.length && f == filter; j++) {
 					Object toTest = items[j];
 
@@ -246,7 +260,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 
 	        	switch(next.getType()) {
 		        	case ChangeQueue.ADD: {
-		            	filteredAdd(collection, next.getElements(), f);
+		            	filteredAdd(collection, next.getElements(), f, parallel);
 		        		break;
 		        	}
 		        	case ChangeQueue.REMOVE: {
@@ -274,7 +288,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 		        	case ChangeQueue.SET: {
 		        		Object[] items = next.getElements();
 		        		collection.clear();
-		        		filteredAdd(collection, items, f);
+		        		filteredAdd(collection, items, f, parallel);
 
 		        		break;
 		        	}
@@ -310,6 +324,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
             	range = updateRange;
             	int sortStart = updateRange.start;
             	int sortLength = updateRange.length;
+            	collection.setParallel(parallel);
 
 		        if (limit != -1) {
 		            collection.retainFirst(limit, sortMon);
@@ -351,9 +366,15 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 	/**
 	 * @param collection
 	 * @param toAdd
+	 * @param parallel true iff large arrays should be filtered in parallel
 	 */
-	private static void filteredAdd(LazySortedCollection collection, Object[] toAdd, IFilter filter) {
+	private static void filteredAdd(LazySortedCollection collection, Object[] toAdd, IFilter filter,
+			boolean parallel) {
 		if (filter != AcceptAllFilter.getInstance()) {
+			if (parallel && ParallelSorter.isParallel(toAdd.length)) {
+				collection.addAll(ParallelSorter.filter(toAdd, filter, true));
+				return;
+			}
 			for (Object object : toAdd) {
 				if (filter.select(object)) {
 					collection.add(object);
@@ -388,6 +409,27 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
     	refresh();
     }
 
+    /**
+     * Sets whether large models are filtered and sorted on the common fork/join pool.
+     * The filter and the sort order are then called from several threads at once.
+     *
+     * @param parallel true to filter and sort large models in parallel
+     */
+    public void setParallel(boolean parallel) {
+    	this.parallel = parallel;
+    	sortMon.cancel();
+    	refresh();
+    }
+
+    /**
+     * Returns whether large models are filtered and sorted in parallel
+     *
+     * @return true iff large models are filtered and sorted in parallel
+     */
+    public boolean isParallel() {
+    	return parallel;
+    }
+
     /**
      * Sets the maximum table size. Based on the current sort order,
      * the table will be truncated if it grows beyond this size.
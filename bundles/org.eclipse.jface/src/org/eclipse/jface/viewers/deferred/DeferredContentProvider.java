@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -45,6 +45,7 @@ public class DeferredContentProvider implements ILazyContentProvider {
 	private BackgroundContentProvider provider;
 	private Comparator sortOrder;
 	private IFilter filter = AcceptAllFilter.getInstance();
+	private boolean parallel = false;
 	private AbstractVirtualTable table;
 
 	private static final class TableViewerAdapter extends AbstractVirtualTable {
@@ -133,6 +134,7 @@ public class DeferredContentProvider implements ILazyContentProvider {
 
 		newProvider.setLimit(limit);
 		newProvider.setFilter(filter);
+		newProvider.setParallel(parallel);
 	}
 
 	/**
@@ -178,6 +180,34 @@ public class DeferredContentProvider implements ILazyContentProvider {
 		}
 	}
 
+	/**
+	 * Sets whether large models are filtered and sorted using all processors. In
+	 * parallel mode, the model is split into chunks that are filtered and
+	 * partially sorted on the common fork/join pool, and only the chunks up to
+	 * the end of the visible range are merged before the visible rows are sent
+	 * to the table. The filter and the sort order are then called from several
+	 * threads at once and must be thread safe.
+	 *
+	 * @param parallel true to filter and sort large models in parallel
+	 * @since 3.15
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+		if (provider != null) {
+			provider.setParallel(parallel);
+		}
+	}
+
+	/**
+	 * Returns whether large models are filtered and sorted in parallel.
+	 *
+	 * @return true iff large models are filtered and sorted in parallel
+	 * @since 3.15
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
 	/**
 	 * Returns the current maximum number of rows or -1 if unbounded
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -54,6 +54,7 @@ public class LazySortedCollection {
 
     private IntHashMap objectIndices;
     private Comparator comparator;
+    private boolean parallel = false;
     private static int counter = 0;
 
     /**
@@ -166,6 +167,32 @@ public class LazySortedCollection {
         this.comparator = c;
     }
 
+    /**
+     * Sets whether large sorted ranges are computed on the common fork/join pool. In
+     * parallel mode, a sorted range is computed by splitting the collection into chunks,
+     * sorting the smallest elements of each chunk in parallel and merging the chunks
+     * up to the end of the range. The comparator is then called from several threads
+     * at once and must be thread safe. Unsorted ranges and small collections are always
+     * computed in the calling thread.
+     *
+     * @param parallel true to compute large sorted ranges in parallel
+     * @since 3.15
+     */
+    public final void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns whether large sorted ranges are computed on the common fork/join pool.
+     *
+     * @return true iff large sorted ranges are computed in parallel
+     * @see #setParallel(boolean)
+     * @since 3.15
+     */
+    public final boolean isParallel() {
+        return parallel;
+    }
+
     /**
      * Tests if this object's internal state is valid. Throws a runtime
      * exception if the state is invalid, indicating a programming error
@@ -1252,6 +1279,9 @@ public class LazySortedCollection {
      * @throws InterruptedException if the progress monitor was cancelled in another thread
      */
     /* package */ final int getRange(Object[] result, int rangeStart, boolean sorted, FastProgressReporter mon) throws InterruptedException {
+        if (parallel && sorted && ParallelSorter.isParallel(size())) {
+            return ParallelSorter.getRange(getItems(false), comparator, result, rangeStart, mon);
+        }
         return getRange(result, 0, rangeStart, root, sorted, mon);
     }
 
@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers.deferred;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.jface.viewers.IFilter;
+
+/**
+ * Filters and sorts large arrays of elements on the common fork/join pool. The
+ * elements are split into chunks that are processed in parallel. To find a range of
+ * the sorted elements, only the elements of each chunk up to the end of the range are
+ * sorted, then the sorted chunks are merged until the range is filled.
+ * <p>
+ * The comparator and the filter are called from several threads at once, but never
+ * for the same element.
+ * </p>
+ */
+/* package */ final class ParallelSorter {
+
+	/**
+	 * Arrays with fewer elements than this are processed in the calling thread.
+	 */
+	static final int PARALLEL_THRESHOLD = 8192;
+
+	private static final int MIN_CHUNK_SIZE = 4096;
+
+	// Cancellation is checked every CANCEL_CHECK_MASK + 1 elements
+	private static final int CANCEL_CHECK_MASK = 0x3ff;
+
+	private ParallelSorter() {
+	}
+
+	/**
+	 * Returns whether an array of the given size is processed in parallel.
+	 *
+	 * @param size number of elements
+	 * @return true iff the elements are split into chunks processed on the common pool
+	 */
+	static boolean isParallel(int size) {
+		return size >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+	}
+
+	/**
+	 * Sorts the smallest elements of chunks of an array.
+	 */
+	private static final class PartialSortTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Object[] elements;
+		private final Comparator order;
+		private final int[] starts;
+		private final int firstChunk;
+		private final int endChunk;
+		private final int k;
+		private final Object[][] sortedChunks;
+		private final FastProgressReporter mon;
+
+		PartialSortTask(Object[] elements, Comparator order, int[] starts, int firstChunk,
+				int endChunk, int k, Object[][] sortedChunks, FastProgressReporter mon) {
+			this.elements = elements;
+			this.order = order;
+			this.starts = starts;
+			this.firstChunk = firstChunk;
+			this.endChunk = endChunk;
+			this.k = k;
+			this.sortedChunks = sortedChunks;
+			this.mon = mon;
+		}
+
+		@Override
+		protected void compute() {
+			if (endChunk - firstChunk == 1) {
+				sortedChunks[firstChunk] = sortFirst(elements, order, starts[firstChunk],
+						starts[endChunk], k, mon);
+				return;
+			}
+			int middle = (firstChunk + endChunk) >>> 1;
+			invokeAll(new PartialSortTask(elements, order, starts, firstChunk, middle, k, sortedChunks, mon),
+					new PartialSortTask(elements, order, starts, middle, endChunk, k, sortedChunks, mon));
+		}
+	}
+
+	/**
+	 * Tests chunks of an array against a filter.
+	 */
+	private static final class FilterTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Object[] elements;
+		private final IFilter filter;
+		private final boolean[] selected;
+		private final int from;
+		private final int to;
+
+		FilterTask(Object[] elements, IFilter filter, boolean[] selected, int from, int to) {
+			this.elements = elements;
+			this.filter = filter;
+			this.selected = selected;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= MIN_CHUNK_SIZE) {
+				for (int i = from; i < to; i++) {
+					selected[i] = filter.select(elements[i]);
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new FilterTask(elements, filter, selected, from, middle),
+					new FilterTask(elements, filter, selected, middle, to));
+		}
+	}
+
+	/**
+	 * Returns the elements that are accepted or rejected by the filter, in their original
+	 * order.
+	 *
+	 * @param elements elements to test
+	 * @param filter filter to apply
+	 * @param accepted true to return the elements accepted by the filter, false to return
+	 * the rejected ones
+	 * @return the accepted or rejected elements
+	 */
+	static Object[] filter(Object[] elements, IFilter filter, boolean accepted) {
+		boolean[] selected = new boolean[elements.length];
+		if (isParallel(elements.length)) {
+			new FilterTask(elements, filter, selected, 0, elements.length).invoke();
+		} else {
+			for (int i = 0; i < elements.length; i++) {
+				selected[i] = filter.select(elements[i]);
+			}
+		}
+		int count = 0;
+		for (boolean element : selected) {
+			if (element == accepted) {
+				count++;
+			}
+		}
+		Object[] result = new Object[count];
+		count = 0;
+		for (int i = 0; i < elements.length; i++) {
+			if (selected[i] == accepted) {
+				result[count++] = elements[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Fills in the result array with the elements of the given range of the sorted
+	 * elements, like {@link LazySortedCollection#getRange(Object[], int, boolean)}. Equal
+	 * elements keep their order in the elements array. The elements array is not modified.
+	 *
+	 * @param elements unsorted elements
+	 * @param order sort order
+	 * @param result array to be filled in
+	 * @param rangeStart index of the smallest element to appear in the result
+	 * @param mon progress monitor used to cancel the operation
+	 * @return the number of elements inserted into the result array
+	 * @throws InterruptedException if the progress monitor was cancelled in another thread
+	 */
+	static int getRange(Object[] elements, Comparator order, Object[] result, int rangeStart,
+			FastProgressReporter mon) throws InterruptedException {
+		int n = elements.length;
+		int end = (int) Math.min(n, (long) rangeStart + result.length);
+		if (rangeStart >= end) {
+			return 0;
+		}
+
+		int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), n / MIN_CHUNK_SIZE));
+		int[] starts = new int[chunks + 1];
+		for (int i = 0; i <= chunks; i++) {
+			starts[i] = (int) ((long) n * i / chunks);
+		}
+		Object[][] sortedChunks = new Object[chunks][];
+		if (chunks == 1) {
+			sortedChunks[0] = sortFirst(elements, order, 0, n, end, mon);
+		} else {
+			new PartialSortTask(elements, order, starts, 0, chunks, end, sortedChunks, mon).invoke();
+		}
+		if (mon.isCanceled()) {
+			throw new InterruptedException();
+		}
+
+		// Merge the sorted chunks with a min heap of the chunks ordered by their next element
+		int[] heads = new int[chunks];
+		int[] heap = new int[chunks];
+		int heapSize = 0;
+		for (int i = 0; i < chunks; i++) {
+			if (sortedChunks[i].length > 0) {
+				heap[heapSize++] = i;
+			}
+		}
+		for (int i = heapSize / 2 - 1; i >= 0; i--) {
+			siftDownChunk(heap, heapSize, i, sortedChunks, heads, order);
+		}
+		for (int index = 0; index < end; index++) {
+			if ((index & CANCEL_CHECK_MASK) == 0 && mon.isCanceled()) {
+				throw new InterruptedException();
+			}
+			int chunk = heap[0];
+			if (index >= rangeStart) {
+				result[index - rangeStart] = sortedChunks[chunk][heads[chunk]];
+			}
+			if (++heads[chunk] == sortedChunks[chunk].length) {
+				heap[0] = heap[--heapSize];
+			}
+			siftDownChunk(heap, heapSize, 0, sortedChunks, heads, order);
+		}
+		return end - rangeStart;
+	}
+
+	/**
+	 * Returns the k smallest elements of [from, to) in sorted order, or null if cancelled.
+	 */
+	private static Object[] sortFirst(Object[] elements, Comparator order, int from, int to, int k,
+			FastProgressReporter mon) {
+		int length = to - from;
+		if (k >= length / 4) {
+			// Most of the chunk is needed, sort all of it
+			Object[] sorted = Arrays.copyOfRange(elements, from, to);
+			Arrays.sort(sorted, order);
+			return k < length ? Arrays.copyOf(sorted, k) : sorted;
+		}
+
+		// Keep the indices of the k smallest elements in a max heap
+		int[] heap = new int[k];
+		int heapSize = 0;
+		for (int i = from; i < to; i++) {
+			if ((i & CANCEL_CHECK_MASK) == 0 && mon.isCanceled()) {
+				return null;
+			}
+			if (heapSize < k) {
+				int position = heapSize++;
+				while (position > 0) {
+					int parent = (position - 1) >>> 1;
+					if (!isBefore(heap[parent], i, elements, order)) {
+						break;
+					}
+					heap[position] = heap[parent];
+					position = parent;
+				}
+				heap[position] = i;
+			} else if (k > 0 && isBefore(i, heap[0], elements, order)) {
+				heap[0] = i;
+				siftDownIndex(heap, heapSize, 0, elements, order);
+			}
+		}
+
+		// Sort the heap in place by moving the largest remaining element to the end
+		for (int last = heapSize - 1; last > 0; last--) {
+			int largest = heap[0];
+			heap[0] = heap[last];
+			heap[last] = largest;
+			siftDownIndex(heap, last, 0, elements, order);
+		}
+		Object[] sorted = new Object[heapSize];
+		for (int i = 0; i < heapSize; i++) {
+			sorted[i] = elements[heap[i]];
+		}
+		return sorted;
+	}
+
+	/*
+	 * Equal elements are ordered by their index, so that the result does not depend on
+	 * how the elements were split into chunks.
+	 */
+	private static boolean isBefore(int index1, int index2, Object[] elements, Comparator order) {
+		int result = order.compare(elements[index1], elements[index2]);
+		return result < 0 || (result == 0 && index1 < index2);
+	}
+
+	private static void siftDownIndex(int[] heap, int heapSize, int position, Object[] elements,
+			Comparator order) {
+		int index = heap[position];
+		int child = 2 * position + 1;
+		while (child < heapSize) {
+			if (child + 1 < heapSize && isBefore(heap[child], heap[child + 1], elements, order)) {
+				child++;
+			}
+			if (!isBefore(index, heap[child], elements, order)) {
+				break;
+			}
+			heap[position] = heap[child];
+			position = child;
+			child = 2 * position + 1;
+		}
+		heap[position] = index;
+	}
+
+	private static void siftDownChunk(int[] heap, int heapSize, int position, Object[][] sortedChunks,
+			int[] heads, Comparator order) {
+		if (position >= heapSize) {
+			return;
+		}
+		int chunk = heap[position];
+		int child = 2 * position + 1;
+		while (child < heapSize) {
+			if (child + 1 < heapSize
+					&& isChunkBefore(heap[child + 1], heap[child], sortedChunks, heads, order)) {
+				child++;
+			}
+			if (!isChunkBefore(heap[child], chunk, sortedChunks, heads, order)) {
+				break;
+			}
+			heap[position] = heap[child];
+			position = child;
+			child = 2 * position + 1;
+		}
+		heap[position] = chunk;
+	}
+
+	/*
+	 * Equal elements are taken from the chunks in order, which keeps them in the order
+	 * of the elements array.
+	 */
+	private static boolean isChunkBefore(int chunk1, int chunk2, Object[][] sortedChunks, int[] heads,
+			Comparator order) {
+		int result = order.compare(sortedChunks[chunk1][heads[chunk1]], sortedChunks[chunk2][heads[chunk2]]);
+		return result < 0 || (result == 0 && chunk1 < chunk2);
+	}
+}
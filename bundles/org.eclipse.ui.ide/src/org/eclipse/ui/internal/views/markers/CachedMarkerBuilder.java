@@ -40,6 +40,12 @@ public class CachedMarkerBuilder {
 	private static final String TAG_CATEGORY_GROUP = "categoryGroup"; //$NON-NLS-1$
 	private static final String VALUE_NONE = "none"; //$NON-NLS-1$
 
+	/**
+	 * System property to gather all markers on every marker change, instead of
+	 * updating incrementally.
+	 */
+	static final String DISABLE_INCREMENTAL_UPDATE_PROPERTY = "org.eclipse.ui.views.markers.disableIncrementalUpdate"; //$NON-NLS-1$
+
 	// The MarkerContentGenerator we are using for building
 	private MarkerContentGenerator generator;
 	private MarkerUpdateJob updateJob;
@@ -130,7 +136,7 @@ public class CachedMarkerBuilder {
 
 		if (isIncremental()) {
 			if (incrementJob != null) {
-				incrementJob.clearEntries();
+				incrementJob.clearUpdates();
 			}
 		}
 	}
@@ -451,11 +457,12 @@ public class CachedMarkerBuilder {
 				// ensure cancellation before calling the method
 				// updateJob.cancel();
 			} else {
-				/*
-				 * updateJob = isIncremental() ? new IncrementUpdateJob(this):
-				 * new MarkerUpdateJob(this);
-				 */
-				updateJob = new MarkerUpdateJob(this);
+				if (isIncremental()) {
+					incrementJob = new IncrementUpdateJob(this);
+					updateJob = incrementJob;
+				} else {
+					updateJob = new MarkerUpdateJob(this);
+				}
 				updateJob.setPriority(Job.LONG);
 				updateJob.setSystem(true);
 			}
@@ -597,20 +604,18 @@ public class CachedMarkerBuilder {
 	}
 
 ///////	<Incremental update code>///////
-		private IncrementUpdateJob incrementJob;
+	private IncrementUpdateJob incrementJob;
+	private final boolean incremental = !Boolean.getBoolean(DISABLE_INCREMENTAL_UPDATE_PROPERTY);
 	/**
-	 * Checks whether the builder should perform incrementally Note : Incremental
-	 * updating method is NOT used and tested yet but left out for further
-	 * investigation(*).
+	 * Checks whether the builder should perform incrementally. If so, marker
+	 * changes are applied to the sorted and grouped markers by the
+	 * {@link IncrementUpdateJob} instead of gathering all markers again. Only
+	 * explicitly requested updates, e.g. on filter changes, gather all markers.
 	 *
 	 * @return Returns true if we should collect markers incrementally.
 	 */
 	boolean isIncremental() {
-		/*
-		 * We do not update incrementally. We have
-		 * code for further investigation(*) for this anyway.
-		 */
-		return false;
+		return incremental;
 	}
 
 	/**
@@ -639,13 +644,15 @@ public class CachedMarkerBuilder {
 	 * @param update
 	 */
 	void incrementalUpdate(MarkerUpdate update) {
+		IncrementUpdateJob job;
 		synchronized (getUpdateScheduler().getSchedulingLock()) {
 			if (incrementJob == null) {
 				scheduleUpdateJob(MarkerUpdateScheduler.SHORT_DELAY, true);
 			}
+			job = incrementJob;
 		}
-		if (incrementJob != null) {
-			incrementJob.addUpdate(update);
+		if (job != null) {
+			job.addUpdate(update);
 		}
 	}
 ///////	</Incremental update code>///////
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,27 +11,33 @@
 
 package org.eclipse.ui.internal.views.markers;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.ui.views.markers.internal.MarkerMessages;
 
 /**
- * The job that performs incremental update. Once the processing is complete it
- * schedules an UI update. If it'll be possible and beneficial switch to
- * incremental updatation, this has been left out for further investigation(*).
- * only, and not used currently.
+ * The job that performs incremental update. Instead of gathering, sorting and
+ * grouping all markers again, it applies the marker changes received by the
+ * {@link MarkersChangeListener} to the sorted and grouped {@link Markers}. A
+ * clean update gathers all markers like the {@link MarkerUpdateJob}. Once the
+ * processing is complete it schedules an UI update.
  *
  * @since 3.6
  *
  */
 class IncrementUpdateJob extends MarkerUpdateJob {
 
-	private LinkedList<MarkerEntry> incrementEntryList;
 	private LinkedList<MarkerUpdate> updateQueue;
 
 	/**
@@ -39,224 +45,142 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 	 */
 	public IncrementUpdateJob(CachedMarkerBuilder builder) {
 		super(builder);
-		incrementEntryList = new LinkedList<>();
 	}
 
 	@Override
 	protected IStatus run(IProgressMonitor monitor) {
 		monitor.beginTask(MarkerMessages.MarkerView_processUpdates, IProgressMonitor.UNKNOWN);
-		boolean clean= isClean();
-		if (clean) {
-			clearEntries();
-		}
-		Collection<MarkerEntry> markerEntries = incrementalEntries();
-		if (clean) {
+		if (isClean()) {
 			/*
-			 * Unfortunately we cannot lock marker operations between gathering
-			 * and updation. We have this code in place only for further
-			 * investigation
+			 * The changes so far are part of the gathered markers. Changes
+			 * received while gathering may be part of them too, which does no
+			 * harm as applying a change replaces the entry of the marker.
 			 */
-			clean = !clean(markerEntries, monitor);
-			LinkedList<MarkerUpdate> queue = getUpdatesQueue();
-			synchronized (queue) {
-				queue.clear();
-			}
-		}
-		if (monitor.isCanceled()) {
+			clearUpdates();
+			buildMarkers(monitor);
+			return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+		List<MarkerUpdate> updates = getPendingUpdates();
+		if (updates.isEmpty()) {
+			builder.setBuilding(false);
+			return Status.OK_STATUS;
+		}
+		builder.registerTypesToListener();
+		if (!processUpdates(updates, monitor)) {
+			// keep the updates for the next run
+			builder.setBuilding(false);
 			return Status.CANCEL_STATUS;
 		}
-		if (!clean) {
-			builder.registerTypesToListener();
-			if (!processUpdates(monitor)) {
-				return Status.CANCEL_STATUS;
-			}
+		removeUpdates(updates.size());
+		if (!monitor.isCanceled()) {
+			builder.getUpdateScheduler().scheduleUIUpdate(MarkerUpdateScheduler.SHORT_DELAY);
 		}
-		if (!processMarkerEntries(markerEntries, monitor)) {
-			return Status.CANCEL_STATUS;
-		}
-		if (monitor.isCanceled()) {
-			return Status.CANCEL_STATUS;
-		}
-		// update with sorted entries
-		updateIncrementalList(markerEntries);
-
-		if (monitor.isCanceled()) {
-			return Status.CANCEL_STATUS;
-		}
-		builder.getUpdateScheduler().scheduleUIUpdate(MarkerUpdateScheduler.SHORT_DELAY);
+		builder.setBuilding(false);
 		if (monitor.isCanceled()) {
 			return Status.CANCEL_STATUS;
 		}
-		builder.setBuilding(false);
 		updateDone();
 		return Status.OK_STATUS;
 	}
 
 	/**
-	 * Update the list
-	 *
-	 * @param markerEntries
-	 */
-	private boolean updateIncrementalList(Collection<MarkerEntry> markerEntries) {
-		markerEntries.clear();
-		Markers clone = builder.getMarkers();
-		synchronized (clone) {
-			clone = clone.getClone();
-		}
-		for (MarkerEntry entry : clone.getMarkerEntryArray()) {
-			markerEntries.add(entry);
-		}
-		return true;
-	}
-
-	/**
-	 * Process the incremental updates
+	 * Apply the updates to the markers of the builder.
 	 *
+	 * @param updates
+	 *            the updates in the order they were received
 	 * @param monitor
+	 * @return <code>true</code> if the updates were applied,
+	 *         <code>false</code> if cancelled
 	 */
-	private boolean processUpdates(IProgressMonitor monitor) {
-		Collection<MarkerEntry> markerEntries = incrementalEntries();
-		int addCount = 0, removedCount = 0, changedCount = 0, size = 0, newSize = 0;
-		LinkedList<MarkerUpdate> queue = getUpdatesQueue();
-		MarkerUpdate next = null;
-		do {
-			synchronized (queue) {
-				if (!queue.isEmpty()) {
-					next = queue.removeFirst();
-				} else {
-					next = null;
-				}
+	private boolean processUpdates(List<MarkerUpdate> updates, IProgressMonitor monitor) {
+		// the last kind of change of each marker
+		Map<IMarker, Integer> changes = new LinkedHashMap<>();
+		for (MarkerUpdate update : updates) {
+			putChanges(changes, update.removed, IResourceDelta.REMOVED);
+			putChanges(changes, update.added, IResourceDelta.ADDED);
+			putChanges(changes, update.changed, IResourceDelta.CHANGED);
+		}
+		MarkerContentGenerator generator = builder.getGenerator();
+		if (generator == null) {
+			return false;
+		}
+		Collection<MarkerEntry> newEntries = new ArrayList<>();
+		int addCount = 0, removedCount = 0, changedCount = 0;
+		int count = 0;
+		for (Entry<IMarker, Integer> change : changes.entrySet()) {
+			int kind = change.getValue().intValue();
+			if (kind == IResourceDelta.REMOVED) {
+				removedCount++;
+				continue;
 			}
-			if (monitor.isCanceled() || next == null) {
-				break;
+			if (kind == IResourceDelta.ADDED) {
+				addCount++;
+			} else {
+				changedCount++;
 			}
-			/**
-			 * The following performs incremental updation of the markers that
-			 * were gathered intially, and keeps them synched at any point with
-			 * the markers of interest in Workspace
-			 */
-			// unfortunately marker operations cannot be locked
-			// so locking between gathering of markers and
-			// marker deltas is not possible
-			size = markerEntries.size();
-			handleRemovedEntries(markerEntries, next.removed, monitor);
-			newSize = markerEntries.size();
-			removedCount += size - newSize;
-
-			handleChangedEntries(markerEntries, next.changed, monitor);
-			changedCount += next.changed.size();
-
-			size = newSize;
-			handleAddedEntries(markerEntries, next.added, monitor);
-			newSize = markerEntries.size();
-			removedCount += newSize - size;
-		} while (next != null);
-		boolean[] changeFlags = new boolean[] { addCount > 0, removedCount > 0,
-				changedCount > 0 };
-		for (boolean changeFlag : changeFlags) {
-			if (changeFlag) {
-				builder.updateChangeFlags(changeFlags);
-				return true;
+			IMarker marker = change.getKey();
+			if (!marker.exists()) {
+				continue;
 			}
-		}
-		return false;
-	}
-
-	/**
-	 * @param added
-	 * @param monitor
-	 */
-	private void handleAddedEntries(Collection<MarkerEntry> markerEntries, Collection<MarkerEntry> added,
-			IProgressMonitor monitor) {
-		MarkerContentGenerator generator = builder.getGenerator();
-		Iterator<MarkerEntry> iterator = added.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
+			MarkerEntry entry = new MarkerEntry(marker);
 			if (generator.select(entry)) {
-				markerEntries.add(entry);
+				newEntries.add(entry);
 			}
+			if (++count % 500 == 0 && monitor.isCanceled()) {
+				return false;
+			}
+		}
+		if (monitor.isCanceled()) {
+			return false;
+		}
+		if (!builder.getMarkers().updateIncrementally(changes.keySet(), newEntries, monitor)) {
+			return false;
 		}
+		builder.updateChangeFlags(new boolean[] { addCount > 0, removedCount > 0, changedCount > 0 });
+		return true;
 	}
 
-	/**
-	 * @param changed
-	 * @param monitor
-	 */
-	private void handleChangedEntries(Collection<MarkerEntry> markerEntries,
-			Collection<MarkerEntry> changed, IProgressMonitor monitor) {
-		MarkerContentGenerator generator = builder.getGenerator();
-		Iterator<MarkerEntry> iterator = changed.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			Iterator<MarkerEntry> iterator2 = markerEntries.iterator();
-			while (iterator2.hasNext()) {
-				MarkerEntry oldEntry = iterator2.next();
-				if (oldEntry.getMarker().equals(entry.getMarker())) {
-					iterator2.remove();
-				}
-			}
-			if (!generator.select(entry)) {
-				iterator.remove();
-			}
+	private static void putChanges(Map<IMarker, Integer> changes, Collection<MarkerEntry> entries, int kind) {
+		for (MarkerEntry entry : entries) {
+			IMarker marker = entry.getMarker();
+			// re-insert to keep the order of the last change
+			changes.remove(marker);
+			changes.put(marker, Integer.valueOf(kind));
 		}
-		markerEntries.addAll(changed);
 	}
 
 	/**
-	 * @param removed
-	 * @param monitor
+	 * Remove all pending updates.
 	 */
-	private void handleRemovedEntries(Collection<MarkerEntry> markerEntries,
-			Collection<MarkerEntry> removed, IProgressMonitor monitor) {
-		boolean found = false;
-		Iterator<MarkerEntry> iterator = markerEntries.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			found = entry.getStaleState();
-			if (found) {
-				iterator.remove();
-			}
-			if (removed.isEmpty()) {
-				continue;
-			}
-			Iterator<MarkerEntry> iterator2 = removed.iterator();
-			while (iterator2.hasNext()) {
-				MarkerEntry stale = iterator2.next();
-				if (stale.getMarker().equals(entry.getMarker())) {
-					iterator2.remove();
-					if (!found) {
-						iterator.remove();
-					}
-					break;
-				}
-			}
-		}
-		if (removed.isEmpty()) {
-			// TODO: do we check for residuals?
-			return;
-		}
-		// TODO: do we check for residuals?
-		iterator = markerEntries.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			if (entry.getMarker() != null && !entry.getMarker().exists()) {
-				iterator.remove();
-			}
+	void clearUpdates() {
+		LinkedList<MarkerUpdate> queue = getUpdatesQueue();
+		synchronized (queue) {
+			queue.clear();
 		}
 	}
 
 	/**
-	 * Clean
+	 * @return a copy of the pending updates
 	 */
-	void clearEntries() {
-		incrementEntryList = new LinkedList<>();
+	private List<MarkerUpdate> getPendingUpdates() {
+		LinkedList<MarkerUpdate> queue = getUpdatesQueue();
+		synchronized (queue) {
+			return new ArrayList<>(queue);
+		}
 	}
 
 	/**
-	 * @return Returns the incrementEntryies.
+	 * Remove the first count updates, which have been processed.
+	 *
+	 * @param count
 	 */
-	Collection<MarkerEntry> incrementalEntries() {
-		return incrementEntryList;
+	private void removeUpdates(int count) {
+		LinkedList<MarkerUpdate> queue = getUpdatesQueue();
+		synchronized (queue) {
+			for (int i = 0; i < count && !queue.isEmpty(); i++) {
+				queue.removeFirst();
+			}
+		}
 	}
 
 	/**
@@ -290,4 +214,4 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 		}
 		return super.belongsTo(family);
 	}
-}
\ No newline at end of file
+}
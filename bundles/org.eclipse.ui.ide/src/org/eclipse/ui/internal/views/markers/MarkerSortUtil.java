@@ -30,6 +30,8 @@ package org.eclipse.ui.internal.views.markers;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -64,6 +66,62 @@ public class MarkerSortUtil {
 	 */
 	private static float MERGE_OR_HEAP_SWITCH=1.5f;
 
+	/**
+	 * System property to sort and group the markers in the calling thread only,
+	 * e.g. if a contributed marker field cannot be compared from several
+	 * threads at once.
+	 */
+	static final String DISABLE_PARALLEL_SORT_PROPERTY = "org.eclipse.ui.views.markers.disableParallelSort"; //$NON-NLS-1$
+
+	/*
+	 * Ranges with fewer entries than this are sorted in the calling thread.
+	 * Larger ranges are split into chunks of at least BATCH_SIZE entries.
+	 */
+	private static final int PARALLEL_THRESHOLD = 2 * BATCH_SIZE;
+
+	private static final boolean PARALLEL = !Boolean.getBoolean(DISABLE_PARALLEL_SORT_PROPERTY)
+			&& ForkJoinPool.getCommonPoolParallelism() > 1;
+
+	/**
+	 * Partially sorts chunks of a range in parallel.
+	 */
+	private static final class PartialSortTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final MarkerEntry[] entries;
+		private final Comparator<MarkerItem> comparator;
+		private final int[] starts;
+		private final int firstChunk;
+		private final int endChunk;
+		private final int k;
+		private final IProgressMonitor monitor;
+
+		PartialSortTask(MarkerEntry[] entries, Comparator<MarkerItem> comparator, int[] starts, int firstChunk,
+				int endChunk, int k, IProgressMonitor monitor) {
+			this.entries = entries;
+			this.comparator = comparator;
+			this.starts = starts;
+			this.firstChunk = firstChunk;
+			this.endChunk = endChunk;
+			this.k = k;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			if (endChunk - firstChunk == 1) {
+				int from = starts[firstChunk];
+				int to = starts[endChunk] - 1;
+				sortStartingKElement(entries, comparator, from, to, Math.min(k, to - from + 1), monitor);
+				return;
+			}
+			int middle = (firstChunk + endChunk) >>> 1;
+			invokeAll(new PartialSortTask(entries, comparator, starts, firstChunk, middle, k, monitor),
+					new PartialSortTask(entries, comparator, starts, middle, endChunk, k, monitor));
+		}
+	}
+
 	/**
 	 * Sorts [first,middle] in the array of [first,last] using a variant of
 	 * modified heapsort, such that
@@ -363,6 +421,138 @@ public class MarkerSortUtil {
 		}
 	}
 
+	/**
+	 * Return whether a range of size entries is sorted and grouped using the
+	 * common fork/join pool.
+	 *
+	 * @param size
+	 * @return boolean
+	 */
+	static boolean isParallel(int size) {
+		return PARALLEL && size >= PARALLEL_THRESHOLD;
+	}
+
+	/**
+	 * Sorts [from,from+k-1] in the array of [from,to] like
+	 * {@link #sortStartingKElement(MarkerEntry[], Comparator, int, int, int, IProgressMonitor)}
+	 * using all processors for large ranges: the range is split into chunks
+	 * whose first k entries are sorted in parallel, then the sorted entries of
+	 * the chunks are merged until the k smallest are found. The comparator
+	 * may therefore be called from several threads at once, but never for the
+	 * same entry.
+	 *
+	 * @param entries
+	 * @param comparator
+	 * @param from
+	 * @param to
+	 * @param k
+	 * @param monitor
+	 */
+	public static void parallelSortStartingKElement(MarkerEntry[] entries, Comparator<MarkerItem> comparator,
+			int from, int to, int k, IProgressMonitor monitor) {
+		int last = from + k - 1;
+		if (entries.length == 0 || from < 0 || from >= to || last < from || last > to || to > entries.length - 1
+				|| to < 0)
+			return;
+		int n = to - from + 1;
+		if (!isParallel(n)) {
+			sortStartingKElement(entries, comparator, from, to, k, monitor);
+			return;
+		}
+		int chunks = Math.max(2, Math.min(ForkJoinPool.getCommonPoolParallelism(), n / BATCH_SIZE));
+		int[] starts = new int[chunks + 1];
+		for (int i = 0; i <= chunks; i++) {
+			starts[i] = from + (int) ((long) n * i / chunks);
+		}
+		new PartialSortTask(entries, comparator, starts, 0, chunks, k, monitor).invoke();
+		if (monitor.isCanceled()) {
+			return;
+		}
+		MarkerEntry[] merged = mergeStartingKElements(entries, comparator, starts, k, monitor);
+		if (merged != null) {
+			System.arraycopy(merged, 0, entries, from, n);
+		}
+	}
+
+	/**
+	 * Merges the partially sorted chunks starting at starts[i] into a new
+	 * array, starting with the k smallest entries in order followed by the
+	 * remaining entries of all chunks.
+	 *
+	 * @return the merged entries or <code>null</code> if cancelled
+	 */
+	private static MarkerEntry[] mergeStartingKElements(MarkerEntry[] entries, Comparator<MarkerItem> comparator,
+			int[] starts, int k, IProgressMonitor monitor) {
+		int chunks = starts.length - 1;
+		MarkerEntry[] merged = new MarkerEntry[starts[chunks] - starts[0]];
+		// the next entry and the end of the sorted entries of each chunk
+		int[] heads = new int[chunks];
+		int[] ends = new int[chunks];
+		// a min heap of the chunks ordered by their next entry
+		int[] heap = new int[chunks];
+		int heapSize = chunks;
+		for (int i = 0; i < chunks; i++) {
+			heads[i] = starts[i];
+			ends[i] = starts[i] + Math.min(k, starts[i + 1] - starts[i]);
+			heap[i] = i;
+		}
+		for (int i = heapSize / 2 - 1; i >= 0; i--) {
+			siftDown(heap, heapSize, i, entries, heads, comparator);
+		}
+		int count = 0;
+		while (count < k && heapSize > 0) {
+			if ((count & 0x3ff) == 0 && monitor.isCanceled()) {
+				return null;
+			}
+			int chunk = heap[0];
+			MarkerEntry entry = entries[heads[chunk]++];
+			entry.clearCache();
+			merged[count++] = entry;
+			if (heads[chunk] == ends[chunk]) {
+				heap[0] = heap[--heapSize];
+			}
+			siftDown(heap, heapSize, 0, entries, heads, comparator);
+		}
+		for (int i = 0; i < chunks; i++) {
+			for (int j = heads[i]; j < starts[i + 1]; j++) {
+				entries[j].clearCache();
+				merged[count++] = entries[j];
+			}
+		}
+		return merged;
+	}
+
+	private static void siftDown(int[] heap, int heapSize, int position, MarkerEntry[] entries, int[] heads,
+			Comparator<MarkerItem> comparator) {
+		if (position >= heapSize) {
+			return;
+		}
+		int chunk = heap[position];
+		int child = 2 * position + 1;
+		while (child < heapSize) {
+			if (child + 1 < heapSize && isBefore(heap[child + 1], heap[child], entries, heads, comparator)) {
+				child++;
+			}
+			if (!isBefore(heap[child], chunk, entries, heads, comparator)) {
+				break;
+			}
+			heap[position] = heap[child];
+			position = child;
+			child = 2 * position + 1;
+		}
+		heap[position] = chunk;
+	}
+
+	/*
+	 * Equal entries are taken from the chunks in order, to keep the result
+	 * independent of the order in which the chunks were sorted.
+	 */
+	private static boolean isBefore(int chunk1, int chunk2, MarkerEntry[] entries, int[] heads,
+			Comparator<MarkerItem> comparator) {
+		int result = comparator.compare(entries[heads[chunk1]], entries[heads[chunk2]]);
+		return result < 0 || (result == 0 && chunk1 < chunk2);
+	}
+
 	/**
 	 * @param fArray1
 	 * @param comparator
@@ -18,10 +18,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
@@ -43,11 +46,19 @@ class Markers {
 
 	static final MarkerCategory[] EMPTY_CATEGORY_ARRAY = new MarkerCategory[0];
 	static final MarkerEntry[] EMPTY_ENTRY_ARRAY = new MarkerEntry[0];
+	static final MarkerGroupingEntry[] EMPTY_GROUPING_ARRAY = new MarkerGroupingEntry[0];
 
 	// the marker entries
 	private volatile MarkerEntry[] markerEntryArray = EMPTY_ENTRY_ARRAY;
 	// the categories
 	private volatile MarkerCategory[] categories = EMPTY_CATEGORY_ARRAY;
+	// the grouping entries of the categories
+	private MarkerGroupingEntry[] groupingEntries = EMPTY_GROUPING_ARRAY;
+	// the group used to build the categories, null if not grouped
+	private MarkerGroup sortedGroup;
+	// the number of sorted entries at the start of each category, or of all
+	// entries if not grouped. null if the entries are not sorted
+	private int[] sortedCounts;
 
 	private CachedMarkerBuilder builder;
 
@@ -81,9 +92,13 @@ class Markers {
 				markerToEntryMap = null;
 			}
 			markerCounts = null;
+			sortedCounts = null;
 			if (markerEntries.isEmpty()) {
 				categories = EMPTY_CATEGORY_ARRAY;
+				groupingEntries = EMPTY_GROUPING_ARRAY;
 				markerEntryArray = EMPTY_ENTRY_ARRAY;
+				sortedGroup = builder.getCategoryGroup();
+				sortedCounts = new int[builder.isShowingHierarchy() ? 0 : 1];
 				return true;
 			}
 			if (monitor.isCanceled()) {
@@ -103,6 +118,7 @@ class Markers {
 				}
 			} else {
 				categories = EMPTY_CATEGORY_ARRAY;
+				groupingEntries = EMPTY_GROUPING_ARRAY;
 			}
 			return true;
 		} finally {
@@ -110,6 +126,286 @@ class Markers {
 		}
 	}
 
+	/**
+	 * Update with the changes of some markers, keeping the entries sorted and
+	 * grouped. Only the new entries are grouped and sorted, they are then
+	 * inserted into the sorted entries of their category with a binary search.
+	 * So an update of k entries takes O(k log n) comparisons, instead of the
+	 * O(n log n) of sorting all entries again.
+	 * <p>
+	 * If the marker limits hide entries of a category and so many of its
+	 * visible entries are removed that there are no longer enough sorted
+	 * entries to show, the category is sorted again.
+	 * </p>
+	 *
+	 * @param changedMarkers
+	 *            the markers whose current entries are removed
+	 * @param newEntries
+	 *            the entries to add, one for each of the changedMarkers that
+	 *            still exists and is selected by the filters
+	 * @param monitor
+	 * @return <code>true</code> if the entries were updated,
+	 *         <code>false</code> if cancelled
+	 */
+	synchronized boolean updateIncrementally(Set<IMarker> changedMarkers, Collection<MarkerEntry> newEntries,
+			IProgressMonitor monitor) {
+		MarkerEntry[] oldEntries = markerEntryArray;
+		boolean showingHierarchy = builder.isShowingHierarchy();
+		int segmentCount = showingHierarchy ? categories.length : 1;
+		if (sortedCounts == null || sortedCounts.length != segmentCount || sortedGroup != builder.getCategoryGroup()
+				|| (showingHierarchy && groupingEntries.length != segmentCount)) {
+			// the entries are not (completely) sorted and grouped yet
+			List<MarkerEntry> entries = new ArrayList<>(oldEntries.length + newEntries.size());
+			for (MarkerEntry entry : oldEntries) {
+				if (!changedMarkers.contains(entry.getMarker())) {
+					entries.add(entry);
+				}
+			}
+			entries.addAll(newEntries);
+			return updateWithNewMarkers(entries, true, monitor);
+		}
+		boolean initialVal = inChange;
+		try {
+			inChange = true;
+			MarkerComparator markerComparator = builder.getComparator();
+			Comparator<MarkerItem> comparator = showingHierarchy ? markerComparator.getFieldsComparator()
+					: markerComparator;
+
+			// group and sort the new entries
+			MarkerGroup group = builder.getCategoryGroup();
+			TreeMap<MarkerGroupingEntry, List<MarkerEntry>> newGroups = null;
+			List<MarkerEntry> newSegment = null;
+			if (showingHierarchy) {
+				newGroups = new TreeMap<>(group.getEntriesComparator());
+				for (MarkerEntry entry : newEntries) {
+					IMarker marker = entry.getMarker();
+					if (marker == null) {
+						continue;// skip stale markers
+					}
+					try {
+						MarkerGroupingEntry groupingEntry = group.findGroupValue(marker.getType(), marker);
+						newGroups.computeIfAbsent(groupingEntry, key -> new ArrayList<>()).add(entry);
+					} catch (CoreException e) {
+						entry.checkIfMarkerStale();
+					}
+				}
+				for (List<MarkerEntry> entries : newGroups.values()) {
+					entries.sort(comparator);
+				}
+			} else {
+				newSegment = new ArrayList<>(newEntries);
+				newSegment.sort(comparator);
+			}
+			if (monitor.isCanceled()) {
+				return false;
+			}
+
+			// merge the new entries into the categories
+			MarkerEntry[] result = new MarkerEntry[oldEntries.length + newEntries.size()];
+			List<MarkerGroupingEntry> resultGroupingEntries = new ArrayList<>();
+			List<int[]> resultSegments = new ArrayList<>();
+			int size = 0;
+			if (showingHierarchy) {
+				Comparator<MarkerGroupingEntry> groupComparator = group.getEntriesComparator();
+				Iterator<Entry<MarkerGroupingEntry, List<MarkerEntry>>> newGroupsIterator = newGroups.entrySet()
+						.iterator();
+				Entry<MarkerGroupingEntry, List<MarkerEntry>> newGroup = newGroupsIterator.hasNext()
+						? newGroupsIterator.next()
+						: null;
+				for (int i = 0; i <= segmentCount; i++) {
+					if (monitor.isCanceled()) {
+						return false;
+					}
+					MarkerGroupingEntry groupingEntry = i < segmentCount ? groupingEntries[i] : null;
+					// categories that only have new entries
+					while (newGroup != null && (groupingEntry == null
+							|| groupComparator.compare(newGroup.getKey(), groupingEntry) < 0)) {
+						size = addSegment(result, size, newGroup.getKey(), oldEntries, 0, -1, 0,
+								newGroup.getValue(), changedMarkers, comparator, true, resultGroupingEntries,
+								resultSegments, monitor);
+						newGroup = newGroupsIterator.hasNext() ? newGroupsIterator.next() : null;
+					}
+					if (groupingEntry == null) {
+						break;
+					}
+					List<MarkerEntry> added = Collections.emptyList();
+					if (newGroup != null && groupComparator.compare(newGroup.getKey(), groupingEntry) == 0) {
+						added = newGroup.getValue();
+						newGroup = newGroupsIterator.hasNext() ? newGroupsIterator.next() : null;
+					}
+					MarkerCategory category = categories[i];
+					size = addSegment(result, size, groupingEntry, oldEntries, category.start, category.end,
+							sortedCounts[i], added, changedMarkers, comparator, true, resultGroupingEntries,
+							resultSegments, monitor);
+				}
+			} else {
+				size = addSegment(result, size, null, oldEntries, 0, oldEntries.length - 1, sortedCounts[0],
+						newSegment, changedMarkers, comparator, false, resultGroupingEntries, resultSegments,
+						monitor);
+			}
+			if (monitor.isCanceled()) {
+				return false;
+			}
+
+			MarkerEntry[] newMarkers = size == result.length ? result : Arrays.copyOf(result, size);
+			int[] counts = new int[resultSegments.size()];
+			MarkerCategory[] newCategories = EMPTY_CATEGORY_ARRAY;
+			if (showingHierarchy) {
+				newCategories = new MarkerCategory[resultSegments.size()];
+			}
+			for (int i = 0; i < counts.length; i++) {
+				int[] segment = resultSegments.get(i);
+				counts[i] = segment[2];
+				if (showingHierarchy) {
+					newCategories[i] = new MarkerCategory(this, segment[0], segment[1],
+							group.getMarkerField().getValue(newMarkers[segment[0]]));
+				}
+			}
+			if (!showingHierarchy && counts.length == 0) {
+				counts = new int[1];
+			}
+			if (markerToEntryMap != null) {
+				markerToEntryMap.clear();
+				markerToEntryMap = null;
+			}
+			markerCounts = null;
+			markerEntryArray = newMarkers;
+			categories = newCategories;
+			groupingEntries = resultGroupingEntries.toArray(new MarkerGroupingEntry[resultGroupingEntries.size()]);
+			sortedCounts = counts;
+			return true;
+		} catch (IllegalArgumentException e) {
+			IDEWorkbenchPlugin.log("Bug 371586: broken comparator. " + builder.getComparator().getCategory(), e); //$NON-NLS-1$
+			return false;
+		} finally {
+			inChange = initialVal;
+		}
+	}
+
+	/**
+	 * Add the entries of a category, or of all entries if not grouped, to
+	 * result. The entries of the changed markers are left out and the new
+	 * entries are inserted.
+	 *
+	 * @param result
+	 *            the array to add to
+	 * @param size
+	 *            the number of entries in result
+	 * @param groupingEntry
+	 *            the grouping entry of the category
+	 * @param oldEntries
+	 *            the current entries
+	 * @param from
+	 *            the start of the category in the current entries
+	 * @param to
+	 *            the end of the category in the current entries
+	 * @param sortedCount
+	 *            the number of sorted entries at the start of the category
+	 * @param added
+	 *            the sorted new entries of the category
+	 * @param changedMarkers
+	 *            the markers whose current entries are left out
+	 * @param comparator
+	 * @param grouped
+	 *            <code>true</code> if the entries are grouped into
+	 *            categories
+	 * @param resultGroupingEntries
+	 *            the grouping entries of the added categories
+	 * @param resultSegments
+	 *            the start, end and number of sorted entries of the added
+	 *            categories
+	 * @param monitor
+	 * @return the new number of entries in result
+	 */
+	private int addSegment(MarkerEntry[] result, int size, MarkerGroupingEntry groupingEntry,
+			MarkerEntry[] oldEntries, int from, int to, int sortedCount, List<MarkerEntry> added,
+			Set<IMarker> changedMarkers, Comparator<MarkerItem> comparator, boolean grouped,
+			List<MarkerGroupingEntry> resultGroupingEntries, List<int[]> resultSegments, IProgressMonitor monitor) {
+		// the remaining sorted entries and the remaining entries after them
+		List<MarkerEntry> sorted = new ArrayList<>(Math.min(sortedCount, to - from + 1) + added.size());
+		List<MarkerEntry> unsorted = new ArrayList<>();
+		for (int i = from; i <= to; i++) {
+			MarkerEntry entry = oldEntries[i];
+			if (changedMarkers.contains(entry.getMarker())) {
+				continue;
+			}
+			if (i < from + sortedCount) {
+				sorted.add(entry);
+			} else {
+				unsorted.add(entry);
+			}
+		}
+		if (unsorted.size() == 1) {
+			// not less than any of the sorted entries
+			sorted.add(unsorted.remove(0));
+		}
+		int start = size;
+		// insert the new entries that belong to the sorted ones
+		int sortedSize = sorted.size();
+		int position = 0;
+		int next = 0;
+		int addedCount = added.size();
+		while (next < addedCount) {
+			MarkerEntry entry = added.get(next);
+			if (!unsorted.isEmpty()
+					&& (sortedSize == 0 || comparator.compare(entry, sorted.get(sortedSize - 1)) >= 0)) {
+				break;
+			}
+			int insertion = upperBound(sorted, position, sortedSize, entry, comparator);
+			for (int i = position; i < insertion; i++) {
+				result[size++] = sorted.get(i);
+			}
+			result[size++] = entry;
+			position = insertion;
+			next++;
+		}
+		for (int i = position; i < sortedSize; i++) {
+			result[size++] = sorted.get(i);
+		}
+		int newSortedCount = size - start;
+		for (MarkerEntry entry : unsorted) {
+			result[size++] = entry;
+		}
+		for (int i = next; i < addedCount; i++) {
+			result[size++] = added.get(i);
+		}
+		for (MarkerEntry entry : added) {
+			entry.clearCache();
+		}
+		int segmentSize = size - start;
+		if (segmentSize == 0) {
+			return size;
+		}
+		int effLimit = getShowingLimit(grouped ? segmentSize : segmentSize - 1);
+		if (getSortedCount(segmentSize, newSortedCount) < effLimit) {
+			// too many of the shown entries were removed, sort more than shown
+			// so that the next removals do not require sorting again
+			int k = (int) Math.min(segmentSize, 2L * effLimit);
+			MarkerSortUtil.parallelSortStartingKElement(result, comparator, start, size - 1, k, monitor);
+			newSortedCount = k;
+		}
+		resultGroupingEntries.add(groupingEntry);
+		resultSegments.add(new int[] { start, size - 1, getSortedCount(segmentSize, newSortedCount) });
+		return size;
+	}
+
+	/**
+	 * Return the index after the last of the sorted entries in [low, high)
+	 * that is not greater than entry.
+	 */
+	private static int upperBound(List<MarkerEntry> sorted, int low, int high, MarkerEntry entry,
+			Comparator<MarkerItem> comparator) {
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (comparator.compare(sorted.get(mid), entry) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
 	/**
 	 * Sort the contained marker entries and build categories if required.
 	 *
@@ -125,7 +421,9 @@ class Markers {
 				categories = markerCategories;
 			} else {
 				categories = EMPTY_CATEGORY_ARRAY;
+				groupingEntries = EMPTY_GROUPING_ARRAY;
 			}
+			sortedGroup = builder.getCategoryGroup();
 
 			if (monitor.isCanceled()) {
 				return false;
@@ -150,20 +448,22 @@ class Markers {
 		MarkerCategory lastCategory = null;
 		try {
 			inChange = true;
+			sortedCounts = null;
+			int[] counts;
 			if (builder.isShowingHierarchy()) {
 				Comparator<MarkerItem> comparator = markerComparator.getFieldsComparator();
-				for (MarkerCategory category : categories) {
-					if (monitor.isCanceled()) {
-						return false;
+				counts = new int[categories.length];
+				if (categories.length > 1 && MarkerSortUtil.isParallel(markerEntryArray.length)) {
+					// the categories are disjoint ranges, sort them in parallel
+					new CategorySortTask(comparator, 0, categories.length, counts, monitor).invoke();
+				} else {
+					for (int i = 0; i < categories.length; i++) {
+						if (monitor.isCanceled()) {
+							return false;
+						}
+						lastCategory = categories[i];
+						sortCategory(i, comparator, counts, monitor);
 					}
-					lastCategory = category;
-					// sort various categories
-					category.resetChildren(); // reset cached children
-					int avaliable = category.end - category.start + 1;
-					int effLimit = getShowingLimit(avaliable);
-					MarkerSortUtil.sortStartingKElement(markerEntryArray,
-							comparator, category.start, category.end, effLimit,
-							monitor);
 				}
 			} else {
 				if (monitor.isCanceled()) {
@@ -171,12 +471,14 @@ class Markers {
 				}
 				int avaialble = markerEntryArray.length - 1;
 				int effLimit = getShowingLimit(avaialble);
-				MarkerSortUtil.sortStartingKElement(markerEntryArray,
-						markerComparator, effLimit, monitor);
+				MarkerSortUtil.parallelSortStartingKElement(markerEntryArray, markerComparator, 0,
+						markerEntryArray.length - 1, effLimit, monitor);
+				counts = new int[] { getSortedCount(markerEntryArray.length, effLimit) };
 			}
 			if (monitor.isCanceled()) {
 				return false;
 			}
+			sortedCounts = counts;
 			monitor.worked(50);
 			return true;
 		} catch (IllegalArgumentException e) {
@@ -195,6 +497,76 @@ class Markers {
 		}
 	}
 
+	/**
+	 * Sort the entries of the category at the given index.
+	 *
+	 * @param index
+	 * @param comparator
+	 * @param counts
+	 *            the number of sorted entries of each category
+	 * @param monitor
+	 */
+	private void sortCategory(int index, Comparator<MarkerItem> comparator, int[] counts,
+			IProgressMonitor monitor) {
+		MarkerCategory category = categories[index];
+		category.resetChildren(); // reset cached children
+		int avaliable = category.end - category.start + 1;
+		int effLimit = getShowingLimit(avaliable);
+		MarkerSortUtil.parallelSortStartingKElement(markerEntryArray, comparator, category.start, category.end,
+				effLimit, monitor);
+		counts[index] = getSortedCount(avaliable, effLimit);
+	}
+
+	/**
+	 * Sorts a range of categories, each of them in a task of its own.
+	 */
+	private class CategorySortTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Comparator<MarkerItem> comparator;
+		private final int first;
+		private final int end;
+		private final int[] counts;
+		private final IProgressMonitor monitor;
+
+		CategorySortTask(Comparator<MarkerItem> comparator, int first, int end, int[] counts,
+				IProgressMonitor monitor) {
+			this.comparator = comparator;
+			this.first = first;
+			this.end = end;
+			this.counts = counts;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			if (end - first == 1) {
+				sortCategory(first, comparator, counts, monitor);
+				return;
+			}
+			int middle = (first + end) >>> 1;
+			invokeAll(new CategorySortTask(comparator, first, middle, counts, monitor),
+					new CategorySortTask(comparator, middle, end, counts, monitor));
+		}
+	}
+
+	/**
+	 * Return the number of entries at the start of a range of size entries that
+	 * are in order after sorting the first k of them.
+	 *
+	 * @param size
+	 * @param k
+	 */
+	private static int getSortedCount(int size, int k) {
+		// the entries after the first k are not less than the first k, so a
+		// single remaining entry is in order as well
+		return size - k <= 1 ? size : k;
+	}
+
 	/**
 	 * get marker limit to show, if any.
 	 *
@@ -226,15 +598,18 @@ class Markers {
 				builder.getCategoryGroup(), newMarkers.length - 1, monitor);
 		int start = 0;
 		MarkerCategory[] markerCategories = new MarkerCategory[boundaryInfoMap.size()];
+		MarkerGroupingEntry[] markerGroupingEntries = new MarkerGroupingEntry[boundaryInfoMap.size()];
 		int i = 0;
 		int end = 0;
 		for (Entry<MarkerGroupingEntry, Integer> entry : boundaryInfoMap.entrySet()) {
 			end = entry.getValue();
+			markerGroupingEntries[i] = entry.getKey();
 			markerCategories[i++] = new MarkerCategory(this, start, end,
 					builder.getCategoryGroup().getMarkerField()
 							.getValue(newMarkers[start]));
 			start = end + 1;
 		}
+		groupingEntries = markerGroupingEntries;
 		return markerCategories;
 	}
 
@@ -254,25 +629,28 @@ class Markers {
 			int k, IProgressMonitor monitor) {
 		TreeMap<MarkerGroupingEntry, List<MarkerEntry>> map = new TreeMap<>(
 				group.getEntriesComparator());
+		// looking up the groups reads the marker attributes, do it in parallel
+		// for many markers
+		MarkerGroupingEntry[] groupingValues = new MarkerGroupingEntry[k + 1];
+		if (MarkerSortUtil.isParallel(k + 1)) {
+			new GroupingTask(entries, group, groupingValues, 0, k + 1, monitor).invoke();
+		} else {
+			findGroupValues(entries, group, groupingValues, 0, k + 1, monitor);
+		}
 		for (int i = 0; i <= k; i++) {
-			IMarker marker = entries[i].getMarker();
-			if (marker == null) {
-				continue;// skip stale markers
-			}
 			if (monitor.isCanceled()) {
 				return Collections.emptyMap();
 			}
-			try {
-				MarkerGroupingEntry groupingEntry = group.findGroupValue(marker.getType(), marker);
-				List<MarkerEntry> list = map.get(groupingEntry);
-				if (list == null) {
-					list = new ArrayList<>();
-					map.put(groupingEntry, list);
-				}
-				list.add(entries[i]);
-			} catch (CoreException e) {
-				entries[i].checkIfMarkerStale();
+			MarkerGroupingEntry groupingEntry = groupingValues[i];
+			if (groupingEntry == null) {
+				continue;// skip stale markers
+			}
+			List<MarkerEntry> list = map.get(groupingEntry);
+			if (list == null) {
+				list = new ArrayList<>();
+				map.put(groupingEntry, list);
 			}
+			list.add(entries[i]);
 		}
 		TreeMap<MarkerGroupingEntry, Integer> result = new TreeMap<>(
 				group.getEntriesComparator());
@@ -290,6 +668,74 @@ class Markers {
 		return result;
 	}
 
+	/**
+	 * Find the groups of the entries in [from, to), leaving <code>null</code>
+	 * for stale markers.
+	 *
+	 * @param entries
+	 * @param group
+	 * @param groupingValues
+	 *            the groups found, by index of the entry
+	 * @param from
+	 * @param to
+	 * @param monitor
+	 */
+	private static void findGroupValues(MarkerEntry[] entries, MarkerGroup group,
+			MarkerGroupingEntry[] groupingValues, int from, int to, IProgressMonitor monitor) {
+		for (int i = from; i < to; i++) {
+			IMarker marker = entries[i].getMarker();
+			if (marker == null) {
+				continue;// skip stale markers
+			}
+			if (monitor.isCanceled()) {
+				return;
+			}
+			try {
+				groupingValues[i] = group.findGroupValue(marker.getType(), marker);
+			} catch (CoreException e) {
+				entries[i].checkIfMarkerStale();
+			}
+		}
+	}
+
+	/**
+	 * Finds the groups of a range of entries in parallel.
+	 */
+	private static class GroupingTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final int CHUNK_SIZE = 4096;
+
+		private final MarkerEntry[] entries;
+		private final MarkerGroup group;
+		private final MarkerGroupingEntry[] groupingValues;
+		private final int from;
+		private final int to;
+		private final IProgressMonitor monitor;
+
+		GroupingTask(MarkerEntry[] entries, MarkerGroup group, MarkerGroupingEntry[] groupingValues, int from,
+				int to, IProgressMonitor monitor) {
+			this.entries = entries;
+			this.group = group;
+			this.groupingValues = groupingValues;
+			this.from = from;
+			this.to = to;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= CHUNK_SIZE) {
+				findGroupValues(entries, group, groupingValues, from, to, monitor);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new GroupingTask(entries, group, groupingValues, from, middle, monitor),
+					new GroupingTask(entries, group, groupingValues, middle, to, monitor));
+		}
+	}
+
 	/**
 	 * Returns an array of marker counts where getMarkerCounts()[severity] is
 	 * the number of markers in the list with the given severity.
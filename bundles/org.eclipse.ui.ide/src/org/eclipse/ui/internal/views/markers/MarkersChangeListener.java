@@ -174,14 +174,12 @@ class MarkersChangeListener implements IResourceChangeListener {
 
 	/**
 	 * Handle changes incrementally.
-	 * The following performs incremental updation
-	 * of the markers that were gathered initially, and keeps them synched at
-	 * any point with the markers of interest in Workspace. Unfortunately marker
-	 * operations cannot be locked so locking between gathering of markers and
-	 * marker deltas is not possible.
-	 *
-	 * Note : this method of updating is NOT used and tested yet and has holes
-	 * but left out SOLELY for further investigation(*).
+	 * The following queues the marker changes for the {@link IncrementUpdateJob},
+	 * which applies them to the markers that were gathered initially, and keeps
+	 * them synched at any point with the markers of interest in Workspace.
+	 * Unfortunately marker operations cannot be locked so locking between
+	 * gathering of markers and marker deltas is not possible; applying a change
+	 * therefore always replaces the entry of the marker.
 	 *
 	 * @param event
 	 */
@@ -538,6 +536,23 @@ class MarkerUpdateScheduler {
 		// updateTimer.reset();
 	}
 
+	/**
+	 * Schedule an update that only applies the queued marker changes, if the
+	 * builder updates incrementally. Otherwise all markers are gathered again.
+	 */
+	void scheduleIncrementalUpdate(long delay, boolean cancelPrevious) {
+		if (!builder.isIncremental()) {
+			scheduleUpdate(delay, cancelPrevious);
+			return;
+		}
+		builder.setBuilding(true);
+		if (cancelPrevious) {
+			cancelQueuedUIUpdates();
+			cancelUpdate();
+		}
+		updateJob = builder.scheduleUpdateJob(delay, false);
+	}
+
 	/**
 	 * Schedule marker update.
 	 */
@@ -801,7 +816,7 @@ class MarkerUpdateScheduler {
 
 		private void go(long delay, boolean cancelPrevious) {
 			timeB4Update = System.currentTimeMillis() + delay;
-			scheduleUpdate(delay + AFTER_MARGIN, cancelPrevious);
+			scheduleIncrementalUpdate(delay + AFTER_MARGIN, cancelPrevious);
 		}
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,8 @@
 package org.eclipse.ui.views.markers.internal;
 
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
@@ -29,7 +29,8 @@ import org.eclipse.ui.views.markers.MarkerItem;
  */
 public class TypeMarkerGroup extends MarkerGroup {
 
-	private Map<String, TypesMarkerGroupingEntry> entries=new HashMap<>();
+	// looked up from the threads grouping the markers
+	private Map<String, TypesMarkerGroupingEntry> entries = new ConcurrentHashMap<>();
 	/**
 	 * TypeMarkerField is the MarkerField used for MarkerGroupungs
 	 *
@@ -116,7 +117,10 @@ public class TypeMarkerGroup extends MarkerGroup {
 			}
 			entry = new TypesMarkerGroupingEntry(groupName);
 			entry.setGroup(this);
-			entries.put(typeId, entry);
+			TypesMarkerGroupingEntry existing = entries.putIfAbsent(typeId, entry);
+			if (existing != null) {
+				entry = existing;
+			}
 		}
 		return entry;
 	}
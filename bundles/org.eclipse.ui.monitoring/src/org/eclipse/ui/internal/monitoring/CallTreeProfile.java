@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Google Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregates stack samples of a thread into a call tree. Stack frames are interned per method
+ * and the tree is kept in primitive arrays, so that a profile collected over a long time stays
+ * compact. The tree can be written in the collapsed stack format read by flame graph tools, and
+ * the most recent samples as {@code jdk.ExecutionSample} events laid out like the JSON output
+ * of the {@code jfr print --json} command.
+ * <p>
+ * This class is thread safe.
+ */
+public class CallTreeProfile {
+	/** The maximum number of nodes. Deeper frames of new call paths are dropped beyond it. */
+	public static final int MAX_NODES = 1 << 20;
+	private static final int ROOT = 0;
+
+	private final String threadName;
+
+	// Interned methods, the frames of the tree refer to them by index.
+	private final Map<StackTraceElement, Integer> elementIds = new HashMap<>();
+	private final Map<String, Integer> methodIds = new HashMap<>();
+	private String[] classNames = new String[256];
+	private String[] methodNames = new String[256];
+	private int methodCount;
+
+	// The call tree. Node 0 is the root, the other nodes are method calls.
+	private final Map<Long, Integer> children = new HashMap<>();
+	private int[] parents = new int[256];
+	private int[] methods = new int[256];
+	private int[] selfCounts = new int[256];
+	private int[] totalCounts = new int[256];
+	private int nodeCount = 1;
+
+	// The most recent samples in a circular buffer, as timestamps and leaf nodes.
+	private final long[] sampleTimes;
+	private final int[] sampleNodes;
+	private int sampleStart;
+	private int sampleSize;
+
+	/**
+	 * @param threadName the name of the sampled thread
+	 * @param maxSampleEvents the number of the most recent samples kept for
+	 *     {@link #writeExecutionSamples(Appendable)}
+	 */
+	public CallTreeProfile(String threadName, int maxSampleEvents) {
+		this.threadName = threadName;
+		sampleTimes = new long[maxSampleEvents];
+		sampleNodes = new int[maxSampleEvents];
+	}
+
+	/**
+	 * Adds a stack sample to the tree.
+	 *
+	 * @param timestamp the time of the sample in milliseconds since the epoch
+	 * @param stack the stack of the thread, the innermost frame first
+	 */
+	public synchronized void addSample(long timestamp, StackTraceElement[] stack) {
+		int node = ROOT;
+		totalCounts[ROOT]++;
+		for (int i = stack.length; --i >= 0;) {
+			int child = getChild(node, internMethod(stack[i]));
+			if (child < 0) {
+				break; // The tree is full.
+			}
+			node = child;
+			totalCounts[node]++;
+		}
+		selfCounts[node]++;
+
+		if (sampleTimes.length > 0) {
+			int j = (sampleStart + sampleSize) % sampleTimes.length;
+			sampleTimes[j] = timestamp;
+			sampleNodes[j] = node;
+			if (sampleSize < sampleTimes.length) {
+				sampleSize++;
+			} else if (++sampleStart >= sampleTimes.length) {
+				sampleStart = 0;
+			}
+		}
+	}
+
+	private int internMethod(StackTraceElement element) {
+		Integer id = elementIds.get(element);
+		if (id == null) {
+			// Frames of different lines of a method share the method.
+			String key = element.getClassName() + '.' + element.getMethodName();
+			id = methodIds.get(key);
+			if (id == null) {
+				if (methodCount == classNames.length) {
+					classNames = Arrays.copyOf(classNames, methodCount * 2);
+					methodNames = Arrays.copyOf(methodNames, methodCount * 2);
+				}
+				classNames[methodCount] = element.getClassName();
+				methodNames[methodCount] = element.getMethodName();
+				id = methodCount++;
+				methodIds.put(key, id);
+			}
+			elementIds.put(element, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the child of the node for the method, adding it if necessary.
+	 *
+	 * @return the child, or -1 if the tree is full
+	 */
+	private int getChild(int parent, int method) {
+		Long key = Long.valueOf(((long) parent << 32) | method);
+		Integer child = children.get(key);
+		if (child != null) {
+			return child;
+		}
+		if (nodeCount == MAX_NODES) {
+			return -1;
+		}
+		if (nodeCount == parents.length) {
+			int capacity = Math.min(nodeCount * 2, MAX_NODES);
+			parents = Arrays.copyOf(parents, capacity);
+			methods = Arrays.copyOf(methods, capacity);
+			selfCounts = Arrays.copyOf(selfCounts, capacity);
+			totalCounts = Arrays.copyOf(totalCounts, capacity);
+		}
+		int node = nodeCount++;
+		parents[node] = parent;
+		methods[node] = method;
+		children.put(key, node);
+		return node;
+	}
+
+	/**
+	 * Returns the number of samples added to the tree.
+	 */
+	public synchronized int getSampleCount() {
+		return totalCounts[ROOT];
+	}
+
+	/**
+	 * Returns the number of nodes in the tree, including the root.
+	 */
+	public synchronized int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Returns the number of distinct methods in the tree.
+	 */
+	public synchronized int getMethodCount() {
+		return methodCount;
+	}
+
+	/**
+	 * Returns the number of samples in which the given method was on the stack. Recursive calls
+	 * are counted once per call.
+	 *
+	 * @param className the fully qualified name of the class
+	 * @param methodName the name of the method
+	 */
+	public synchronized int getTotalCount(String className, String methodName) {
+		Integer method = methodIds.get(className + '.' + methodName);
+		if (method == null) {
+			return 0;
+		}
+		int count = 0;
+		for (int node = 1; node < nodeCount; node++) {
+			if (methods[node] == method) {
+				count += totalCounts[node];
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Removes all samples.
+	 */
+	public synchronized void clear() {
+		elementIds.clear();
+		methodIds.clear();
+		Arrays.fill(classNames, 0, methodCount, null);
+		Arrays.fill(methodNames, 0, methodCount, null);
+		methodCount = 0;
+		children.clear();
+		Arrays.fill(selfCounts, 0, nodeCount, 0);
+		Arrays.fill(totalCounts, 0, nodeCount, 0);
+		nodeCount = 1;
+		sampleStart = 0;
+		sampleSize = 0;
+	}
+
+	/**
+	 * Writes the tree in the collapsed stack format: one line per call path ending in a sampled
+	 * frame, with the frames of the path from the outermost one separated by semicolons,
+	 * followed by a space and the number of samples ending in the path.
+	 *
+	 * @param out the destination
+	 * @throws IOException if writing fails
+	 */
+	public synchronized void writeCollapsedStacks(Appendable out) throws IOException {
+		int[] path = new int[16];
+		for (int node = 1; node < nodeCount; node++) {
+			if (selfCounts[node] == 0) {
+				continue;
+			}
+			int depth = 0;
+			for (int n = node; n != ROOT; n = parents[n]) {
+				if (depth == path.length) {
+					path = Arrays.copyOf(path, depth * 2);
+				}
+				path[depth++] = n;
+			}
+			for (int i = depth; --i >= 0;) {
+				int method = methods[path[i]];
+				out.append(classNames[method]).append('.').append(methodNames[method]);
+				out.append(i == 0 ? ' ' : ';');
+			}
+			out.append(Integer.toString(selfCounts[node])).append('\n');
+		}
+	}
+
+	/**
+	 * Writes the most recent samples as {@code jdk.ExecutionSample} events in the layout of the
+	 * JSON output of the {@code jfr print --json} command.
+	 *
+	 * @param out the destination
+	 * @throws IOException if writing fails
+	 */
+	public synchronized void writeExecutionSamples(Appendable out) throws IOException {
+		out.append("{\n  \"recording\": {\n    \"events\": ["); //$NON-NLS-1$
+		for (int i = 0; i < sampleSize; i++) {
+			int j = (sampleStart + i) % sampleTimes.length;
+			out.append(i == 0 ? "\n" : ",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			out.append("      {\"type\": \"jdk.ExecutionSample\", \"values\": {"); //$NON-NLS-1$
+			out.append("\"startTime\": \"").append(Instant.ofEpochMilli(sampleTimes[j]).toString()); //$NON-NLS-1$
+			out.append("\", \"sampledThread\": {\"javaName\": "); //$NON-NLS-1$
+			appendJsonString(out, threadName);
+			out.append("}, \"state\": \"STATE_RUNNABLE\", \"stackTrace\": {\"truncated\": false, \"frames\": ["); //$NON-NLS-1$
+			boolean first = true;
+			for (int node = sampleNodes[j]; node != ROOT; node = parents[node]) {
+				int method = methods[node];
+				out.append(first ? "" : ", "); //$NON-NLS-1$ //$NON-NLS-2$
+				out.append("{\"method\": {\"type\": {\"name\": "); //$NON-NLS-1$
+				appendJsonString(out, classNames[method]);
+				out.append("}, \"name\": "); //$NON-NLS-1$
+				appendJsonString(out, methodNames[method]);
+				out.append("}}"); //$NON-NLS-1$
+				first = false;
+			}
+			out.append("]}}}"); //$NON-NLS-1$
+		}
+		out.append("\n    ]\n  }\n}\n"); //$NON-NLS-1$
+	}
+
+	private static void appendJsonString(Appendable out, String value) throws IOException {
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				out.append('\\').append(c);
+			} else if (c < 0x20) {
+				out.append(String.format("\\u%04x", (int) c)); //$NON-NLS-1$
+			} else {
+				out.append(c);
+			}
+		}
+		out.append('"');
+	}
+}
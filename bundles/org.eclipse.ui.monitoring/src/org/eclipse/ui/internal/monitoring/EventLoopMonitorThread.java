@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014, 2015 Google Inc and others.
+ * Copyright (C) 2014, 2018 Google Inc and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,9 +12,16 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.monitoring;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -46,6 +53,9 @@ import org.eclipse.ui.monitoring.UiFreezeEvent;
  */
 public class EventLoopMonitorThread extends Thread {
 	private static final int EVENT_HISTORY_SIZE = 100;
+	private static final int PROFILE_EVENT_HISTORY_SIZE = 10000;
+	private static final String PROFILE_COLLAPSED_STACKS_FILE = "ui-profile.txt"; //$NON-NLS-1$
+	private static final String PROFILE_EXECUTION_SAMPLES_FILE = "ui-profile.json"; //$NON-NLS-1$
 	private static final String EXTENSION_ID = "org.eclipse.ui.monitoring.logger"; //$NON-NLS-1$
 	private static final String NEW_LINE_AND_BULLET = "\n* "; //$NON-NLS-1$
 	private static final String TRACE_EVENT_MONITOR = "/debug/event_monitor"; //$NON-NLS-1$
@@ -77,6 +87,8 @@ public class EventLoopMonitorThread extends Thread {
 		public String uiThreadFilter;
 		/** @see org.eclipse.ui.monitoring.PreferenceConstants#NONINTERESTING_THREAD_FILTER */
 		public String noninterestingThreadFilter;
+		/** @see org.eclipse.ui.monitoring.PreferenceConstants#PROFILING_SAMPLE_INTERVAL_MILLIS */
+		public int profilingSampleInterval;
 
 		/**
 		 * Checks if the values of parameters for UI responsiveness monitoring are valid.
@@ -104,6 +116,11 @@ public class EventLoopMonitorThread extends Thread {
 						NLS.bind(Messages.EventLoopMonitorThread_deadlock_threshold_too_low_error_2,
 								deadlockThreshold, longEventErrorThreshold));
 			}
+			if (profilingSampleInterval < 0) {
+				problems.append(NEW_LINE_AND_BULLET +
+						NLS.bind(Messages.EventLoopMonitorThread_profiling_interval_error_1,
+								profilingSampleInterval));
+			}
 
 			if (problems.length() != 0) {
 				throw new IllegalArgumentException(
@@ -355,6 +372,8 @@ public class EventLoopMonitorThread extends Thread {
 	private final long uiThreadId;
 	private final Object sleepMonitor;
 	private final boolean logToErrorLog;
+	private final long profilingSampleInterval;
+	private final CallTreeProfile profile;
 	private EventHistory eventHistory;
 	private ThreadMXBean threadMXBean;
 	private boolean dumpLockedMonitors;
@@ -392,6 +411,10 @@ public class EventLoopMonitorThread extends Thread {
 		logToErrorLog = args.logToErrorLog;
 		uiThreadFilter = new FilterHandler(args.uiThreadFilter);
 		noninterestingThreadFilter = new FilterHandler(args.noninterestingThreadFilter);
+		profilingSampleInterval = args.profilingSampleInterval;
+		profile = profilingSampleInterval > 0 ?
+				new CallTreeProfile(display.getThread().getName(), PROFILE_EVENT_HISTORY_SIZE) :
+				null;
 		sleepMonitor = new Object();
 	}
 
@@ -409,6 +432,13 @@ public class EventLoopMonitorThread extends Thread {
 		wakeUp();
 	}
 
+	/**
+	 * Returns the profile of the UI thread, or {@code null} if profiling is disabled.
+	 */
+	public CallTreeProfile getProfile() {
+		return profile;
+	}
+
 	/**
 	 * For testing only.
 	 */
@@ -485,6 +515,8 @@ public class EventLoopMonitorThread extends Thread {
 
 		boolean dumpAllThreads = false;
 
+		long profileSampleAt = 0;
+
 		// Register for events
 		display.asyncExec(() -> registerDisplayListeners());
 
@@ -517,6 +549,9 @@ public class EventLoopMonitorThread extends Thread {
 			} else {
 				sleepFor = Math.min(pollingNyquistDelay, Math.max(1, grabStackSampleAt - currTime));
 			}
+			if (profile != null && eventStartOrResumeTime != 0) {
+				sleepFor = Math.min(sleepFor, Math.max(1, profileSampleAt - currTime));
+			}
 
 			// Allow the discarded stack samples to be garbage collected.
 			for (int i = numSamples; i < stackSamples.length && stackSamples[i] != null; i++) {
@@ -547,6 +582,15 @@ public class EventLoopMonitorThread extends Thread {
 			}
 			boolean starved = starvedAsleepCurrentCycle || starvedAwakeCurrentCycle;
 
+			// Sample the UI thread for the profile while it is processing an event.
+			if (profile != null && currEventStartOrResumeTime != 0 && currTime >= profileSampleAt) {
+				ThreadInfo uiThread = threadMXBean.getThreadInfo(uiThreadId, Integer.MAX_VALUE);
+				if (uiThread != null) {
+					profile.addSample(currTime, uiThread.getStackTrace());
+				}
+				profileSampleAt = currTime + profilingSampleInterval;
+			}
+
 			/*
 			 * If after sleeping we see that a new event has been dispatched, mark that we should
 			 * update the stalled event state. Otherwise, check if we have surpassed our threshold
@@ -640,6 +684,37 @@ public class EventLoopMonitorThread extends Thread {
 
 			lastEventStartOrResumeTime = currEventStartOrResumeTime;
 		}
+
+		if (profile != null && profile.getSampleCount() > 0) {
+			writeProfile();
+		}
+	}
+
+	/**
+	 * Writes the profile to the state location of the plug-in, as collapsed stacks for flame
+	 * graph tools and as execution sample events.
+	 */
+	private void writeProfile() {
+		MonitoringPlugin plugin = MonitoringPlugin.getDefault();
+		if (plugin == null) {
+			return;
+		}
+		File directory = plugin.getStateLocation().toFile();
+		File file = new File(directory, PROFILE_COLLAPSED_STACKS_FILE);
+		try {
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(file), StandardCharsets.UTF_8))) {
+				profile.writeCollapsedStacks(writer);
+			}
+			file = new File(directory, PROFILE_EXECUTION_SAMPLES_FILE);
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(file), StandardCharsets.UTF_8))) {
+				profile.writeExecutionSamples(writer);
+			}
+		} catch (IOException e) {
+			MonitoringPlugin.logError(
+					NLS.bind(Messages.EventLoopMonitorThread_profile_write_error_1, file), e);
+		}
 	}
 
 	private ThreadInfo[] captureThreadStacks(boolean dumpAllThreads) {
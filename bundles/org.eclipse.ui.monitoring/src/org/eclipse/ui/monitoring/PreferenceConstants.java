@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014 Google Inc and others.
+ * Copyright (C) 2014, 2018 Google Inc and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -55,6 +55,14 @@ public class PreferenceConstants {
 	 * message if all stack frames of the thread match the filter.
 	 */
 	public static final String NONINTERESTING_THREAD_FILTER = "noninteresting_thread_filter"; //$NON-NLS-1$
+	/**
+	 * Interval in milliseconds between samples of the UI thread taken while it is processing an
+	 * event. The samples are aggregated into a call tree that is written to the state location of
+	 * the plug-in when monitoring stops. Zero disables profiling.
+	 *
+	 * @since 1.2
+	 */
+	public static final String PROFILING_SAMPLE_INTERVAL_MILLIS = "profiling_sample_interval"; //$NON-NLS-1$
 
 	private PreferenceConstants() {}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -38,6 +38,7 @@ import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.IMemento;
 import org.eclipse.ui.internal.navigator.dnd.NavigatorDnDService;
+import org.eclipse.ui.internal.navigator.extensions.EvaluationCache;
 import org.eclipse.ui.internal.navigator.extensions.ExtensionSequenceNumberComparator;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptor;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptorManager;
@@ -809,6 +810,30 @@ public class NavigatorContentService implements IExtensionActivationListener,
 		return result;
 	}
 
+	/**
+	 * Returns the usage of the cache consulted by
+	 * {@link #findDescriptorsByTriggerPoint(Object, boolean)}, for tuning and
+	 * diagnostics.
+	 *
+	 * @return a snapshot of the statistics of the trigger point cache of this
+	 *         content service
+	 */
+	public EvaluationCache.Statistics getTriggerPointCacheStatistics() {
+		return CONTENT_DESCRIPTOR_REGISTRY.getTriggerPointCacheStatistics(assistant);
+	}
+
+	/**
+	 * Returns the usage of the cache consulted by
+	 * {@link #findDescriptorsWithPossibleChild(Object, boolean)}, for tuning
+	 * and diagnostics.
+	 *
+	 * @return a snapshot of the statistics of the possible child cache of this
+	 *         content service
+	 */
+	public EvaluationCache.Statistics getPossibleChildCacheStatistics() {
+		return CONTENT_DESCRIPTOR_REGISTRY.getPossibleChildCacheStatistics(assistant);
+	}
+
 	@Override
 	public void onExtensionActivation(String aViewerId,
 			String[] aNavigatorExtensionId, boolean toEnable) {
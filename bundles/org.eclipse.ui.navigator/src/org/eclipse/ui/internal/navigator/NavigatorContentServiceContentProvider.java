@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,13 +16,21 @@ package org.eclipse.ui.internal.navigator;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.ITreePathContentProvider;
 import org.eclipse.jface.viewers.TreePath;
@@ -70,6 +78,8 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 
 	private final boolean enforceHasChildren;
 
+	private final boolean parallelChildren;
+
 	private Viewer viewer;
 
 	/**
@@ -102,6 +112,7 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		contentService = aContentService;
 		INavigatorViewerDescriptor vDesc = contentService.getViewerDescriptor();
 		enforceHasChildren = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_ENFORCE_HAS_CHILDREN);
+		parallelChildren = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_PARALLEL_CHILDREN);
 	}
 
 	@Override
@@ -138,6 +149,9 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		}
 		final Set finalSet = new LinkedHashSet();
 		final ContributorTrackingSet localSet = new ContributorTrackingSet(contentService);
+		final Map<NavigatorContentExtension, Object[]> computedChildren = parallelChildren
+				? computeChildrenInParallel(aParentElement, aParentElementOrPath, enabledExtensions, elements)
+				: Collections.<NavigatorContentExtension, Object[]> emptyMap();
 
 		for (final Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
 			SafeRunner.run(new NavigatorSafeRunnable() {
@@ -149,7 +163,9 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 				public void run() throws Exception {
 					if (!isOverridingExtensionInSet(foundExtension.getDescriptor(),
 							enabledExtensions)) {
-						if (elements)
+						if (computedChildren.containsKey(foundExtension))
+							contributedChildren = computedChildren.get(foundExtension);
+						else if (elements)
 							contributedChildren = foundExtension.internalGetContentProvider()
 									.getElements(aParentElementOrPath);
 						else
@@ -182,6 +198,101 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		return finalSet.toArray();
 	}
 
+	/**
+	 * Queries the content providers of the extensions that neither override
+	 * nor are overridden for the parent concurrently. The remaining extensions
+	 * are left to the pipeline in {@link #internalGetChildren}, which merges
+	 * all children in the order of the extensions.
+	 * <p>
+	 * Each query but the first is scheduled in a job. The calling thread then
+	 * runs the queries in order, skipping those a job has started, and waits
+	 * for the jobs still running. This way the calling thread never waits for
+	 * a job that has not started.
+	 * </p>
+	 *
+	 * @return the children contributed by each queried extension, which are
+	 *         <code>null</code> if the query failed
+	 */
+	private Map<NavigatorContentExtension, Object[]> computeChildrenInParallel(final Object aParentElement,
+			final Object aParentElementOrPath, Set enabledExtensions, final boolean elements) {
+		List<NavigatorContentExtension> independentExtensions = new ArrayList<>();
+		for (Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
+			NavigatorContentExtension extension = (NavigatorContentExtension) itr.next();
+			if (!isOverridingExtensionInSet(extension.getDescriptor(), enabledExtensions)
+					&& extension.getOverridingExtensionsForTriggerPoint(aParentElement).length == 0) {
+				independentExtensions.add(extension);
+			}
+		}
+		if (independentExtensions.size() < 2) {
+			return Collections.emptyMap();
+		}
+
+		List<FutureTask<Object[]>> queries = new ArrayList<>(independentExtensions.size());
+		List<Job> jobs = new ArrayList<>(independentExtensions.size() - 1);
+		for (final NavigatorContentExtension extension : independentExtensions) {
+			// Load the extension in the calling thread
+			final SafeDelegateTreeContentProvider contentProvider = extension.internalGetContentProvider();
+			final FutureTask<Object[]> query = new FutureTask<>(() -> {
+				final Object[][] children = new Object[1][];
+				SafeRunner.run(new NavigatorSafeRunnable() {
+					@Override
+					public void run() throws Exception {
+						children[0] = elements ? contentProvider.getElements(aParentElementOrPath)
+								: contentProvider.getChildren(aParentElementOrPath);
+					}
+
+					@Override
+					public void handleException(Throwable e) {
+						NavigatorPlugin.logError(0, NLS.bind(CommonNavigatorMessages.Exception_Invoking_Extension,
+								new Object[] { extension.getDescriptor().getId(), aParentElement }), e);
+					}
+				});
+				return children[0];
+			});
+			if (!queries.isEmpty()) {
+				Job job = new Job(CommonNavigatorMessages.ChildrenJob) {
+					@Override
+					protected IStatus run(IProgressMonitor monitor) {
+						query.run();
+						return Status.OK_STATUS;
+					}
+				};
+				job.setSystem(true);
+				job.schedule();
+				jobs.add(job);
+			}
+			queries.add(query);
+		}
+
+		Map<NavigatorContentExtension, Object[]> computedChildren = new HashMap<>();
+		try {
+			for (FutureTask<Object[]> query : queries) {
+				// Does nothing if a job has started the query
+				query.run();
+			}
+			for (Job job : jobs) {
+				job.cancel();
+			}
+			for (int i = 0; i < queries.size(); i++) {
+				Object[] children;
+				try {
+					children = queries.get(i).get();
+				} catch (ExecutionException e) {
+					// Errors are not handled by the safe runner
+					NavigatorPlugin.logError(0, NLS.bind(CommonNavigatorMessages.Exception_Invoking_Extension,
+							new Object[] { independentExtensions.get(i).getDescriptor().getId(), aParentElement }),
+							e.getCause());
+					children = null;
+				}
+				computedChildren.put(independentExtensions.get(i), children);
+			}
+		} catch (InterruptedException e) {
+			// The extensions not computed yet are queried in sequence
+			Thread.currentThread().interrupt();
+		}
+		return computedChildren;
+	}
+
 	/**
 	 * Query each of <code>theOverridingExtensions</code> for children, and then
 	 * pipe them through the Pipeline content provider.
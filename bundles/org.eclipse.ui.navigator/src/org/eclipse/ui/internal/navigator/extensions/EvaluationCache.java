@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,9 +12,7 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.navigator.extensions;
 
-import java.lang.ref.Reference;
-import java.lang.ref.ReferenceQueue;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.eclipse.ui.internal.navigator.VisibilityAssistant;
@@ -22,86 +20,156 @@ import org.eclipse.ui.internal.navigator.VisibilityAssistant.VisibilityListener;
 
 /**
  * A cache for evaluated {@link NavigatorContentDescriptor}.
+ * <p>
+ * The cache holds at most a fixed number of elements and evicts the least
+ * recently used element when it is full. Elements are strongly reachable from
+ * the cache, so that an entry is still found through an equal element, such as
+ * a recreated resource handle, once the element it was cached for is no longer
+ * used. The descriptors computed with and without overrides for an element
+ * share its entry. The cache is thread safe.
+ * </p>
  */
 public class EvaluationCache implements VisibilityListener {
-	// TODO Have an LRU cache with max size as well as SoftReferences, to help
-	// prevent pathological GC performance that can happen where there are a
-	// large number of softly reachable objects, as well as helping to reduce
-	// dependence on the GC from keeping this cache's size in line in the first
-	// place.
 
-	// TODO Counters for cache hits, misses, replacements, etc.
-
-	// TODO Either the overrides and not overrides case should "share" parts of
-	// their data structures (for example, this can be a map of key -> pair
-	// instead of two maps) OR not bother tracking "overrides or not" state here
-	// and instead let users of this class handle it with two instances of this
-	// class.
-	private final Map<EvaluationReference<Object>, EvaluationValueReference<NavigatorContentDescriptor[]>> evaluations = new HashMap<>();
-	private final Map<EvaluationReference<Object>, EvaluationValueReference<NavigatorContentDescriptor[]>> evaluationsWithOverrides = new HashMap<>();
-
-	private final ReferenceQueue<Object> evaluationsQueue = new ReferenceQueue<>();
-	private final ReferenceQueue<Object> evaluationsWithOverridesQueue = new ReferenceQueue<>();
+	/**
+	 * The number of elements held by a cache created without a maximum size.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 4096;
 
 	/**
-	 * @param anAssistant the VisisbilityAssistant to register with, must be non-null
+	 * A snapshot of the usage of a cache.
 	 */
-	public EvaluationCache(VisibilityAssistant anAssistant) {
-		anAssistant.addListener(this);
-	}
+	public static final class Statistics {
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final int size;
+
+		Statistics(long hits, long misses, long evictions, int size) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.size = size;
+		}
+
+		/**
+		 * @return the number of lookups that found cached descriptors
+		 */
+		public long getHits() {
+			return hits;
+		}
 
-	private void cleanUpStaleEntries() {
-		// TODO Only clean up to a certain number of entries per call when merely accessing or setting?
-		// TODO Periodic task to run this every now and then, ala org.eclipse.core.runtime.jobs.Job?
-		// If this is done, will need to make this class thread safe.
+		/**
+		 * @return the number of lookups that found no cached descriptors
+		 */
+		public long getMisses() {
+			return misses;
+		}
 
-		// Not thread safe, but this whole class isn't, so that is fine.
-		Reference<?> r;
-		// Reference#poll thankfully does not block if there is nothing available.
-		while ((r = evaluationsQueue.poll()) != null) {
-			processStaleEntry(r, evaluations);
+		/**
+		 * @return the number of entries removed because the cache was full
+		 */
+		public long getEvictions() {
+			return evictions;
 		}
-		while ((r = evaluationsWithOverridesQueue.poll()) != null) {
-			processStaleEntry(r, evaluationsWithOverrides);
+
+		/**
+		 * @return the number of elements in the cache
+		 */
+		public int getSize() {
+			return size;
+		}
+
+		@Override
+		public String toString() {
+			return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 		}
 	}
 
-	private static void processStaleEntry(Reference<?> r,
-			Map<? extends Reference<?>, ? extends Reference<?>> fromMap) {
-		if (r instanceof EvaluationReference) {
-			// Key has been collected; clear its entry.
-			EvaluationValueReference<?> oldVal = (EvaluationValueReference<?>) fromMap.remove(r);
-			if (oldVal != null) {
-				// Clear the key from the value so we don't try to prematurely
-				// remove any potential new mapping upon cleanUpStaleEntries()
-				oldVal.clear();
-			}
+	/**
+	 * Refers to an element. Keys are equal if their elements are of the same
+	 * class and equal.
+	 */
+	private static final class Key {
+		private final Object element;
+		private final int hashCode;
+
+		Key(Object anElement) {
+			element = anElement;
+			hashCode = 31 * anElement.getClass().hashCode() + anElement.hashCode();
 		}
-		if (r instanceof EvaluationValueReference) {
-			// If the value has been collected, get its key, and then remove that entry.
-			EvaluationReference<?> key = ((EvaluationValueReference<?>) r).getKey();
-			if (key != null) {
-				fromMap.remove(key);
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
 			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			if (hashCode != other.hashCode || element.getClass() != other.element.getClass()) {
+				return false;
+			}
+			return element == other.element || element.equals(other.element);
 		}
-		// All other Reference types we just leave alone.
 	}
 
-	private static NavigatorContentDescriptor[] getDescriptorsFromMap(Object anElement,
-			Map<EvaluationReference<Object>, EvaluationValueReference<NavigatorContentDescriptor[]>> map) {
-		// Need to wrap in the reference type before querying, else it won't be found by HashMap.
-		EvaluationReference<Object> key = new EvaluationReference<>(anElement);
-		NavigatorContentDescriptor[] cachedDescriptors = null;
-		Reference<NavigatorContentDescriptor[]> cache = map.get(key);
-		if (cache != null && (cachedDescriptors = cache.get()) == null) {
-			// There was an entry, but it has been collected; remove stale mapping.
-			EvaluationValueReference<NavigatorContentDescriptor[]> value = map.remove(key);
-			if (value != null) {
-				// Clear the key from the value so we don't try to prematurely remove any potential new mapping upon cleanUpStaleEntries()
-				value.clear();
-			}
+	/**
+	 * The descriptors evaluated for an element, with and without overrides.
+	 */
+	private static final class Evaluations {
+		NavigatorContentDescriptor[] descriptors;
+		NavigatorContentDescriptor[] descriptorsWithOverrides;
+	}
+
+	private final int maxSize;
+
+	private final Map<Key, Evaluations> entries;
+
+	private long hits;
+
+	private long misses;
+
+	private long evictions;
+
+	/**
+	 * @param anAssistant the VisisbilityAssistant to register with, must be non-null
+	 */
+	public EvaluationCache(VisibilityAssistant anAssistant) {
+		this(anAssistant, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param anAssistant
+	 *            the VisisbilityAssistant to register with, must be non-null
+	 * @param aMaxSize
+	 *            the maximum number of elements held by the cache, must be
+	 *            positive
+	 */
+	public EvaluationCache(VisibilityAssistant anAssistant, int aMaxSize) {
+		if (aMaxSize <= 0) {
+			throw new IllegalArgumentException("Invalid maximum size: " + aMaxSize); //$NON-NLS-1$
 		}
-		return cachedDescriptors;
+		maxSize = aMaxSize;
+		entries = new LinkedHashMap<Key, Evaluations>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Evaluations> eldest) {
+				if (size() > maxSize) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+		anAssistant.addListener(this);
 	}
 
 	/**
@@ -115,36 +183,22 @@ public class EvaluationCache implements VisibilityListener {
 	 * @return the cached descriptors for the given key, or {@code null} if not
 	 *         currently in the cache
 	 */
-	public final NavigatorContentDescriptor[] getDescriptors(Object anElement, boolean toComputeOverrides) {
-		cleanUpStaleEntries();
+	public final synchronized NavigatorContentDescriptor[] getDescriptors(Object anElement,
+			boolean toComputeOverrides) {
 		if (anElement == null)
 			return null;
 
-		if (toComputeOverrides) {
-			return getDescriptorsFromMap(anElement, evaluations);
+		Evaluations entry = entries.get(new Key(anElement));
+		NavigatorContentDescriptor[] cachedDescriptors = null;
+		if (entry != null) {
+			cachedDescriptors = toComputeOverrides ? entry.descriptorsWithOverrides : entry.descriptors;
 		}
-		return getDescriptorsFromMap(anElement, evaluationsWithOverrides);
-	}
-
-	private static void setDescriptorsInMap(Object anElement, NavigatorContentDescriptor[] theDescriptors,
-			Map<EvaluationReference<Object>, EvaluationValueReference<NavigatorContentDescriptor[]>> map,
-			ReferenceQueue<Object> queue) {
-		// Ideally, we would use a WeakReference wrapper if the object given uses identity equality
-		// (we can test if the class uses Object's equals or has its own override), and only use a SoftReference
-		// if the object overrides equals, but that is a bit too unwieldy to check (it would require
-		// checking reflective data) to be worth it.
-		EvaluationReference<Object> key = new EvaluationReference<>(anElement, queue);
-		EvaluationValueReference<NavigatorContentDescriptor[]> newValue =
-				new EvaluationValueReference<>(theDescriptors, key, queue);
-		EvaluationValueReference<NavigatorContentDescriptor[]> oldValue = map.put(key, newValue);
-		if (oldValue != null) {
-			// "Swap" the correct key instance when swapping the value, or else the above, temporary
-			// lookup key will be collected too early (not the actual anElement, but the Reference object).
-			// Not truly needed, but it will help the point of this field not go to waste.
-			newValue.swapKey(oldValue);
-			// Clear the key so we don't try to prematurely remove the new mapping upon cleanUpStaleEntries()
-			oldValue.clear();
+		if (cachedDescriptors != null) {
+			hits++;
+		} else {
+			misses++;
 		}
+		return cachedDescriptors;
 	}
 
 	/**
@@ -158,14 +212,19 @@ public class EvaluationCache implements VisibilityListener {
 	 *            whether overrides were considered in the computation of the
 	 *            given descriptors
 	 */
-	public final void setDescriptors(Object anElement, NavigatorContentDescriptor[] theDescriptors,
+	public final synchronized void setDescriptors(Object anElement, NavigatorContentDescriptor[] theDescriptors,
 			boolean toComputeOverrides) {
-		cleanUpStaleEntries();
 		if (anElement != null) {
+			Key key = new Key(anElement);
+			Evaluations entry = entries.get(key);
+			if (entry == null) {
+				entry = new Evaluations();
+				entries.put(key, entry);
+			}
 			if (toComputeOverrides) {
-				setDescriptorsInMap(anElement, theDescriptors, evaluations, evaluationsQueue);
+				entry.descriptorsWithOverrides = theDescriptors;
 			} else {
-				setDescriptorsInMap(anElement, theDescriptors, evaluationsWithOverrides, evaluationsWithOverridesQueue);
+				entry.descriptors = theDescriptors;
 			}
 		}
 	}
@@ -181,24 +240,16 @@ public class EvaluationCache implements VisibilityListener {
 	}
 
 	/**
-	 * Clears the cache.
+	 * Clears the cache. The statistics are kept.
 	 */
-	public void clear() {
-		// Dump everything in the reference queues.
-		// Don't bother removing from the map based on references, we are about to clear everything anyways.
-		// This might lead to some premature removals because yet to be collected values are not clearing
-		// their key reference, but that is worth having a fast clearing of the maps.
-		// Thankfully, this should be rare, as when reference objects themselves are GCed before being added
-		// to a reference queue, they don't get added at all.
-		while (evaluationsQueue.poll() != null) {
-			// No need to do anything with the reference, we just need to drain
-			// the queue.
-		}
-		while (evaluationsWithOverridesQueue.poll() != null) {
-			// No need to do anything with the reference, we just need to drain
-			// the queue.
-		}
-		evaluations.clear();
-		evaluationsWithOverrides.clear();
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return a snapshot of the usage of this cache since it was created
+	 */
+	public synchronized Statistics getStatistics() {
+		return new Statistics(hits, misses, evictions, entries.size());
 	}
-}
\ No newline at end of file
+}
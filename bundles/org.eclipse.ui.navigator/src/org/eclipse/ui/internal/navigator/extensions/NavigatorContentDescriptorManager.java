@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2016 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -188,11 +188,33 @@ public class NavigatorContentDescriptorManager {
 
 	private EvaluationCache getEvaluationCache(Map<VisibilityAssistant, EvaluationCache> anEvaluationMap,
 			VisibilityAssistant aVisibilityAssistant) {
-		EvaluationCache c = anEvaluationMap.get(aVisibilityAssistant);
-		if (c == null) {
-			anEvaluationMap.put(aVisibilityAssistant, c = new EvaluationCache(aVisibilityAssistant));
+		synchronized (anEvaluationMap) {
+			EvaluationCache c = anEvaluationMap.get(aVisibilityAssistant);
+			if (c == null) {
+				anEvaluationMap.put(aVisibilityAssistant, c = new EvaluationCache(aVisibilityAssistant));
+			}
+			return c;
 		}
-		return c;
+	}
+
+	/**
+	 * @param aVisibilityAssistant
+	 *            the relevant viewer assistant
+	 * @return the usage of the cache of the descriptors enabled for trigger
+	 *         points in the viewer
+	 */
+	public EvaluationCache.Statistics getTriggerPointCacheStatistics(VisibilityAssistant aVisibilityAssistant) {
+		return getEvaluationCache(cachedTriggerPointEvaluations, aVisibilityAssistant).getStatistics();
+	}
+
+	/**
+	 * @param aVisibilityAssistant
+	 *            the relevant viewer assistant
+	 * @return the usage of the cache of the descriptors enabled for possible
+	 *         children in the viewer
+	 */
+	public EvaluationCache.Statistics getPossibleChildCacheStatistics(VisibilityAssistant aVisibilityAssistant) {
+		return getEvaluationCache(cachedPossibleChildrenEvaluations, aVisibilityAssistant).getStatistics();
 	}
 
 	private boolean addDescriptorsConsideringOverrides(Object anElement,
@@ -300,11 +322,15 @@ public class NavigatorContentDescriptorManager {
 	 * Clears all cached information.
 	 */
 	public void clearCache() {
-		for (EvaluationCache cache : cachedPossibleChildrenEvaluations.values()) {
-			cache.clear();
+		synchronized (cachedPossibleChildrenEvaluations) {
+			for (EvaluationCache cache : cachedPossibleChildrenEvaluations.values()) {
+				cache.clear();
+			}
 		}
-		for (EvaluationCache cache : cachedTriggerPointEvaluations.values()) {
-			cache.clear();
+		synchronized (cachedTriggerPointEvaluations) {
+			for (EvaluationCache cache : cachedTriggerPointEvaluations.values()) {
+				cache.clear();
+			}
 		}
 	}
 
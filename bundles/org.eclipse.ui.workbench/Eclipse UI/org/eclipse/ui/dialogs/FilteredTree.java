@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ package org.eclipse.ui.dialogs;
 
 import static org.eclipse.swt.events.SelectionListener.widgetDefaultSelectedAdapter;
 
+import java.util.Set;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -128,6 +129,12 @@ public class FilteredTree extends Composite {
 	 */
 	private Job refreshJob;
 
+	/**
+	 * Matches the tree in the background, or <code>null</code> if the viewer
+	 * does not notify content changes.
+	 */
+	private FilteredTreeMatcher filterMatcher;
+
 	/**
 	 * The parent composite of the filtered tree.
 	 *
@@ -409,9 +416,15 @@ public class FilteredTree extends Composite {
 		treeViewer = doCreateTreeViewer(parent, style);
 		GridData data = new GridData(SWT.FILL, SWT.FILL, true, true);
 		treeViewer.getControl().setLayoutData(data);
-		treeViewer.getControl().addDisposeListener(e -> refreshJob.cancel());
+		treeViewer.getControl().addDisposeListener(e -> {
+			refreshJob.cancel();
+			if (filterMatcher != null) {
+				filterMatcher.cancel();
+			}
+		});
 		if (treeViewer instanceof NotifyingTreeViewer) {
 			patternFilter.setUseCache(true);
+			filterMatcher = new FilteredTreeMatcher(treeViewer, patternFilter, () -> refreshJob.schedule());
 		}
 		treeViewer.addFilter(patternFilter);
 		return treeViewer.getControl();
@@ -484,11 +497,22 @@ public class FilteredTree extends Composite {
 
 				boolean initial = initialText != null
 						&& initialText.equals(text);
+				Set<Object> visibleElements = null;
+				if (!initial && text.length() > 0 && filterMatcher != null && filterMatcher.isSupported()) {
+					visibleElements = filterMatcher.getVisibleElements(text);
+					if (visibleElements == null) {
+						// the job is scheduled again once the tree is matched
+						return Status.OK_STATUS;
+					}
+				}
 				if (initial) {
 					patternFilter.setPattern(null);
 				} else if (text != null) {
 					patternFilter.setPattern(text);
 				}
+				if (visibleElements != null) {
+					patternFilter.setVisibleElements(visibleElements);
+				}
 
 				Control redrawFalseControl = treeComposite != null ? treeComposite
 						: treeViewer.getControl();
@@ -508,7 +532,11 @@ public class FilteredTree extends Composite {
 							}
 						}
 					}
-					treeViewer.refresh(true);
+					if (filterMatcher != null) {
+						filterMatcher.refresh(visibleElements);
+					} else {
+						treeViewer.refresh(true);
+					}
 
 					if (text.length() > 0 && !initial) {
 						/*
@@ -1165,95 +1193,104 @@ public class FilteredTree extends Composite {
 			super(parent, style);
 		}
 
+		private void clearCaches() {
+			if (filterMatcher == null) {
+				getPatternFilter().clearCaches();
+			} else if (!filterMatcher.isApplying()) {
+				getPatternFilter().clearCaches();
+				filterMatcher.contentChanged();
+			}
+		}
+
 		@Override
 		public void add(Object parentElementOrTreePath, Object childElement) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.add(parentElementOrTreePath, childElement);
 		}
 
 		@Override
 		public void add(Object parentElementOrTreePath, Object[] childElements) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.add(parentElementOrTreePath, childElements);
 		}
 
 		@Override
 		protected void inputChanged(Object input, Object oldInput) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.inputChanged(input, oldInput);
 		}
 
 		@Override
 		public void insert(Object parentElementOrTreePath, Object element,
 				int position) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.insert(parentElementOrTreePath, element, position);
 		}
 
 		@Override
 		public void refresh() {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.refresh();
 		}
 
 		@Override
 		public void refresh(boolean updateLabels) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.refresh(updateLabels);
 		}
 
 		@Override
 		public void refresh(Object element) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.refresh(element);
 		}
 
 		@Override
 		public void refresh(Object element, boolean updateLabels) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.refresh(element, updateLabels);
 		}
 
 		@Override
 		public void remove(Object elementsOrTreePaths) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.remove(elementsOrTreePaths);
 		}
 
 		@Override
 		public void remove(Object parent, Object[] elements) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.remove(parent, elements);
 		}
 
 		@Override
 		public void remove(Object[] elementsOrTreePaths) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.remove(elementsOrTreePaths);
 		}
 
 		@Override
 		public void replace(Object parentElementOrTreePath, int index,
 				Object element) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.replace(parentElementOrTreePath, index, element);
 		}
 
 		@Override
 		public void setChildCount(Object elementOrTreePath, int count) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.setChildCount(elementOrTreePath, count);
 		}
 
 		@Override
 		public void setContentProvider(IContentProvider provider) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.setContentProvider(provider);
 		}
 
 		@Override
 		public void setHasChildren(Object elementOrTreePath, boolean hasChildren) {
-			getPatternFilter().clearCaches();
+			clearCaches();
 			super.setHasChildren(elementOrTreePath, hasChildren);
 		}
 
@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.dialogs;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.IContentProvider;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.internal.misc.StringMatcher;
+
+/**
+ * Matches the elements of a filtered tree against the filter text in a
+ * background job, so that typing in the filter text does not wait for the
+ * whole tree to be matched in the UI thread.
+ * <p>
+ * The structure of the tree and the texts of its elements (see
+ * {@link PatternFilter#getMatchTexts(org.eclipse.jface.viewers.Viewer, Object)})
+ * are read in the UI thread the first time the tree is filtered, and again
+ * after the content of the tree changed. Each filter text is then matched
+ * against this snapshot by a job that is canceled as soon as the filter text
+ * changes. The visible elements are applied to the viewer by adding and
+ * removing the elements whose visibility changed since the last filter text.
+ * </p>
+ */
+class FilteredTreeMatcher {
+
+	// Trees with more elements are filtered in the UI thread
+	private static final int MAX_ELEMENTS = 100000;
+
+	// Cancellation is checked every CANCEL_CHECK_MASK + 1 elements
+	private static final int CANCEL_CHECK_MASK = 0xff;
+
+	/**
+	 * The elements of the tree in depth first order, with their texts and the
+	 * index of their parent.
+	 */
+	private static final class Snapshot {
+		final Object input;
+		final Object[] elements;
+		final String[][] texts;
+		final int[] parents;
+
+		Snapshot(Object input, List<Object> elements, List<String[]> texts, List<Integer> parents) {
+			this.input = input;
+			int size = elements.size();
+			this.elements = elements.toArray();
+			this.texts = texts.toArray(new String[size][]);
+			this.parents = new int[size];
+			for (int i = 0; i < size; i++) {
+				this.parents[i] = parents.get(i).intValue();
+			}
+		}
+	}
+
+	/**
+	 * A filter text to be matched, with its visible elements once known.
+	 */
+	private static final class Request {
+		final String filter;
+		final StringMatcher matcher;
+		final Snapshot snapshot;
+		Set<Object> visibleElements;
+
+		Request(String filter, StringMatcher matcher, Snapshot snapshot) {
+			this.filter = filter;
+			this.matcher = matcher;
+			this.snapshot = snapshot;
+		}
+	}
+
+	private final TreeViewer viewer;
+	private final PatternFilter patternFilter;
+	private final Runnable listener;
+	private final Display display;
+	private final Job job;
+
+	private Snapshot snapshot;
+
+	// Whether the snapshot was taken since the content last changed
+	private boolean snapshotTaken;
+
+	// The visible elements of the viewer, or null if unknown
+	private Set<Object> appliedElements;
+
+	private boolean applying;
+
+	// Written in the UI thread, read by the job to know whether it is outdated
+	private volatile Request request;
+
+	/**
+	 * @param viewer
+	 *            the viewer of the filtered tree
+	 * @param patternFilter
+	 *            the filter of the viewer
+	 * @param listener
+	 *            runs in the UI thread when the visible elements of the
+	 *            current filter text are known
+	 */
+	FilteredTreeMatcher(TreeViewer viewer, PatternFilter patternFilter, Runnable listener) {
+		this.viewer = viewer;
+		this.patternFilter = patternFilter;
+		this.listener = listener;
+		display = viewer.getControl().getDisplay();
+		job = new Job("Match filtered tree elements") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				Request current = request;
+				if (current != null) {
+					match(current, monitor);
+				}
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+	}
+
+	/**
+	 * Returns whether the tree can be matched in the background. Reads the
+	 * tree if it has not been read since its content changed. Must be called
+	 * in the UI thread.
+	 *
+	 * @return whether {@link #getVisibleElements(String)} can be called
+	 */
+	boolean isSupported() {
+		if (!snapshotTaken) {
+			snapshot = createSnapshot();
+			snapshotTaken = true;
+		}
+		return snapshot != null;
+	}
+
+	/**
+	 * Returns the elements visible with the filter text. Schedules the
+	 * matching if the filter text is not the one of the last call. Must be
+	 * called in the UI thread, after {@link #isSupported()}.
+	 *
+	 * @param filter
+	 *            a non empty filter text
+	 * @return the visible elements, or <code>null</code> if they are not
+	 *         known yet
+	 */
+	Set<Object> getVisibleElements(String filter) {
+		Request current = request;
+		if (current == null || !current.filter.equals(filter)) {
+			current = new Request(filter, patternFilter.createMatcher(filter), snapshot);
+			request = current;
+			job.cancel();
+			job.schedule();
+		}
+		return current.visibleElements;
+	}
+
+	/**
+	 * Refreshes the viewer to show the visible elements. Only the elements
+	 * whose visibility changed since the last call are added or removed,
+	 * unless the content of the tree changed since. Must be called in the UI
+	 * thread.
+	 *
+	 * @param visibleElements
+	 *            the visible elements, or <code>null</code> to refresh the
+	 *            whole viewer
+	 */
+	void refresh(Set<Object> visibleElements) {
+		applying = true;
+		try {
+			if (visibleElements == null || appliedElements == null || snapshot == null) {
+				viewer.refresh(true);
+			} else {
+				applyDelta(appliedElements, visibleElements);
+			}
+		} finally {
+			applying = false;
+		}
+		appliedElements = visibleElements;
+	}
+
+	/**
+	 * Returns whether the matcher is changing the viewer. The viewer content
+	 * is not changed then.
+	 *
+	 * @return whether the viewer is being refreshed by the matcher
+	 */
+	boolean isApplying() {
+		return applying;
+	}
+
+	/**
+	 * Forgets the snapshot of the tree. Must be called in the UI thread
+	 * whenever the content of the tree changes. If a filter text is being
+	 * matched, the listener runs so that it is matched again.
+	 */
+	void contentChanged() {
+		Request pending = request;
+		snapshot = null;
+		snapshotTaken = false;
+		appliedElements = null;
+		cancel();
+		if (pending != null && pending.visibleElements == null) {
+			listener.run();
+		}
+	}
+
+	/**
+	 * Stops matching. Must be called in the UI thread.
+	 */
+	void cancel() {
+		request = null;
+		job.cancel();
+	}
+
+	private Snapshot createSnapshot() {
+		IContentProvider contentProvider = viewer.getContentProvider();
+		if (!patternFilter.isMatchInBackground() || !(contentProvider instanceof ITreeContentProvider)) {
+			return null;
+		}
+		Object input = viewer.getInput();
+		List<Object> elements = new ArrayList<>();
+		List<String[]> texts = new ArrayList<>();
+		List<Integer> parents = new ArrayList<>();
+		ITreeContentProvider treeContentProvider = (ITreeContentProvider) contentProvider;
+		if (!addElements(treeContentProvider, treeContentProvider.getElements(input), -1, elements, texts,
+				parents)) {
+			return null;
+		}
+		return new Snapshot(input, elements, texts, parents);
+	}
+
+	private boolean addElements(ITreeContentProvider contentProvider, Object[] children, int parent,
+			List<Object> elements, List<String[]> texts, List<Integer> parents) {
+		if (children == null) {
+			return true;
+		}
+		for (Object child : children) {
+			String[] childTexts = patternFilter.getMatchTexts(viewer, child);
+			if (childTexts == null) {
+				// never visible, nor are its children
+				continue;
+			}
+			if (elements.size() == MAX_ELEMENTS) {
+				return false;
+			}
+			int index = elements.size();
+			elements.add(child);
+			texts.add(childTexts);
+			parents.add(Integer.valueOf(parent));
+			if (!addElements(contentProvider, contentProvider.getChildren(child), index, elements, texts,
+					parents)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void match(Request current, IProgressMonitor monitor) {
+		Snapshot tree = current.snapshot;
+		int size = tree.elements.length;
+		boolean[] visible = new boolean[size];
+		// children come after their parent, so they are matched first
+		for (int i = size - 1; i >= 0; i--) {
+			if ((i & CANCEL_CHECK_MASK) == 0 && (request != current || monitor.isCanceled())) {
+				return;
+			}
+			if (!visible[i]) {
+				for (String text : tree.texts[i]) {
+					if (PatternFilter.wordMatches(current.matcher, text)) {
+						visible[i] = true;
+						break;
+					}
+				}
+			}
+			if (visible[i] && tree.parents[i] >= 0) {
+				visible[tree.parents[i]] = true;
+			}
+		}
+		Set<Object> visibleElements = new HashSet<>();
+		for (int i = 0; i < size; i++) {
+			if (visible[i]) {
+				visibleElements.add(tree.elements[i]);
+			}
+		}
+		if (display.isDisposed()) {
+			return;
+		}
+		display.asyncExec(() -> {
+			if (request == current) {
+				current.visibleElements = visibleElements;
+				listener.run();
+			}
+		});
+	}
+
+	/**
+	 * Removes the elements that are no longer visible and adds the elements
+	 * that became visible. The children of added and removed elements are
+	 * left to the viewer. Without a comparator, the viewer appends added
+	 * elements after their siblings, so the parents of added elements are
+	 * refreshed instead to keep the order of the content provider.
+	 */
+	private void applyDelta(Set<Object> oldElements, Set<Object> newElements) {
+		List<Object> removed = new ArrayList<>();
+		// by the index of the parent, -1 for the input
+		Map<Integer, List<Object>> addedByParent = new LinkedHashMap<>();
+		Object[] elements = snapshot.elements;
+		int[] parents = snapshot.parents;
+		// whether the element at each index is visible before and after
+		boolean[] shown = new boolean[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			int parent = parents[i];
+			if (parent >= 0 && !shown[parent]) {
+				continue;
+			}
+			Object element = elements[i];
+			boolean wasVisible = oldElements.contains(element);
+			boolean isVisible = newElements.contains(element);
+			if (wasVisible && isVisible) {
+				shown[i] = true;
+			} else if (wasVisible) {
+				removed.add(element);
+			} else if (isVisible) {
+				Integer parentIndex = Integer.valueOf(parent);
+				List<Object> added = addedByParent.get(parentIndex);
+				if (added == null) {
+					added = new ArrayList<>();
+					addedByParent.put(parentIndex, added);
+				}
+				added.add(element);
+			}
+		}
+		if (!removed.isEmpty()) {
+			viewer.remove(removed.toArray());
+		}
+		boolean sorted = viewer.getComparator() != null;
+		for (Map.Entry<Integer, List<Object>> entry : addedByParent.entrySet()) {
+			int parent = entry.getKey().intValue();
+			Object parentElement = parent >= 0 ? elements[parent] : snapshot.input;
+			if (sorted) {
+				viewer.add(parentElement, entry.getValue().toArray());
+			} else if (!hasAncestorIn(parent, addedByParent)) {
+				viewer.refresh(parentElement, false);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether an ancestor of the element at the given index has added
+	 * children, and is refreshed with its subtree.
+	 */
+	private boolean hasAncestorIn(int index, Map<Integer, List<Object>> addedByParent) {
+		if (index < 0) {
+			return false;
+		}
+		for (int ancestor = snapshot.parents[index]; ; ancestor = snapshot.parents[ancestor]) {
+			if (addedByParent.containsKey(Integer.valueOf(ancestor))) {
+				return true;
+			}
+			if (ancestor < 0) {
+				return false;
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015, 2017 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,10 @@
  *******************************************************************************/
 package org.eclipse.ui.dialogs;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.ContentViewer;
 import org.eclipse.jface.viewers.ILabelProvider;
@@ -45,12 +47,23 @@ public class PatternFilter extends ViewerFilter {
 
     private boolean useCache = false;
 
+	/*
+	 * The visible elements, when they were matched by the filtered tree
+	 */
+	private Set<Object> visibleElements;
+
 	/**
 	 * Whether to include a leading wildcard for all provided patterns.  A
 	 * trailing wildcard is always included.
 	 */
 	private boolean includeLeadingWildcard = false;
 
+	/**
+	 * Whether the filtered tree may match the texts of the elements in a
+	 * background thread.
+	 */
+	private boolean matchInBackground = false;
+
 	/**
 	 * The string pattern matcher used for this pattern filter.
 	 */
@@ -69,6 +82,16 @@ public class PatternFilter extends ViewerFilter {
 			return elements;
 		}
 
+        if (visibleElements != null) {
+			ArrayList<Object> filtered = new ArrayList<>(elements.length);
+			for (Object element : elements) {
+				if (visibleElements.contains(element)) {
+					filtered.add(element);
+				}
+			}
+			return filtered.toArray();
+        }
+
         if (!useCache) {
         	return super.filter(viewer, parent, elements);
         }
@@ -101,6 +124,15 @@ public class PatternFilter extends ViewerFilter {
     		return true;
     	}
 
+		if (visibleElements != null) {
+			for (Object element : elements) {
+				if (visibleElements.contains(element)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
     	if (!useCache) {
     		return computeAnyVisible(viewer, elements);
     	}
@@ -151,6 +183,29 @@ public class PatternFilter extends ViewerFilter {
 		this.includeLeadingWildcard = includeLeadingWildcard;
 	}
 
+	/**
+	 * Sets whether <code>FilteredTree</code> may match the elements with the
+	 * texts of {@link #getMatchTexts(Viewer, Object)} in a background thread,
+	 * instead of calling {@link #isElementVisible(Viewer, Object)} in the UI
+	 * thread. Subclasses that match elements in another way than by their
+	 * label must override {@link #getMatchTexts(Viewer, Object)} accordingly
+	 * before enabling it. It is disabled by default.
+	 *
+	 * @param matchInBackground
+	 *            whether the elements may be matched in the background
+	 * @since 3.112
+	 */
+	public final void setMatchInBackground(final boolean matchInBackground) {
+		this.matchInBackground = matchInBackground;
+	}
+
+	/**
+	 * @return whether the elements may be matched in the background
+	 */
+	/* package */ boolean isMatchInBackground() {
+		return matchInBackground;
+	}
+
     /**
      * The pattern string for which this filter should select
      * elements in the viewer.
@@ -168,19 +223,29 @@ public class PatternFilter extends ViewerFilter {
     		return;
     	}
         clearCaches();
-        if (patternString == null || patternString.equals("")) { //$NON-NLS-1$
-			matcher = null;
-		} else {
-			String pattern = patternString;
-			if (!patternString.endsWith(" ")) //$NON-NLS-1$
-				pattern += "*"; //$NON-NLS-1$
-			if (includeLeadingWildcard) {
-				pattern = "*" + pattern; //$NON-NLS-1$
-			}
-			matcher = new StringMatcher(pattern, true, false);
-		}
+		matcher = createMatcher(patternString);
     }
 
+	/**
+	 * Returns the matcher of a pattern string.
+	 *
+	 * @param patternString
+	 *            the pattern string, may be <code>null</code>
+	 * @return the matcher, or <code>null</code> if the pattern is empty
+	 */
+	/* package */ StringMatcher createMatcher(String patternString) {
+		if (patternString == null || patternString.equals("")) { //$NON-NLS-1$
+			return null;
+		}
+		String pattern = patternString;
+		if (!patternString.endsWith(" ")) //$NON-NLS-1$
+			pattern += "*"; //$NON-NLS-1$
+		if (includeLeadingWildcard) {
+			pattern = "*" + pattern; //$NON-NLS-1$
+		}
+		return new StringMatcher(pattern, true, false);
+	}
+
 	/**
 	 * Clears the caches used for optimizing this filter. Needs to be called whenever
 	 * the tree content changes.
@@ -188,21 +253,19 @@ public class PatternFilter extends ViewerFilter {
 	/* package */ void clearCaches() {
 		cache.clear();
         foundAnyCache.clear();
+		visibleElements = null;
 	}
 
-    /**
-     * Answers whether the given String matches the pattern.
-     *
-     * @param string the String to test
-     *
-     * @return whether the string matches the pattern
-     */
-    private boolean match(String string) {
-    	if (matcher == null) {
-			return true;
-		}
-        return matcher.match(string);
-    }
+	/**
+	 * Sets the elements that pass this filter, as matched by the filtered
+	 * tree. They are used until the pattern or the tree content changes.
+	 *
+	 * @param visibleElements
+	 *            the visible elements
+	 */
+	/* package */ void setVisibleElements(Set<Object> visibleElements) {
+		this.visibleElements = visibleElements;
+	}
 
     /**
      * Answers whether the given element is a valid selection in
@@ -277,6 +340,33 @@ public class PatternFilter extends ViewerFilter {
         return wordMatches(labelText);
     }
 
+	/**
+	 * Returns the texts of the given element that {@link #isLeafMatch(Viewer, Object)}
+	 * matches with {@link #wordMatches(String)}. When matching in the
+	 * background is enabled with {@link #setMatchInBackground(boolean)},
+	 * <code>FilteredTree</code> reads the texts of all the elements in the UI
+	 * thread once, and then matches each filter text against them in a
+	 * background thread. An element is then visible if one of its texts
+	 * matches or one of its children is visible.
+	 * <p>
+	 * The default implementation returns the label of the element. Subclasses
+	 * that match elements in another way override this method to return the
+	 * texts they match.
+	 * </p>
+	 *
+	 * @param viewer
+	 *            the viewer that contains the element
+	 * @param element
+	 *            the tree element
+	 * @return the texts, possibly empty, or <code>null</code> if the element
+	 *         and its children are never visible
+	 * @since 3.112
+	 */
+	protected String[] getMatchTexts(Viewer viewer, Object element) {
+		String labelText = ((ILabelProvider) ((ContentViewer) viewer).getLabelProvider()).getText(element);
+		return labelText == null ? new String[0] : new String[] { labelText };
+	}
+
 	/**
 	 * Return whether or not if any of the words in text satisfy the
 	 * match critera.
@@ -286,19 +376,32 @@ public class PatternFilter extends ViewerFilter {
 	 * 					satisifes the match criteria.
 	 */
 	protected boolean wordMatches(String text) {
+		return wordMatches(matcher, text);
+	}
+
+	/**
+	 * Returns whether the text or all of its words match.
+	 *
+	 * @param matcher
+	 *            the matcher, or <code>null</code> to match any text
+	 * @param text
+	 *            the text to match
+	 * @return whether the text matches
+	 */
+	/* package */ static boolean wordMatches(StringMatcher matcher, String text) {
 		if (text == null) {
 			return false;
 		}
 
 		//If the whole text matches we are all set
-		if(match(text)) {
+		if (matcher == null || matcher.match(text)) {
 			return true;
 		}
 
 		// Otherwise check if any of the words of the text matches
 		String[] words = StringMatcher.getWords(text);
 		for (String word : words) {
-			if (!match(word)) {
+			if (!matcher.match(word)) {
 				return false;
 			}
 		}
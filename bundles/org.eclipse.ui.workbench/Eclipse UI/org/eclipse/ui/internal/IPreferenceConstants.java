@@ -284,4 +284,16 @@ public interface IPreferenceConstants {
 	 */
 	String SAVE_AUTOMATICALLY_INTERVAL = "SAVE_AUTOMATICALLY_INTERVAL"; //$NON-NLS-1$
 
+	/**
+	 * Preference id for whether the decoded images of URL image descriptors
+	 * are cached in the workbench state location across sessions. Changes take
+	 * effect on restart.
+	 * <p>
+	 * The boolean default value for this preference is: <code>false</code>.
+	 * </p>
+	 *
+	 * @since 3.112
+	 */
+	String IMAGE_DATA_CACHE = "IMAGE_DATA_CACHE"; //$NON-NLS-1$
+
 }
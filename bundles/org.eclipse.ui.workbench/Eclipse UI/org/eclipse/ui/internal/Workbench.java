@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -92,6 +93,7 @@ import org.eclipse.e4.ui.model.application.commands.MCommandsFactory;
 import org.eclipse.e4.ui.model.application.commands.impl.CommandsFactoryImpl;
 import org.eclipse.e4.ui.model.application.descriptor.basic.MPartDescriptor;
 import org.eclipse.e4.ui.model.application.ui.MElementContainer;
+import org.eclipse.e4.ui.model.application.ui.MUILabel;
 import org.eclipse.e4.ui.model.application.ui.basic.MPart;
 import org.eclipse.e4.ui.model.application.ui.basic.MTrimBar;
 import org.eclipse.e4.ui.model.application.ui.basic.MTrimElement;
@@ -106,6 +108,7 @@ import org.eclipse.e4.ui.workbench.IModelResourceHandler;
 import org.eclipse.e4.ui.workbench.IPresentationEngine;
 import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.EcoreUtil;
@@ -127,6 +130,7 @@ import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.preference.PreferenceConverter;
 import org.eclipse.jface.preference.PreferenceManager;
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.util.BidiUtils;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.OpenStrategy;
@@ -531,6 +535,43 @@ public final class Workbench extends EventManager implements IWorkbench,
 		return app.getContext().containsKey(E4Workbench.NO_SAVED_MODEL_FOUND);
 	}
 
+	/**
+	 * Starts decoding the icons of the window that opens first in the
+	 * background, so that they are ready by the time the window is rendered.
+	 */
+	private static void prefetchWindowIcons(MApplication app, Display display) {
+		MWindow window = app.getSelectedElement();
+		if (window == null) {
+			if (app.getChildren().isEmpty()) {
+				return;
+			}
+			window = app.getChildren().get(0);
+		}
+		Set<String> iconURIs = new HashSet<>();
+		addIconURI(window, iconURIs);
+		for (TreeIterator<EObject> it = ((EObject) window).eAllContents(); it.hasNext();) {
+			addIconURI(it.next(), iconURIs);
+		}
+		List<ImageDescriptor> descriptors = new ArrayList<>(iconURIs.size());
+		for (String iconURI : iconURIs) {
+			try {
+				descriptors.add(ImageDescriptor.createFromURL(new URL(iconURI)));
+			} catch (MalformedURLException e) {
+				// rendered as a missing image later on
+			}
+		}
+		JFaceResources.getResources(display).prefetchImages(descriptors);
+	}
+
+	private static void addIconURI(Object element, Set<String> iconURIs) {
+		if (element instanceof MUILabel) {
+			String iconURI = ((MUILabel) element).getIconURI();
+			if (iconURI != null && !iconURI.isEmpty()) {
+				iconURIs.add(iconURI);
+			}
+		}
+	}
+
 	/**
 	 * Creates the workbench and associates it with the the given display and
 	 * workbench advisor, and runs the workbench UI. This entails processing and
@@ -584,6 +625,7 @@ public final class Workbench extends EventManager implements IWorkbench,
 				E4Workbench e4Workbench = e4app.createE4Workbench(getApplicationContext(), display);
 
 				MApplication appModel = e4Workbench.getApplication();
+				prefetchWindowIcons(appModel, display);
 				IEclipseContext context = e4Workbench.getContext();
 				WorkbenchMigrationProcessor migrationProcessor = null;
 				if (isFirstE4WorkbenchRun(appModel)) {
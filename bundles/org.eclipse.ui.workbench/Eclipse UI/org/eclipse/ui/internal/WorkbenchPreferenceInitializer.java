@@ -119,6 +119,8 @@ public class WorkbenchPreferenceInitializer extends AbstractPreferenceInitialize
 		node.putBoolean(IPreferenceConstants.SAVE_AUTOMATICALLY, false);
 		node.putInt(IPreferenceConstants.SAVE_AUTOMATICALLY_INTERVAL, 20);
 
+		node.putBoolean(IPreferenceConstants.IMAGE_DATA_CACHE, false);
+
 		// Progress view
 		node.putInt(IPreferenceConstants.MAX_PROGRESS_ENTRIES, 20);
 
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.internal.activities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.eclipse.ui.activities.IActivityPatternBinding;
+
+/**
+ * Finds the activities whose pattern bindings match an identifier.
+ * <p>
+ * Equality patterns are looked up in a hash table. Regular expressions are
+ * grouped by the literal text they start with, so that an identifier is only
+ * matched against the expressions whose literal prefix it starts with. The
+ * activities of each identifier are cached: the matcher is replaced whenever
+ * the pattern bindings change.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @since 3.112
+ */
+public final class ActivityPatternMatcher {
+
+	/**
+	 * A regular expression and the activity it is bound to.
+	 */
+	private static final class RegExpBinding {
+		final String activityId;
+		final Pattern pattern;
+
+		RegExpBinding(String activityId, Pattern pattern) {
+			this.activityId = activityId;
+			this.pattern = pattern;
+		}
+	}
+
+	private final Map<String, Set<String>> activityIdsByString = new HashMap<>();
+
+	private final Map<String, List<RegExpBinding>> regExpBindingsByPrefix = new HashMap<>();
+
+	// The distinct lengths of the keys of regExpBindingsByPrefix, in ascending order
+	private final int[] prefixLengths;
+
+	private final Map<String, Set<String>> activityIdsByIdentifierId = new ConcurrentHashMap<>();
+
+	/**
+	 * @param activityPatternBindingsByActivityId
+	 *            the sets of {@link IActivityPatternBinding} of the defined
+	 *            activities, by activity id
+	 */
+	public ActivityPatternMatcher(Map activityPatternBindingsByActivityId) {
+		Set<Integer> lengths = new TreeSet<>();
+		for (Iterator iterator = activityPatternBindingsByActivityId.values().iterator(); iterator.hasNext();) {
+			Collection activityPatternBindings = (Collection) iterator.next();
+			for (Iterator iterator2 = activityPatternBindings.iterator(); iterator2.hasNext();) {
+				IActivityPatternBinding binding = (IActivityPatternBinding) iterator2.next();
+				String activityId = binding.getActivityId();
+				if (binding.isEqualityPattern()) {
+					Set<String> activityIds = activityIdsByString.get(binding.getString());
+					if (activityIds == null) {
+						activityIds = new HashSet<>(2);
+						activityIdsByString.put(binding.getString(), activityIds);
+					}
+					activityIds.add(activityId);
+				} else {
+					Pattern pattern = binding.getPattern();
+					String prefix = getLiteralPrefix(pattern);
+					List<RegExpBinding> bindings = regExpBindingsByPrefix.get(prefix);
+					if (bindings == null) {
+						bindings = new ArrayList<>(2);
+						regExpBindingsByPrefix.put(prefix, bindings);
+						lengths.add(Integer.valueOf(prefix.length()));
+					}
+					bindings.add(new RegExpBinding(activityId, pattern));
+				}
+			}
+		}
+		prefixLengths = new int[lengths.size()];
+		int i = 0;
+		for (Integer length : lengths) {
+			prefixLengths[i++] = length.intValue();
+		}
+	}
+
+	/**
+	 * Returns the ids of the activities with a pattern binding matching the
+	 * identifier.
+	 *
+	 * @param identifierId
+	 *            the identifier
+	 * @return the unmodifiable set of activity ids, possibly empty
+	 */
+	public Set<String> getActivityIds(String identifierId) {
+		Set<String> activityIds = activityIdsByIdentifierId.get(identifierId);
+		if (activityIds == null) {
+			activityIds = computeActivityIds(identifierId);
+			activityIdsByIdentifierId.put(identifierId, activityIds);
+		}
+		return activityIds;
+	}
+
+	private Set<String> computeActivityIds(String identifierId) {
+		Set<String> activityIds = null;
+		Set<String> equalityMatches = activityIdsByString.get(identifierId);
+		if (equalityMatches != null) {
+			activityIds = new HashSet<>(equalityMatches);
+		}
+		for (int length : prefixLengths) {
+			if (length > identifierId.length()) {
+				break;
+			}
+			List<RegExpBinding> bindings = regExpBindingsByPrefix.get(identifierId.substring(0, length));
+			if (bindings == null) {
+				continue;
+			}
+			for (RegExpBinding binding : bindings) {
+				if ((activityIds == null || !activityIds.contains(binding.activityId))
+						&& binding.pattern.matcher(identifierId).matches()) {
+					if (activityIds == null) {
+						activityIds = new HashSet<>(4);
+					}
+					activityIds.add(binding.activityId);
+				}
+			}
+		}
+		return activityIds == null ? Collections.<String> emptySet() : Collections.unmodifiableSet(activityIds);
+	}
+
+	/**
+	 * Returns the text any string matching the whole pattern starts with. The
+	 * prefix is empty when the pattern uses flags or alternatives, or starts
+	 * with a construct other than literal characters.
+	 *
+	 * @param pattern
+	 *            a regular expression
+	 * @return the literal prefix of the pattern, possibly empty
+	 */
+	public static String getLiteralPrefix(Pattern pattern) {
+		String regExp = pattern.pattern();
+		if (pattern.flags() != 0 || regExp.indexOf('|') != -1) {
+			return ""; //$NON-NLS-1$
+		}
+		StringBuilder prefix = new StringBuilder();
+		int i = 0;
+		while (i < regExp.length()) {
+			int length = prefix.length();
+			char c = regExp.charAt(i);
+			if (c == '\\') {
+				// only escaped punctuation stands for itself
+				if (i + 1 == regExp.length() || Character.isLetterOrDigit(regExp.charAt(i + 1))) {
+					break;
+				}
+				prefix.append(regExp.charAt(i + 1));
+				i += 2;
+			} else if (".[]{}()*+?^$".indexOf(c) != -1) { //$NON-NLS-1$
+				break;
+			} else {
+				prefix.append(c);
+				i++;
+			}
+			if (i < regExp.length() && "?*{".indexOf(regExp.charAt(i)) != -1) { //$NON-NLS-1$
+				// the last character is optional
+				prefix.setLength(length);
+				break;
+			}
+		}
+		return prefix.toString();
+	}
+}
@@ -65,6 +65,13 @@ public final class MutableActivityManager extends AbstractActivityManager
 
     private Map activityPatternBindingsByActivityId = new HashMap();
 
+    /**
+     * Matches identifiers against activityPatternBindingsByActivityId. Also
+     * read by the identifier update job.
+     */
+    private volatile ActivityPatternMatcher activityPatternMatcher = new ActivityPatternMatcher(
+            Collections.EMPTY_MAP);
+
     private IActivityRegistry activityRegistry;
 
     private Map categoriesById = new HashMap();
@@ -424,6 +431,7 @@ public final class MutableActivityManager extends AbstractActivityManager
         this.activityRequirementBindingsByActivityId = activityRequirementBindingsByActivityId;
         this.activityDefinitionsById = activityDefinitionsById;
         this.activityPatternBindingsByActivityId = activityPatternBindingsByActivityId;
+        this.activityPatternMatcher = new ActivityPatternMatcher(activityPatternBindingsByActivityId);
         this.categoryActivityBindingsByCategoryId = categoryActivityBindingsByCategoryId;
         this.categoryDefinitionsById = categoryDefinitionsById;
         boolean definedActivityIdsChanged = false;
@@ -818,18 +826,26 @@ public final class MutableActivityManager extends AbstractActivityManager
                         enabledChanged);
 			}
         } else {
-            Set activityIdsToUpdate = new HashSet(changedActivityIds);
-            if (identifier.getActivityIds() != null) {
-                activityIdsToUpdate.addAll(identifier.getActivityIds());
-            }
-            for (Iterator iterator = activityIdsToUpdate.iterator(); iterator
+            // activities are created on demand, and an activity only starts
+            // to track its enabledWhen expression once created
+            for (Iterator iterator = changedActivityIds.iterator(); iterator
                     .hasNext();) {
                 String activityId = (String) iterator.next();
-                Activity activity = (Activity) getActivity(activityId);
+                if (!activitiesById.containsKey(activityId)) {
+                    getActivity(activityId);
+                }
+            }
+
+            // only update the changed activities and the current ones
+            Set previousActivityIds = identifier.getActivityIds();
+            for (Iterator iterator = activityPatternMatcher.getActivityIds(id)
+                    .iterator(); iterator.hasNext();) {
+                String activityId = (String) iterator.next();
 
-                if (activity.isMatch(id)) {
+                if (changedActivityIds.contains(activityId)
+                        || (previousActivityIds != null && previousActivityIds.contains(activityId))) {
                     activityIds.add(activityId);
-               }
+                }
             }
 
             activityIdsChanged = identifier.setActivityIds(activityIds);
@@ -901,15 +917,7 @@ public final class MutableActivityManager extends AbstractActivityManager
 
 				while (!deferredIdentifiers.isEmpty()) {
 					Identifier identifier = (Identifier) deferredIdentifiers.remove(0);
-					Set activityIds = new HashSet();
-					for (Iterator iterator = definedActivityIds.iterator(); iterator.hasNext();) {
-						String activityId = (String) iterator.next();
-						Activity activity = (Activity) getActivity(activityId);
-
-						if (activity.isMatch(identifier.getId())) {
-							activityIds.add(activityId);
-						}
-					}
+					Set activityIds = activityPatternMatcher.getActivityIds(identifier.getId());
 
 					boolean activityIdsChanged = identifier.setActivityIds(activityIds);
 					if (activityIdsChanged) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -157,6 +157,36 @@ public class DecorationBuilder implements IDecoration {
 		valueSet = false;
 	}
 
+	/**
+	 * Add the decorations of other to the receiver, as if the decorators that
+	 * built other had been applied after those of the receiver.
+	 *
+	 * @param other
+	 *            a builder for the same element and context
+	 */
+	void merge(DecorationBuilder other) {
+		if (!other.valueSet) {
+			return;
+		}
+		prefixes.addAll(other.prefixes);
+		suffixes.addAll(other.suffixes);
+		for (int i = 0; i < descriptors.length; i++) {
+			if (descriptors[i] == null) {
+				descriptors[i] = other.descriptors[i];
+			}
+		}
+		if (other.foregroundColor != null) {
+			foregroundColor = other.foregroundColor;
+		}
+		if (other.backgroundColor != null) {
+			backgroundColor = other.backgroundColor;
+		}
+		if (other.font != null) {
+			font = other.font;
+		}
+		valueSet = true;
+	}
+
 	/**
 	 * Return whether or not a value has been set.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -39,6 +39,8 @@ public class DecorationResult {
 
 	private Font font;
 
+	private int weight;
+
 	DecorationResult(List prefixList, List suffixList,
 			ImageDescriptor[] imageDescriptors, Color resultForegroundColor,
 			Color resultBackgroundColor, Font resultFont) {
@@ -52,6 +54,25 @@ public class DecorationResult {
 		foregroundColor = resultForegroundColor;
 		backgroundColor = resultBackgroundColor;
 		font = resultFont;
+		weight = computeWeight();
+	}
+
+	private int computeWeight() {
+		int result = 1;
+		for (Object prefix : prefixes) {
+			result += String.valueOf(prefix).length();
+		}
+		for (Object suffix : suffixes) {
+			result += String.valueOf(suffix).length();
+		}
+		if (descriptors != null) {
+			for (ImageDescriptor descriptor : descriptors) {
+				if (descriptor != null) {
+					result++;
+				}
+			}
+		}
+		return result;
 	}
 
 	/**
@@ -122,6 +143,17 @@ public class DecorationResult {
 		return result.toString();
 	}
 
+	/**
+	 * Return the weight of the receiver in the result cache: one for the
+	 * result itself and each overlay, plus the length of the prefixes and
+	 * suffixes.
+	 *
+	 * @return int
+	 */
+	int getWeight() {
+		return weight;
+	}
+
 	/**
 	 * Get the descriptor array for the receiver.
 	 *
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.decorators;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.jface.viewers.IDecorationContext;
+
+/**
+ * The DecorationResultCache holds the computed decorations of the elements
+ * until the label updates have been sent. It is bounded by the number of
+ * results and by their total weight, the least recently used results are
+ * evicted first. An evicted result is computed again when it is asked for.
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @since 3.112
+ */
+public class DecorationResultCache {
+
+	/**
+	 * The default maximum number of cached results.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	/**
+	 * The default maximum total weight of the cached results, see
+	 * {@link DecorationResult#getWeight()}.
+	 */
+	public static final long DEFAULT_MAX_WEIGHT = 1 << 20;
+
+	private static final class Key {
+		final IDecorationContext context;
+
+		final Object element;
+
+		final int hashCode;
+
+		Key(IDecorationContext context, Object element) {
+			this.context = context;
+			this.element = element;
+			this.hashCode = 31 * context.hashCode() + element.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return context.equals(other.context) && element.equals(other.element);
+		}
+	}
+
+	private final int maxSize;
+
+	private final long maxWeight;
+
+	// access ordered, the eldest entry is the least recently used one
+	private final LinkedHashMap<Key, DecorationResult> results = new LinkedHashMap<>(64, 0.75f, true);
+
+	private long weight;
+
+	private long hits;
+
+	private long misses;
+
+	private long evictions;
+
+	/**
+	 * Create a new instance of the receiver with the default bounds.
+	 */
+	public DecorationResultCache() {
+		this(DEFAULT_MAX_SIZE, DEFAULT_MAX_WEIGHT);
+	}
+
+	/**
+	 * Create a new instance of the receiver.
+	 *
+	 * @param maxSize
+	 *            the maximum number of cached results
+	 * @param maxWeight
+	 *            the maximum total weight of the cached results
+	 */
+	public DecorationResultCache(int maxSize, long maxWeight) {
+		this.maxSize = maxSize;
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * Return the result for element in context.
+	 *
+	 * @param element
+	 * @param context
+	 * @return DecorationResult or <code>null</code> if there is none
+	 */
+	public synchronized DecorationResult get(Object element, IDecorationContext context) {
+		DecorationResult result = results.get(new Key(context, element));
+		if (result == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return result;
+	}
+
+	/**
+	 * Return whether there is a result for element in context. Unlike
+	 * {@link #get(Object, IDecorationContext)} this neither updates the
+	 * statistics nor the recently used order.
+	 *
+	 * @param element
+	 * @param context
+	 * @return boolean
+	 */
+	public synchronized boolean contains(Object element, IDecorationContext context) {
+		return results.containsKey(new Key(context, element));
+	}
+
+	/**
+	 * Cache the result for element in context, evicting the least recently
+	 * used results if the bounds are exceeded.
+	 *
+	 * @param element
+	 * @param context
+	 * @param result
+	 */
+	public synchronized void put(Object element, IDecorationContext context, DecorationResult result) {
+		DecorationResult old = results.put(new Key(context, element), result);
+		if (old != null) {
+			weight -= old.getWeight();
+		}
+		weight += result.getWeight();
+		Iterator<Map.Entry<Key, DecorationResult>> iterator = results.entrySet().iterator();
+		// keep the result just added even if it exceeds the bounds by itself
+		while ((results.size() > maxSize || weight > maxWeight) && results.size() > 1) {
+			Map.Entry<Key, DecorationResult> eldest = iterator.next();
+			weight -= eldest.getValue().getWeight();
+			iterator.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Remove all of the results. The statistics are kept.
+	 */
+	public synchronized void clear() {
+		results.clear();
+		weight = 0;
+	}
+
+	/**
+	 * @return the number of cached results
+	 */
+	public synchronized int size() {
+		return results.size();
+	}
+
+	/**
+	 * @return the total weight of the cached results
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * @return the number of lookups that found a result
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups that did not find a result
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of results evicted to stay within the bounds
+	 */
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+}
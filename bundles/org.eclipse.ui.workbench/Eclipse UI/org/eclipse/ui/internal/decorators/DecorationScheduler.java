@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,11 +12,14 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.decorators;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -41,15 +44,34 @@ import org.eclipse.ui.progress.WorkbenchJob;
 
 /**
  * The DecorationScheduler is the class that handles the decoration of elements
- * using a background thread.
+ * using background jobs.
+ * <p>
+ * The elements queued for decoration are handed to a queue per lightweight
+ * decorator. A few worker jobs take turns applying the decorators to the
+ * elements in their queues, a decorator is applied by at most one worker at a
+ * time. So a slow decorator occupies a single worker while the others keep
+ * decorating. The decorations computed so far are shown as soon as they are
+ * available, the labels are updated again once the slow decorators are done.
+ * </p>
  */
 public class DecorationScheduler {
 
 	static final ILabelProviderListener[] EMPTY_LISTENER_LIST = new ILabelProviderListener[0];
 
+	/**
+	 * The system property for the number of jobs applying the decorators.
+	 */
+	static final String WORKER_COUNT_PROPERTY = "org.eclipse.ui.decorators.workers"; //$NON-NLS-1$
+
+	/**
+	 * The number of elements a worker decorates with one decorator before
+	 * giving the other decorators a turn.
+	 */
+	static final int BATCH_SIZE = 20;
+
 	// When decorations are computed they are added to this cache via
 	// decorated() method
-	Map resultCache = new HashMap();
+	DecorationResultCache resultCache = new DecorationResultCache();
 
 	// Objects that need an icon and text computed for display to the user
 	List awaitingDecoration = new ArrayList();
@@ -66,7 +88,19 @@ public class DecorationScheduler {
 
 	boolean shutdown = false;
 
-	Job decorationJob;
+	// The jobs applying the decorators
+	private final DecorationWorker[] workers;
+
+	// The elements waiting for each decorator, the decorators that had a turn
+	// most recently are last
+	private final Map<LightweightDecoratorDefinition, DecoratorQueue> decoratorQueues = new LinkedHashMap<>();
+
+	// The elements handed to the decorators that are not decorated yet
+	private final Map<Object, PendingDecoration> inProgress = new HashMap<>();
+
+	// The count, total and maximum time in nanoseconds of the decorations of
+	// each decorator id
+	private final Map<String, long[]> decoratorTimes = new HashMap<>();
 
 	UIJob updateJob;
 
@@ -88,7 +122,12 @@ public class DecorationScheduler {
 	 */
 	DecorationScheduler(DecoratorManager manager) {
 		decoratorManager = manager;
-		createDecorationJob();
+		int workerCount = Integer.getInteger(WORKER_COUNT_PROPERTY,
+				Math.min(4, Math.max(2, Runtime.getRuntime().availableProcessors()))).intValue();
+		workers = new DecorationWorker[Math.max(1, workerCount)];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new DecorationWorker();
+		}
 	}
 
 	/**
@@ -135,6 +174,11 @@ public class DecorationScheduler {
 			String undecoratedText, IDecorationContext context) {
 
 		Assert.isNotNull(context);
+		PendingDecoration pending = inProgress.get(element);
+		if (pending != null && pending.hasContext(context) && pending.addRequest(forceUpdate)) {
+			// It is being decorated already
+			return;
+		}
 		DecorationReference reference = (DecorationReference) awaitingDecorationValues.get(element);
 		if (reference != null) {
 			if (forceUpdate) {// Make sure we don't loose a force
@@ -150,7 +194,8 @@ public class DecorationScheduler {
 			if (shutdown) {
 				return;
 			}
-			decorationJob.schedule();
+			// one worker hands the elements to the decorators
+			workers[0].schedule();
 		}
 
 	}
@@ -211,21 +256,12 @@ public class DecorationScheduler {
 
 	private DecorationResult internalGetResult(Object element,
 			IDecorationContext context) {
-		Map results = (Map) resultCache.get(context);
-		if (results != null) {
-			return (DecorationResult) results.get(element);
-		}
-		return null;
+		return resultCache.get(element, context);
 	}
 
 	protected void internalPutResult(Object element,
 			IDecorationContext context, DecorationResult result) {
-		Map results = (Map) resultCache.get(context);
-		if (results == null) {
-			results = new HashMap();
-			resultCache.put(context, results);
-		}
-		results.put(element, result);
+		resultCache.put(element, context, result);
 	}
 
 	/**
@@ -270,123 +306,447 @@ public class DecorationScheduler {
 	}
 
 	/**
-	 * Create the Thread used for running decoration.
+	 * Hand the element of the reference to the decorators that apply to it.
+	 *
+	 * @param reference
+	 * @return <code>true</code> if a label update is needed for results that
+	 *         are cached already
 	 */
-	private void createDecorationJob() {
-		decorationJob = new Job(WorkbenchMessages.DecorationScheduler_CalculationJobName) {
-			@Override
-			public IStatus run(IProgressMonitor monitor) {
+	private boolean dispatch(DecorationReference reference) {
+		Object element = reference.getElement();
+		boolean updated = false;
+		List<IDecorationContext> contexts = new ArrayList<>();
+		for (IDecorationContext context : reference.getContexts()) {
+			if (resultCache.contains(element, context)) {
+				synchronized (pendingKey) {
+					pendingUpdate.add(element);
+				}
+				updated = true;
+			} else if (!contexts.contains(context)) {
+				contexts.add(context);
+			}
+		}
+		if (contexts.isEmpty()) {
+			return updated;
+		}
+		LightweightDecoratorDefinition[] decorators = decoratorManager.getLightweightManager()
+				.getDecoratorsFor(element);
+		PendingDecoration pending = new PendingDecoration(element,
+				contexts.toArray(new IDecorationContext[contexts.size()]), decorators,
+				reference.shouldForceUpdate());
+		if (decorators.length == 0) {
+			// Nothing to wait for, only add results that are forced
+			return pending.publish() || updated;
+		}
+		synchronized (this) {
+			if (shutdown) {
+				return updated;
+			}
+			inProgress.put(element, pending);
+			for (LightweightDecoratorDefinition decorator : decorators) {
+				DecoratorQueue queue = decoratorQueues.get(decorator);
+				if (queue == null) {
+					queue = new DecoratorQueue(decorator);
+					decoratorQueues.put(decorator, queue);
+				}
+				queue.elements.add(pending);
+			}
+			for (int i = 1; i < workers.length && i < decoratorQueues.size(); i++) {
+				workers[i].schedule();
+			}
+		}
+		return updated;
+	}
 
-				synchronized (DecorationScheduler.this) {
-					if (shutdown) {
-						return Status.CANCEL_STATUS;
-					}
+	/**
+	 * Return the queue of a decorator that has elements waiting and is not
+	 * being applied by another worker, and mark it as busy.
+	 *
+	 * @return DecoratorQueue or <code>null</code> if there is none
+	 */
+	private synchronized DecoratorQueue acquireQueue() {
+		if (shutdown) {
+			return null;
+		}
+		Iterator<DecoratorQueue> queues = decoratorQueues.values().iterator();
+		while (queues.hasNext()) {
+			DecoratorQueue queue = queues.next();
+			if (!queue.busy && !queue.elements.isEmpty()) {
+				queue.busy = true;
+				// Let the other decorators have their turn first next time
+				queues.remove();
+				decoratorQueues.put(queue.decorator, queue);
+				return queue;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The worker is done with the queue for now.
+	 *
+	 * @param queue
+	 * @param count
+	 *            the number of elements decorated
+	 * @param totalNanos
+	 *            the total time spent decorating them
+	 * @param maxNanos
+	 *            the longest time spent decorating one of them
+	 */
+	private synchronized void releaseQueue(DecoratorQueue queue, int count, long totalNanos, long maxNanos) {
+		queue.busy = false;
+		if (queue.elements.isEmpty()) {
+			decoratorQueues.remove(queue.decorator, queue);
+		}
+		if (count > 0) {
+			String id = queue.decorator.getId();
+			long[] times = decoratorTimes.get(id);
+			if (times == null) {
+				times = new long[3];
+				decoratorTimes.put(id, times);
+			}
+			times[0] += count;
+			times[1] += totalNanos;
+			times[2] = Math.max(times[2], maxNanos);
+		}
+	}
+
+	/**
+	 * The decorations of an element handed to the decorators. Each decorator
+	 * adds its decorations separately, the results merge them in the order of
+	 * the decorators.
+	 */
+	private final class PendingDecoration {
+
+		final Object element;
+
+		final IDecorationContext[] contexts;
+
+		final LightweightDecoratorDefinition[] decorators;
+
+		// The decorations of each decorator for each context, null until the
+		// decorator has been applied
+		final DecorationBuilder[][] decorations;
+
+		// Whether a result is cached even if there are no decorations
+		boolean force;
+
+		int remaining;
+
+		PendingDecoration(Object element, IDecorationContext[] contexts, LightweightDecoratorDefinition[] decorators,
+				boolean force) {
+			this.element = element;
+			this.contexts = contexts;
+			this.decorators = decorators;
+			this.decorations = new DecorationBuilder[decorators.length][];
+			this.force = force;
+			this.remaining = decorators.length;
+		}
+
+		boolean hasContext(IDecorationContext context) {
+			for (IDecorationContext each : contexts) {
+				if (each.equals(context)) {
+					return true;
 				}
+			}
+			return false;
+		}
 
-				while (updatesPending()) {
+		/**
+		 * Add the decorations of a decorator and cache the results.
+		 *
+		 * @param decorator
+		 * @param builders
+		 *            the decorations for each context
+		 * @return whether a result was cached
+		 */
+		synchronized boolean decorated(LightweightDecoratorDefinition decorator, DecorationBuilder[] builders) {
+			for (int i = 0; i < decorators.length; i++) {
+				if (decorators[i] == decorator && decorations[i] == null) {
+					decorations[i] = builders;
+					remaining--;
+					break;
+				}
+			}
+			return publish();
+		}
 
-					try {
-						Thread.sleep(100);
-					} catch (InterruptedException e) {
-						// Cancel and try again if there was an error
-						schedule();
-						return Status.CANCEL_STATUS;
+		/**
+		 * Another request to decorate the element came in.
+		 *
+		 * @param forceUpdate
+		 * @return <code>false</code> if the decoration is complete already
+		 */
+		synchronized boolean addRequest(boolean forceUpdate) {
+			if (remaining == 0) {
+				return false;
+			}
+			if (forceUpdate) {
+				force = true;
+			}
+			return true;
+		}
+
+		synchronized boolean isDone() {
+			return remaining == 0;
+		}
+
+		/**
+		 * Cache the results of the decorators applied so far. Results are only
+		 * cached if there are decorations, or if they are complete and forced.
+		 *
+		 * @return whether a result was cached
+		 */
+		synchronized boolean publish() {
+			boolean published = false;
+			for (int i = 0; i < contexts.length; i++) {
+				DecorationBuilder result = new DecorationBuilder(contexts[i]);
+				for (DecorationBuilder[] decoration : decorations) {
+					if (decoration != null) {
+						result.merge(decoration[i]);
 					}
 				}
+				if (result.hasValue() || (remaining == 0 && force)) {
+					internalPutResult(element, contexts[i], result.createResult());
+					published = true;
+				}
+			}
+			if (published) {
+				// Add an update for only the original element to prevent
+				// multiple updates
+				synchronized (pendingKey) {
+					pendingUpdate.add(element);
+				}
+			}
+			return published;
+		}
+	}
+
+	/**
+	 * The elements waiting for a decorator.
+	 */
+	private final class DecoratorQueue {
+
+		final LightweightDecoratorDefinition decorator;
+
+		final ArrayDeque<PendingDecoration> elements = new ArrayDeque<>();
+
+		// Whether a worker is applying the decorator
+		boolean busy;
 
-				SubMonitor subMonitor = SubMonitor.convert(monitor);
-				subMonitor.setTaskName(WorkbenchMessages.DecorationScheduler_CalculatingTask);
-				// will block if there are no resources to be decorated
-				DecorationReference reference;
-
-				while ((reference = nextElement()) != null) {
-
-					SubMonitor loopMonitor = subMonitor.setWorkRemaining(100).split(1);
-					Object element = reference.getElement();
-					boolean force = reference.shouldForceUpdate();
-					IDecorationContext[] contexts = reference.getContexts();
-					loopMonitor.setWorkRemaining(contexts.length);
-					for (IDecorationContext context : contexts) {
-						ensureResultCached(element, force, context);
-						loopMonitor.split(1);
+		DecoratorQueue(LightweightDecoratorDefinition decorator) {
+			this.decorator = decorator;
+		}
+
+		/**
+		 * Apply the decorator to the next elements in the queue. Only one
+		 * worker at a time calls this method.
+		 *
+		 * @param monitor
+		 * @return whether a result was cached
+		 */
+		boolean decorate(IProgressMonitor monitor) {
+			List<PendingDecoration> batch = new ArrayList<>(BATCH_SIZE);
+			synchronized (DecorationScheduler.this) {
+				while (batch.size() < BATCH_SIZE && !elements.isEmpty()) {
+					batch.add(elements.poll());
+				}
+			}
+			LightweightDecoratorManager manager = decoratorManager.getLightweightManager();
+			boolean published = false;
+			int count = 0;
+			long totalNanos = 0;
+			long maxNanos = 0;
+			try {
+				if (decorator.isBatchDecorator() && !monitor.isCanceled()) {
+					long start = System.nanoTime();
+					DecorationBuilder[][] builders = decorateBatch(batch, manager);
+					count = batch.size();
+					totalNanos = System.nanoTime() - start;
+					// The time of a single element is not known
+					maxNanos = count == 0 ? 0 : totalNanos / count;
+					published = publishBatch(batch, builders);
+				}
+				for (PendingDecoration pending : batch.subList(count, batch.size())) {
+					if (monitor.isCanceled()) {
+						break;
 					}
-					// Only notify listeners when we have exhausted the
-					// queue of decoration requests.
-					synchronized (DecorationScheduler.this) {
-						if (awaitingDecoration.isEmpty()) {
-							decorated();
+					long start = System.nanoTime();
+					DecorationBuilder[] builders = new DecorationBuilder[pending.contexts.length];
+					for (int i = 0; i < builders.length; i++) {
+						builders[i] = new DecorationBuilder(pending.contexts[i]);
+						manager.applyDecorator(pending.element, builders[i], decorator);
+					}
+					long nanos = System.nanoTime() - start;
+					count++;
+					totalNanos += nanos;
+					maxNanos = Math.max(maxNanos, nanos);
+					published |= pending.decorated(decorator, builders);
+					if (pending.isDone()) {
+						synchronized (DecorationScheduler.this) {
+							inProgress.remove(pending.element, pending);
 						}
 					}
 				}
-				return Status.OK_STATUS;
+			} finally {
+				synchronized (DecorationScheduler.this) {
+					// Put back what was not decorated
+					for (int i = batch.size() - 1; i >= count; i--) {
+						elements.addFirst(batch.get(i));
+					}
+				}
+				releaseQueue(this, count, totalNanos, maxNanos);
 			}
+			return published;
+		}
 
-			/**
-			 * Ensure that a result is cached for the given element and context
-			 *
-			 * @param element
-			 *            the elements
-			 * @param force
-			 *            whether an update should be forced
-			 * @param context
-			 *            the decoration context
-			 */
-			private void ensureResultCached(Object element, boolean force,
-					IDecorationContext context) {
-				boolean elementIsCached = internalGetResult(element, context) != null;
-				if (elementIsCached) {
-					synchronized (pendingKey) {
-						pendingUpdate.add(element);
-					}
+		/**
+		 * Apply the batch decorator to all elements of the batch in all of
+		 * their contexts with a single call.
+		 *
+		 * @param batch
+		 * @param manager
+		 * @return the decorations of each element of the batch for each of its
+		 *         contexts
+		 */
+		private DecorationBuilder[][] decorateBatch(List<PendingDecoration> batch,
+				LightweightDecoratorManager manager) {
+			DecorationBuilder[][] builders = new DecorationBuilder[batch.size()][];
+			List<Object> elementList = new ArrayList<>();
+			List<DecorationBuilder> builderList = new ArrayList<>();
+			for (int i = 0; i < builders.length; i++) {
+				PendingDecoration pending = batch.get(i);
+				builders[i] = new DecorationBuilder[pending.contexts.length];
+				for (int j = 0; j < builders[i].length; j++) {
+					builders[i][j] = new DecorationBuilder(pending.contexts[j]);
+					elementList.add(pending.element);
+					builderList.add(builders[i][j]);
+				}
+			}
+			manager.applyDecorator(elementList.toArray(),
+					builderList.toArray(new DecorationBuilder[builderList.size()]), decorator);
+			return builders;
+		}
 
+		/**
+		 * Hand the results of {@link #decorateBatch} to the pending
+		 * decorations.
+		 *
+		 * @param batch
+		 * @param builders
+		 * @return whether a result was cached
+		 */
+		private boolean publishBatch(List<PendingDecoration> batch, DecorationBuilder[][] builders) {
+			boolean published = false;
+			for (int i = 0; i < builders.length; i++) {
+				PendingDecoration pending = batch.get(i);
+				published |= pending.decorated(decorator, builders[i]);
+				if (pending.isDone()) {
+					synchronized (DecorationScheduler.this) {
+						inProgress.remove(pending.element, pending);
+					}
 				}
+			}
+			return published;
+		}
+	}
 
-				if (!elementIsCached) {
-					DecorationBuilder cacheResult = new DecorationBuilder(context);
-					// Calculate the decoration
-					decoratorManager.getLightweightManager().getDecorations(element, cacheResult);
-
-					// If we should update regardless then put a result
-					// anyways
-					if (cacheResult.hasValue() || force) {
-
-						// Synchronize on the result lock as we want to
-						// be sure that we do not try and decorate during
-						// label update servicing.
-						// Note: resultCache and pendingUpdate modifications
-						// must be done atomically.
-
-						// Add the decoration even if it's empty in
-						// order to indicate that the decoration is
-						// ready
-						internalPutResult(element, context, cacheResult.createResult());
-
-						// Add an update for only the original element
-						// to
-						// prevent multiple updates and clear the cache.
-						synchronized (pendingKey) {
-							pendingUpdate.add(element);
-						}
+	/**
+	 * A job that hands the queued elements to the decorators and applies the
+	 * decorators.
+	 */
+	private final class DecorationWorker extends Job {
 
+		DecorationWorker() {
+			super(WorkbenchMessages.DecorationScheduler_CalculationJobName);
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
 
-					}
+		@Override
+		public IStatus run(IProgressMonitor monitor) {
+
+			synchronized (DecorationScheduler.this) {
+				if (shutdown) {
+					return Status.CANCEL_STATUS;
 				}
 			}
 
-			@Override
-			public boolean belongsTo(Object family) {
-				return DecoratorManager.FAMILY_DECORATE == family;
+			while (updatesPending()) {
+
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					// Cancel and try again if there was an error
+					schedule();
+					return Status.CANCEL_STATUS;
+				}
 			}
 
-			@Override
-			public boolean shouldRun() {
-				return PlatformUI.isWorkbenchRunning();
+			SubMonitor subMonitor = SubMonitor.convert(monitor);
+			subMonitor.setTaskName(WorkbenchMessages.DecorationScheduler_CalculatingTask);
+
+			while (!subMonitor.isCanceled()) {
+				subMonitor.setWorkRemaining(100).split(1);
+				// Hand out the queued elements first so that every
+				// decorator can start on them
+				DecorationReference reference = nextElement();
+				if (reference != null) {
+					if (dispatch(reference)) {
+						// Only notify listeners when we have exhausted the
+						// queue of decoration requests.
+						synchronized (DecorationScheduler.this) {
+							if (awaitingDecoration.isEmpty()) {
+								decorated();
+							}
+						}
+					}
+					continue;
+				}
+				DecoratorQueue queue = acquireQueue();
+				if (queue == null) {
+					break;
+				}
+				if (queue.decorate(subMonitor)) {
+					decorated();
+				}
 			}
-		};
+			return subMonitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return DecoratorManager.FAMILY_DECORATE == family;
+		}
 
-		decorationJob.setSystem(true);
-		decorationJob.setPriority(Job.DECORATE);
-		decorationJob.schedule();
+		@Override
+		public boolean shouldRun() {
+			return PlatformUI.isWorkbenchRunning();
+		}
+	}
+
+	/**
+	 * Return the statistics of the decoration.
+	 *
+	 * @return DecorationStatistics
+	 */
+	public synchronized DecorationStatistics getStatistics() {
+		Set<String> ids = new HashSet<>(decoratorTimes.keySet());
+		Map<String, Integer> queueDepths = new HashMap<>();
+		for (DecoratorQueue queue : decoratorQueues.values()) {
+			String id = queue.decorator.getId();
+			ids.add(id);
+			queueDepths.put(id, Integer.valueOf(queue.elements.size()));
+		}
+		List<DecorationStatistics.DecoratorStatistics> decorators = new ArrayList<>(ids.size());
+		for (String id : ids) {
+			long[] times = decoratorTimes.get(id);
+			Integer depth = queueDepths.get(id);
+			decorators.add(new DecorationStatistics.DecoratorStatistics(id, depth == null ? 0 : depth.intValue(),
+					times == null ? 0 : times[0], times == null ? 0 : times[1], times == null ? 0 : times[2]));
+		}
+		return new DecorationStatistics(awaitingDecoration.size(), inProgress.size(),
+				decorators.toArray(new DecorationStatistics.DecoratorStatistics[decorators.size()]), resultCache);
 	}
 
 	/**
@@ -517,8 +877,10 @@ public class DecorationScheduler {
                 // Other decoration requests may have occurred due to
                 // updates or we may have timed out updating listeners.
                 // Only clear the results if there are none pending.
-                if (awaitingDecoration.isEmpty()) {
-                    resultCache.clear();
+                synchronized (DecorationScheduler.this) {
+                    if (awaitingDecoration.isEmpty() && inProgress.isEmpty()) {
+                        resultCache.clear();
+                    }
                 }
             }
 
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.decorators;
+
+/**
+ * A snapshot of the state of the {@link DecorationScheduler}: the depth of its
+ * queues, the time spent in each lightweight decorator and the use of the
+ * result cache.
+ *
+ * @since 3.112
+ */
+public final class DecorationStatistics {
+
+	/**
+	 * The statistics of a single lightweight decorator.
+	 */
+	public static final class DecoratorStatistics {
+
+		private final String decoratorId;
+
+		private final int queueDepth;
+
+		private final long count;
+
+		private final long totalNanos;
+
+		private final long maxNanos;
+
+		DecoratorStatistics(String decoratorId, int queueDepth, long count, long totalNanos, long maxNanos) {
+			this.decoratorId = decoratorId;
+			this.queueDepth = queueDepth;
+			this.count = count;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+		}
+
+		/**
+		 * @return the id of the decorator
+		 */
+		public String getDecoratorId() {
+			return decoratorId;
+		}
+
+		/**
+		 * @return the number of elements waiting for the decorator
+		 */
+		public int getQueueDepth() {
+			return queueDepth;
+		}
+
+		/**
+		 * @return the number of elements decorated by the decorator
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the total time spent decorating, in nanoseconds
+		 */
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		/**
+		 * @return the average time spent decorating an element, in
+		 *         nanoseconds
+		 */
+		public long getAverageNanos() {
+			return count == 0 ? 0 : totalNanos / count;
+		}
+
+		/**
+		 * @return the longest time spent decorating an element, in
+		 *         nanoseconds
+		 */
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		@Override
+		public String toString() {
+			return decoratorId + ": queued " + queueDepth + ", decorated " + count + ", avg " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ getAverageNanos() / 1000 + "us, max " + maxNanos / 1000 + "us"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private final int queueDepth;
+
+	private final int inProgressCount;
+
+	private final DecoratorStatistics[] decorators;
+
+	private final int cacheSize;
+
+	private final long cacheWeight;
+
+	private final long cacheHits;
+
+	private final long cacheMisses;
+
+	private final long cacheEvictions;
+
+	DecorationStatistics(int queueDepth, int inProgressCount, DecoratorStatistics[] decorators,
+			DecorationResultCache cache) {
+		this.queueDepth = queueDepth;
+		this.inProgressCount = inProgressCount;
+		this.decorators = decorators;
+		synchronized (cache) {
+			this.cacheSize = cache.size();
+			this.cacheWeight = cache.getWeight();
+			this.cacheHits = cache.getHitCount();
+			this.cacheMisses = cache.getMissCount();
+			this.cacheEvictions = cache.getEvictionCount();
+		}
+	}
+
+	/**
+	 * @return the number of elements queued for decoration that have not been
+	 *         handed to the decorators yet
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	/**
+	 * @return the number of elements being decorated
+	 */
+	public int getInProgressCount() {
+		return inProgressCount;
+	}
+
+	/**
+	 * @return the statistics of the lightweight decorators that have been
+	 *         applied, in no particular order
+	 */
+	public DecoratorStatistics[] getDecoratorStatistics() {
+		return decorators.clone();
+	}
+
+	/**
+	 * @return the number of cached decoration results
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * @return the total weight of the cached decoration results
+	 */
+	public long getCacheWeight() {
+		return cacheWeight;
+	}
+
+	/**
+	 * @return the number of decoration requests answered from the cache
+	 */
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	/**
+	 * @return the number of decoration requests not answered from the cache
+	 */
+	public long getCacheMisses() {
+		return cacheMisses;
+	}
+
+	/**
+	 * @return the number of results evicted from the cache
+	 */
+	public long getCacheEvictions() {
+		return cacheEvictions;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		result.append("queued ").append(queueDepth); //$NON-NLS-1$
+		result.append(", in progress ").append(inProgressCount); //$NON-NLS-1$
+		result.append(", cache size ").append(cacheSize); //$NON-NLS-1$
+		result.append(", weight ").append(cacheWeight); //$NON-NLS-1$
+		result.append(", hits ").append(cacheHits); //$NON-NLS-1$
+		result.append(", misses ").append(cacheMisses); //$NON-NLS-1$
+		result.append(", evictions ").append(cacheEvictions); //$NON-NLS-1$
+		for (DecoratorStatistics decorator : decorators) {
+			result.append('\n').append(decorator);
+		}
+		return result.toString();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1025,6 +1025,17 @@ public class DecoratorManager implements ILabelProviderListener,
 		return lightweightManager;
 	}
 
+	/**
+	 * Return the statistics of the background decoration: the depth of the
+	 * queues, the time spent in each lightweight decorator and the use of the
+	 * result cache.
+	 *
+	 * @return DecorationStatistics
+	 */
+	public DecorationStatistics getDecorationStatistics() {
+		return scheduler.getStatistics();
+	}
+
 	/**
 	 * @see org.eclipse.ui.IDecoratorManager#update(java.lang.String)
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,11 +10,14 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.decorators;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.jface.viewers.IBaseLabelProvider;
+import org.eclipse.jface.viewers.IBatchLightweightLabelDecorator;
 import org.eclipse.jface.viewers.IDecoration;
 import org.eclipse.jface.viewers.ILightweightLabelDecorator;
 import org.eclipse.ui.internal.ActionExpression;
@@ -263,6 +266,72 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements
 
 	}
 
+	/**
+	 * Decorate the elements using the decorations to store the results. The
+	 * decoration of <code>elements[i]</code> is <code>decorations[i]</code>.
+	 * If the decorator is not an {@link IBatchLightweightLabelDecorator} the
+	 * elements are decorated one at a time.
+	 *
+	 * @param elements
+	 * @param decorations
+	 */
+	public void decorate(Object[] elements, IDecoration[] decorations) {
+		try {
+			// Internal decorator might be null so be prepared
+			ILightweightLabelDecorator currentDecorator = internalGetDecorator();
+			if (currentDecorator == null) {
+				return;
+			}
+
+			if (!(currentDecorator instanceof IBatchLightweightLabelDecorator)) {
+				for (int i = 0; i < elements.length; i++) {
+					decorate(elements[i], decorations[i]);
+				}
+				return;
+			}
+
+			List<Object> targets = new ArrayList<>(elements.length);
+			List<IDecoration> targetDecorations = new ArrayList<>(elements.length);
+			String[] classes = isAdaptable() ? getObjectClasses() : null;
+			for (int i = 0; i < elements.length; i++) {
+				if (classes != null) {
+					for (String className : classes) {
+						Object adapted = LegacyResourceSupport.getAdapter(elements[i], className);
+						if (adapted != null) {
+							targets.add(adapted);
+							targetDecorations.add(decorations[i]);
+						}
+					}
+				} else if (elements[i] != null) {
+					targets.add(elements[i]);
+					targetDecorations.add(decorations[i]);
+				}
+			}
+			if (!targets.isEmpty()) {
+				((IBatchLightweightLabelDecorator) currentDecorator).decorate(targets.toArray(),
+						targetDecorations.toArray(new IDecoration[targetDecorations.size()]));
+			}
+		} catch (CoreException exception) {
+			handleCoreException(exception);
+		}
+	}
+
+	/**
+	 * Return whether the decorator decorates several elements at once. This
+	 * creates the decorator if it does not exist yet, so it should only be
+	 * called before the decorator is applied.
+	 *
+	 * @return boolean
+	 */
+	boolean isBatchDecorator() {
+		try {
+			return internalGetDecorator() instanceof IBatchLightweightLabelDecorator;
+		} catch (CoreException exception) {
+			handleCoreException(exception);
+			return false;
+		}
+	}
+
 	/**
 	 * Returns the lightweight decorator, or <code>null</code> if not enabled.
 	 *
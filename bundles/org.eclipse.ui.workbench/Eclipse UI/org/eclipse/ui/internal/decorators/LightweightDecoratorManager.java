@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.dynamichelpers.IExtensionTracker;
 import org.eclipse.osgi.util.NLS;
+import org.eclipse.ui.internal.IObjectContributor;
 import org.eclipse.ui.internal.ObjectContributorManager;
 import org.eclipse.ui.internal.WorkbenchMessages;
 import org.eclipse.ui.internal.WorkbenchPlugin;
@@ -106,6 +107,13 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 			clearReferences();
 		}
 
+		/**
+		 * @return the definition being applied, or <code>null</code>
+		 */
+		LightweightDecoratorDefinition getDefinition() {
+			return data.decorator;
+		}
+
 		/**
 		 * Clear all of the references in the receiver.
 		 *
@@ -116,6 +124,34 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		}
 	}
 
+	/**
+	 * The runnable used to apply a decorator to several elements at once. An
+	 * error is handled as in {@link LightweightRunnable}.
+	 */
+	private static class BatchLightweightRunnable extends LightweightRunnable {
+
+		private final Object[] elements;
+
+		private final DecorationBuilder[] builders;
+
+		BatchLightweightRunnable(Object[] elements, DecorationBuilder[] builders,
+				LightweightDecoratorDefinition definition) {
+			this.elements = elements;
+			this.builders = builders;
+			// Keep the definition for the error handling
+			setValues(null, null, definition);
+		}
+
+		@Override
+		public void run() throws Exception {
+			LightweightDecoratorDefinition decorator = getDefinition();
+			if (decorator != null) {
+				decorator.decorate(elements, builders);
+			}
+			clearReferences();
+		}
+	}
+
 	private LightweightRunnable runnable = new LightweightRunnable();
 
 	// The lightweight definitions read from the registry
@@ -123,6 +159,12 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 
 	private static final LightweightDecoratorDefinition[] EMPTY_LIGHTWEIGHT_DEF = new LightweightDecoratorDefinition[0];
 
+	/**
+	 * Guards the contributors and their lookup caches, which are used by the
+	 * decoration workers and the UI thread at the same time.
+	 */
+	private final Object contributorLock = new Object();
+
 	LightweightDecoratorManager(LightweightDecoratorDefinition[] definitions) {
 		super();
 		lightweightDefinitions = definitions;
@@ -316,6 +358,48 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		return null;
 	}
 
+	@Override
+	protected List getContributors(List elements) {
+		synchronized (contributorLock) {
+			return super.getContributors(elements);
+		}
+	}
+
+	@Override
+	public void registerContributor(IObjectContributor contributor, String targetType) {
+		synchronized (contributorLock) {
+			super.registerContributor(contributor, targetType);
+		}
+	}
+
+	@Override
+	public void unregisterContributor(IObjectContributor contributor, String targetType) {
+		synchronized (contributorLock) {
+			super.unregisterContributor(contributor, targetType);
+		}
+	}
+
+	@Override
+	public void unregisterContributors(String targetType) {
+		synchronized (contributorLock) {
+			super.unregisterContributors(targetType);
+		}
+	}
+
+	@Override
+	public void unregisterAllContributors() {
+		synchronized (contributorLock) {
+			super.unregisterAllContributors();
+		}
+	}
+
+	@Override
+	public void flushLookup() {
+		synchronized (contributorLock) {
+			super.flushLookup();
+		}
+	}
+
 	/**
 	 * Get the lightweight registered for elements of this type.
 	 */
@@ -377,6 +461,44 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		SafeRunner.run(runnable);
 	}
 
+	/**
+	 * Apply a single decorator to the element in a SafeRunnable. Unlike
+	 * {@link #getDecorations(Object, DecorationBuilder)} this may be called
+	 * from several threads at once.
+	 *
+	 * @param element
+	 *            The Object to be decorated
+	 * @param decoration
+	 *            The object building decorations.
+	 * @param decorator
+	 *            The decorator being applied.
+	 */
+	void applyDecorator(Object element, DecorationBuilder decoration, LightweightDecoratorDefinition decorator) {
+		decoration.setCurrentDefinition(decorator);
+		LightweightRunnable decoratorRunnable = new LightweightRunnable();
+		decoratorRunnable.setValues(element, decoration, decorator);
+		SafeRunner.run(decoratorRunnable);
+	}
+
+	/**
+	 * Apply a single decorator to several elements in one SafeRunnable, see
+	 * {@link LightweightDecoratorDefinition#decorate(Object[], org.eclipse.jface.viewers.IDecoration[])}.
+	 * This may be called from several threads at once.
+	 *
+	 * @param elements
+	 *            The Objects to be decorated
+	 * @param decorations
+	 *            The objects building decorations, one per element.
+	 * @param decorator
+	 *            The decorator being applied.
+	 */
+	void applyDecorator(Object[] elements, DecorationBuilder[] decorations, LightweightDecoratorDefinition decorator) {
+		for (DecorationBuilder decoration : decorations) {
+			decoration.setCurrentDefinition(decorator);
+		}
+		SafeRunner.run(new BatchLightweightRunnable(elements, decorations, decorator));
+	}
+
 
 	/**
 	 * Method for use by test cases
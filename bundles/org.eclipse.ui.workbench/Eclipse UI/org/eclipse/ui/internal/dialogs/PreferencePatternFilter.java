@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -43,6 +43,7 @@ public class PreferencePatternFilter extends PatternFilter {
 	 */
 	public PreferencePatternFilter() {
 		super();
+		setMatchInBackground(true);
 	}
 
 	/*
@@ -110,4 +111,18 @@ public class PreferencePatternFilter extends PatternFilter {
 		return false;
 	}
 
+	@Override
+	protected String[] getMatchTexts(Viewer viewer, Object element) {
+		if (WorkbenchActivityHelper.restrictUseOf(element)) {
+			// hidden whatever its children
+			return null;
+		}
+		IPreferenceNode node = (IPreferenceNode) element;
+		String[] keywords = getKeywords(node);
+		String[] texts = new String[keywords.length + 1];
+		texts[0] = node.getLabelText();
+		System.arraycopy(keywords, 0, texts, 1, keywords.length);
+		return texts;
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,13 @@ import org.eclipse.ui.dialogs.PatternFilter;
  */
 public class ViewPatternFilter extends PatternFilter {
 
+	/**
+	 * Create a new instance of a ViewPatternFilter
+	 */
+	public ViewPatternFilter() {
+		super();
+		setMatchInBackground(true);
+	}
 
 	@Override
 	public boolean isElementSelectable(Object element) {
@@ -48,4 +55,14 @@ public class ViewPatternFilter extends PatternFilter {
 
 		return false;
 	}
+
+	@Override
+	protected String[] getMatchTexts(Viewer viewer, Object element) {
+		if (element instanceof MPartDescriptor) {
+			MPartDescriptor desc = (MPartDescriptor) element;
+			String text = LocalizationHelper.getLocalized(desc.getLabel(), desc);
+			return text == null ? new String[0] : new String[] { text };
+		}
+		return new String[0];
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2015 IBM Corporation and others.
+ * Copyright (c) 2010, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 
 package org.eclipse.ui.internal.handlers;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import javax.inject.Named;
@@ -33,9 +34,14 @@ import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.annotations.CanExecute;
 import org.eclipse.e4.core.di.annotations.Execute;
 import org.eclipse.e4.core.di.annotations.Optional;
+import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.internal.workbench.Activator;
 import org.eclipse.e4.ui.internal.workbench.Policy;
 import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.ui.menu.MHandledItem;
+import org.eclipse.e4.ui.workbench.Selector;
+import org.eclipse.e4.ui.workbench.UIEvents;
+import org.eclipse.e4.ui.workbench.renderers.swt.ToolBarManagerRenderer;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.commands.IElementUpdater;
@@ -63,6 +69,18 @@ public class E4HandlerProxy implements IHandler2, IHandlerListener, IElementUpda
 	@CanExecute
 	public boolean canExecute(IEclipseContext context, @Optional IEvaluationContext staticContext,
 			MApplication application) {
+		// A legacy handler may compute its enablement from state that is not a
+		// context variable and never report the change. Reading the variables
+		// that the tool bars used to refresh all their items on keeps its tool
+		// items updated when one of them changes.
+		Object updateVariables = context.get(ToolBarManagerRenderer.UPDATE_VARS);
+		if (updateVariables instanceof Collection<?>) {
+			for (Object variable : (Collection<?>) updateVariables) {
+				if (variable instanceof String) {
+					context.get((String) variable);
+				}
+			}
+		}
 		if (handler instanceof IHandler2) {
 			Object ctx = staticContext;
 			if (ctx == null) {
@@ -111,6 +129,18 @@ public class E4HandlerProxy implements IHandler2, IHandlerListener, IElementUpda
 					.getContext();
 			if (HandlerServiceImpl.lookUpHandler(appContext, command.getId()) == this) {
 				((HandlerServiceHandler) handler).fireHandlerChanged(handlerEvent);
+				if (handlerEvent.isEnabledChanged()) {
+					// The tool items only track the context variables their
+					// enablement depends on, not the state of the handler
+					IEventBroker eventBroker = appContext.get(IEventBroker.class);
+					if (eventBroker != null) {
+						String commandId = command.getId();
+						eventBroker.post(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC,
+								(Selector) element -> element instanceof MHandledItem
+										&& ((MHandledItem) element).getCommand() != null
+										&& commandId.equals(((MHandledItem) element).getCommand().getElementId()));
+					}
+				}
 			}
 		}
 	}
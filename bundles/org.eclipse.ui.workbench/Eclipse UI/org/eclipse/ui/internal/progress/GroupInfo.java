@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.ui.internal.progress;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.DoubleAdder;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.osgi.util.NLS;
@@ -28,7 +29,8 @@ class GroupInfo extends JobTreeElement implements IProgressMonitor {
 	private String taskName = ProgressMessages.SubTaskInfo_UndefinedTaskName;
 	boolean isActive;
 	double total = -1;
-	double currentWork;
+	// Work reported by the jobs of the group, added without locking
+	private final DoubleAdder currentWork = new DoubleAdder();
 
 	public GroupInfo() {
 		super();
@@ -65,7 +67,7 @@ class GroupInfo extends JobTreeElement implements IProgressMonitor {
 	 * @return int
 	 */
 	int getPercentDone() {
-		return (int) (currentWork * 100 / total);
+		return (int) (currentWork.sum() * 100 / total);
 	}
 
 	@Override
@@ -112,9 +114,7 @@ class GroupInfo extends JobTreeElement implements IProgressMonitor {
 
 	@Override
 	public void internalWorked(double work) {
-		synchronized (lock) {
-			currentWork += work;
-		}
+		currentWork.add(work);
 	}
 
 	@Override
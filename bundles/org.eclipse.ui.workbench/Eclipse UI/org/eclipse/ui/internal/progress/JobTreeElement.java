@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.progress;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.swt.graphics.Image;
 
@@ -17,6 +18,33 @@ import org.eclipse.swt.graphics.Image;
  * The JobTreeElement is the abstract superclass of items displayed in the tree.
  */
 public abstract class JobTreeElement implements Comparable<JobTreeElement> {
+	private static final AtomicIntegerFieldUpdater<JobTreeElement> REFRESH_PENDING = AtomicIntegerFieldUpdater
+			.newUpdater(JobTreeElement.class, "refreshPending"); //$NON-NLS-1$
+
+	/**
+	 * 1 while the element is queued for a refresh in the
+	 * {@link ProgressManager}, 0 otherwise.
+	 */
+	private volatile int refreshPending;
+
+	/**
+	 * Marks the receiver as queued for a refresh. Does not block.
+	 *
+	 * @return <code>true</code> if the receiver was not queued yet and has to
+	 *         be added to the queue by the caller
+	 */
+	boolean markRefreshPending() {
+		return refreshPending == 0 && REFRESH_PENDING.compareAndSet(this, 0, 1);
+	}
+
+	/**
+	 * Clears the queued for refresh mark. Called once the receiver has been
+	 * taken from the queue, later changes queue it again.
+	 */
+	void clearRefreshPending() {
+		refreshPending = 0;
+	}
+
 	/**
 	 * Returns the parent of this object.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2016 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -27,11 +28,14 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -144,21 +148,25 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 	private final INotificationListener notificationListener;
 
 	/**
-	 * Lock object for synchronizing updates of {@code pendingJobUpdates},
-	 * {@code pendingGroupUpdates}, {@code pendingJobRemoval},
-	 * {@code pendingGroupRemoval} and {@code pendingJobAddition}.
+	 * Lock object for synchronizing updates of {@code pendingJobRemoval},
+	 * {@code pendingGroupRemoval} and {@code pendingJobAddition}, and the
+	 * draining of {@code pendingJobUpdates} and {@code pendingGroupUpdates}.
 	 */
 	private final Object pendingUpdatesMutex = new Object();
 
 	/**
-	 * Modification guarded by {@link #pendingUpdatesMutex}.
+	 * Jobs whose progress changed since the last notification. A job is queued
+	 * at most once, see {@link JobTreeElement#markRefreshPending()}, so the
+	 * threads reporting progress never block and the notification only visits
+	 * the jobs that changed.
 	 */
-	private Map<JobInfo, Set<IJobProgressManagerListener>> pendingJobUpdates = new LinkedHashMap<>();
+	private final Queue<JobInfo> pendingJobUpdates = new ConcurrentLinkedQueue<>();
 
 	/**
-	 * Modification guarded by {@link #pendingUpdatesMutex}.
+	 * Groups whose progress changed since the last notification, queued like
+	 * {@link #pendingJobUpdates}.
 	 */
-	private Set<GroupInfo> pendingGroupUpdates = new LinkedHashSet<>();
+	private final Queue<GroupInfo> pendingGroupUpdates = new ConcurrentLinkedQueue<>();
 
 	/**
 	 * Modification guarded by {@link #pendingUpdatesMutex}.
@@ -353,14 +361,23 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 	}
 
 	/* Visible for testing */ public void notifyListeners() {
-		Set<GroupInfo> localPendingGroupUpdates, localPendingGroupRemoval;
-		Map<JobInfo, Set<IJobProgressManagerListener>> localPendingJobUpdates, localPendingJobAddition,
-				localPendingJobRemoval;
+		Set<GroupInfo> localPendingGroupUpdates = new LinkedHashSet<>();
+		Set<GroupInfo> localPendingGroupRemoval;
+		List<JobInfo> localPendingJobUpdates = new ArrayList<>();
+		Map<JobInfo, Set<IJobProgressManagerListener>> localPendingJobAddition, localPendingJobRemoval;
 		synchronized (pendingUpdatesMutex) {
-			localPendingJobUpdates = pendingJobUpdates;
-			pendingJobUpdates = new LinkedHashMap<>();
-			localPendingGroupUpdates = pendingGroupUpdates;
-			pendingGroupUpdates = new LinkedHashSet<>();
+			// Drain the updates together with the additions and removals, so
+			// that they are not notified before the addition of their job
+			JobInfo job;
+			while ((job = pendingJobUpdates.poll()) != null) {
+				job.clearRefreshPending();
+				localPendingJobUpdates.add(job);
+			}
+			GroupInfo group;
+			while ((group = pendingGroupUpdates.poll()) != null) {
+				group.clearRefreshPending();
+				localPendingGroupUpdates.add(group);
+			}
 			localPendingJobRemoval = pendingJobRemoval;
 			pendingJobRemoval = new LinkedHashMap<>();
 			localPendingGroupRemoval = pendingGroupRemoval;
@@ -373,11 +390,14 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 
 		// Adds all non null JobInfo#getGroupInfo to the list of groups to
 		// be refreshed
-		localPendingJobUpdates.entrySet().stream().map(e -> e.getKey().getGroupInfo()).filter(Objects::nonNull)
+		localPendingJobUpdates.stream().map(JobInfo::getGroupInfo).filter(Objects::nonNull)
 				.forEach(localPendingGroupUpdates::add);
 
-		localPendingJobUpdates.entrySet()
-				.forEach(e -> e.getValue().forEach(listener -> listener.refreshJobInfo(e.getKey())));
+		localPendingJobUpdates.forEach(info -> listeners.forEach(listener -> {
+			if (!isCurrentDisplaying(info.getJob(), listener.showsDebug())) {
+				listener.refreshJobInfo(info);
+			}
+		}));
 
 		// refresh groups
 		localPendingGroupUpdates.forEach(groupInfo -> listeners.forEach(listener -> listener.refreshGroup(groupInfo)));
@@ -634,10 +654,10 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 	 * @param info
 	 */
 	public void refreshJobInfo(JobInfo info) {
-		synchronized (pendingUpdatesMutex) {
-			rememberListenersForJob(info, pendingJobUpdates);
+		if (info.markRefreshPending()) {
+			pendingJobUpdates.add(info);
+			uiRefreshThrottler.throttledExec();
 		}
-		uiRefreshThrottler.throttledExec();
 	}
 
 	/**
@@ -647,10 +667,10 @@ public class ProgressManager extends ProgressProvider implements IProgressServic
 	 * @param info
 	 */
 	public void refreshGroup(GroupInfo info) {
-		synchronized (pendingUpdatesMutex) {
+		if (info.markRefreshPending()) {
 			pendingGroupUpdates.add(info);
+			uiRefreshThrottler.throttledExec();
 		}
-		uiRefreshThrottler.throttledExec();
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -104,6 +104,9 @@ public abstract class QuickAccessContents {
 	private boolean showAllMatches = false;
 	protected boolean resized = false;
 	private TriggerSequence keySequence;
+	private QuickAccessMatcher matcher;
+	private String lastRefreshFilter;
+	private boolean matchesPending;
 
 	public QuickAccessContents(QuickAccessProvider[] providers) {
 		this.providers = providers;
@@ -128,6 +131,7 @@ public abstract class QuickAccessContents {
 	 */
 	public void refresh(String filter) {
 		if (table != null) {
+			lastRefreshFilter = filter;
 			boolean filterTextEmpty = filter.length() == 0;
 
 			// extra entry added when the user activates help search
@@ -148,6 +152,8 @@ public abstract class QuickAccessContents {
 				hideHintText();
 			} else if (filterTextEmpty) {
 				showHintText(QuickAccessMessages.QuickAccess_StartTypingToFindMatches, grayColor);
+			} else if (matchesPending) {
+				hideHintText();
 			} else {
 				showHintText(QuickAccessMessages.QuickAccessContents_NoMatchingResults, grayColor);
 			}
@@ -407,17 +413,18 @@ public abstract class QuickAccessContents {
 		}
 		boolean done;
 		String category = null;
+		// check for a category filter, like "Views: "
+		Matcher categoryMatcher = getCategoryPattern().matcher(filter);
+		if (categoryMatcher.matches()) {
+			category = categoryMatcher.group(1);
+			filter = category + " " + categoryMatcher.group(2); //$NON-NLS-1$
+		}
 		Set<String> prevPickIds = new HashSet<>();
+		matchesPending = false;
 		do {
 			// will be set to false if we find a provider with remaining
 			// elements
 			done = true;
-			// check for a category filter, like "Views: "
-			Matcher categoryMatcher = getCategoryPattern().matcher(filter);
-			if (categoryMatcher.matches()) {
-				category = categoryMatcher.group(1);
-				filter = category + " " + categoryMatcher.group(2); //$NON-NLS-1$
-			}
 			for (int i = 0; i < providers.length
 					&& (showAllMatches || countTotal < maxCount); i++) {
 				if (entries[i] == null) {
@@ -433,7 +440,23 @@ public abstract class QuickAccessContents {
 					continue;
 				}
 				if (filter.length() > 0 || provider.isAlwaysPresent() || showAllMatches) {
-					QuickAccessElement[] sortedElements = provider.getElementsSorted();
+					// the matches of the background providers are computed by
+					// the matcher, they are missing until published
+					List<QuickAccessEntry> matches = null;
+					QuickAccessElement[] sortedElements = null;
+					int size;
+					if (filter.length() > 0 && getMatcher().isBackground(i)) {
+						matches = getMatcher().getMatches(i, filter);
+						if (matches == null) {
+							matchesPending = true;
+							size = 0;
+						} else {
+							size = matches.size();
+						}
+					} else {
+						sortedElements = provider.getElementsSorted();
+						size = sortedElements.length;
+					}
 
 					// count previous picks and store ids
 					if (isPreviousPickProvider) {
@@ -443,9 +466,9 @@ public abstract class QuickAccessContents {
 
 					int j = indexPerProvider[i];
 					// loops on all the elements of a provider
-					while (j < sortedElements.length
+					while (j < size
 							&& (showAllMatches || (count < countPerProvider && countTotal < maxCount))) {
-						QuickAccessElement element = sortedElements[j];
+						QuickAccessElement element = matches != null ? matches.get(j).element : sortedElements[j];
 
 						// Skip element if already in contained amid previous picks
 						if (!isPreviousPickProvider && prevPickIds.contains(element.getId())) {
@@ -461,6 +484,8 @@ public abstract class QuickAccessContents {
 							} else {
 								entry = null;
 							}
+						} else if (matches != null) {
+							entry = matches.get(j);
 						} else {
 							QuickAccessEntry possibleMatch = element.match(filter, provider);
 							if (possibleMatch != null) {
@@ -483,7 +508,7 @@ public abstract class QuickAccessContents {
 
 					indexPerProvider[i] = j;
 
-					if (j < sortedElements.length) {
+					if (j < size) {
 						done = false;
 					}
 				}
@@ -557,7 +582,26 @@ public abstract class QuickAccessContents {
 		return true;
 	}
 
+	/**
+	 * Returns the matcher of the providers that are matched in the background,
+	 * creating it if needed. The table is refreshed whenever new matches of
+	 * the current filter are known.
+	 */
+	private QuickAccessMatcher getMatcher() {
+		if (matcher == null) {
+			matcher = new QuickAccessMatcher(providers, table.getDisplay(), () -> {
+				if (table != null && !table.isDisposed() && lastRefreshFilter != null) {
+					refresh(lastRefreshFilter);
+				}
+			});
+		}
+		return matcher;
+	}
+
 	private void doDispose() {
+		if (matcher != null) {
+			matcher.cancel();
+		}
 		if (textLayout != null && !textLayout.isDisposed()) {
 			textLayout.dispose();
 		}
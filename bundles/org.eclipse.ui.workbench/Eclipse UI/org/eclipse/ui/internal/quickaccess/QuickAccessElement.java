@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -88,9 +88,23 @@ public abstract class QuickAccessElement {
 	private static final String PAR_END = "\\)"; //$NON-NLS-1$
 	private static final String ONE_CHAR = ".?"; //$NON-NLS-1$
 
+	/**
+	 * A filter and the pattern compiled from it. Elements are matched in a
+	 * background job and in the UI thread, so the filter and its pattern are
+	 * replaced together.
+	 */
+	private static final class FilterPattern {
+		final String filter;
+		final Pattern pattern;
+
+		FilterPattern(String filter, Pattern pattern) {
+			this.filter = filter;
+			this.pattern = pattern;
+		}
+	}
+
 	// whitespaces filter and patterns
-	private String wsFilter;
-	private Pattern wsPattern;
+	private volatile FilterPattern wsPattern;
 
 	/**
 	 * Get the existing {@link Pattern} for the given filter, or create a new
@@ -100,19 +114,19 @@ public abstract class QuickAccessElement {
 	 * @return
 	 */
 	private Pattern getWhitespacesPattern(String filter) {
-		if (wsPattern == null || !filter.equals(wsFilter)) {
-			wsFilter = filter;
+		FilterPattern cached = wsPattern;
+		if (cached == null || !filter.equals(cached.filter)) {
 			String sFilter = filter.replaceFirst(WS_START, EMPTY_STR).replaceFirst(WS_END, EMPTY_STR)
 					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
 			sFilter = String.format(".*(%s).*", sFilter.replaceAll(ANY_WS, ").*(")); //$NON-NLS-1$//$NON-NLS-2$
-			wsPattern = safeCompile(sFilter);
+			cached = new FilterPattern(filter, safeCompile(sFilter));
+			wsPattern = cached;
 		}
-		return wsPattern;
+		return cached.pattern;
 	}
 
 	// wildcard filter and patterns
-	private String wcFilter;
-	private Pattern wcPattern;
+	private volatile FilterPattern wcPattern;
 
 	/**
 	 * Get the existing {@link Pattern} for the given filter, or create a new
@@ -122,8 +136,8 @@ public abstract class QuickAccessElement {
 	 * @return
 	 */
 	private Pattern getWildcardsPattern(String filter) {
-		if (wcPattern == null || !filter.equals(wcFilter)) {
-			wcFilter = filter;
+		FilterPattern cached = wcPattern;
+		if (cached == null || !filter.equals(cached.filter)) {
 			String sFilter = filter.replaceFirst(WS_START, EMPTY_STR).replaceFirst(WS_END, EMPTY_STR)
 					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
 			// replace '*' and '?' with their matchers ").*(" and ").?("
@@ -138,9 +152,10 @@ public abstract class QuickAccessElement {
 			}
 			sFilter = String.format(".*(%s).*", sb.toString()); //$NON-NLS-1$
 			//
-			wcPattern = safeCompile(sFilter);
+			cached = new FilterPattern(filter, safeCompile(sFilter));
+			wcPattern = cached;
 		}
-		return wcPattern;
+		return cached.pattern;
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,7 +31,7 @@ import org.eclipse.ui.internal.IWorkbenchGraphicConstants;
 import org.eclipse.ui.internal.WorkbenchImages;
 import org.eclipse.ui.internal.WorkbenchPlugin;
 
-class QuickAccessEntry {
+public class QuickAccessEntry {
 	boolean firstInCategory;
 	boolean lastInCategory;
 	QuickAccessElement element;
@@ -267,6 +267,13 @@ class QuickAccessEntry {
 		event.detail &= ~SWT.FOREGROUND;
 	}
 
+	/**
+	 * @return the element this entry represents
+	 */
+	public QuickAccessElement getElement() {
+		return element;
+	}
+
 	/**
 	 * Provides a rough indicator of how good of a match this entry was to its
 	 * filter. Lower values indicate better match quality. A value of
@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.quickaccess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Matches the elements of the quick access providers against a filter in a
+ * background job, so that typing in the quick access field does not wait for
+ * the elements of all providers to be matched.
+ * <p>
+ * The labels of the elements of each provider are indexed the first time the
+ * provider is matched. Filters made of plain characters only are then matched
+ * against the index, and only the elements containing the filter are matched
+ * with {@link QuickAccessElement#match(String, QuickAccessProvider)}. When the
+ * new filter extends the previous one, only the previous matches are searched.
+ * </p>
+ * <p>
+ * The matches of each provider are published in the UI thread as soon as they
+ * are known. Providers that require the UI thread are not matched here.
+ * </p>
+ */
+public class QuickAccessMatcher {
+
+	// Cancellation is checked every CANCEL_CHECK_MASK + 1 elements
+	private static final int CANCEL_CHECK_MASK = 0xff;
+
+	/**
+	 * A filter to be matched, with the matches published so far.
+	 */
+	private static final class Request {
+		final String filter;
+		final List<QuickAccessEntry>[] matches;
+
+		@SuppressWarnings("unchecked")
+		Request(String filter, int providerCount) {
+			this.filter = filter;
+			this.matches = new List[providerCount];
+		}
+	}
+
+	/**
+	 * The lowercase labels of the elements of a provider, and the matches of
+	 * the last filter. Only used by the job.
+	 */
+	private static final class ProviderIndex {
+		final QuickAccessElement[] elements;
+		final String[] sortLabels;
+		final String[] combinedSortLabels;
+		final String[] camelCases;
+		final String[] combinedCamelCases;
+
+		String lastFilter;
+		int[] lastMatches;
+
+		ProviderIndex(QuickAccessProvider provider, QuickAccessElement[] elements) {
+			this.elements = elements;
+			int length = elements.length;
+			sortLabels = new String[length];
+			combinedSortLabels = new String[length];
+			camelCases = new String[length];
+			combinedCamelCases = new String[length];
+			String providerName = provider.getName();
+			for (int i = 0; i < length; i++) {
+				QuickAccessElement element = elements[i];
+				String sortLabel = element.getSortLabel();
+				String label = element.getLabel();
+				sortLabels[i] = sortLabel.toLowerCase();
+				combinedSortLabels[i] = (providerName + " " + sortLabel).toLowerCase(); //$NON-NLS-1$
+				camelCases[i] = CamelUtil.getCamelCase(label);
+				combinedCamelCases[i] = CamelUtil.getCamelCase(providerName + " " + label); //$NON-NLS-1$
+			}
+		}
+
+		/**
+		 * Whether the element may match a plain filter. All the checks of
+		 * {@link QuickAccessElement#match(String, QuickAccessProvider)} look for
+		 * the filter in one of the indexed labels.
+		 */
+		boolean mayMatch(int i, String filter) {
+			return sortLabels[i].contains(filter) || combinedSortLabels[i].contains(filter)
+					|| camelCases[i].contains(filter) || combinedCamelCases[i].contains(filter);
+		}
+	}
+
+	private final QuickAccessProvider[] providers;
+	private final boolean[] background;
+	private final ProviderIndex[] indexes;
+	private final Display display;
+	private final Runnable listener;
+	private final Job job;
+
+	// Written in the UI thread, read by the job to know whether it is outdated
+	private volatile Request request;
+
+	/**
+	 * @param providers
+	 *            the providers of the quick access contents
+	 * @param display
+	 *            the display of the quick access contents
+	 * @param listener
+	 *            runs in the UI thread whenever matches of the current filter
+	 *            are published
+	 */
+	public QuickAccessMatcher(QuickAccessProvider[] providers, Display display, Runnable listener) {
+		this.providers = providers;
+		this.display = display;
+		this.listener = listener;
+		background = new boolean[providers.length];
+		for (int i = 0; i < providers.length; i++) {
+			background[i] = !providers[i].requiresUiAccess() && !(providers[i] instanceof PreviousPicksProvider);
+		}
+		indexes = new ProviderIndex[providers.length];
+		job = new Job("Match quick access elements") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				Request current = request;
+				if (current != null) {
+					matchAll(current, monitor);
+				}
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+	}
+
+	/**
+	 * Returns whether the provider at the given index is matched by this
+	 * matcher. The other providers are matched in the UI thread.
+	 *
+	 * @param providerIndex
+	 * @return whether the provider is matched in the background
+	 */
+	public boolean isBackground(int providerIndex) {
+		return background[providerIndex];
+	}
+
+	/**
+	 * Returns the matches of the provider for the filter, in the order of
+	 * {@link QuickAccessProvider#getElementsSorted()}. Schedules the matching
+	 * if the filter is not the one of the last call. Must be called in the UI
+	 * thread.
+	 *
+	 * @param providerIndex
+	 * @param filter
+	 *            a non empty filter
+	 * @return the matches, or <code>null</code> if they are not known yet
+	 */
+	public List<QuickAccessEntry> getMatches(int providerIndex, String filter) {
+		Request current = request;
+		if (current == null || !current.filter.equals(filter)) {
+			current = new Request(filter, providers.length);
+			request = current;
+			job.cancel();
+			job.schedule();
+		}
+		return current.matches[providerIndex];
+	}
+
+	/**
+	 * Stops matching. Must be called in the UI thread.
+	 */
+	public void cancel() {
+		request = null;
+		job.cancel();
+	}
+
+	private void matchAll(Request current, IProgressMonitor monitor) {
+		for (int i = 0; i < providers.length; i++) {
+			if (!background[i]) {
+				continue;
+			}
+			if (request != current || monitor.isCanceled()) {
+				return;
+			}
+			List<QuickAccessEntry> matches = match(i, current, monitor);
+			if (matches == null) {
+				return;
+			}
+			final int providerIndex = i;
+			if (display.isDisposed()) {
+				return;
+			}
+			display.asyncExec(() -> {
+				if (request == current) {
+					current.matches[providerIndex] = matches;
+					listener.run();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns the matches of a provider, or null if the request was replaced.
+	 */
+	private List<QuickAccessEntry> match(int providerIndex, Request current, IProgressMonitor monitor) {
+		QuickAccessProvider provider = providers[providerIndex];
+		QuickAccessElement[] elements = provider.getElementsSorted();
+		ProviderIndex index = indexes[providerIndex];
+		if (index == null || index.elements != elements) {
+			index = new ProviderIndex(provider, elements);
+			indexes[providerIndex] = index;
+		}
+
+		String filter = current.filter;
+		boolean plain = isPlain(filter);
+		int[] candidates = null;
+		if (plain && index.lastFilter != null && filter.startsWith(index.lastFilter)) {
+			// The matches of a plain filter contain the matches of any longer one
+			candidates = index.lastMatches;
+		}
+		int count = candidates == null ? elements.length : candidates.length;
+
+		List<QuickAccessEntry> matches = new ArrayList<>();
+		int[] matched = new int[Math.min(count, 16)];
+		int matchedCount = 0;
+		for (int k = 0; k < count; k++) {
+			if ((k & CANCEL_CHECK_MASK) == 0 && (request != current || monitor.isCanceled())) {
+				return null;
+			}
+			int i = candidates == null ? k : candidates[k];
+			if (plain && !index.mayMatch(i, filter)) {
+				continue;
+			}
+			QuickAccessEntry entry = elements[i].match(filter, provider);
+			if (entry != null) {
+				matches.add(entry);
+				if (matchedCount == matched.length) {
+					int[] grown = new int[matchedCount * 2 + 1];
+					System.arraycopy(matched, 0, grown, 0, matchedCount);
+					matched = grown;
+				}
+				matched[matchedCount++] = i;
+			}
+		}
+
+		if (plain) {
+			int[] lastMatches = new int[matchedCount];
+			System.arraycopy(matched, 0, lastMatches, 0, matchedCount);
+			index.lastFilter = filter;
+			index.lastMatches = lastMatches;
+		} else {
+			index.lastFilter = null;
+			index.lastMatches = null;
+		}
+		return matches.isEmpty() ? Collections.<QuickAccessEntry> emptyList() : matches;
+	}
+
+	/**
+	 * Returns whether the filter is only matched with
+	 * {@link String#contains(CharSequence)}: it has no whitespace, no wildcard
+	 * and no character with a meaning in a regular expression.
+	 */
+	static boolean isPlain(String filter) {
+		for (int i = 0; i < filter.length(); i++) {
+			char c = filter.charAt(i);
+			if (Character.isWhitespace(c) || "\\^$.|?*+()[]{}".indexOf(c) != -1) { //$NON-NLS-1$
+				return false;
+			}
+		}
+		return true;
+	}
+}
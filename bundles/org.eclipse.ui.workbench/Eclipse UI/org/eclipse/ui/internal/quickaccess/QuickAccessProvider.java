@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,7 +20,7 @@ import org.eclipse.jface.resource.ImageDescriptor;
  */
 public abstract class QuickAccessProvider {
 
-	private QuickAccessElement[] sortedElements;
+	private volatile QuickAccessElement[] sortedElements;
 
 	/**
 	 * Returns the unique ID of this provider.
@@ -51,11 +51,15 @@ public abstract class QuickAccessProvider {
 	public abstract QuickAccessElement[] getElements();
 
 	public QuickAccessElement[] getElementsSorted() {
-		if (sortedElements == null) {
-			sortedElements = getElements();
-			Arrays.sort(sortedElements, (e1, e2) -> e1.getSortLabel().compareTo(e2.getSortLabel()));
+		QuickAccessElement[] elements = sortedElements;
+		if (elements == null) {
+			// Only publish the elements once sorted, they are also read by
+			// the background matching
+			elements = getElements();
+			Arrays.sort(elements, (e1, e2) -> e1.getSortLabel().compareTo(e2.getSortLabel()));
+			sortedElements = elements;
 		}
-		return sortedElements;
+		return elements;
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -77,8 +77,10 @@ public final class EvaluationService implements IEvaluationService {
 				}
 			}
 			// This ties tool item enablement to variable changes that can
-			// effect the enablement.
-			getEventBroker().send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, UIEvents.ALL_ELEMENT_ID);
+			// effect the enablement. The tool items track the variables their
+			// enablement depends on, only those that read a changed variable
+			// are updated.
+			getEventBroker().send(UIEvents.REQUEST_STALE_ENABLEMENT_UPDATE_TOPIC, null);
 			return true;
 		}
 	};
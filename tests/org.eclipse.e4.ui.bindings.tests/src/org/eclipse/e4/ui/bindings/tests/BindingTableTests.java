@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 IBM Corporation and others.
+ * Copyright (c) 2013, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@
 package org.eclipse.e4.ui.bindings.tests;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
@@ -383,6 +384,30 @@ public class BindingTableTests {
 		assertEquals(about, it.next());
 	}
 
+	@Test
+	public void testManagerLookupAfterTableChange() throws Exception {
+		BindingTableManager manager = createManager();
+		ContextSet javaSet = createJavaSet(manager);
+		KeySequence ctrl8 = KeySequence.getInstance("CTRL+8");
+		KeySequence ctrl8A = KeySequence.getInstance("CTRL+8 A");
+		assertNull(manager.getPerfectMatch(javaSet, ctrl8A));
+		assertFalse(manager.isPartialMatch(javaSet, ctrl8));
+
+		Binding about = getTestBinding(ABOUT_ID);
+		Binding binding = new KeyBinding(ctrl8A, about.getParameterizedCommand(),
+				"org.eclipse.ui.defaultAcceleratorConfiguration", ID_WINDOW, null, null, null, Binding.SYSTEM);
+		BindingTable table = manager.getTable(ID_WINDOW);
+		table.addBinding(binding);
+		try {
+			assertEquals(binding, manager.getPerfectMatch(javaSet, ctrl8A));
+			assertTrue(manager.isPartialMatch(javaSet, ctrl8));
+		} finally {
+			table.removeBinding(binding);
+		}
+		assertNull(manager.getPerfectMatch(javaSet, ctrl8A));
+		assertFalse(manager.isPartialMatch(javaSet, ctrl8));
+	}
+
 	private BindingTable loadTable(String contextId) {
 		Context context = contextManager.getContext(contextId);
 		BindingTable table = new BindingTable(context);
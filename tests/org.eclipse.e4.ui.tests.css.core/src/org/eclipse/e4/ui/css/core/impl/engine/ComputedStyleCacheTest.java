@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.dom.DocumentCSSImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.ViewCSSImpl;
+import org.eclipse.e4.ui.tests.css.core.util.ParserTestUtil;
+import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.css.ViewCSS;
+
+public class ComputedStyleCacheTest {
+
+	private CSSEngine engine;
+	private DocumentCSSImpl documentCSS;
+	private ViewCSS viewCSS;
+	private ComputedStyleCache cache;
+
+	@Before
+	public void setUp() {
+		engine = ParserTestUtil.createEngine();
+		documentCSS = new DocumentCSSImpl();
+		viewCSS = new ViewCSSImpl(documentCSS);
+		cache = new ComputedStyleCache(documentCSS);
+		documentCSS.addStyleSheetChangeListener(cache);
+	}
+
+	@Test
+	public void testElementsWithSameSignatureShareStyle() throws Exception {
+		addStyleSheet("Shell Button { color: red; }\n" + "Button.primary { color: blue; }\n");
+
+		TestElement shell = new TestElement("Shell", engine);
+		TestElement button1 = new TestElement("Button", shell, engine);
+		TestElement button2 = new TestElement("Button", shell, engine);
+		TestElement primary = new TestElement("Button", shell, engine);
+		primary.setClass("primary");
+
+		CSSStyleDeclaration style1 = cache.getComputedStyle(viewCSS, button1, null);
+		CSSStyleDeclaration style2 = cache.getComputedStyle(viewCSS, button2, null);
+		assertNotNull(style1);
+		assertSame(style1, style2);
+		assertEquals("red", style1.getPropertyCSSValue("color").getCssText());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		CSSStyleDeclaration primaryStyle = cache.getComputedStyle(viewCSS, primary, null);
+		assertEquals("blue", primaryStyle.getPropertyCSSValue("color").getCssText());
+		assertEquals(2, cache.getMissCount());
+
+		// a button outside of the shell has a different signature
+		TestElement button3 = new TestElement("Button", engine);
+		assertNull(cache.getComputedStyle(viewCSS, button3, null));
+		assertNull(cache.getComputedStyle(viewCSS, new TestElement("Button", engine), null));
+		assertEquals(3, cache.getMissCount());
+		assertEquals(2, cache.getHitCount());
+	}
+
+	@Test
+	public void testReferencedAttributesArePartOfSignature() throws Exception {
+		addStyleSheet("Button[style~='SWT.CHECK'] { color: red; }\n");
+
+		TestElement check = new TestElement("Button", engine);
+		check.setAttribute("style", "SWT.CHECK");
+		TestElement push = new TestElement("Button", engine);
+		push.setAttribute("style", "SWT.PUSH");
+
+		assertNotNull(cache.getComputedStyle(viewCSS, check, null));
+		assertNull(cache.getComputedStyle(viewCSS, push, null));
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void testPseudoInstanceIsPartOfSignature() throws Exception {
+		addStyleSheet("Button { color: blue; }\n" + "Button:selected { color: red; }\n");
+
+		TestElement button = new TestElement("Button", engine);
+		button.addStaticPseudoInstance("selected");
+		CSSStyleDeclaration style = cache.getComputedStyle(viewCSS, button, null);
+		CSSStyleDeclaration selectedStyle = cache.getComputedStyle(viewCSS, button, "selected");
+		assertEquals("blue", style.getPropertyCSSValue("color").getCssText());
+		assertEquals("red", selectedStyle.getPropertyCSSValue("color").getCssText());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void testStyleSheetChangesClearCache() throws Exception {
+		addStyleSheet("Button { color: blue; }\n");
+		TestElement button = new TestElement("Button", engine);
+		cache.getComputedStyle(viewCSS, button, null);
+		assertEquals(1, cache.size());
+
+		addStyleSheet("Button { color: red; }\n");
+		assertEquals(0, cache.size());
+		CSSStyleDeclaration style = cache.getComputedStyle(viewCSS, button, null);
+		assertEquals("red", style.getPropertyCSSValue("color").getCssText());
+
+		documentCSS.removeAllStyleSheets();
+		assertEquals(0, cache.size());
+		assertNull(cache.getComputedStyle(viewCSS, button, null));
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void testSiblingSelectorsDisableCache() throws Exception {
+		addStyleSheet("Label + Button { color: red; }\n");
+		assertFalse(cache.isEnabled());
+
+		TestElement button = new TestElement("Button", engine);
+		cache.getComputedStyle(viewCSS, button, null);
+		cache.getComputedStyle(viewCSS, button, null);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+
+		documentCSS.removeAllStyleSheets();
+		assertTrue(cache.isEnabled());
+	}
+
+	@Test
+	public void testCapacity() throws Exception {
+		cache = new ComputedStyleCache(documentCSS, 2);
+		documentCSS.addStyleSheetChangeListener(cache);
+		addStyleSheet("Button { color: red; }\n");
+
+		cache.getComputedStyle(viewCSS, new TestElement("A", engine), null);
+		cache.getComputedStyle(viewCSS, new TestElement("B", engine), null);
+		cache.getComputedStyle(viewCSS, new TestElement("C", engine), null);
+		assertEquals(2, cache.size());
+		// "A" was the least recently used entry
+		cache.getComputedStyle(viewCSS, new TestElement("A", engine), null);
+		assertEquals(4, cache.getMissCount());
+	}
+
+	private void addStyleSheet(String css) throws IOException {
+		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(css);
+		documentCSS.addStyleSheet(styleSheet);
+	}
+}
@@ -116,6 +116,70 @@ public class ViewCSSTest {
 		assertEquals("color: blue;", buttonStyle.getCssText());
 	}
 
+	@Test
+	public void testIndexedMatchingOfClassAndId() throws Exception {
+		String css = ".primary { color: red; }\n" + "Button#ok { color: blue; }\n" + "Label.primary { font-weight: bold; }\n"
+				+ "Shell .secondary { color: green; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		final TestElement shell = new TestElement("Shell", engine);
+		final TestElement label = new TestElement("Label", shell, engine);
+		label.setClass("secondary primary");
+		CSSStyleDeclaration labelStyle = viewCSS.getComputedStyle(label, null);
+		assertNotNull(labelStyle);
+		assertEquals("green", labelStyle.getPropertyCSSValue("color").getCssText());
+		assertEquals("bold", labelStyle.getPropertyCSSValue("font-weight").getCssText());
+
+		final TestElement button = new TestElement("Button", shell, engine);
+		button.setClass("primary");
+		button.setId("ok");
+		CSSStyleDeclaration buttonStyle = viewCSS.getComputedStyle(button, null);
+		assertNotNull(buttonStyle);
+		assertEquals("blue", buttonStyle.getPropertyCSSValue("color").getCssText());
+
+		button.setId("cancel");
+		buttonStyle = viewCSS.getComputedStyle(button, null);
+		assertNotNull(buttonStyle);
+		assertEquals("red", buttonStyle.getPropertyCSSValue("color").getCssText());
+	}
+
+	@Test
+	public void testIndexedMatchingOfPseudoClass() throws Exception {
+		String css = "Button { color: black; }\n" + ":selected { color: red; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		final TestElement button = new TestElement("Button", engine);
+		button.addStaticPseudoInstance("selected");
+		CSSStyleDeclaration buttonStyle = viewCSS.getComputedStyle(button, null);
+		assertNotNull(buttonStyle);
+		assertEquals("black", buttonStyle.getPropertyCSSValue("color").getCssText());
+
+		buttonStyle = viewCSS.getComputedStyle(button, "selected");
+		assertNotNull(buttonStyle);
+		assertEquals("red", buttonStyle.getPropertyCSSValue("color").getCssText());
+	}
+
+	@Test
+	public void testIndexedMatchingFollowsStyleSheetChanges() throws Exception {
+		CSSStyleSheet styleSheet = ParserTestUtil.parseCss("Button { color: blue; }\n");
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(styleSheet);
+		ViewCSSImpl viewCSS = new ViewCSSImpl(docCss);
+
+		final TestElement button = new TestElement("Button", engine);
+		assertEquals("blue", viewCSS.getComputedStyle(button, null).getPropertyCSSValue("color").getCssText());
+
+		// a rule with the same specificity in a later stylesheet wins
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Button { color: red; }\n"));
+		assertEquals("red", viewCSS.getComputedStyle(button, null).getPropertyCSSValue("color").getCssText());
+
+		docCss.removeAllStyleSheets();
+		assertNull(viewCSS.getComputedStyle(button, null));
+
+		docCss.addStyleSheet(ParserTestUtil.parseCss("* { color: green; }\n"));
+		assertEquals("green", viewCSS.getComputedStyle(button, null).getPropertyCSSValue("color").getCssText());
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testRuleCaching() throws Exception {
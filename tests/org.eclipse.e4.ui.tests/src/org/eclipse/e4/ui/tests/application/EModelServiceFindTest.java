@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,7 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
@@ -44,6 +45,7 @@ import org.eclipse.e4.ui.model.application.ui.menu.MToolBarElement;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolControl;
 import org.eclipse.e4.ui.workbench.Selector;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.e4.ui.workbench.modeling.ElementMatcher;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -441,4 +443,67 @@ public class EModelServiceFindTest {
 		assertEquals(1, elements.size());
 		assertEquals(part, elements.get(0));
 	}
+
+	@Test
+	public void testFindElementsIndexed() {
+		MApplication application = createApplication();
+		// searches in the application of the context use its index
+		applicationContext.set(MApplication.class, application);
+		EModelService modelService = application.getContext().get(EModelService.class);
+
+		MWindow window = application.getChildren().get(0);
+		MPartStack sharedStack = modelService.createModelElement(MPartStack.class);
+		window.getSharedElements().add(sharedStack);
+		MPart sharedPart = modelService.createModelElement(MPart.class);
+		sharedPart.setElementId("sharedPart");
+		sharedStack.getChildren().add(sharedPart);
+		MPlaceholder placeholder = modelService.createModelElement(MPlaceholder.class);
+		placeholder.setElementId("sharedPart");
+		placeholder.setRef(sharedPart);
+		MPartStack stack = modelService.findElements(window, null, MPartStack.class, null).get(0);
+		stack.getChildren().add(0, placeholder);
+		assertFindElements(modelService, application, window);
+
+		MPart part = modelService.findElements(window, "twoValidIds", MPart.class, null).get(0);
+		part.setElementId("sharedPart");
+		part.getTags().add("oneValidTag");
+		assertFindElements(modelService, application, window);
+
+		part.getTags().remove("oneValidTag");
+		stack.getChildren().move(0, part);
+		assertFindElements(modelService, application, window);
+
+		placeholder.setRef(sharedStack);
+		sharedStack.getTags().add("twoValidTags");
+		assertFindElements(modelService, application, window);
+
+		stack.getChildren().remove(placeholder);
+		assertFindElements(modelService, application, window);
+		assertSame(part, modelService.find("sharedPart", window));
+		assertSame(sharedPart, modelService.find("sharedPart", sharedStack));
+	}
+
+	private void assertFindElements(EModelService modelService, MApplication application, MWindow window) {
+		for (MUIElement searchRoot : Arrays.<MUIElement> asList(application, window, window.getChildren().get(0))) {
+			for (String id : Arrays.asList("sharedPart", "twoValidIds", "singleValidId", "invalidId")) {
+				assertFindElements(modelService, searchRoot, id, null, null);
+				assertFindElements(modelService, searchRoot, id, MPart.class, null);
+			}
+			for (String tag : Arrays.asList("oneValidTag", "twoValidTags", "invalidTag")) {
+				assertFindElements(modelService, searchRoot, null, null, Arrays.asList(tag));
+			}
+			assertFindElements(modelService, searchRoot, null, MPart.class, null);
+			assertFindElements(modelService, searchRoot, null, MPartStack.class, null);
+			assertFindElements(modelService, searchRoot, null, MPlaceholder.class, null);
+		}
+	}
+
+	private <T> void assertFindElements(EModelService modelService, MUIElement searchRoot, String id,
+			Class<T> clazz, List<String> tags) {
+		final ElementMatcher matcher = new ElementMatcher(id, clazz, tags);
+		// a selector other than an element matcher walks the model
+		Selector selector = element -> matcher.select(element);
+		assertEquals(modelService.findElements(searchRoot, clazz, EModelService.ANYWHERE, selector),
+				modelService.findElements(searchRoot, id, clazz, tags));
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2017 IBM Corporation and others.
+ * Copyright (c) 2010, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,12 +13,15 @@
 package org.eclipse.e4.ui.tests.application;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import java.util.List;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.internal.workbench.E4BinaryResource;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
 import org.eclipse.e4.ui.internal.workbench.ResourceHandler;
@@ -62,10 +65,15 @@ public class ResourceHandlerTest extends HeadlessStartupTest {
 	}
 
 	private ResourceHandler createHandler(URI uri) {
+		return createHandler(uri, false, true);
+	}
+
+	private ResourceHandler createHandler(URI uri, boolean persistBinary, boolean clearPersistedState) {
 		IEclipseContext localContext = applicationContext.createChild();
 		localContext.set(E4Workbench.INSTANCE_LOCATION, getInstanceLocation());
 		localContext.set(IWorkbench.PERSIST_STATE, Boolean.TRUE);
-		localContext.set(IWorkbench.CLEAR_PERSISTED_STATE, Boolean.TRUE);
+		localContext.set(IWorkbench.CLEAR_PERSISTED_STATE, Boolean.valueOf(clearPersistedState));
+		localContext.set(IWorkbench.PERSIST_BINARY, Boolean.valueOf(persistBinary));
 
 		localContext.set(E4Workbench.INITIAL_WORKBENCH_MODEL_URI, uri);
 
@@ -163,6 +171,35 @@ public class ResourceHandlerTest extends HeadlessStartupTest {
 		assertNotNull(findByElementId(menu2.getChildren(), "fragment.contributedMenuItem.xpath"));
 	}
 
+	@Test
+	public void testBinaryModel() throws IOException {
+		URI uri = URI.createPlatformPluginURI("org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+		ResourceHandler handler = createHandler(uri, true, true);
+		Resource resource = handler.loadMostRecentModel();
+		assertTrue(resource instanceof E4BinaryResource);
+		MApplication application = (MApplication) resource.getContents().get(0);
+		MWindow window = application.getChildren().get(1);
+		String windowId = ((E4XMIResource) resource).getID((EObject) window);
+		handler.save();
+
+		handler = createHandler(uri, true, false);
+		resource = handler.loadMostRecentModel();
+		assertTrue(resource instanceof E4BinaryResource);
+		application = (MApplication) resource.getContents().get(0);
+		assertEquals(2, application.getChildren().size());
+		MWindow restoredWindow = application.getChildren().get(1);
+		assertEquals("fragment.contributedWindow", restoredWindow.getElementId());
+		assertEquals(windowId, ((E4XMIResource) resource).getID((EObject) restoredWindow));
+		assertEquals(window.getChildren().size(), restoredWindow.getChildren().size());
+
+		// the binary state is restored as XMI when the binary format is turned off
+		handler = createHandler(uri, false, false);
+		resource = handler.loadMostRecentModel();
+		assertFalse(resource instanceof E4BinaryResource);
+		application = (MApplication) resource.getContents().get(0);
+		assertEquals(windowId, ((E4XMIResource) resource).getID((EObject) application.getChildren().get(1)));
+	}
+
 	/**
 	 * @param children
 	 * @param id
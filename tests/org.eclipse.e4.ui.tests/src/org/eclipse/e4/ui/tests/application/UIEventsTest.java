@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,12 +11,14 @@
 
 package org.eclipse.e4.ui.tests.application;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
@@ -30,6 +32,7 @@ import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenuFactory;
 import org.eclipse.e4.ui.tests.model.test.MTestFactory;
 import org.eclipse.e4.ui.tests.model.test.MTestHarness;
+import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.e4.ui.workbench.UIEvents.ApplicationElement;
 import org.eclipse.e4.ui.workbench.UIEvents.Command;
 import org.eclipse.e4.ui.workbench.UIEvents.Context;
@@ -372,6 +375,81 @@ public class UIEventsTest extends HeadlessApplicationElementTest {
 		ensureNoCrossTalk(allTesters, tester);
 	}
 
+	@Test
+	public void testBatchedEvents() {
+		IEventBroker eventBroker = applicationContext.get(IEventBroker.class);
+		MTestHarness allData = MTestFactory.eINSTANCE.createTestHarness();
+		final UIEventPublisher ep = new UIEventPublisher(applicationContext);
+		((Notifier) allData).eAdapters().add(ep);
+
+		final List<Event> events = new ArrayList<>();
+		final List<Event> batches = new ArrayList<>();
+		EventHandler eventHandler = events::add;
+		EventHandler batchHandler = batches::add;
+		eventBroker.subscribe(ApplicationElement.TOPIC_TAGS, eventHandler);
+		eventBroker.subscribe(UIEvents.getBatchTopic(ApplicationElement.TOPIC_TAGS), batchHandler);
+		try {
+			ep.beginBatch();
+			allData.getTags().add("first");
+			ep.beginBatch();
+			allData.getTags().add("second");
+			ep.endBatch();
+			assertTrue("batch published before the outermost batch ended", batches.isEmpty());
+			ep.endBatch();
+			assertFalse(ep.isBatching());
+
+			assertTrue("batched change published on its model topic", events.isEmpty());
+			assertEquals(1, batches.size());
+			@SuppressWarnings("unchecked")
+			List<Map<String, Object>> batch = (List<Map<String, Object>>) batches.get(0)
+					.getProperty(EventTags.BATCH);
+			assertEquals(2, batch.size());
+			assertEquals("first", batch.get(0).get(EventTags.NEW_VALUE));
+			assertEquals("second", batch.get(1).get(EventTags.NEW_VALUE));
+
+			// changes outside a batch are only published on their model topic
+			allData.getTags().add("third");
+			assertEquals(1, events.size());
+			assertEquals("third", events.get(0).getProperty(EventTags.NEW_VALUE));
+			assertEquals(1, batches.size());
+		} finally {
+			eventBroker.unsubscribe(eventHandler);
+			eventBroker.unsubscribe(batchHandler);
+		}
+	}
+
+	@Test
+	public void testNoBatchWithoutSubscribers() {
+		IEventBroker eventBroker = applicationContext.get(IEventBroker.class);
+		MTestHarness allData = MTestFactory.eINSTANCE.createTestHarness();
+		final UIEventPublisher ep = new UIEventPublisher(applicationContext);
+		((Notifier) allData).eAdapters().add(ep);
+
+		final List<Event> events = new ArrayList<>();
+		final List<Event> batches = new ArrayList<>();
+		EventHandler eventHandler = events::add;
+		EventHandler batchHandler = batches::add;
+		eventBroker.subscribe(ApplicationElement.TOPIC_TAGS, eventHandler);
+		// subscribed to another batch topic only
+		eventBroker.subscribe(UIEvents.getBatchTopic(ApplicationElement.TOPIC_VARIABLES), batchHandler);
+		try {
+			ep.beginBatch();
+			try {
+				allData.getTags().add("first");
+			} finally {
+				ep.endBatch();
+			}
+			allData.getTags().add("second");
+
+			assertEquals(2, events.size());
+			assertEquals("first", events.get(0).getProperty(EventTags.NEW_VALUE));
+			assertTrue(batches.isEmpty());
+		} finally {
+			eventBroker.unsubscribe(eventHandler);
+			eventBroker.unsubscribe(batchHandler);
+		}
+	}
+
 	/**
 	 * Ensures that no events were picked up from topics other than the one we
 	 * expect to see changes in.
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.tests.workbench;
+
+import javax.inject.Named;
+import org.eclipse.e4.core.di.annotations.CanExecute;
+import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.core.di.annotations.Optional;
+
+/**
+ * Handler enabled by a context variable, counting how often its enablement is
+ * checked.
+ */
+public class EnablementTrackingHandler {
+	public static final String ENABLED_VARIABLE = "EnablementTrackingHandler.enabled";
+
+	public static int canExecuteCount;
+
+	@CanExecute
+	public boolean canExecute(@Optional @Named(ENABLED_VARIABLE) Boolean enabled) {
+		canExecuteCount++;
+		return Boolean.TRUE.equals(enabled);
+	}
+
+	@Execute
+	public void execute() {
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.internal.contexts.EclipseContext;
+import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
 import org.eclipse.e4.ui.internal.workbench.swt.PartRenderingEngine;
@@ -28,8 +30,10 @@ import org.eclipse.e4.ui.model.application.ui.menu.MDirectToolItem;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolItem;
 import org.eclipse.e4.ui.workbench.IWorkbench;
+import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.ToolItem;
 import org.junit.After;
@@ -283,4 +287,101 @@ public class MToolItemTest {
 		toolItem2.setSelected(true);
 		assertTrue(toolItemWidget2.getSelection());
 	}
+
+	@Test
+	public void testMToolItem_EnablementTracksContextVariables() {
+		MTrimmedWindow window = ems.createModelElement(MTrimmedWindow.class);
+		MTrimBar trimBar = ems.createModelElement(MTrimBar.class);
+		MToolBar toolBar = ems.createModelElement(MToolBar.class);
+		MDirectToolItem toolItem = ems.createModelElement(MDirectToolItem.class);
+		toolItem.setContributionURI(
+				"bundleclass://org.eclipse.e4.ui.tests/org.eclipse.e4.ui.tests.workbench.EnablementTrackingHandler");
+
+		window.getTrimBars().add(trimBar);
+		trimBar.getChildren().add(toolBar);
+		toolBar.getChildren().add(toolItem);
+
+		MApplication application = ems.createModelElement(MApplication.class);
+		application.getChildren().add(window);
+		application.setContext(appContext);
+		appContext.set(MApplication.class, application);
+
+		wb = new E4Workbench(window, appContext);
+		wb.createAndRunUI(window);
+		spinEventLoop();
+
+		ToolItem toolItemWidget = (ToolItem) toolItem.getWidget();
+		assertFalse(toolItemWidget.getEnabled());
+
+		IEventBroker eventBroker = appContext.get(IEventBroker.class);
+		int count = EnablementTrackingHandler.canExecuteCount;
+
+		// a variable the handler does not read does not cause a check
+		appContext.set("EnablementTrackingHandler.unrelated", Boolean.TRUE);
+		eventBroker.send(UIEvents.REQUEST_STALE_ENABLEMENT_UPDATE_TOPIC, null);
+		spinEventLoop();
+		assertEquals(count, EnablementTrackingHandler.canExecuteCount);
+
+		// the variable the handler reads does
+		appContext.set(EnablementTrackingHandler.ENABLED_VARIABLE, Boolean.TRUE);
+		eventBroker.send(UIEvents.REQUEST_STALE_ENABLEMENT_UPDATE_TOPIC, null);
+		spinEventLoop();
+		assertEquals(count + 1, EnablementTrackingHandler.canExecuteCount);
+		assertTrue(toolItemWidget.getEnabled());
+
+		// all the items are checked on request
+		eventBroker.send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, UIEvents.ALL_ELEMENT_ID);
+		assertEquals(count + 2, EnablementTrackingHandler.canExecuteCount);
+	}
+
+	@Test
+	public void testMToolItem_RepeatedUpdatesDoNotAddTrackers() {
+		MTrimmedWindow window = ems.createModelElement(MTrimmedWindow.class);
+		MTrimBar trimBar = ems.createModelElement(MTrimBar.class);
+		MToolBar toolBar = ems.createModelElement(MToolBar.class);
+		MDirectToolItem toolItem = ems.createModelElement(MDirectToolItem.class);
+		toolItem.setContributionURI(
+				"bundleclass://org.eclipse.e4.ui.tests/org.eclipse.e4.ui.tests.workbench.EnablementTrackingHandler");
+
+		window.getTrimBars().add(trimBar);
+		trimBar.getChildren().add(toolBar);
+		toolBar.getChildren().add(toolItem);
+
+		MApplication application = ems.createModelElement(MApplication.class);
+		application.getChildren().add(window);
+		application.setContext(appContext);
+		appContext.set(MApplication.class, application);
+
+		wb = new E4Workbench(window, appContext);
+		wb.createAndRunUI(window);
+		spinEventLoop();
+
+		IEventBroker eventBroker = appContext.get(IEventBroker.class);
+		eventBroker.send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, UIEvents.ALL_ELEMENT_ID);
+		spinEventLoop();
+		int listeners = countListeners(window.getContext());
+		int count = EnablementTrackingHandler.canExecuteCount;
+
+		for (int i = 0; i < 10; i++) {
+			eventBroker.send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, UIEvents.ALL_ELEMENT_ID);
+			spinEventLoop();
+		}
+
+		assertEquals(count + 10, EnablementTrackingHandler.canExecuteCount);
+		assertEquals(listeners, countListeners(window.getContext()));
+	}
+
+	private static int countListeners(IEclipseContext context) {
+		int count = 0;
+		for (IEclipseContext current = context; current != null; current = current.getParent()) {
+			count += ((EclipseContext) current).getListeners().size();
+		}
+		return count;
+	}
+
+	private void spinEventLoop() {
+		while (Display.getCurrent().readAndDispatch()) {
+			// spin the event loop
+		}
+	}
 }
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.workbench.renderers.swt;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.di.annotations.CanExecute;
+import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.ui.internal.workbench.E4Workbench;
+import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
+import org.eclipse.e4.ui.internal.workbench.swt.PartRenderingEngine;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimBar;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.e4.ui.model.application.ui.menu.MDirectToolItem;
+import org.eclipse.e4.ui.model.application.ui.menu.MItem;
+import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
+import org.eclipse.e4.ui.workbench.IWorkbench;
+import org.eclipse.e4.ui.workbench.Selector;
+import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ToolItemUpdaterTest {
+	private static final Selector ALL = element -> true;
+
+	private IEclipseContext context;
+	private E4Workbench wb;
+	private EModelService ems;
+
+	private MToolBar toolBar1;
+	private MToolBar toolBar2;
+	private MDirectToolItem itemA1;
+	private MDirectToolItem itemA2;
+	private MDirectToolItem itemB;
+	private ToolItemUpdater updater;
+
+	@Before
+	public void setUp() throws Exception {
+		context = E4Application.createDefaultContext();
+		context.set(IWorkbench.PRESENTATION_URI_ARG, PartRenderingEngine.engineURI);
+		ems = context.get(EModelService.class);
+
+		MTrimmedWindow window = ems.createModelElement(MTrimmedWindow.class);
+		MTrimBar trimBar = ems.createModelElement(MTrimBar.class);
+		toolBar1 = ems.createModelElement(MToolBar.class);
+		toolBar2 = ems.createModelElement(MToolBar.class);
+		itemA1 = createToolItem("a");
+		itemA2 = createToolItem("a");
+		itemB = createToolItem("b");
+
+		window.getTrimBars().add(trimBar);
+		trimBar.getChildren().add(toolBar1);
+		trimBar.getChildren().add(toolBar2);
+		toolBar1.getChildren().add(itemA1);
+		toolBar2.getChildren().add(itemB);
+		toolBar2.getChildren().add(itemA2);
+
+		MApplication application = ems.createModelElement(MApplication.class);
+		application.getChildren().add(window);
+		application.setContext(context);
+		context.set(MApplication.class, application);
+
+		wb = new E4Workbench(window, context);
+		wb.createAndRunUI(window);
+		spinEventLoop();
+
+		updater = UpdaterAccess.getUpdater(itemA1);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (wb != null) {
+			wb.close();
+		}
+		context.dispose();
+	}
+
+	@Test
+	public void testUpdateById() {
+		int a1 = count(itemA1);
+		int a2 = count(itemA2);
+		int b = count(itemB);
+
+		updater.updateContributionItems("a");
+
+		assertEquals(a1 + 1, count(itemA1));
+		assertEquals(a2 + 1, count(itemA2));
+		assertEquals(b, count(itemB));
+	}
+
+	@Test
+	public void testUpdateByToolBar() {
+		int a1 = count(itemA1);
+		int a2 = count(itemA2);
+		int b = count(itemB);
+
+		updater.updateContributionItems(toolBar2, ALL);
+
+		assertEquals(a1, count(itemA1));
+		assertEquals(a2 + 1, count(itemA2));
+		assertEquals(b + 1, count(itemB));
+	}
+
+	@Test
+	public void testRemovedItemIsUnregistered() {
+		toolBar1.getChildren().remove(itemA1);
+		spinEventLoop();
+		int a1 = count(itemA1);
+		int a2 = count(itemA2);
+
+		updater.updateContributionItems("a");
+		updater.updateContributionItems(ALL);
+
+		assertEquals(a1, count(itemA1));
+		assertEquals(a2 + 2, count(itemA2));
+	}
+
+	@Test
+	public void testMovedItemIsUpdatedWithItsNewToolBar() {
+		toolBar2.getChildren().add(itemA1);
+		spinEventLoop();
+		int a1 = count(itemA1);
+
+		updater.updateContributionItems(toolBar1, ALL);
+		assertEquals(a1, count(itemA1));
+
+		updater.updateContributionItems(toolBar2, ALL);
+		assertEquals(a1 + 1, count(itemA1));
+
+		updater.updateContributionItems("a");
+		assertEquals(a1 + 2, count(itemA1));
+	}
+
+	private MDirectToolItem createToolItem(String elementId) {
+		MDirectToolItem item = ems.createModelElement(MDirectToolItem.class);
+		item.setElementId(elementId);
+		item.setObject(new CountingHandler());
+		return item;
+	}
+
+	private static int count(MDirectToolItem item) {
+		return ((CountingHandler) item.getObject()).canExecuteCount;
+	}
+
+	private void spinEventLoop() {
+		while (Display.getCurrent().readAndDispatch()) {
+			// spin the event loop
+		}
+	}
+
+	/**
+	 * Handler counting how often its enablement is checked.
+	 */
+	public static class CountingHandler {
+		int canExecuteCount;
+
+		@CanExecute
+		public boolean canExecute() {
+			canExecuteCount++;
+			return true;
+		}
+
+		@Execute
+		public void execute() {
+		}
+	}
+
+	/**
+	 * Gives access to the updater of the renderer of a tool item.
+	 */
+	private static class UpdaterAccess extends DirectContributionItem {
+		static ToolItemUpdater getUpdater(MItem item) {
+			UpdaterAccess access = new UpdaterAccess();
+			access.setModel(item);
+			return access.getUpdater();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Google, Inc. and others.
+ * Copyright (c) 2015, 2018 Google, Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,13 +14,18 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
+import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.sideeffect.ISideEffect;
 import org.eclipse.core.databinding.observable.value.ComputedValue;
 import org.eclipse.core.databinding.observable.value.WritableValue;
+import org.eclipse.core.internal.databinding.observable.sideeffect.PropagationScheduler;
 import org.eclipse.jface.tests.databinding.AbstractDefaultRealmTestCase;
 import org.junit.Before;
 import org.junit.Test;
@@ -396,6 +401,49 @@ public class SideEffectTest extends AbstractDefaultRealmTestCase {
 		assertFalse(hasRun.get());
 	}
 
+	@Test
+	public void testSideEffectDependingOnComputedValueRunsLast() throws Exception {
+		List<String> runs = new ArrayList<>();
+		ComputedValue<String> computed = new ComputedValue<String>() {
+			@Override
+			protected String calculate() {
+				return defaultDependency.getValue() + "!";
+			}
+		};
+		ISideEffect computedSideEffect = ISideEffect.create(() -> {
+			computed.getValue();
+			runs.add("computed");
+		});
+		ISideEffect plainSideEffect = ISideEffect.create(() -> {
+			defaultDependency.getValue();
+			runs.add("plain");
+		});
+		runs.clear();
+
+		defaultDependency.setValue("Foo");
+		runAsync();
+
+		assertEquals(Arrays.asList("plain", "computed"), runs);
+		computedSideEffect.dispose();
+		plainSideEffect.dispose();
+	}
+
+	@Test
+	public void testRepeatedChangesAreCoalesced() throws Exception {
+		PropagationScheduler scheduler = PropagationScheduler.getInstance(Realm.getDefault());
+		sideEffect.resume();
+		runAsync();
+		long coalescedChanges = scheduler.getStatistics().getCoalescedChanges();
+
+		defaultDependency.setValue("Foo");
+		defaultDependency.setValue("Bar");
+		defaultDependency.setValue("Baz");
+		runAsync();
+
+		assertEquals(2, sideEffectInvocations);
+		assertEquals(coalescedChanges + 2, scheduler.getStatistics().getCoalescedChanges());
+	}
+
 	// Doesn't currently work, but this would be a desirable property for
 	// SideEffect to have
 	// public void testInvalidateSelf() throws Exception {
@@ -18,7 +18,9 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.eclipse.core.databinding.observable.Diffs;
 import org.eclipse.core.databinding.observable.list.ListDiff;
@@ -283,6 +285,79 @@ public class Diffs_ListDiffTests {
 				Arrays.asList(new Object[] { "c", "a", "b" }));
 	}
 
+	@Test
+	public void testComputeListDiff_LargeListScatteredChanges() {
+		List<Object> oldList = createLargeList(5000);
+		List<Object> newList = new ArrayList<Object>(oldList);
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			switch (i % 3) {
+			case 0:
+				newList.remove(random.nextInt(newList.size()));
+				break;
+			case 1:
+				newList.add(random.nextInt(newList.size()), "added" + i);
+				break;
+			default:
+				newList.add(random.nextInt(newList.size()), newList.remove(random.nextInt(newList.size())));
+			}
+		}
+		checkComputedListDiff(oldList, newList);
+	}
+
+	@Test
+	public void testComputeListDiff_LargeListShuffled() {
+		List<Object> oldList = createLargeList(5000);
+		List<Object> newList = new ArrayList<Object>(oldList);
+		Collections.shuffle(newList, new Random(42));
+		checkComputedListDiff(oldList, newList);
+	}
+
+	@Test
+	public void testComputeListDiff_LargeListReplaced() {
+		List<Object> oldList = createLargeList(5000);
+		List<Object> newList = new ArrayList<Object>();
+		for (Object element : oldList) {
+			newList.add(element + "'");
+		}
+		checkComputedListDiff(oldList, newList);
+	}
+
+	@Test
+	public void testComputeListDiff_LargeListMoveReportedAsMove() {
+		List<Object> oldList = createLargeList(1000);
+		List<Object> newList = new ArrayList<Object>(oldList);
+		newList.add(900, newList.remove(100));
+
+		ListDiff diff = Diffs.computeListDiff(oldList, newList);
+		final List<String> log = new ArrayList<String>();
+		diff.accept(new ListDiffVisitor() {
+			@Override
+			public void handleAdd(int index, Object element) {
+				log.add("add(" + index + "," + element + ")");
+			}
+
+			@Override
+			public void handleRemove(int index, Object element) {
+				log.add("remove(" + index + "," + element + ")");
+			}
+
+			@Override
+			public void handleMove(int oldIndex, int newIndex, Object element) {
+				log.add("move(" + oldIndex + "," + newIndex + "," + element + ")");
+			}
+		});
+		assertEquals(Collections.singletonList("move(100,900,element100)"), log);
+	}
+
+	private static List<Object> createLargeList(int size) {
+		List<Object> list = new ArrayList<Object>(size);
+		for (int i = 0; i < size; i++) {
+			list.add("element" + i);
+		}
+		return list;
+	}
+
 	private static void checkComputedListDiff(List<Object> oldList, List<Object> newList) {
 		ListDiff diff = Diffs.computeListDiff(oldList, newList);
 
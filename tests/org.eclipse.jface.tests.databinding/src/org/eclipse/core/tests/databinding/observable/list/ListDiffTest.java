@@ -88,6 +88,14 @@ public class ListDiffTest {
 		assertEquals("replace(0,element0,element1)", visitor.log);
 	}
 
+	@Test
+	public void testAccept_Replace_AddAfterRemovePosition() {
+		// Add at index 2 then remove at index 1 replaces the element at index 1
+		createListDiff(add(2, "element1"), remove(1, "element0")).accept(
+				visitor);
+		assertEquals("replace(1,element0,element1)", visitor.log);
+	}
+
 	@Test
 	public void testAccept_AllPatterns() {
 		createListDiff(new ListDiffEntry[] {
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (C) 2018 Google Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CallTreeProfile} class.
+ */
+public class CallTreeProfileTests {
+	private static StackTraceElement frame(String className, String methodName, int line) {
+		return new StackTraceElement(className, methodName, className + ".java", line);
+	}
+
+	/**
+	 * Returns a stack, innermost frame first, from frames given outermost first.
+	 */
+	private static StackTraceElement[] stack(StackTraceElement... outermostFirst) {
+		StackTraceElement[] stack = new StackTraceElement[outermostFirst.length];
+		for (int i = 0; i < stack.length; i++) {
+			stack[i] = outermostFirst[stack.length - 1 - i];
+		}
+		return stack;
+	}
+
+	@Test
+	public void testAggregation() throws Exception {
+		CallTreeProfile profile = new CallTreeProfile("main", 10);
+		profile.addSample(0, stack(frame("a.Main", "run", 1), frame("a.Foo", "paint", 10)));
+		// A different line of the same method is the same frame.
+		profile.addSample(1, stack(frame("a.Main", "run", 2), frame("a.Foo", "paint", 11)));
+		profile.addSample(2, stack(frame("a.Main", "run", 1), frame("a.Bar", "layout", 5)));
+		profile.addSample(3, stack(frame("a.Main", "run", 1)));
+
+		assertEquals(4, profile.getSampleCount());
+		assertEquals(3, profile.getMethodCount());
+		assertEquals(4, profile.getNodeCount());
+		assertEquals(4, profile.getTotalCount("a.Main", "run"));
+		assertEquals(2, profile.getTotalCount("a.Foo", "paint"));
+		assertEquals(0, profile.getTotalCount("a.Foo", "layout"));
+
+		StringBuilder collapsed = new StringBuilder();
+		profile.writeCollapsedStacks(collapsed);
+		assertEquals("a.Main.run 1\na.Main.run;a.Foo.paint 2\na.Main.run;a.Bar.layout 1\n",
+				collapsed.toString());
+
+		profile.clear();
+		assertEquals(0, profile.getSampleCount());
+		assertEquals(1, profile.getNodeCount());
+		collapsed.setLength(0);
+		profile.writeCollapsedStacks(collapsed);
+		assertEquals("", collapsed.toString());
+	}
+
+	@Test
+	public void testExecutionSamples() throws Exception {
+		CallTreeProfile profile = new CallTreeProfile("ma\"in", 2);
+		profile.addSample(0, stack(frame("a.Main", "run", 1)));
+		profile.addSample(1000, stack(frame("a.Main", "run", 1), frame("a.Foo", "paint", 10)));
+		profile.addSample(2000, stack(frame("a.Main", "run", 1), frame("a.Bar", "layout", 5)));
+
+		StringBuilder json = new StringBuilder();
+		profile.writeExecutionSamples(json);
+		String text = json.toString();
+		// Only the two most recent samples are kept.
+		assertEquals(2, text.split("\"jdk.ExecutionSample\"", -1).length - 1);
+		assertTrue(text.contains("\"startTime\": \"1970-01-01T00:00:01Z\""));
+		assertTrue(text.contains("\"startTime\": \"1970-01-01T00:00:02Z\""));
+		assertTrue(text.contains("\"javaName\": \"ma\\\"in\""));
+		// Frames are listed innermost first.
+		assertTrue(text.contains("\"frames\": [{\"method\": {\"type\": {\"name\": \"a.Bar\"}, "
+				+ "\"name\": \"layout\"}}, {\"method\": {\"type\": {\"name\": \"a.Main\"}, "
+				+ "\"name\": \"run\"}}]"));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Google Inc. and others.
+ * Copyright (c) 2015, 2018 Google Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -27,6 +27,7 @@ import org.junit.Test;
  * well as maintain the cache properly.
  */
 public class EvaluationCacheTest extends NavigatorTestBase {
+	VisibilityAssistant assistant;
 	EvaluationCache cache;
 
 	public EvaluationCacheTest() {
@@ -38,9 +39,9 @@ public class EvaluationCacheTest extends NavigatorTestBase {
 		super.setUp();
 		INavigatorViewerDescriptor mockViewerDescript = new TestNavigatorViewerDescriptor();
 		INavigatorActivationService mockActivationService = new TestNavigatorActivationService();
-		VisibilityAssistant mockAssistant = new VisibilityAssistant(mockViewerDescript, mockActivationService);
+		assistant = new VisibilityAssistant(mockViewerDescript, mockActivationService);
 
-		cache = new EvaluationCache(mockAssistant);
+		cache = new EvaluationCache(assistant);
 	}
 
 	private void doSimpleAddGet(boolean toComputeOverrides) {
@@ -124,6 +125,68 @@ public class EvaluationCacheTest extends NavigatorTestBase {
 		Assert.assertNull(cache.getDescriptors(key, true));
 	}
 
-	// TODO Some way to reliably test the clearing of entries. Possibly using
-	// java.lang.ref.Reference#enqueue().
+	@Test
+	public void testEqualElementsOfOtherClassNotFound() {
+		java.util.List<String> key = new ArrayList<String>();
+		key.add("Hi");
+		NavigatorContentDescriptor[] value = new NavigatorContentDescriptor[0];
+		cache.setDescriptors(key, value, false);
+		// Equal, but of another class
+		Assert.assertNull(cache.getDescriptors(new java.util.LinkedList<String>(key), false));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEvicted() {
+		EvaluationCache boundedCache = new EvaluationCache(assistant, 2);
+		Object key1 = new Object();
+		Object key2 = new Object();
+		Object key3 = new Object();
+		NavigatorContentDescriptor[] value = new NavigatorContentDescriptor[0];
+		boundedCache.setDescriptors(key1, value, false);
+		boundedCache.setDescriptors(key2, value, true);
+		// key2 becomes the least recently used
+		Assert.assertSame(value, boundedCache.getDescriptors(key1, false));
+		boundedCache.setDescriptors(key3, value, false);
+		Assert.assertSame(value, boundedCache.getDescriptors(key1, false));
+		Assert.assertNull(boundedCache.getDescriptors(key2, true));
+		Assert.assertSame(value, boundedCache.getDescriptors(key3, false));
+		Assert.assertEquals(1, boundedCache.getStatistics().getEvictions());
+		Assert.assertEquals(2, boundedCache.getStatistics().getSize());
+	}
+
+	@Test
+	public void testStatistics() {
+		Object key = new Object();
+		NavigatorContentDescriptor[] value = new NavigatorContentDescriptor[0];
+		Assert.assertNull(cache.getDescriptors(key, false));
+		cache.setDescriptors(key, value, false);
+		Assert.assertSame(value, cache.getDescriptors(key, false));
+		Assert.assertSame(value, cache.getDescriptors(key, false));
+		Assert.assertNull(cache.getDescriptors(key, true));
+		EvaluationCache.Statistics statistics = cache.getStatistics();
+		Assert.assertEquals(2, statistics.getHits());
+		Assert.assertEquals(2, statistics.getMisses());
+		Assert.assertEquals(0, statistics.getEvictions());
+		Assert.assertEquals(1, statistics.getSize());
+		cache.clear();
+		Assert.assertEquals(0, cache.getStatistics().getSize());
+		Assert.assertEquals(2, cache.getStatistics().getHits());
+	}
+
+	@Test
+	public void testRecreatedElementFoundAfterGarbageCollection() {
+		NavigatorContentDescriptor[] value = new NavigatorContentDescriptor[0];
+		cache.setDescriptors(createElement(), value, false);
+		// The element the descriptors were cached for is only referenced by
+		// the cache, as a recreated resource handle would be
+		System.gc();
+		Assert.assertSame(value, cache.getDescriptors(createElement(), false));
+		Assert.assertEquals(1, cache.getStatistics().getHits());
+	}
+
+	private static java.util.List<String> createElement() {
+		java.util.List<String> element = new ArrayList<String>();
+		element.add("Recreated");
+		return element;
+	}
 }
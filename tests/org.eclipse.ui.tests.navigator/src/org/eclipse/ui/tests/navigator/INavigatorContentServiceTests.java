@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,13 @@
 package org.eclipse.ui.tests.navigator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Set;
 
@@ -27,6 +32,9 @@ import org.eclipse.ui.navigator.INavigatorContentService;
 import org.eclipse.ui.navigator.NavigatorContentServiceFactory;
 import org.eclipse.ui.tests.harness.util.EditorTestHelper;
 import org.eclipse.ui.tests.navigator.extension.TestContentProvider;
+import org.eclipse.ui.tests.navigator.extension.TestParallelContentProvider;
+import org.eclipse.ui.tests.navigator.extension.TestParallelPipelinedContentProvider;
+import org.eclipse.ui.tests.navigator.extension.TestSimpleChildrenContentProvider;
 import org.junit.Test;
 
 public class INavigatorContentServiceTests extends NavigatorTestBase {
@@ -156,6 +164,100 @@ public class INavigatorContentServiceTests extends NavigatorTestBase {
 
 	}
 
+	@Test
+	public void testParallelChildren() {
+
+		String[] extensionIds = new String[] { TEST_CONTENT, COMMON_NAVIGATOR_RESOURCE_EXT };
+		_contentService.getActivationService().activateExtensions(extensionIds, true);
+
+		INavigatorContentService parallelContentService = createContentService(TEST_VIEWER_PARALLEL_CHILDREN,
+				extensionIds);
+		try {
+			Object[] expectedChildren = _contentService.createCommonContentProvider().getChildren(_project);
+			Object[] children = parallelContentService.createCommonContentProvider().getChildren(_project);
+
+			assertEquals("The children should be contributed in the same order.", Arrays.asList(expectedChildren),
+					Arrays.asList(children));
+			assertTrue("The resources should be children of the project.",
+					Arrays.asList(children).containsAll(_expectedChildren));
+		} finally {
+			parallelContentService.dispose();
+		}
+	}
+
+	@Test
+	public void testParallelChildrenRunConcurrently() {
+
+		String[] extensionIds = new String[] { TEST_CONTENT_PARALLEL1, TEST_CONTENT_PARALLEL3 };
+		INavigatorContentService parallelContentService = createContentService(TEST_VIEWER_PARALLEL_CHILDREN,
+				extensionIds);
+		try {
+			// each query only returns once both are running
+			TestParallelContentProvider.resetTest(2);
+			Object[] children = parallelContentService.createCommonContentProvider().getChildren(_project);
+
+			assertFalse("The extensions should be queried at the same time.", TestParallelContentProvider._timedOut);
+			Thread thread1 = TestParallelContentProvider._threads.get("parallel1");
+			Thread thread3 = TestParallelContentProvider._threads.get("parallel3");
+			assertNotNull(thread1);
+			assertNotNull(thread3);
+			assertNotSame("The extensions should be queried in different threads.", thread1, thread3);
+			assertEquals("The children of both extensions should be contributed.",
+					2 * TestSimpleChildrenContentProvider.NUM_ITEMS, children.length);
+		} finally {
+			parallelContentService.dispose();
+		}
+	}
+
+	@Test
+	public void testParallelChildrenWithOverride() {
+
+		String[] extensionIds = new String[] { TEST_CONTENT_PARALLEL1, TEST_CONTENT_PARALLEL2,
+				TEST_CONTENT_PARALLEL3, TEST_CONTENT_PARALLEL_OVERRIDE };
+		INavigatorContentService sequentialContentService = createContentService(TEST_VIEWER_PROGRAMMATIC,
+				extensionIds);
+		INavigatorContentService parallelContentService = createContentService(TEST_VIEWER_PARALLEL_CHILDREN,
+				extensionIds);
+		try {
+			TestParallelContentProvider.resetTest(0);
+			Object[] expectedChildren = sequentialContentService.createCommonContentProvider().getChildren(_project);
+			assertNotNull("The overriding extension should be called.",
+					TestParallelPipelinedContentProvider._pipelinedChildren);
+
+			// the two extensions outside the pipeline only return once both
+			// are running
+			TestParallelContentProvider.resetTest(2);
+			Object[] children = parallelContentService.createCommonContentProvider().getChildren(_project);
+
+			assertFalse("The extensions outside the pipeline should be queried at the same time.",
+					TestParallelContentProvider._timedOut);
+			assertNotSame("The extensions outside the pipeline should be queried in different threads.",
+					TestParallelContentProvider._threads.get("parallel1"),
+					TestParallelContentProvider._threads.get("parallel3"));
+			Thread callingThread = Thread.currentThread();
+			assertSame("The overridden extension should be queried in the calling thread.", callingThread,
+					TestParallelContentProvider._threads.get("parallel2"));
+			assertSame("The overriding extension should be called in the calling thread.", callingThread,
+					TestParallelContentProvider._threads.get(TestParallelContentProvider.OVERRIDE));
+			assertEquals("The children of the overridden extension should be piped through the override.",
+					TestSimpleChildrenContentProvider.NUM_ITEMS,
+					TestParallelPipelinedContentProvider._pipelinedChildren.size());
+			assertEquals("The children should be contributed in the same order.", Arrays.asList(expectedChildren),
+					Arrays.asList(children));
+		} finally {
+			parallelContentService.dispose();
+			sequentialContentService.dispose();
+		}
+	}
+
+	private INavigatorContentService createContentService(String viewerId, String[] extensionIds) {
+		INavigatorContentService contentService = NavigatorContentServiceFactory.INSTANCE
+				.createContentService(viewerId);
+		contentService.bindExtensions(extensionIds, false);
+		contentService.getActivationService().activateExtensions(extensionIds, true);
+		return contentService;
+	}
+
 	@Test
 	public void testTestExtensionVisibility() {
 		assertTrue("The test extension should be visible.", _contentService
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -63,6 +63,7 @@ public class NavigatorTestBase {
 
 	public static final String TEST_VIEWER = "org.eclipse.ui.tests.navigator.TestView";
 	public static final String TEST_VIEWER_PROGRAMMATIC = "org.eclipse.ui.tests.navigator.ProgrammaticTestView";
+	public static final String TEST_VIEWER_PARALLEL_CHILDREN = "org.eclipse.ui.tests.navigator.ParallelChildrenTestView";
 	public static final String TEST_VIEWER_PIPELINE = "org.eclipse.ui.tests.navigator.PipelineTestView";
 	public static final String TEST_VIEWER_HIDE_EXTENSIONS = "org.eclipse.ui.tests.navigator.HideAvailableExtensionsTestView";
 	public static final String TEST_VIEWER_INHERITED = "org.eclipse.ui.tests.navigator.InheritedTestView";
@@ -96,6 +97,11 @@ public class NavigatorTestBase {
 	public static final String TEST_SIMPLE_CHILDREN3 = "org.eclipse.ui.tests.navigator.testSimpleChildrenContent3";
 	public static final String TEST_SIMPLE_CHILDREN_NOT_FOUND = "org.eclipse.ui.tests.navigator.testSimpleChildrenAppearsBeforeNotFound";
 
+	public static final String TEST_CONTENT_PARALLEL1 = "org.eclipse.ui.tests.navigator.testParallelContent1";
+	public static final String TEST_CONTENT_PARALLEL2 = "org.eclipse.ui.tests.navigator.testParallelContent2";
+	public static final String TEST_CONTENT_PARALLEL3 = "org.eclipse.ui.tests.navigator.testParallelContent3";
+	public static final String TEST_CONTENT_PARALLEL_OVERRIDE = "org.eclipse.ui.tests.navigator.testParallelOverride";
+
 	public static final String TEST_CONTENT_M12_VIEW = "org.eclipse.ui.tests.navigator.M12View";
 	public static final String TEST_CONTENT_M12_M1_CONTENT = "org.eclipse.ui.tests.navigator.m12.M1";
 	public static final String TEST_CONTENT_M12_M1_CONTENT_FIRST_CLASS = "org.eclipse.ui.tests.navigator.m12.M1FirstClass";
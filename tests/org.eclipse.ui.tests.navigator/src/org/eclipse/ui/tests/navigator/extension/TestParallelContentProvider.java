@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.navigator.extension;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IResource;
+
+/**
+ * Provides some children for a given resource, once a number of queries are
+ * running at the same time, and records the thread of each query.
+ */
+public class TestParallelContentProvider extends TestSimpleChildrenContentProvider {
+
+	/**
+	 * The threads that queried the providers last, by provider name. The
+	 * overriding provider is recorded as {@link #OVERRIDE}.
+	 */
+	public static final Map<String, Thread> _threads = new ConcurrentHashMap<>();
+
+	public static final String OVERRIDE = "override";
+
+	public static volatile boolean _timedOut;
+
+	private static volatile CountDownLatch _latch = new CountDownLatch(0);
+
+	/**
+	 * @param concurrentQueries
+	 *            the number of queries that must run at the same time before
+	 *            any of them returns
+	 */
+	public static void resetTest(int concurrentQueries) {
+		_threads.clear();
+		_timedOut = false;
+		_latch = new CountDownLatch(concurrentQueries);
+		TestParallelPipelinedContentProvider._pipelinedChildren = null;
+	}
+
+	@Override
+	public Object[] getChildren(Object parentElement) {
+		if (parentElement instanceof IResource) {
+			_threads.put(_name, Thread.currentThread());
+			CountDownLatch latch = _latch;
+			latch.countDown();
+			try {
+				if (!latch.await(10, TimeUnit.SECONDS)) {
+					_timedOut = true;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return super.getChildren(parentElement);
+	}
+}
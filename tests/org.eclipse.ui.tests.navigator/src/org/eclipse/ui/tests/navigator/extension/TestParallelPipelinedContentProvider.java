@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.navigator.extension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Overrides one of the {@link TestParallelContentProvider}s, and records the
+ * children piped through it and the thread of the pipeline.
+ */
+public class TestParallelPipelinedContentProvider extends TestContentProviderPipelined {
+
+	public static volatile List<Object> _pipelinedChildren;
+
+	@Override
+	public void getPipelinedChildren(Object aParent, Set theCurrentChildren) {
+		TestParallelContentProvider._threads.put(TestParallelContentProvider.OVERRIDE, Thread.currentThread());
+		_pipelinedChildren = new ArrayList<Object>(theCurrentChildren);
+	}
+
+}
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Performance tests for the data binding framework.
+ */
+public class DatabindingPerformanceSuite extends TestSuite {
+
+	public static final int[] LIST_SIZES = { 1000, 10000, 100000 };
+
+	/**
+	 * Returns the suite. This is required to use the JUnit Launcher.
+	 */
+	public static Test suite() {
+		return new DatabindingPerformanceSuite();
+	}
+
+	public DatabindingPerformanceSuite() {
+		super();
+		for (int size : LIST_SIZES) {
+			addTest(new ListDiffPerformanceTest(size));
+		}
+	}
+
+}
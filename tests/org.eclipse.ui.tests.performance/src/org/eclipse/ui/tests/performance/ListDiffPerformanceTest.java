@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.databinding.observable.Diffs;
+
+/**
+ * Measures <code>Diffs.computeListDiff</code> on large lists. The new list is
+ * derived from the old one by scattering removals, insertions and moves over
+ * one percent of its elements, which is what a typical refresh of a large table
+ * looks like.
+ */
+public class ListDiffPerformanceTest extends BasicPerformanceTest {
+
+	private final int size;
+
+	/**
+	 * @param size
+	 *            the number of elements in the diffed lists
+	 */
+	public ListDiffPerformanceTest(int size) {
+		super("Diff " + size + " elements");
+		this.size = size;
+	}
+
+	@Override
+	protected void runTest() throws Throwable {
+		final List<String> oldList = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			oldList.add("element" + i);
+		}
+		// one pass over the old list, so that building the input does not
+		// dominate the test for large lists
+		final List<String> newList = new ArrayList<>(size);
+		List<String> moved = new ArrayList<>();
+		Random random = new Random(size);
+		for (String element : oldList) {
+			switch (random.nextInt(400)) {
+			case 0:
+				// removed
+				continue;
+			case 1:
+				newList.add("added" + newList.size());
+				break;
+			case 2:
+				moved.add(element);
+				continue;
+			case 3:
+				if (!moved.isEmpty()) {
+					newList.add(moved.remove(moved.size() - 1));
+				}
+				break;
+			default:
+				break;
+			}
+			newList.add(element);
+		}
+		newList.addAll(moved);
+
+		exercise(new TestRunnable() {
+			@Override
+			public void run() throws Exception {
+				startMeasuring();
+				Diffs.computeListDiff(oldList, newList);
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,9 @@
 
 package org.eclipse.ui.tests.performance;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.resources.IMarker;
@@ -19,6 +21,7 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.test.performance.Dimension;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
@@ -38,6 +41,14 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	private String PROBLEMS_VIEW_ID = "org.eclipse.ui.tests.performance.problemsView";
 
+	private static final String DISABLE_INCREMENTAL_UPDATE_PROPERTY = "org.eclipse.ui.views.markers.disableIncrementalUpdate";
+
+	private static final int SHOWN_MARKER_COUNT = 20000;
+
+	private static final int CHANGED_MARKER_COUNT = 100;
+
+	private static final long UPDATE_TIME_OUT = 60000;
+
 	/**
 	 * Create a new instance of the receiver.
 	 *
@@ -83,6 +94,110 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	}
 
+	/**
+	 * Test updating the problems view when a few markers change while it shows
+	 * many markers. The changes are applied incrementally to the markers shown.
+	 */
+	public void testIncrementalUpdate() {
+		tagIfNecessary("UI - Problems View incremental update", Dimension.CPU_TIME);
+		measureUpdates(false);
+	}
+
+	/**
+	 * Test updating the problems view when a few markers change while it shows
+	 * many markers, gathering all markers again on every change. This is the
+	 * reference for {@link #testIncrementalUpdate()}.
+	 */
+	public void testFullUpdate() {
+		measureUpdates(true);
+	}
+
+	private void measureUpdates(boolean gatherAll) {
+		System.setProperty(DISABLE_INCREMENTAL_UPDATE_PROPERTY, Boolean.toString(gatherAll));
+		try {
+			createMarkers(SHOWN_MARKER_COUNT, "this is a test ");
+
+			IWorkbenchWindow window = openTestWindow(EMPTY_PERSPECTIVE_ID);
+			final IWorkbenchPage page = window.getActivePage();
+			PerformanceProblemsView view;
+			try {
+				view = (PerformanceProblemsView) page.showView(PROBLEMS_VIEW_ID);
+			} catch (PartInitException e) {
+				e.printStackTrace();
+				fail();
+				return;
+			}
+			waitForUpdate(view);
+
+			for (int i = 0; i < 20; i++) {
+				startMeasuring();
+				createMarkers(CHANGED_MARKER_COUNT, "this is a test change ");
+				waitForUpdate(view);
+				stopMeasuring();
+				deleteMarkers("this is a test change ");
+				waitForUpdate(view);
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			System.clearProperty(DISABLE_INCREMENTAL_UPDATE_PROPERTY);
+			deleteMarkers("this is a test ");
+		}
+	}
+
+	/**
+	 * Wait until the view has processed the marker changes.
+	 */
+	private void waitForUpdate(PerformanceProblemsView view) {
+		long start = System.currentTimeMillis();
+		while (Job.getJobManager().find(view.MARKERSVIEW_UPDATE_JOB_FAMILY).length > 0
+				&& System.currentTimeMillis() - start < UPDATE_TIME_OUT) {
+			processEvents();
+			sleep(10);
+		}
+		processEvents();
+	}
+
+	/**
+	 * Create count markers in one workspace operation.
+	 */
+	private void createMarkers(final int count, final String messagePrefix) {
+		try {
+			final IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+			root.getWorkspace().run(monitor -> {
+				Map<String, Object> attribs = new HashMap<>();
+				for (int i = 0; i < count; i++) {
+					attribs.put(IMarker.SEVERITY, Integer.valueOf(i % 3));
+					attribs.put(IMarker.MESSAGE, messagePrefix + i);
+					MarkerUtilities.createMarker(root, attribs, IMarker.PROBLEM);
+				}
+			}, null);
+		} catch (CoreException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Delete the markers whose message starts with messagePrefix in one
+	 * workspace operation.
+	 */
+	private void deleteMarkers(String messagePrefix) {
+		try {
+			IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+			IMarker[] markers = root.findMarkers(IMarker.PROBLEM, false, IResource.DEPTH_ZERO);
+			List<IMarker> toDelete = new ArrayList<>();
+			for (IMarker marker : markers) {
+				String message = marker.getAttribute(IMarker.MESSAGE, null);
+				if (message != null && message.startsWith(messagePrefix)) {
+					toDelete.add(marker);
+				}
+			}
+			root.getWorkspace().deleteMarkers(toDelete.toArray(new IMarker[toDelete.size()]));
+		} catch (CoreException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Remove the created markers
 	 */
@@ -1,6 +1,8 @@
 package org.eclipse.ui.tests.performance;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
@@ -51,6 +53,13 @@ public class ProgressReportingTest extends BasicPerformanceTest {
 	 * results during profiling.
 	 */
 	public static final int MAX_ITERATIONS = 100;
+
+	/**
+	 * Number of jobs reporting progress at the same time in
+	 * {@link #testConcurrentJobsWorked}.
+	 */
+	public static final int CONCURRENT_JOBS = 200;
+
 	private volatile boolean isDone;
 	private Display display;
 
@@ -242,6 +251,37 @@ public class ProgressReportingTest extends BasicPerformanceTest {
 		});
 	}
 
+	/**
+	 * Test the cost of monitor.worked in many jobs running at the same time.
+	 * The jobs report their progress to the progress manager concurrently.
+	 */
+	public void testConcurrentJobsWorked() throws Exception {
+		openTestWindow();
+		setRunInBackground(true);
+		runAsyncTest(() -> {
+			AtomicInteger runningJobs = new AtomicInteger(CONCURRENT_JOBS);
+			AtomicLong total = new AtomicLong();
+			for (int j = 0; j < CONCURRENT_JOBS; j++) {
+				Job.create("Test Job " + j, monitor -> {
+					int iterations = ITERATIONS / CONCURRENT_JOBS;
+					monitor.beginTask("Test Job", iterations);
+					int i = 0;
+					long result = 0;
+					while (i < iterations) {
+						monitor.worked(1);
+						result += i;
+						i++;
+					}
+
+					total.addAndGet(result);
+					if (runningJobs.decrementAndGet() == 0) {
+						endAsyncTest(total);
+					}
+				}).schedule();
+			}
+		});
+	}
+
 	/**
 	 * Test the cost of subMonitor.split(). Note that if
 	 * {@link SubMonitor#split} is performing cancellation checks at the correct
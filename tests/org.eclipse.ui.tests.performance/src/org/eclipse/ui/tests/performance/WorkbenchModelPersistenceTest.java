@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.eclipse.e4.ui.internal.workbench.E4BinaryResource;
+import org.eclipse.e4.ui.internal.workbench.E4XMIResourceFactory;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.ui.PlatformUI;
+
+/**
+ * Measures how long restoring the model of the running workbench takes when it
+ * is saved as XMI and when it is saved in the binary format enabled by the
+ * <code>persistBinary</code> argument.
+ */
+public class WorkbenchModelPersistenceTest extends BasicPerformanceTest {
+
+	private final boolean binary;
+
+	private File file;
+
+	/**
+	 * @param binary
+	 *            <code>true</code> to measure the binary format,
+	 *            <code>false</code> to measure XMI
+	 */
+	public WorkbenchModelPersistenceTest(boolean binary) {
+		super("Restore workbench model (" + (binary ? "binary" : "XMI") + ")");
+		this.binary = binary;
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		file = File.createTempFile("workbench", binary ? "." + E4BinaryResource.FILE_EXTENSION : ".xmi");
+		MApplication application = PlatformUI.getWorkbench().getService(MApplication.class);
+		Resource resource = createResource();
+		resource.getContents().add(EcoreUtil.copy((EObject) application));
+		resource.save(null);
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		file.delete();
+		super.doTearDown();
+	}
+
+	private Resource createResource() {
+		URI uri = URI.createFileURI(file.getAbsolutePath());
+		return binary ? new E4BinaryResource(uri) : new E4XMIResourceFactory().createResource(uri);
+	}
+
+	@Override
+	protected void runTest() throws Throwable {
+		exercise(new TestRunnable() {
+			@Override
+			public void run() throws Exception {
+				Resource resource = createResource();
+				startMeasuring();
+				if (binary) {
+					((E4BinaryResource) resource).load(file, Collections.emptyMap());
+				} else {
+					resource.load(null);
+				}
+				stopMeasuring();
+				assertFalse(resource.getContents().isEmpty());
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
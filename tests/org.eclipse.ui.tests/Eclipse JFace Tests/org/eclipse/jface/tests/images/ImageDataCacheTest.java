@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.images;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.eclipse.jface.internal.ImageDataCache;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the on-disk cache of decoded image data.
+ */
+public class ImageDataCacheTest extends TestCase {
+
+	private File file;
+
+	public ImageDataCacheTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		file = File.createTempFile("imageData", ".cache");
+		file.delete();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+		super.tearDown();
+	}
+
+	public void testMissingFile() {
+		ImageDataCache cache = new ImageDataCache(file);
+		assertNull(cache.get("100:missing", 0));
+	}
+
+	public void testSaveAndLoad() throws IOException {
+		ImageData direct = createDirectImageData();
+		ImageData indexed = createIndexedImageData();
+		ImageDataCache cache = new ImageDataCache(file);
+		cache.put("100:direct", 1, direct);
+		cache.put("100:indexed", 2, indexed);
+		cache.save();
+
+		cache = new ImageDataCache(file);
+		assertImageDataEquals(direct, cache.get("100:direct", 1));
+		assertImageDataEquals(indexed, cache.get("100:indexed", 2));
+	}
+
+	public void testStaleStamp() throws IOException {
+		ImageDataCache cache = new ImageDataCache(file);
+		cache.put("100:direct", 1, createDirectImageData());
+		cache.save();
+
+		cache = new ImageDataCache(file);
+		assertNull("image data of another stamp is returned", cache.get("100:direct", 2));
+	}
+
+	public void testLoadedEntriesKeptOnSave() throws IOException {
+		ImageDataCache cache = new ImageDataCache(file);
+		cache.put("100:direct", 1, createDirectImageData());
+		cache.save();
+
+		cache = new ImageDataCache(file);
+		cache.put("100:indexed", 2, createIndexedImageData());
+		cache.save();
+
+		cache = new ImageDataCache(file);
+		assertNotNull("loaded entry is lost", cache.get("100:direct", 1));
+		assertNotNull("added entry is lost", cache.get("100:indexed", 2));
+	}
+
+	public void testAddedSizeBounded() {
+		ImageDataCache cache = new ImageDataCache(file);
+		// 4 bytes per pixel
+		int height = (int) (ImageDataCache.MAX_ADDED_SIZE / (4 * 512)) + 1;
+		cache.put("100:large", 1, new ImageData(512, height, 32, new PaletteData(0xff0000, 0xff00, 0xff)));
+		assertNull("entry beyond the added size is held", cache.get("100:large", 1));
+
+		ImageData direct = createDirectImageData();
+		cache.put("100:direct", 1, direct);
+		assertImageDataEquals(direct, cache.get("100:direct", 1));
+	}
+
+	public void testCorruptFile() throws IOException {
+		Files.write(file.toPath(), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+		ImageDataCache cache = new ImageDataCache(file);
+		assertNull(cache.get("100:direct", 1));
+	}
+
+	private static ImageData createDirectImageData() {
+		ImageData data = new ImageData(4, 3, 24, new PaletteData(0xff0000, 0xff00, 0xff));
+		for (int i = 0; i < data.data.length; i++) {
+			data.data[i] = (byte) i;
+		}
+		data.alphaData = new byte[4 * 3];
+		data.alphaData[5] = (byte) 0x80;
+		return data;
+	}
+
+	private static ImageData createIndexedImageData() {
+		ImageData data = new ImageData(2, 2, 8,
+				new PaletteData(new RGB[] { new RGB(0, 0, 0), new RGB(10, 20, 30) }));
+		data.setPixel(1, 1, 1);
+		data.transparentPixel = 0;
+		return data;
+	}
+
+	private static void assertImageDataEquals(ImageData expected, ImageData actual) {
+		assertNotNull("image data is not found", actual);
+		assertEquals(expected.width, actual.width);
+		assertEquals(expected.height, actual.height);
+		assertEquals(expected.depth, actual.depth);
+		assertEquals(expected.bytesPerLine, actual.bytesPerLine);
+		assertEquals(expected.transparentPixel, actual.transparentPixel);
+		assertEquals(expected.palette.isDirect, actual.palette.isDirect);
+		for (int y = 0; y < expected.height; y++) {
+			for (int x = 0; x < expected.width; x++) {
+				assertEquals(expected.palette.getRGB(expected.getPixel(x, y)),
+						actual.palette.getRGB(actual.getPixel(x, y)));
+				assertEquals(expected.getAlpha(x, y), actual.getAlpha(x, y));
+			}
+		}
+	}
+}
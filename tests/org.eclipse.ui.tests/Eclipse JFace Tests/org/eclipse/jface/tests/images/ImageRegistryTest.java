@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2016 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,9 +11,12 @@
  *******************************************************************************/
 package org.eclipse.jface.tests.images;
 
+import java.io.File;
+
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.IconAndMessageDialog;
 import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.resource.ImageRegistry;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.window.Window;
@@ -81,4 +84,24 @@ public class ImageRegistryTest extends TestCase {
         }
 
     }
+
+    /**
+     * check that a prefetched image is created from the prefetched image data.
+     */
+    public void testPrefetch() throws Exception {
+        File file = URLImageDescriptorTest.createImageFile(4, 3);
+        ImageRegistry reg = new ImageRegistry();
+        try {
+            reg.put("prefetched", ImageDescriptor.createFromURL(file.toURI().toURL()));
+            reg.prefetch("prefetched", "missing").get();
+            file.delete();
+
+            Image image = reg.get("prefetched");
+            assertNotNull("Returned null image", image);
+            assertEquals("prefetched image data is not used", 4, image.getBounds().width);
+        } finally {
+            reg.dispose();
+            file.delete();
+        }
+    }
 }
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.images;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.eclipse.jface.internal.ImageDataCache;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.PaletteData;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the image data cache and prefetching of image descriptors created from
+ * URLs.
+ */
+public class URLImageDescriptorTest extends TestCase {
+
+	private ImageDataCache defaultCache;
+
+	private File imageFile;
+
+	private File cacheFile;
+
+	public URLImageDescriptorTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		defaultCache = ImageDataCache.getDefault();
+		ImageDataCache.setDefault(null);
+		imageFile = createImageFile(4, 3);
+		cacheFile = File.createTempFile("imageData", ".cache");
+		cacheFile.delete();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		ImageDataCache.setDefault(defaultCache);
+		imageFile.delete();
+		cacheFile.delete();
+		super.tearDown();
+	}
+
+	public void testCacheHit() throws IOException {
+		ImageDataCache.setDefault(new ImageDataCache(cacheFile));
+		ImageDescriptor descriptor = ImageDescriptor.createFromURL(imageFile.toURI().toURL());
+		assertEquals(4, descriptor.getImageData(100).width);
+
+		// same version of the image, which is not read again
+		long lastModified = imageFile.lastModified();
+		Files.write(imageFile.toPath(), new byte[(int) imageFile.length()]);
+		imageFile.setLastModified(lastModified);
+
+		ImageData imageData = descriptor.getImageData(100);
+		assertNotNull("cached image data is not used", imageData);
+		assertEquals(4, imageData.width);
+	}
+
+	public void testStaleStamp() throws IOException {
+		ImageDataCache.setDefault(new ImageDataCache(cacheFile));
+		ImageDescriptor descriptor = ImageDescriptor.createFromURL(imageFile.toURI().toURL());
+		assertEquals(4, descriptor.getImageData(100).width);
+
+		long lastModified = imageFile.lastModified();
+		writeImage(imageFile, 6, 5);
+		imageFile.setLastModified(lastModified + 10000);
+
+		assertEquals("image data of an outdated image is used", 6, descriptor.getImageData(100).width);
+	}
+
+	public void testPrefetch() throws Exception {
+		ImageDescriptor descriptor = ImageDescriptor.createFromURL(imageFile.toURI().toURL());
+		JFaceResources.getResources().prefetchImages(Collections.singleton(descriptor)).get();
+		imageFile.delete();
+
+		ImageData imageData = descriptor.getImageData(100);
+		assertNotNull("prefetched image data is not used", imageData);
+		assertEquals(4, imageData.width);
+		assertNull("prefetched image data is used twice", descriptor.getImageData(100));
+	}
+
+	/**
+	 * Creates a temporary PNG file with an image of the given size.
+	 */
+	static File createImageFile(int width, int height) throws IOException {
+		File file = File.createTempFile("image", ".png");
+		writeImage(file, width, height);
+		return file;
+	}
+
+	private static void writeImage(File file, int width, int height) {
+		ImageLoader loader = new ImageLoader();
+		loader.data = new ImageData[] { new ImageData(width, height, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF)) };
+		loader.save(file.getPath(), SWT.IMAGE_PNG);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -72,6 +72,30 @@ public abstract class AbstractTreeViewerTest extends StructuredItemViewerTest {
         assertEqualsArray("old and new expand state are the same", list1, list2);
     }
 
+    public void testAddManyWithSorter() {
+        fViewer.setComparator(new TestLabelComparator());
+        int initialCount = getItemCount();
+        TestElement[] elements = new TestElement[300];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = fRootElement.basicAddChild();
+            elements[i].setLabel("name-" + (i * 7 % 500));
+        }
+        fTreeViewer.add(fRootElement, elements);
+        assertEquals("all elements added", initialCount + elements.length, getItemCount());
+
+        // adding the elements again must not create new items
+        fTreeViewer.add(fRootElement, fRootElement.getChildren());
+        assertEquals("existing elements not added twice", initialCount + elements.length, getItemCount());
+
+        for (int i = 1; i < getItemCount(); i++) {
+            String previous = getItemText(i - 1);
+            String current = getItemText(i);
+            String previousLabel = previous.substring(previous.lastIndexOf(' ') + 1);
+            String currentLabel = current.substring(current.lastIndexOf(' ') + 1);
+            assertTrue("items sorted", previousLabel.compareTo(currentLabel) >= 0);
+        }
+    }
+
     public void testDeleteChildExpanded() {
         TestElement first = fRootElement.getFirstChild();
         TestElement first2 = first.getFirstChild();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2017 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -505,6 +505,40 @@ public class LazySortedCollectionTest extends TestCase {
         assertContentsValid();
     }
 
+    /**
+     * Ensure that sorted ranges of a large collection are the same in parallel mode
+     *
+     * @since 3.15
+     */
+    public void testParallelGetRange() {
+        String[] large = new String[50000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = Integer.toString((i * 7919) % 10007) + "_" + i;
+        }
+        String[] sorted = large.clone();
+        Arrays.sort(sorted);
+
+        LazySortedCollection parallelCollection = new LazySortedCollection(new TestComparator());
+        parallelCollection.addAll(large);
+        parallelCollection.setParallel(true);
+        assertTrue(parallelCollection.isParallel());
+
+        int[][] ranges = {{0, 40}, {100, 40}, {25000, 1000}, {large.length - 10, 40}, {0, large.length}};
+        for (int[] range : ranges) {
+            Object[] result = new Object[range[1]];
+            int count = parallelCollection.getRange(result, range[0], true);
+            int expectedCount = Math.min(range[1], large.length - range[0]);
+            assertEquals(expectedCount, count);
+            for (int i = 0; i < count; i++) {
+                assertEquals(sorted[range[0] + i], result[i]);
+            }
+        }
+
+        Object[] first = new Object[10];
+        parallelCollection.getFirst(first, true);
+        assertEquals(Arrays.asList(sorted).subList(0, 10), Arrays.asList(first));
+    }
+
     //
 //
 //    public static void testAdditions() {
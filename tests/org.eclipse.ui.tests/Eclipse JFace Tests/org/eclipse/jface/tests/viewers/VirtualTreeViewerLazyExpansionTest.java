@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.TreeItem;
+
+/**
+ * Tests TreeViewer's VIRTUAL support with a normal content provider and lazy
+ * expansion enabled.
+ */
+public class VirtualTreeViewerLazyExpansionTest extends VirtualTreeViewerTest {
+
+	public VirtualTreeViewerLazyExpansionTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		StructuredViewer viewer = super.createViewer(parent);
+		fTreeViewer.setLazyExpansion(true);
+		return viewer;
+	}
+
+	public void testExpandAllCreatesItemsOnDemand() {
+		fTreeViewer.expandAll();
+
+		TreeItem lastRootItem = fTreeViewer.getTree().getItem(fRootElement.getChildCount() - 1);
+		TestElement last = fRootElement.getLastChild();
+		assertTrue("last root item is expanded", lastRootItem.getExpanded());
+		assertEquals("children of the last root item are counted", last.getChildCount(),
+				lastRootItem.getItemCount());
+		assertNull("off-screen child is not created",
+				lastRootItem.getItem(last.getChildCount() - 1).getData());
+
+		TestElement lastChild = last.getLastChild();
+		assertNotNull("off-screen child is found", fViewer.testFindItem(lastChild));
+		assertTrue("off-screen child is expanded", fTreeViewer.getExpandedState(lastChild));
+		assertEquals("all elements with children are expanded", countParents(fRootElement) - 1,
+				fTreeViewer.getExpandedElements().length);
+	}
+
+	public void testRemoveOffScreenChild() {
+		fTreeViewer.expandAll();
+
+		TreeItem lastRootItem = fTreeViewer.getTree().getItem(fRootElement.getChildCount() - 1);
+		TestElement last = fRootElement.getLastChild();
+		TestElement removed = last.getChildAt(1);
+		int count = last.getChildCount();
+		last.deleteChild(removed);
+
+		assertEquals("removed child is still counted", count - 1, lastRootItem.getItemCount());
+		assertNull("removed child is found", fViewer.testFindItem(removed));
+		for (int i = 0; i < last.getChildCount(); i++) {
+			assertNotNull("remaining child is not found", fViewer.testFindItem(last.getChildAt(i)));
+			assertEquals("wrong child at " + i, last.getChildAt(i), lastRootItem.getItem(i).getData());
+		}
+	}
+
+	public void testRefreshKeepsOffScreenChildrenPending() {
+		fTreeViewer.expandAll();
+		fTreeViewer.refresh();
+
+		TreeItem lastRootItem = fTreeViewer.getTree().getItem(fRootElement.getChildCount() - 1);
+		TestElement last = fRootElement.getLastChild();
+		assertEquals("children of the last root item are counted", last.getChildCount(),
+				lastRootItem.getItemCount());
+		assertNull("off-screen child is created by the refresh",
+				lastRootItem.getItem(last.getChildCount() - 1).getData());
+	}
+
+	private int countParents(TestElement element) {
+		if (element.getChildCount() == 0) {
+			return 0;
+		}
+		int count = 1;
+		for (TestElement child : element.getChildren()) {
+			count += countParents(child);
+		}
+		return count;
+	}
+}
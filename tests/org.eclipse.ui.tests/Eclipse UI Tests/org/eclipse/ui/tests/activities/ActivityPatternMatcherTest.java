@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.activities;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.ui.internal.activities.ActivityPatternBinding;
+import org.eclipse.ui.internal.activities.ActivityPatternMatcher;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that {@link ActivityPatternMatcher} finds the same activities as
+ * matching each pattern binding.
+ */
+public class ActivityPatternMatcherTest extends TestCase {
+
+	private static final String[] IDENTIFIERS = { "org.eclipse.jdt.ui/org.eclipse.jdt.ui.JavaPerspective",
+			"org.eclipse.jdt.debug.ui/org.eclipse.jdt.debug.ui.launchShortcut",
+			"org.eclipse.pde.ui/org.eclipse.pde.ui.manifestEditor", "org.eclipse.team.cvs.ui/view",
+			"org.eclipse.ui.ide/org.eclipse.ui.navigator", "org.eclipse.ui.ide/exact.id", "com.example/x",
+			"ab", "b", "", "org.eclipse.ui.ide/EXACT.ID" };
+
+	private Map<String, Set<ActivityPatternBinding>> bindingsByActivityId;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		bindingsByActivityId = new HashMap<>();
+		addBinding("java", "org\\.eclipse\\.jdt\\..*/.*", false);
+		addBinding("java", "org\\.eclipse\\.jdt\\.debug\\.ui/.*", false);
+		addBinding("pde", "org\\.eclipse\\.pde\\.ui/.*", false);
+		addBinding("team", "org\\.eclipse\\.team\\.(cvs|svn)\\.ui/.*", false);
+		addBinding("team", "(?i)ORG\\.ECLIPSE\\.TEAM\\.CVS\\.UI/VIEW", false);
+		addBinding("any", ".*/x", false);
+		addBinding("optional", "ab?", false);
+		addBinding("optional", "a*b", false);
+		addBinding("exact", "org.eclipse.ui.ide/exact.id", true);
+		addBinding("ide", "org.eclipse.ui.ide/.*", false);
+	}
+
+	private void addBinding(String activityId, String pattern, boolean isEqualityPattern) {
+		Set<ActivityPatternBinding> bindings = bindingsByActivityId.get(activityId);
+		if (bindings == null) {
+			bindings = new HashSet<>();
+			bindingsByActivityId.put(activityId, bindings);
+		}
+		bindings.add(new ActivityPatternBinding(activityId, pattern, isEqualityPattern));
+	}
+
+	public void testGetActivityIds() {
+		ActivityPatternMatcher matcher = new ActivityPatternMatcher(bindingsByActivityId);
+		for (String identifier : IDENTIFIERS) {
+			Set<String> expected = new HashSet<>();
+			for (Map.Entry<String, Set<ActivityPatternBinding>> entry : bindingsByActivityId.entrySet()) {
+				for (ActivityPatternBinding binding : entry.getValue()) {
+					if (binding.isMatch(identifier)) {
+						expected.add(entry.getKey());
+					}
+				}
+			}
+			assertEquals(identifier, expected, matcher.getActivityIds(identifier));
+			// cached
+			assertSame(identifier, matcher.getActivityIds(identifier), matcher.getActivityIds(identifier));
+		}
+		assertEquals(new HashSet<>(Arrays.asList("java")),
+				matcher.getActivityIds("org.eclipse.jdt.debug.ui/org.eclipse.jdt.debug.ui.launchShortcut"));
+	}
+
+	public void testNoBindings() {
+		ActivityPatternMatcher matcher = new ActivityPatternMatcher(Collections.EMPTY_MAP);
+		assertTrue(matcher.getActivityIds("org.eclipse.jdt.ui/org.eclipse.jdt.ui.JavaPerspective").isEmpty());
+	}
+
+	public void testGetLiteralPrefix() {
+		assertEquals("org.eclipse.jdt.", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("org\\.eclipse\\.jdt\\..*")));
+		assertEquals("org", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("org.*")));
+		assertEquals("a", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("ab?")));
+		assertEquals("ab", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("ab+c")));
+		assertEquals("", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("a*b")));
+		assertEquals("", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("a{2}")));
+		assertEquals("", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("abc|abd")));
+		assertEquals("", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("(?i)abc")));
+		assertEquals("", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("abc", Pattern.CASE_INSENSITIVE)));
+		assertEquals("", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("\\Qa.b\\E")));
+		assertEquals("x/", ActivityPatternMatcher.getLiteralPrefix(Pattern.compile("x/\\w+")));
+	}
+}
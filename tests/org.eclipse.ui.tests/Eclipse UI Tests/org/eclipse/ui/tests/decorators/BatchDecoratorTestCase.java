@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.decorators;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.decorators.DecoratorManager;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests that an IBatchLightweightLabelDecorator is handed the queued elements
+ * in batches.
+ */
+public class BatchDecoratorTestCase extends UITestCase {
+
+	private static final int ELEMENT_COUNT = 50;
+
+	public BatchDecoratorTestCase(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		PlatformUI.getWorkbench().getDecoratorManager().setEnabled(TestBatchDecoratorContributor.ID, true);
+		TestBatchDecoratorContributor.reset();
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		PlatformUI.getWorkbench().getDecoratorManager().setEnabled(TestBatchDecoratorContributor.ID, false);
+		super.doTearDown();
+	}
+
+	public void testBatchDecoration() throws Exception {
+		DecoratorManager manager = WorkbenchPlugin.getDefault().getDecoratorManager();
+		TreeElement root = new TreeElement(null, 0);
+		for (int i = 0; i < ELEMENT_COUNT; i++) {
+			TreeElement element = new TreeElement(root, i);
+			manager.decorateText(element.name, element);
+		}
+		Job.getJobManager().join(DecoratorManager.FAMILY_DECORATE, null);
+
+		assertEquals("Elements decorated one at a time", 0, TestBatchDecoratorContributor.singleCount);
+		assertEquals("Elements decorated in batches", ELEMENT_COUNT,
+				TestBatchDecoratorContributor.batchElementCount);
+		assertTrue("No batch call", TestBatchDecoratorContributor.batchCount > 0);
+	}
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.decorators;
+
+import org.eclipse.jface.viewers.DecorationContext;
+import org.eclipse.jface.viewers.IDecorationContext;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.internal.decorators.DecorationResult;
+import org.eclipse.ui.internal.decorators.DecorationResultCache;
+import org.eclipse.ui.internal.decorators.DecorationStatistics;
+import org.eclipse.ui.internal.decorators.DecoratorManager;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests for the bounded cache of decoration results.
+ */
+public class DecorationResultCacheTest extends UITestCase {
+
+	private IDecorationContext context = DecorationContext.DEFAULT_CONTEXT;
+
+	public DecorationResultCacheTest(String testName) {
+		super(testName);
+	}
+
+	private DecoratorManager getDecoratorManager() {
+		return (DecoratorManager) PlatformUI.getWorkbench().getDecoratorManager();
+	}
+
+	private DecorationResult createResult() {
+		// there are no decorators for plain objects, the result has weight 1
+		return getDecoratorManager().getLightweightManager().getDecorationResult(new Object());
+	}
+
+	public void testLeastRecentlyUsedIsEvicted() {
+		DecorationResultCache cache = new DecorationResultCache(2, Long.MAX_VALUE);
+		cache.put("one", context, createResult());
+		cache.put("two", context, createResult());
+		assertNotNull(cache.get("one", context));
+		cache.put("three", context, createResult());
+
+		assertEquals(2, cache.size());
+		assertTrue(cache.contains("one", context));
+		assertFalse(cache.contains("two", context));
+		assertTrue(cache.contains("three", context));
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	public void testWeightIsBounded() {
+		DecorationResultCache cache = new DecorationResultCache(Integer.MAX_VALUE, 3);
+		for (int i = 0; i < 5; i++) {
+			cache.put("element" + i, context, createResult());
+		}
+		assertEquals(3, cache.size());
+		assertEquals(3, cache.getWeight());
+		assertEquals(2, cache.getEvictionCount());
+		assertTrue(cache.contains("element4", context));
+	}
+
+	public void testResultsArePerContext() {
+		DecorationResultCache cache = new DecorationResultCache();
+		DecorationContext otherContext = new DecorationContext();
+		DecorationResult result = createResult();
+		cache.put("element", context, result);
+
+		assertSame(result, cache.get("element", context));
+		assertNull(cache.get("element", otherContext));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		cache.put("element", context, createResult());
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getWeight());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	public void testStatistics() {
+		DecorationStatistics statistics = getDecoratorManager().getDecorationStatistics();
+		assertNotNull(statistics);
+		assertTrue(statistics.getQueueDepth() >= 0);
+		assertTrue(statistics.getCacheSize() >= 0);
+		assertNotNull(statistics.getDecoratorStatistics());
+	}
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.decorators;
+
+import org.eclipse.jface.viewers.IBatchLightweightLabelDecorator;
+import org.eclipse.jface.viewers.IDecoration;
+
+/**
+ * A lightweight decorator that counts how its elements are decorated.
+ */
+public class TestBatchDecoratorContributor extends TestLightweightDecoratorContributor
+		implements IBatchLightweightLabelDecorator {
+
+	public static final String ID = "org.eclipse.ui.tests.decorators.batchDecorator";
+
+	public static final String SUFFIX = "_BATCH";
+
+	static int singleCount;
+
+	static int batchCount;
+
+	static int batchElementCount;
+
+	static synchronized void reset() {
+		singleCount = 0;
+		batchCount = 0;
+		batchElementCount = 0;
+	}
+
+	@Override
+	public void decorate(Object element, IDecoration decoration) {
+		synchronized (TestBatchDecoratorContributor.class) {
+			singleCount++;
+		}
+		decoration.addSuffix(SUFFIX);
+	}
+
+	@Override
+	public void decorate(Object[] elements, IDecoration[] decorations) {
+		synchronized (TestBatchDecoratorContributor.class) {
+			batchCount++;
+			batchElementCount += elements.length;
+		}
+		for (IDecoration decoration : decorations) {
+			decoration.addSuffix(SUFFIX);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,7 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TreeItem;
 import org.eclipse.ui.dialogs.FilteredTree;
 import org.eclipse.ui.dialogs.PatternFilter;
 import org.eclipse.ui.tests.harness.util.UITestCase;
@@ -33,6 +34,7 @@ public class FilteredTreeTests extends UITestCase {
 	// create an 8000-item Tree
 	private static int DEPTH = 3;
 	private static int NUM_ITEMS = 20;
+	private static final int DEFAULT_STYLE = SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL | SWT.BORDER;
 
 	private class MyFilteredTree extends FilteredTree{
 		public MyFilteredTree(Composite comp, int style) {
@@ -125,6 +127,60 @@ public class FilteredTreeTests extends UITestCase {
 		dialog.close();
 	}
 
+	public void testTypePattern() {
+		runTypePatternTest(false);
+	}
+
+	public void testTypePatternInBackground() {
+		runTypePatternTest(true);
+	}
+
+	public void testTypePatternKeepsOrder() {
+		runTypePatternKeepsOrderTest(false);
+	}
+
+	public void testTypePatternKeepsOrderInBackground() {
+		runTypePatternKeepsOrderTest(true);
+	}
+
+	private void runTypePatternTest(boolean matchInBackground) {
+		Dialog dialog = createFilteredTreeDialog(DEFAULT_STYLE, matchInBackground);
+
+		typePattern("0-0-0-0 name-*");
+		assertNumberOfTopLevelItems(1);
+		assertEquals("0-0", ((TestElement) fTreeViewer.getViewer().getTree().getItem(0).getData()).getID());
+
+		// only the top level items whose visibility changed are replaced
+		typePattern("0-1-0-0 name-*");
+		assertNumberOfTopLevelItems(1);
+		assertEquals("0-1", ((TestElement) fTreeViewer.getViewer().getTree().getItem(0).getData()).getID());
+
+		typePattern("0-1-0-0 name unknownWord");
+		assertNumberOfTopLevelItems(0);
+
+		typePattern("");
+		assertNumberOfTopLevelItems(NUM_ITEMS);
+
+		dialog.close();
+	}
+
+	private void runTypePatternKeepsOrderTest(boolean matchInBackground) {
+		Dialog dialog = createFilteredTreeDialog(DEFAULT_STYLE, matchInBackground);
+
+		typePattern("0-1-0-0 name-*");
+		assertNumberOfTopLevelItems(1);
+
+		// the other top level items are visible again, in the order of the content provider
+		typePattern("name");
+		assertNumberOfTopLevelItems(NUM_ITEMS);
+		TreeItem[] items = fTreeViewer.getViewer().getTree().getItems();
+		for (int i = 0; i < items.length; i++) {
+			assertEquals("0-" + i, ((TestElement) items[i].getData()).getID());
+		}
+
+		dialog.close();
+	}
+
 	private void runFilteredTreeTest(final int treeStyle){
 		Dialog dialog = createFilteredTreeDialog(treeStyle);
 
@@ -135,16 +191,20 @@ public class FilteredTreeTests extends UITestCase {
 	}
 
 	private Dialog createFilteredTreeDialog() {
-		return createFilteredTreeDialog(SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL | SWT.BORDER);
+		return createFilteredTreeDialog(DEFAULT_STYLE);
 	}
 
 	private Dialog createFilteredTreeDialog(final int treeStyle) {
+		return createFilteredTreeDialog(treeStyle, false);
+	}
+
+	private Dialog createFilteredTreeDialog(final int treeStyle, final boolean matchInBackground) {
 		fRootElement = TestElement.createModel(DEPTH, NUM_ITEMS);
 
 		Dialog dialog = new FilteredTreeDialog((Shell)null, treeStyle){
 			@Override
 			protected FilteredTree doCreateFilteredTree(Composite comp, int style) {
-				return createFilteredTree(comp, treeStyle);
+				return createFilteredTree(comp, treeStyle, matchInBackground);
 			}
 		};
 
@@ -152,10 +212,12 @@ public class FilteredTreeTests extends UITestCase {
 		return dialog;
 	}
 
-	private FilteredTree createFilteredTree(Composite parent, int style){
+	private FilteredTree createFilteredTree(Composite parent, int style, boolean matchInBackground){
 	      Composite c = new Composite(parent, SWT.NONE);
 	      c.setLayout(new GridLayout());
-	      FilteredTree fTree = new FilteredTree(c, style, new PatternFilter());
+	      PatternFilter patternFilter = new PatternFilter();
+	      patternFilter.setMatchInBackground(matchInBackground);
+	      FilteredTree fTree = new FilteredTree(c, style, patternFilter);
 
 	      GridData gd = new GridData(SWT.FILL, SWT.FILL, true, true);
 		  gd.widthHint = 400;
@@ -191,6 +253,15 @@ public class FilteredTreeTests extends UITestCase {
 		fTreeViewer.getViewer().refresh();
 	}
 
+	private void typePattern(String pattern) {
+		fTreeViewer.getFilterControl().setText(pattern);
+		// the tree is refreshed in a job, after it is matched in another one
+		// when matching in the background
+		waitForJobs(500, 5000);
+		processEvents();
+		waitForJobs(100, 5000);
+	}
+
 	private void setInput() {
 		fTreeViewer.getViewer().setInput(fRootElement);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.ui.tests.markers;
 import java.util.Arrays;
 import java.util.Comparator;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.ui.internal.views.markers.MarkerSortUtil;
 import org.eclipse.ui.internal.views.markers.MockMarkerEntry;
 import org.eclipse.ui.tests.harness.util.UITestCase;
@@ -45,6 +46,38 @@ public class MarkerSortUtilTest extends UITestCase {
 	public void testCompleteSort() {
 		sortToLimit(ARRAYSIZE,ARRAYSIZE);
 	}
+
+	public void testParallelPartialSort() {
+		parallelSortToLimit(ARRAYSIZE, ARRAYSIZE / 2);
+	}
+
+	public void testParallelCompleteSort() {
+		parallelSortToLimit(ARRAYSIZE, ARRAYSIZE);
+	}
+
+	public void testParallelSortSubRange() {
+		MockMarkerEntry[] fArray1 = generateArray(ARRAYSIZE);
+		MockMarkerEntry[] fArray2 = fArray1.clone();
+		Comparator<MarkerItem> comparator = (o1, o2) -> ((MockMarkerEntry) o1).name
+				.compareTo(((MockMarkerEntry) o2).name);
+		int from = 1000;
+		int to = ARRAYSIZE - 1000;
+		int limit = 100;
+		MarkerSortUtil.parallelSortStartingKElement(fArray1, comparator, from, to, limit, new NullProgressMonitor());
+		Arrays.sort(fArray2, from, to + 1, comparator);
+
+		for (int i = 0; i < ARRAYSIZE; i++) {
+			if (i < from || i > to) {
+				assertSame("Entry outside of the sorted range moved", fArray2[i], fArray1[i]);
+			} else if (i < from + limit) {
+				assertEquals("Incorrect sorting by MarkerSortUtil.parallelSortStartingKElement(...)", fArray2[i],
+						fArray1[i]);
+			} else {
+				assertTrue(comparator.compare(fArray1[from + limit - 1], fArray1[i]) <= 0);
+			}
+		}
+	}
+
 	/**
 	 *
 	 */
@@ -64,6 +97,22 @@ public class MarkerSortUtilTest extends UITestCase {
 	}
 
 
+	private void parallelSortToLimit(int arraySize, int limit) {
+		MockMarkerEntry[] fArray1 = generateArray(arraySize);
+		MockMarkerEntry[] fArray2 = fArray1.clone();
+		Comparator<MarkerItem> comparator = (o1, o2) -> ((MockMarkerEntry) o1).name
+				.compareTo(((MockMarkerEntry) o2).name);
+		MarkerSortUtil.parallelSortStartingKElement(fArray1, comparator, 0, fArray1.length - 1, limit,
+				new NullProgressMonitor());
+		Arrays.sort(fArray2, comparator);
+
+		for (int i = 0; i < limit; i++) {
+			if (!fArray1[i].equals(fArray2[i])) {
+				fail("Incorrect sorting by MarkerSortUtil.parallelSortStartingKElement(...)");
+			}
+		}
+	}
+
 	/**
 	 * Generate a large sized array for sorting
 	 */
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.quickaccess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.ui.internal.quickaccess.QuickAccessElement;
+import org.eclipse.ui.internal.quickaccess.QuickAccessEntry;
+import org.eclipse.ui.internal.quickaccess.QuickAccessMatcher;
+import org.eclipse.ui.internal.quickaccess.QuickAccessProvider;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests that the background matching of quick access, which reuses the matches
+ * of the previous filter, finds the same elements as matching all the elements.
+ */
+public class QuickAccessMatcherTest extends UITestCase {
+
+	private static final String[] LABELS = { "Open Type", "Open Type Hierarchy", "Open Resource",
+			"Open Perspective", "Toggle Breakpoint", "Run As", "Run Configurations", "Show View",
+			"Show In", "Problems", "Project Explorer", "Properties", "Preferences", "Text Editors",
+			"Type Hierarchy", "Outline", "Console", "Search", "Open Call Hierarchy", "Organize Imports" };
+
+	private TestProvider provider;
+	private QuickAccessMatcher matcher;
+
+	public QuickAccessMatcherTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		provider = new TestProvider();
+		matcher = new QuickAccessMatcher(new QuickAccessProvider[] { provider }, getWorkbench().getDisplay(),
+				() -> {
+				});
+		assertTrue("test provider is not matched in the background", matcher.isBackground(0));
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		matcher.cancel();
+		super.doTearDown();
+	}
+
+	public void testExtendingFilter() {
+		assertMatches("o");
+		assertMatches("op");
+		assertMatches("ope");
+		assertMatches("open");
+		assertMatches("opent");
+		assertMatches("open t");
+		assertMatches("open ty");
+	}
+
+	public void testShorteningFilter() {
+		assertMatches("hierarchy");
+		assertMatches("hierarc");
+		assertMatches("hier");
+		assertMatches("hi");
+		assertMatches("h");
+	}
+
+	public void testChangingFilter() {
+		assertMatches("pr");
+		assertMatches("pro");
+		assertMatches("prx");
+		assertMatches("pro");
+		assertMatches("p*s");
+		assertMatches("pe");
+		assertMatches("ot");
+		assertMatches("oth");
+		assertMatches("test");
+	}
+
+	/**
+	 * Asserts that the matcher finds the same elements, in the same order, as
+	 * matching each element of the provider with the filter.
+	 */
+	private void assertMatches(String filter) {
+		List<QuickAccessElement> expected = new ArrayList<>();
+		for (QuickAccessElement element : provider.getElementsSorted()) {
+			if (element.match(filter, provider) != null) {
+				expected.add(element);
+			}
+		}
+		processEventsUntil(() -> matcher.getMatches(0, filter) != null, 5000);
+		List<QuickAccessEntry> matches = matcher.getMatches(0, filter);
+		assertNotNull("no matches published for '" + filter + "'", matches);
+		List<QuickAccessElement> actual = new ArrayList<>();
+		for (QuickAccessEntry entry : matches) {
+			actual.add(entry.getElement());
+		}
+		assertEquals("wrong matches for '" + filter + "'", expected, actual);
+	}
+
+	private static class TestProvider extends QuickAccessProvider {
+
+		@Override
+		public String getId() {
+			return "org.eclipse.ui.tests.quickaccess.matcher";
+		}
+
+		@Override
+		public String getName() {
+			return "Test";
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public QuickAccessElement[] getElements() {
+			QuickAccessElement[] elements = new QuickAccessElement[LABELS.length];
+			for (int i = 0; i < LABELS.length; i++) {
+				elements[i] = new TestElement(this, LABELS[i]);
+			}
+			return elements;
+		}
+
+		@Override
+		public QuickAccessElement getElementForId(String id) {
+			return null;
+		}
+
+		@Override
+		protected void doReset() {
+		}
+	}
+
+	private static class TestElement extends QuickAccessElement {
+
+		private final String label;
+
+		TestElement(QuickAccessProvider provider, String label) {
+			super(provider);
+			this.label = label;
+		}
+
+		@Override
+		public String getLabel() {
+			return label;
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public String getId() {
+			return label;
+		}
+
+		@Override
+		public void execute() {
+		}
+	}
+}